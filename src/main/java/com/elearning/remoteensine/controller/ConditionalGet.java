@@ -0,0 +1,73 @@
+package com.elearning.remoteensine.controller;
+
+import com.elearning.remoteensine.service.PageValidator;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.ui.Model;
+import org.springframework.web.context.request.NativeWebRequest;
+
+/**
+ * GET condicional das páginas de curso: com os validadores em mãos, o handler responde
+ * 304 (retornando null) antes de carregar qualquer coisa ou renderizar o template.
+ */
+final class ConditionalGet {
+
+  private static final String CACHE_CONTROL = "Cache-Control";
+  private static final String SET_COOKIE = "Set-Cookie";
+
+  private ConditionalGet() {
+  }
+
+  /**
+   * Confere If-None-Match (e If-Modified-Since, na página de visitante); quando a página é
+   * nova, grava os validadores para a próxima requisição.
+   * Mensagens de redirect (atributos flash) só aparecem uma vez, então uma página com elas
+   * nunca é validada nem guardada.
+   *
+   * @param model     Model do handler, que já traz os atributos flash.
+   * @param validator Validadores da página, ou null se ela não deve ser validada.
+   * @return true se o cliente já tem a versão atual e o 304 foi preparado.
+   */
+  static boolean notModified(NativeWebRequest webRequest, Model model, PageValidator validator) {
+    if (validator == null || !model.asMap().isEmpty()) {
+      doNotStore(webRequest);
+      return false;
+    }
+    HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+    boolean shared = validator.isShared() && !startsSession(webRequest, response);
+    if (response != null) {
+      // Sempre revalidada. A página de visitante pode ficar num proxy e servir a todos;
+      // a de um usuário logado fica só no navegador dele.
+      response.setHeader(CACHE_CONTROL, shared ? "public, no-cache" : "private, no-cache");
+    }
+    if (shared && validator.getLastModified() >= 0) {
+      return webRequest.checkNotModified(validator.getEtag(), validator.getLastModified());
+    }
+    return webRequest.checkNotModified(validator.getEtag());
+  }
+
+  /**
+   * Uma resposta que cria a sessão leva o cookie dela (Set-Cookie), e um proxy que a
+   * guardasse entregaria a mesma sessão a todos os visitantes. Os handlers das páginas
+   * validadas leem a sessão com {@code getSession(false)} e não a criam.
+   */
+  private static boolean startsSession(NativeWebRequest webRequest, HttpServletResponse response) {
+    if (response != null && response.containsHeader(SET_COOKIE)) {
+      return true;
+    }
+    HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+    HttpSession session = request != null ? request.getSession(false) : null;
+    return session != null && session.isNew();
+  }
+
+  /**
+   * Impede que uma página de erro fique guardada com os validadores já enviados.
+   */
+  static void doNotStore(NativeWebRequest webRequest) {
+    HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+    if (response != null) {
+      response.setHeader(CACHE_CONTROL, "no-store");
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package com.elearning.remoteensine.controller;
 
+import com.elearning.remoteensine.dao.BatchResult;
+import com.elearning.remoteensine.dao.KeysetPage;
 import com.elearning.remoteensine.model.*;
 import com.elearning.remoteensine.model.enums.ExerciseType;
 import com.elearning.remoteensine.model.enums.UserType;
@@ -9,15 +11,21 @@ import java.util.ArrayList;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -40,6 +48,9 @@ public class CourseController {
   private final ExamDefinitionService examDefinitionService;
   private final StudentsExerciseAnswerService studentsAnswerService;
   private final ExamQuestionService examQuestionService;
+  private final CourseDetailsService courseDetailsService;
+  private final PageValidatorService pageValidatorService;
+  private final ExamService examService;
 
   public CourseController(CourseService courseService, UserService userService,
                           EnrollService enrollService, CommentService commentService,
@@ -47,7 +58,10 @@ public class CourseController {
                           DoubtService doubtService, ExerciseService exerciseService,
                           ExamDefinitionService examDefinitionService,
                           StudentsExerciseAnswerService studentsAnswerService,
-                          ExamQuestionService examQuestionService) {
+                          ExamQuestionService examQuestionService,
+                          CourseDetailsService courseDetailsService,
+                          PageValidatorService pageValidatorService,
+                          ExamService examService) {
     this.courseService = courseService;
     this.userService = userService;
     this.enrollService = enrollService;
@@ -59,14 +73,30 @@ public class CourseController {
     this.examDefinitionService = examDefinitionService;
     this.studentsAnswerService = studentsAnswerService;
     this.examQuestionService = examQuestionService;
+    this.courseDetailsService = courseDetailsService;
+    this.pageValidatorService = pageValidatorService;
+    this.examService = examService;
   }
 
   @GetMapping
-  public String listarTodosCursos(Model model, HttpSession session) {
-    List<Course> listaDeCursosReais = null;
+  public String listarTodosCursos(@RequestParam(value = "apos", required = false) String apos,
+                                  Model model, HttpServletRequest request, NativeWebRequest webRequest) {
+    User usuarioLogado = usuarioLogado(request);
+    PageValidator validador = null;
     try {
-      listaDeCursosReais = courseService.listAllCoursesWithProfessors();
-      User usuarioLogado = (User) session.getAttribute("usuarioLogado");
+      validador = pageValidatorService.catalogPage(apos, usuarioLogado);
+    } catch (SQLException e) {
+      System.err.println("Erro ao calcular a versão do catálogo: " + e.getMessage());
+    }
+    if (ConditionalGet.notModified(webRequest, model, validador)) {
+      return null;
+    }
+
+    List<CourseSummary> listaDeCursosReais = null;
+    try {
+      KeysetPage<CourseSummary> paginaCursos = courseService.listCatalogPage(apos, KeysetPage.DEFAULT_SIZE);
+      listaDeCursosReais = paginaCursos.getItems();
+      model.addAttribute("proximaPaginaCursos", paginaCursos.getNextCursor());
       if (usuarioLogado != null) {
         model.addAttribute("usuarioLogado", usuarioLogado);
         model.addAttribute("isProfessor", usuarioLogado.getUserType() == UserType.PROFESSOR);
@@ -77,8 +107,9 @@ public class CourseController {
       if (listaDeCursosReais != null) {
         model.addAttribute("listaDeCursos", listaDeCursosReais);
       } else {
-        model.addAttribute("listaDeCursos", new ArrayList<Course>());
+        model.addAttribute("listaDeCursos", new ArrayList<CourseSummary>());
       }
+      model.addAttribute("avaliacoesCursos", carregarAvaliacoes(listaDeCursosReais, webRequest));
       if (usuarioLogado != null) {
         model.addAttribute("usuarioLogado", usuarioLogado);
         if (usuarioLogado.getUserType() == UserType.STUDENT) {
@@ -94,16 +125,49 @@ public class CourseController {
         }
       }
     } catch (SQLException e) {
+      ConditionalGet.doNotStore(webRequest);
       model.addAttribute("erro_cursos", "Não foi possível carregar a lista de cursos.");
-      model.addAttribute("listaDeCursos", new ArrayList<Course>());
+      model.addAttribute("listaDeCursos", new ArrayList<CourseSummary>());
     } catch (Exception e) {
       e.printStackTrace();
+      ConditionalGet.doNotStore(webRequest);
       model.addAttribute("erro_geral_cursos", "Ocorreu um erro inesperado ao carregar os cursos.");
-      model.addAttribute("listaDeCursos", new ArrayList<Course>());
+      model.addAttribute("listaDeCursos", new ArrayList<CourseSummary>());
     }
     return "cursos";
   }
 
+  /**
+   * Usuário logado, sem criar a sessão: as páginas que um visitante abre não podem
+   * responder com o cookie de uma sessão nova.
+   */
+  private static User usuarioLogado(HttpServletRequest request) {
+    HttpSession session = request.getSession(false);
+    return session != null ? (User) session.getAttribute("usuarioLogado") : null;
+  }
+
+  /**
+   * Médias e distribuição das notas dos cursos da página, lidas da foto dos agregados em
+   * memória, que só vai ao banco depois de uma nota mudar. Sem elas o catálogo ainda é
+   * exibido, mas não fica guardado no navegador.
+   */
+  private Map<Integer, CourseRating> carregarAvaliacoes(List<CourseSummary> cursos, NativeWebRequest webRequest) {
+    if (cursos == null || cursos.isEmpty()) {
+      return Map.of();
+    }
+    List<Integer> idsCursos = new ArrayList<>(cursos.size());
+    for (CourseSummary curso : cursos) {
+      idsCursos.add(curso.getIdCourse());
+    }
+    try {
+      return examService.getCourseRatings(idsCursos);
+    } catch (SQLException e) {
+      System.err.println("Erro ao carregar as avaliações dos cursos: " + e.getMessage());
+      ConditionalGet.doNotStore(webRequest);
+      return Map.of();
+    }
+  }
+
   @GetMapping("/novo")
   public String exibirFormularioNovoCurso(Model model, HttpSession session, RedirectAttributes redirectAttributes) {
     User usuarioLogado = (User) session.getAttribute("usuarioLogado");
@@ -165,76 +229,57 @@ public class CourseController {
   }
 
   @GetMapping("/{idCurso}")
-  public String exibirDetalhesCurso(@PathVariable("idCurso") int idCurso, Model model, HttpSession session) {
+  public String exibirDetalhesCurso(@PathVariable("idCurso") int idCurso,
+                                    @RequestParam(value = "comentariosApos", required = false) String comentariosApos,
+                                    @RequestParam(value = "duvidasApos", required = false) String duvidasApos,
+                                    Model model, HttpServletRequest request, NativeWebRequest webRequest) {
 
-    User usuarioLogado = (User) session.getAttribute("usuarioLogado");
-    Course curso = null;
-    List<Comment> comentarios = new ArrayList<>();
-    List<Doubt> duvidas = new ArrayList<>();
-    List<Classroom> aulasDoCurso = new ArrayList<>();
-    List<ExamDefinition> definicoesProvaParaGerenciamento = new ArrayList<>();
-    List<ExamDefinition> provasDisponiveisParaAluno = new ArrayList<>();
-    List<GradeStudent> notasProvaPorCurso = new ArrayList<>();
-
-    boolean isAluno = false;
-    boolean isProfessor = false;
-    boolean isAlunoMatriculado = false;
-    boolean podeInteragir = false;
-    boolean podeComentar = false;
-    boolean isProfessorDono = false;
+    User usuarioLogado = usuarioLogado(request);
+    PageValidator validador = null;
+    try {
+      validador = pageValidatorService.courseDetails(idCurso, comentariosApos, duvidasApos, usuarioLogado);
+    } catch (SQLException e) {
+      System.err.println("Erro ao calcular a versão do curso " + idCurso + ": " + e.getMessage());
+    }
+    if (ConditionalGet.notModified(webRequest, model, validador)) {
+      return null;
+    }
+
+    CourseDetailsView detalhes = CourseDetailsView.notFound(false, false);
 
     try {
-      curso = courseService.searchCourseByIdComplete(idCurso);
-      if (curso == null) {
+      detalhes = courseDetailsService.loadCourseDetails(idCurso, usuarioLogado, comentariosApos, duvidasApos);
+      if (detalhes.getCourse() == null) {
         model.addAttribute("erro_geral", "Curso não encontrado.");
       } else {
-        model.addAttribute("curso", curso);
-        comentarios = commentService.listStudentsCommentsInCourse(idCurso);
-        duvidas = doubtService.listCourseDoubts(idCurso);
-        aulasDoCurso = classroomService.listCoursesClasses(idCurso);
-      }
-      if (usuarioLogado != null) {
-        if (usuarioLogado.getUserType() == UserType.PROFESSOR) {
-          model.addAttribute("isProfessor", true);
-          if (curso.getResponsibleProfessor() != null && curso.getResponsibleProfessor().getIdUser() == usuarioLogado.getIdUser()) {
-            isProfessorDono = true;
-            definicoesProvaParaGerenciamento = examDefinitionService.getExamDefinitionsForCourseManagement(idCurso, usuarioLogado.getIdUser());
-            model.addAttribute("definicoesProvaParaProfessor", definicoesProvaParaGerenciamento); // Use a chave correta que a view espera
-          }
-        } else if (usuarioLogado.getUserType() == UserType.STUDENT) {
-          isAluno = true;
-          isAlunoMatriculado = enrollService.checkEnrolledStudents(usuarioLogado.getIdUser(), idCurso);
-          podeInteragir = isAlunoMatriculado;
-          podeComentar = isAlunoMatriculado;
-          if (isAlunoMatriculado) {
-            provasDisponiveisParaAluno = examDefinitionService.listarProvasPorCursoPublicadasNaoSubmetidas(idCurso);
-            notasProvaPorCurso = examDefinitionService.listarNotasDoAlunoPorProvaECursoId(idCurso, usuarioLogado.getIdUser());
-            model.addAttribute("provasDisponiveisParaAluno", provasDisponiveisParaAluno);
-            model.addAttribute("notasProvaPorCurso", notasProvaPorCurso);
-          }
-        }
+        model.addAttribute("curso", detalhes.getCourse());
+        model.addAttribute("proximaPaginaComentarios", detalhes.getNextCommentsCursor());
+        model.addAttribute("proximaPaginaDuvidas", detalhes.getNextDoubtsCursor());
       }
     } catch (Exception e) {
 
       e.printStackTrace();
+      ConditionalGet.doNotStore(webRequest);
       model.addAttribute("erro_geral", "Erro ao carregar detalhes do curso: " + e.getMessage());
-      if (curso == null) model.addAttribute("curso", new Course());
+      model.addAttribute("curso", new Course());
     }
 
 
-    model.addAttribute("comentarios", comentarios);
-    model.addAttribute("duvidas", duvidas);
-    model.addAttribute("aulasDoCurso", aulasDoCurso);
-    model.addAttribute("definicoesProvaParaProfessor", definicoesProvaParaGerenciamento);
-    model.addAttribute("provasDisponiveisParaAluno", provasDisponiveisParaAluno);
+    model.addAttribute("comentarios", detalhes.getComments());
+    model.addAttribute("duvidas", detalhes.getDoubts());
+    model.addAttribute("aulasDoCurso", detalhes.getClasses());
+    model.addAttribute("versaoAulasDoCurso", Classroom.versionOf(detalhes.getClasses()));
+    model.addAttribute("definicoesProvaParaProfessor", detalhes.getManagedExamDefinitions());
+    model.addAttribute("provasDisponiveisParaAluno", detalhes.getAvailableExams());
+    model.addAttribute("notasProvaPorCurso", detalhes.getGrades());
 
     model.addAttribute("usuarioLogado", usuarioLogado);
-    model.addAttribute("isAluno", isAluno);
-    model.addAttribute("isProfessor", isProfessor);
-    model.addAttribute("isAlunoMatriculado", isAlunoMatriculado);
-    model.addAttribute("podeInteragir", podeInteragir);
-    model.addAttribute("podeComentar", podeComentar);
-    model.addAttribute("isProfessorDono", isProfessorDono);
+    model.addAttribute("isAluno", detalhes.isStudent());
+    model.addAttribute("isProfessor", detalhes.isProfessor());
+    model.addAttribute("isAlunoMatriculado", detalhes.isEnrolled());
+    model.addAttribute("podeInteragir", detalhes.isEnrolled());
+    model.addAttribute("podeComentar", detalhes.isEnrolled());
+    model.addAttribute("isProfessorDono", detalhes.isCourseOwner());
 
     return "detalhes-curso";
   }
@@ -296,7 +341,8 @@ public class CourseController {
   public String exibirAulasDoCurso(@PathVariable("idCurso") int idCurso,
                                    Model model,
                                    HttpSession session,
-                                   RedirectAttributes redirectAttributes) {
+                                   RedirectAttributes redirectAttributes,
+                                   NativeWebRequest webRequest) {
     User usuarioLogado = (User) session.getAttribute("usuarioLogado");
 
     if (usuarioLogado == null) {
@@ -314,6 +360,9 @@ public class CourseController {
         redirectAttributes.addFlashAttribute("erro_matricula", "Você não está matriculado neste curso para acessar as aulas.");
         return "redirect:/cursos/" + idCurso;
       }
+      if (ConditionalGet.notModified(webRequest, model, pageValidatorService.courseClasses(idCurso, usuarioLogado))) {
+        return null;
+      }
 
       Course curso = courseService.searchCourseByIdComplete(idCurso);
       if (curso == null) {
@@ -324,11 +373,14 @@ public class CourseController {
 
       List<Classroom> aulas = classroomService.listCoursesClasses(idCurso);
       model.addAttribute("aulas", aulas);
+      model.addAttribute("versaoAulas", Classroom.versionOf(aulas));
     } catch (SQLException e) {
       e.printStackTrace();
+      ConditionalGet.doNotStore(webRequest);
       model.addAttribute("erro_geral", "Erro ao carregar as aulas do curso.");
     } catch (IllegalArgumentException e) {
       e.printStackTrace();
+      ConditionalGet.doNotStore(webRequest);
       model.addAttribute("erro_geral", e.getMessage());
     }
 
@@ -353,42 +405,16 @@ public class CourseController {
         return "redirect:/cursos/" + idCurso;
       }
 
-      Course curso = courseService.searchCourseByIdComplete(idCurso);
-      Classroom aula = classroomService.searchClass(idAula);
-
-      if (curso == null || aula == null || aula.getCourseId() != idCurso) { // Use aula.getCourseId()
+      LessonPage paginaAula = studentsAnswerService.loadLessonPage(idCurso, idAula, usuarioLogado.getIdUser());
+      if (paginaAula == null) {
         redirectAttributes.addFlashAttribute("erro_geral", "Curso ou aula inválida.");
         return "redirect:/cursos";
       }
 
-      model.addAttribute("curso", curso);
-      model.addAttribute("aula", aula);
-
-      List<Exercise> exercicios = exerciseService.listClassExercise(idAula);
-      model.addAttribute("exercicios", exercicios);
-
-      java.util.Map<Integer, StudentsExerciseAnswer> respostasDoAluno = new java.util.HashMap<>();
-      if (exercicios != null) {
-        for (Exercise ex : exercicios) {
-          StudentsExerciseAnswer resposta = studentsAnswerService.getStudentAnswerForExercise(usuarioLogado.getIdUser(), ex.getExerciseId());
-          if (resposta != null) {
-            respostasDoAluno.put(ex.getExerciseId(), resposta);
-          }
-        }
-      }
-      model.addAttribute("respostasDoAluno", respostasDoAluno);
-
-      List<Classroom> todasAulasDoCurso = classroomService.listCoursesClasses(idCurso);
-      model.addAttribute("todasAulasDoCurso", todasAulasDoCurso);
-      int indiceAulaAtual = -1;
-      for (int i = 0; i < todasAulasDoCurso.size(); i++) {
-        if (todasAulasDoCurso.get(i).getClassroomId() == idAula) {
-          indiceAulaAtual = i;
-          break;
-        }
-      }
-      model.addAttribute("indiceAulaAtual", indiceAulaAtual);
-
+      model.addAttribute("curso", paginaAula.getCourse());
+      model.addAttribute("aula", paginaAula.getClassroom());
+      model.addAttribute("exercicios", paginaAula.getExercises());
+      model.addAttribute("paginaAula", paginaAula);
 
     } catch (SQLException e) {
       e.printStackTrace();
@@ -476,6 +502,50 @@ public class CourseController {
     return "redirect:/cursos/" + idCurso + "/aulas/" + idAula;
   }
 
+  /**
+   * Envio de todas as respostas da aula de uma vez: cada campo {@code resposta_<idExercicio>}
+   * preenchido vira uma resposta, e as novas são gravadas num único lote.
+   */
+  @PostMapping("/{idCurso}/aulas/{idAula}/exercicios/responder")
+  public String salvarRespostasExercicios(
+      @PathVariable("idCurso") int idCurso,
+      @PathVariable("idAula") int idAula,
+      @RequestParam Map<String, String> parametros,
+      HttpSession session,
+      RedirectAttributes redirectAttributes) {
+
+    User usuarioLogado = (User) session.getAttribute("usuarioLogado");
+    if (usuarioLogado == null || usuarioLogado.getUserType() != UserType.STUDENT) {
+      redirectAttributes.addFlashAttribute("erro_geral", "Ação não permitida.");
+      return "redirect:/login";
+    }
+
+    Map<Integer, String> respostas = new LinkedHashMap<>();
+    parametros.forEach((nome, texto) -> {
+      if (nome.startsWith("resposta_")) {
+        respostas.put(Integer.parseInt(nome.substring("resposta_".length())), texto);
+      }
+    });
+
+    try {
+      BatchResult<StudentsExerciseAnswer> resultado = studentsAnswerService.submitAnswers(
+          usuarioLogado.getIdUser(), idAula, idCurso, respostas);
+      for (BatchResult.RowFailure<StudentsExerciseAnswer> falha : resultado.getFailures()) {
+        redirectAttributes.addFlashAttribute("erro_exercicio_" + falha.getRow().getIdExercise(),
+            "Não foi possível salvar esta resposta.");
+      }
+      redirectAttributes.addFlashAttribute("sucesso_global", "Respostas enviadas com sucesso!");
+    } catch (NumberFormatException e) {
+      redirectAttributes.addFlashAttribute("erro_geral", "Exercício inválido.");
+    } catch (SQLException e) {
+      e.printStackTrace();
+      redirectAttributes.addFlashAttribute("erro_geral", "Erro técnico ao salvar suas respostas.");
+    } catch (IllegalArgumentException e) {
+      redirectAttributes.addFlashAttribute("erro_geral", e.getMessage());
+    }
+    return "redirect:/cursos/" + idCurso + "/aulas/" + idAula;
+  }
+
   @GetMapping("/{idCurso}/aulas/nova")
   public String exibirFormularioNovaAula(@PathVariable("idCurso") int idCurso,
                                          Model model, HttpSession session, RedirectAttributes redirectAttributes) {
@@ -556,6 +626,79 @@ public class CourseController {
     }
   }
 
+  @GetMapping("/{idCurso}/alunos/exportar")
+  public void exportarAlunos(@PathVariable("idCurso") int idCurso, HttpSession session,
+                             HttpServletResponse response) throws IOException {
+    User usuarioLogado = (User) session.getAttribute("usuarioLogado");
+
+    try {
+      Course curso = courseService.searchCourseByIdComplete(idCurso);
+      if (curso == null) {
+        response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        return;
+      }
+      if (usuarioLogado == null || usuarioLogado.getUserType() != UserType.PROFESSOR ||
+          curso.getResponsibleProfessor() == null || curso.getResponsibleProfessor().getIdUser() != usuarioLogado.getIdUser()) {
+        response.sendError(HttpServletResponse.SC_FORBIDDEN);
+        return;
+      }
+
+      response.setContentType("text/csv");
+      response.setCharacterEncoding("UTF-8");
+      response.setHeader("Content-Disposition", "attachment; filename=\"alunos-curso-" + idCurso + ".csv\"");
+      enrollService.exportEnrolledStudents(idCurso, response.getWriter());
+    } catch (SQLException e) {
+      e.printStackTrace();
+      if (!response.isCommitted()) {
+        response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+      }
+    }
+  }
+
+  /**
+   * Matrícula de uma turma pelo professor do curso: IDs de alunos separados por vírgula,
+   * espaço ou quebra de linha, gravados num único lote.
+   */
+  @PostMapping("/{idCurso}/alunos/matricular")
+  public String matricularTurma(@PathVariable("idCurso") int idCurso,
+                                @RequestParam("alunos") String alunos,
+                                HttpSession session,
+                                RedirectAttributes redirectAttributes) {
+    User usuarioLogado = (User) session.getAttribute("usuarioLogado");
+
+    try {
+      Course curso = courseService.searchCourseByIdComplete(idCurso);
+      if (curso == null) {
+        redirectAttributes.addFlashAttribute("erro_geral", "Curso não encontrado.");
+        return "redirect:/cursos";
+      }
+      if (usuarioLogado == null || usuarioLogado.getUserType() != UserType.PROFESSOR ||
+          curso.getResponsibleProfessor() == null || curso.getResponsibleProfessor().getIdUser() != usuarioLogado.getIdUser()) {
+        redirectAttributes.addFlashAttribute("erro_permissao", "Não autorizado.");
+        return "redirect:/cursos/" + idCurso;
+      }
+
+      int[] studentIds = Arrays.stream(alunos.trim().split("[\\s,;]+"))
+          .filter(id -> !id.isEmpty())
+          .mapToInt(Integer::parseInt)
+          .toArray();
+      BatchResult<Integer> resultado = enrollService.enrollCohort(idCurso, studentIds);
+      redirectAttributes.addFlashAttribute("sucesso_matricula", resultado.getSaved().size() + " aluno(s) matriculado(s).");
+      if (resultado.hasFailures()) {
+        redirectAttributes.addFlashAttribute("erro_matricula", resultado.getFailures().size() +
+            " ID(s) recusado(s): já matriculados, repetidos ou que não são alunos.");
+      }
+    } catch (NumberFormatException e) {
+      redirectAttributes.addFlashAttribute("erro_matricula", "Informe apenas IDs numéricos de alunos.");
+    } catch (IllegalArgumentException e) {
+      redirectAttributes.addFlashAttribute("erro_matricula", e.getMessage());
+    } catch (SQLException e) {
+      e.printStackTrace();
+      redirectAttributes.addFlashAttribute("erro_matricula", "Erro técnico ao matricular a turma.");
+    }
+    return "redirect:/cursos/" + idCurso;
+  }
+
   @GetMapping("/{idCurso}/aulas/{idAula}/gerenciar")
   public String exibirGerenciamentoAula(@PathVariable("idCurso") int idCurso,
                                         @PathVariable("idAula") int idAula,
@@ -767,6 +910,8 @@ public class CourseController {
       model.addAttribute("listaQuestoes", questoesDoExame);
       model.addAttribute("novaQuestao", new ExamQuestion(idExamDefinition, null, null, null, null, 0, 0)); // Objeto para o form, pré-seta idExamDefinition
       model.addAttribute("tiposExercicio", ExerciseType.values()); // Para o select do tipo de questão
+      model.addAttribute("outrasProvas", examDefinitionService.getExamDefinitionsForCourse(idCurso, usuarioLogado.getIdUser())
+          .stream().filter(prova -> prova.getIdDefinitionExam() != idExamDefinition).toList());
 
 
     } catch (Exception e) {
@@ -777,6 +922,43 @@ public class CourseController {
     return "exam/gerenciar-questoes-exame";
   }
 
+  /**
+   * Importa para o exame as questões de outro exame do mesmo professor, num único lote.
+   */
+  @PostMapping("/{idCurso}/exames/{idExamDefinition}/questoes/importar")
+  public String importarQuestoesDoExame(
+      @PathVariable("idCurso") int idCurso,
+      @PathVariable("idExamDefinition") int idExamDefinition,
+      @RequestParam("idProvaOrigem") int idProvaOrigem,
+      HttpSession session,
+      RedirectAttributes redirectAttributes) {
+
+    User usuarioLogado = (User) session.getAttribute("usuarioLogado");
+    if (usuarioLogado == null || usuarioLogado.getUserType() != UserType.PROFESSOR) {
+      redirectAttributes.addFlashAttribute("erro_permissao", "Não autorizado.");
+      return "redirect:/cursos/" + idCurso;
+    }
+
+    try {
+      BatchResult<ExamQuestion> resultado = examQuestionService.importQuestionsFromExamDefinition(
+          idExamDefinition, idProvaOrigem, usuarioLogado.getIdUser());
+      redirectAttributes.addFlashAttribute("sucesso_questao", resultado.getSaved().size() + " questão(ões) importada(s).");
+      if (resultado.hasFailures()) {
+        redirectAttributes.addFlashAttribute("erro_questao", resultado.getFailures().size() +
+            " questão(ões) não importada(s): " + resultado.getFailures().get(0).getMessage());
+      }
+    } catch (IllegalAccessException e) {
+      redirectAttributes.addFlashAttribute("erro_permissao", e.getMessage());
+      return "redirect:/cursos/" + idCurso;
+    } catch (IllegalArgumentException e) {
+      redirectAttributes.addFlashAttribute("erro_questao", e.getMessage());
+    } catch (SQLException e) {
+      e.printStackTrace();
+      redirectAttributes.addFlashAttribute("erro_questao", "Erro técnico ao importar as questões.");
+    }
+    return "redirect:/cursos/" + idCurso + "/exames/" + idExamDefinition + "/questoes";
+  }
+
   @PostMapping("/{idCurso}/exames/{idExamDefinition}/questoes/adicionar")
   public String adicionarQuestaoAoExame(
       @PathVariable("idCurso") int idCurso,
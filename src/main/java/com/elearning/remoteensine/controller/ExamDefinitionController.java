@@ -51,7 +51,10 @@ public class ExamDefinitionController {
 
         try {
             Course curso = courseService.searchCourseByIdComplete(idCurso);
-            ExamDefinition definicaoProva = examDefinitionService.getExamDefinitionById(idDefinicaoProva);
+            // A prova publicada vem do cache compartilhado; o banco só é consultado para explicar a recusa.
+            PublishedExam prova = examQuestionService.getPublishedExam(idDefinicaoProva);
+            ExamDefinition definicaoProva = prova != null ? prova.getDefinition()
+                    : examDefinitionService.getExamDefinitionById(idDefinicaoProva);
 
             if (curso == null || definicaoProva == null || definicaoProva.getIdCourse() != idCurso) {
                 redirectAttributes.addFlashAttribute("erro_geral", "Prova ou curso inválido ou não associado.");
@@ -68,7 +71,8 @@ public class ExamDefinitionController {
                 return "redirect:/cursos/" + idCurso;
             }
 
-            List<ExamQuestion> questoesDaProva = examQuestionService.getQuestionsForStudentToTakeExam(idDefinicaoProva);
+            List<ExamQuestion> questoesDaProva = prova != null ? prova.getQuestions()
+                    : examQuestionService.getQuestionsForStudentToTakeExam(idDefinicaoProva);
 
             model.addAttribute("curso", curso);
             model.addAttribute("definicaoProva", definicaoProva);
@@ -105,13 +109,16 @@ public class ExamDefinitionController {
         }
 
         try {
-            ExamDefinition definicaoProva = examDefinitionService.getExamDefinitionById(idDefinicaoProva);
+            PublishedExam prova = examQuestionService.getPublishedExam(idDefinicaoProva);
+            ExamDefinition definicaoProva = prova != null ? prova.getDefinition()
+                    : examDefinitionService.getExamDefinitionById(idDefinicaoProva);
             if (definicaoProva == null || definicaoProva.getIdCourse() != idCurso) {
                 redirectAttributes.addFlashAttribute("erro_geral", "Prova ou curso inválido.");
                 return "redirect:/cursos/" + idCurso;
             }
 
-            List<ExamQuestion> questoesDaProva = examQuestionService.getQuestionsForStudentToTakeExam(idDefinicaoProva);
+            List<ExamQuestion> questoesDaProva = prova != null ? prova.getQuestions()
+                    : examQuestionService.getQuestionsForStudentToTakeExam(idDefinicaoProva);
 
             int acertos = 0;
             double pontuacaoTotalObtida = 0.0;
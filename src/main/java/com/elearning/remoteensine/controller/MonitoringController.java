@@ -0,0 +1,121 @@
+package com.elearning.remoteensine.controller;
+
+import com.elearning.remoteensine.dao.AbstractDAO;
+import com.elearning.remoteensine.dao.CacheStats;
+import com.elearning.remoteensine.dao.ExamDefinitionDAO;
+import com.elearning.remoteensine.dao.InvalidationBus;
+import com.elearning.remoteensine.dao.InvalidationStats;
+import com.elearning.remoteensine.dao.NamedQuery;
+import com.elearning.remoteensine.dao.SlowQuery;
+import com.elearning.remoteensine.dao.StatementStats;
+import com.elearning.remoteensine.dao.UserDAO;
+import com.elearning.remoteensine.model.User;
+import com.elearning.remoteensine.model.enums.UserType;
+import com.elearning.remoteensine.util.DatabaseConnector;
+import com.elearning.remoteensine.util.FragmentCacheDialect;
+import com.elearning.remoteensine.util.PoolStats;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Endpoints JSON de monitoramento da infraestrutura, restritos a professores logados.
+ */
+@RestController
+@RequestMapping("/monitoramento")
+public class MonitoringController {
+
+  private final DatabaseConnector databaseConnector;
+  private final UserDAO userDAO;
+  private final ExamDefinitionDAO examDefinitionDAO;
+  private final FragmentCacheDialect fragmentCacheDialect;
+  private final InvalidationBus invalidationBus;
+
+  public MonitoringController(DatabaseConnector databaseConnector, UserDAO userDAO, ExamDefinitionDAO examDefinitionDAO,
+                              FragmentCacheDialect fragmentCacheDialect, InvalidationBus invalidationBus) {
+    this.databaseConnector = databaseConnector;
+    this.userDAO = userDAO;
+    this.examDefinitionDAO = examDefinitionDAO;
+    this.fragmentCacheDialect = fragmentCacheDialect;
+    this.invalidationBus = invalidationBus;
+  }
+
+  @GetMapping("/pool")
+  public ResponseEntity<PoolStats> poolStats(HttpSession session) {
+    if (!isProfessor(session)) {
+      return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+    }
+    return ResponseEntity.ok(databaseConnector.getPoolStats());
+  }
+
+  @GetMapping("/queries")
+  public ResponseEntity<List<NamedQuery>> namedQueries(HttpSession session) {
+    if (!isProfessor(session)) {
+      return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+    }
+    List<NamedQuery> queries = new ArrayList<>(AbstractDAO.registeredQueries());
+    queries.sort(Comparator.comparing(NamedQuery::getName));
+    return ResponseEntity.ok(queries);
+  }
+
+  /**
+   * Latência (p50/p90/p99/p99.9), linhas e falhas por instrução, das que mais
+   * consumiram tempo de banco para as que menos consumiram.
+   */
+  @GetMapping("/sql")
+  public ResponseEntity<List<StatementStats>> statementStats(HttpSession session) {
+    if (!isProfessor(session)) {
+      return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+    }
+    List<StatementStats> stats = new ArrayList<>();
+    for (NamedQuery query : AbstractDAO.registeredQueries()) {
+      stats.add(query.snapshot());
+    }
+    stats.sort(Comparator.comparingLong(StatementStats::getTotalMicros).reversed()
+        .thenComparing(StatementStats::getName));
+    return ResponseEntity.ok(stats);
+  }
+
+  @GetMapping("/sql/lentas")
+  public ResponseEntity<List<SlowQuery>> slowQueries(HttpSession session) {
+    if (!isProfessor(session)) {
+      return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+    }
+    return ResponseEntity.ok(AbstractDAO.recentSlowQueries());
+  }
+
+  /**
+   * Acertos, faltas e expulsões dos caches em memória.
+   */
+  @GetMapping("/cache")
+  public ResponseEntity<List<CacheStats>> cacheStats(HttpSession session) {
+    if (!isProfessor(session)) {
+      return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+    }
+    return ResponseEntity.ok(List.of(userDAO.getCacheStats(), examDefinitionDAO.getPublishedExamCacheStats(),
+        fragmentCacheDialect.getCacheStats()));
+  }
+
+  /**
+   * Eventos de invalidação publicados e recebidos por este nó, e o atraso de entrega.
+   */
+  @GetMapping("/invalidacao")
+  public ResponseEntity<InvalidationStats> invalidationStats(HttpSession session) {
+    if (!isProfessor(session)) {
+      return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+    }
+    return ResponseEntity.ok(invalidationBus.stats());
+  }
+
+  private boolean isProfessor(HttpSession session) {
+    User usuarioLogado = (User) session.getAttribute("usuarioLogado");
+    return usuarioLogado != null && usuarioLogado.getUserType() == UserType.PROFESSOR;
+  }
+}
@@ -1,16 +1,21 @@
 package com.elearning.remoteensine.controller;
+import com.elearning.remoteensine.dao.BatchResult;
+import com.elearning.remoteensine.model.NewsLetterInscription;
 import com.elearning.remoteensine.model.User;
 import com.elearning.remoteensine.model.enums.UserType;
 import com.elearning.remoteensine.service.NewsletterService;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
+import java.io.IOException;
 import java.sql.SQLException;
 
 
@@ -71,4 +76,52 @@ public class NewsletterController {
     }
     return "redirect:" + (referer != null ? referer : "/cursos");
   }
-}
\ No newline at end of file
+
+  @PostMapping("/importar")
+  public String importarInscritos(@RequestParam("emails") String emails, HttpSession session,
+                                  RedirectAttributes redirectAttributes, HttpServletRequest request) {
+    User usuarioLogado = (User) session.getAttribute("usuarioLogado");
+    String referer = request.getHeader("Referer");
+
+    if (usuarioLogado == null || usuarioLogado.getUserType() != UserType.PROFESSOR) {
+      redirectAttributes.addFlashAttribute("erro_global", "Apenas professores podem importar inscritos.");
+      return "redirect:" + (referer != null ? referer : "/login");
+    }
+
+    try {
+      BatchResult<NewsLetterInscription> resultado = newsletterService.importEmails(emails);
+      redirectAttributes.addFlashAttribute("sucesso_global", resultado.getSaved().size() + " e-mail(s) inscrito(s) na newsletter.");
+      if (resultado.hasFailures()) {
+        redirectAttributes.addFlashAttribute("info_global", resultado.getFailures().size() +
+            " e-mail(s) ignorado(s): repetidos na lista ou já inscritos.");
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+      redirectAttributes.addFlashAttribute("erro_global", "Erro técnico ao importar os e-mails. Tente novamente.");
+    } catch (IllegalArgumentException e) {
+      redirectAttributes.addFlashAttribute("erro_global", e.getMessage());
+    }
+    return "redirect:" + (referer != null ? referer : "/cursos");
+  }
+
+  @GetMapping("/exportar")
+  public void exportarInscritos(HttpSession session, HttpServletResponse response) throws IOException {
+    User usuarioLogado = (User) session.getAttribute("usuarioLogado");
+    if (usuarioLogado == null || usuarioLogado.getUserType() != UserType.PROFESSOR) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+
+    response.setContentType("text/plain");
+    response.setCharacterEncoding("UTF-8");
+    response.setHeader("Content-Disposition", "attachment; filename=\"newsletter-inscritos.txt\"");
+    try {
+      newsletterService.exportActiveEmails(response.getWriter());
+    } catch (SQLException e) {
+      e.printStackTrace();
+      if (!response.isCommitted()) {
+        response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+      }
+    }
+  }
+}
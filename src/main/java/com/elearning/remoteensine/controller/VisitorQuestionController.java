@@ -1,5 +1,6 @@
 package com.elearning.remoteensine.controller;
 
+import com.elearning.remoteensine.dao.KeysetPage;
 import com.elearning.remoteensine.model.User;
 import com.elearning.remoteensine.model.VisitorQuestion;
 import com.elearning.remoteensine.model.enums.UserType;
@@ -72,7 +73,8 @@ public class VisitorQuestionController {
   }
 
   @GetMapping("/professor/perguntas-visitantes")
-  public String listarPerguntasVisitantesParaProfessor(Model model, HttpSession session, RedirectAttributes redirectAttributes) {
+  public String listarPerguntasVisitantesParaProfessor(@RequestParam(value = "apos", required = false) String apos,
+                                                       Model model, HttpSession session, RedirectAttributes redirectAttributes) {
     System.out.println("--- PerguntaVisitanteController: GET /professor/perguntas-visitantes ---");
     User usuarioLogado = (User) session.getAttribute("usuarioLogado");
 
@@ -82,9 +84,11 @@ public class VisitorQuestionController {
     }
 
     try {
-      List<VisitorQuestion> todasPerguntas = visitorQuestionService.listAllQuestions(false);
+      KeysetPage<VisitorQuestion> pagina = visitorQuestionService.listQuestionsPage(false, apos, KeysetPage.DEFAULT_SIZE);
+      List<VisitorQuestion> todasPerguntas = pagina.getItems();
 
       model.addAttribute("listaPerguntasVisitantes", todasPerguntas);
+      model.addAttribute("proximaPaginaPerguntas", pagina.getNextCursor());
       System.out.println("Controller: Encontradas " + (todasPerguntas != null ? todasPerguntas.size() : 0) + " perguntas de visitantes.");
     } catch (Exception e) { // SQLException ou outras
       e.printStackTrace();
@@ -1,19 +1,461 @@
 package com.elearning.remoteensine.dao;
 
+import com.elearning.remoteensine.util.DataSourceRouting;
 import com.elearning.remoteensine.util.DatabaseConnector;
+import com.elearning.remoteensine.util.UnitOfWork;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class AbstractDAO {
 
+    /**
+     * Preenche os parâmetros de uma linha do lote.
+     */
+    @FunctionalInterface
+    protected interface RowBinder<T> {
+        void bind(PreparedStatement pstmt, T row) throws SQLException;
+    }
+
+    /**
+     * Valida uma linha antes de entrar no lote; é chamado uma única vez por linha.
+     *
+     * @return null se a linha pode ser gravada, ou o motivo da recusa.
+     */
+    @FunctionalInterface
+    protected interface RowValidator<T> {
+        String reject(T row);
+    }
+
+    /**
+     * Recebe a chave gerada para uma linha gravada.
+     */
+    @FunctionalInterface
+    protected interface GeneratedKeyHandler<T> {
+        void accept(T row, int generatedKey);
+    }
+
+    /**
+     * Preenche os parâmetros de uma consulta.
+     */
+    @FunctionalInterface
+    protected interface ParameterBinder {
+        void bind(PreparedStatement pstmt) throws SQLException;
+    }
+
+    private static final Map<String, NamedQuery> QUERY_REGISTRY = new ConcurrentHashMap<>();
+    private static final String NOT_WRITTEN = "Row was not written: the statement matched nothing for it.";
+    private static final NamedQuery RECORD_CONTENT_DELETION = namedQuery("content.recordDeletion",
+            "UPDATE content_deletions SET deleted_at = CURRENT_TIMESTAMP(3) WHERE id = 1");
+
+    /**
+     * Nomes já preparados em cada conexão física. Com cachePrepStmts/useServerPrepStmts
+     * ligados no pool, o driver guarda o statement compilado por conexão; este mapa só
+     * espelha esse cache para contabilizar acertos e falhas.
+     */
+    private static final Map<Connection, Set<String>> PREPARED_PER_CONNECTION =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Índices de coluna resolvidos por instrução. O formato do resultado de uma
+     * NamedQuery não muda, então a resolução acontece só na primeira execução.
+     */
+    private final Map<NamedQuery, int[]> columnIndexes = new ConcurrentHashMap<>();
+
     protected final DatabaseConnector databaseConnector;
 
     public AbstractDAO(DatabaseConnector databaseConnector) {
         this.databaseConnector = databaseConnector;
     }
 
+    /**
+     * Conexão do primário, para escritas e para leituras que não podem vir de uma réplica
+     * atrasada: cargas de cache e verificações que antecedem uma escrita. Pegar a conexão
+     * não fixa a requisição no primário; isso só acontece quando uma escrita é executada.
+     */
     protected Connection getConnection() throws SQLException {
         return databaseConnector.getConnection();
     }
+
+    /**
+     * Conexão para consultas que toleram o atraso de replicação (listagens de catálogo,
+     * aulas, comentários...). Pode vir de uma réplica; verificações que antecedem uma
+     * escrita devem usar {@link #getConnection()}.
+     */
+    protected Connection getReadConnection() throws SQLException {
+        boolean previous = DataSourceRouting.beginRead();
+        try {
+            return databaseConnector.getConnection();
+        } finally {
+            DataSourceRouting.endRead(previous);
+        }
+    }
+
+    /**
+     * Registra uma instrução SQL com nome único. Deve ser chamado na inicialização
+     * de constantes estáticas dos DAOs.
+     *
+     * @throws IllegalArgumentException se o nome já estiver registrado com outro SQL.
+     */
+    protected static NamedQuery namedQuery(String name, String sql) {
+        NamedQuery query = QUERY_REGISTRY.computeIfAbsent(name, n -> new NamedQuery(n, sql));
+        if (!query.getSql().equals(sql)) {
+            throw new IllegalArgumentException("Named query '" + name + "' already registered with different SQL.");
+        }
+        return query;
+    }
+
+    /**
+     * @return Todas as instruções registradas, com seus contadores de cache.
+     */
+    public static Collection<NamedQuery> registeredQueries() {
+        return new ArrayList<>(QUERY_REGISTRY.values());
+    }
+
+    /**
+     * @return Todas as execuções lentas recentes (ver {@link SlowQuery}), da mais nova para a mais antiga.
+     */
+    public static List<SlowQuery> recentSlowQueries() {
+        return InstrumentedStatement.recentSlowQueries();
+    }
+
+    /**
+     * Os statements devolvidos por prepare* medem cada execução no histograma da
+     * instrução e contam as linhas afetadas; as lidas são contadas por mapRow, mapRows e
+     * stream (ver {@link NamedQuery#snapshot()}).
+     */
+    protected PreparedStatement prepare(Connection conn, NamedQuery query) throws SQLException {
+        recordPreparation(conn, query);
+        return instrument(conn.prepareStatement(query.getSql()), query);
+    }
+
+    protected PreparedStatement prepare(Connection conn, NamedQuery query, int autoGeneratedKeys) throws SQLException {
+        recordPreparation(conn, query);
+        return instrument(conn.prepareStatement(query.getSql(), autoGeneratedKeys), query);
+    }
+
+    /**
+     * Statement somente leitura, forward-only e com fetch size Integer.MIN_VALUE: o driver
+     * do MySQL passa a entregar o resultado linha a linha em vez de carregá-lo inteiro.
+     */
+    protected PreparedStatement prepareStreaming(Connection conn, NamedQuery query) throws SQLException {
+        recordPreparation(conn, query);
+        PreparedStatement pstmt = conn.prepareStatement(query.getSql(), ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(Integer.MIN_VALUE);
+        return instrument(pstmt, query);
+    }
+
+    private PreparedStatement instrument(PreparedStatement pstmt, NamedQuery query) {
+        if (pstmt == null) {
+            return null;
+        }
+        return InstrumentedStatement.wrap(pstmt, query, databaseConnector.getSlowQueryThresholdMs());
+    }
+
+    /**
+     * Executa a consulta num cursor de streaming e devolve as linhas como um Stream
+     * mapeado sob demanda. A conexão fica presa ao cursor até o Stream ser fechado, então
+     * o chamador deve sempre usá-lo em try-with-resources. O cursor também é liberado
+     * assim que a última linha é lida ou se a leitura de alguma linha falhar. Erros de banco durante a leitura chegam como
+     * {@link UncheckedSQLException}.
+     */
+    protected <T> Stream<T> stream(NamedQuery query, RowMapping<T> mapping, ParameterBinder binder) throws SQLException {
+        Connection conn = getReadConnection();
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            pstmt = prepareStreaming(conn, query);
+            binder.bind(pstmt);
+            rs = pstmt.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            closeCursor(rs, pstmt, conn, e);
+            throw e;
+        }
+
+        ResultSet cursor = rs;
+        PreparedStatement statement = pstmt;
+        boolean[] closed = {false};
+        long[] read = {0};
+        Runnable release = () -> {
+            if (closed[0]) {
+                return;
+            }
+            closed[0] = true;
+            if (read[0] > 0) {
+                query.recordRows(read[0]);
+            }
+            try {
+                closeCursor(cursor, statement, conn, null);
+            } catch (SQLException e) {
+                throw new UncheckedSQLException(e);
+            }
+        };
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            private int[] col;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (closed[0]) {
+                    return false;
+                }
+                T row;
+                try {
+                    if (!cursor.next()) {
+                        release.run();
+                        return false;
+                    }
+                    if (col == null) {
+                        col = columnIndexes(query, mapping, cursor);
+                    }
+                    row = mapping.map(cursor, col);
+                    read[0]++;
+                } catch (SQLException e) {
+                    UncheckedSQLException failure = new UncheckedSQLException(e);
+                    releaseAfterFailure(release, failure);
+                    throw failure;
+                } catch (RuntimeException e) {
+                    releaseAfterFailure(release, e);
+                    throw e;
+                }
+                action.accept(row);
+                return true;
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(release);
+    }
+
+    private static void releaseAfterFailure(Runnable release, RuntimeException failure) {
+        try {
+            release.run();
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Fecha ResultSet, statement e conexão, nessa ordem, mesmo que algum close() falhe.
+     * Se {@code primary} for informado, as falhas são anexadas a ele como suprimidas.
+     */
+    private static void closeCursor(ResultSet rs, PreparedStatement pstmt, Connection conn,
+                                    Exception primary) throws SQLException {
+        SQLException failure = null;
+        AutoCloseable[] resources = {rs, pstmt, conn};
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                if (primary != null) {
+                    primary.addSuppressed(e);
+                } else if (failure == null) {
+                    failure = e instanceof SQLException ? (SQLException) e : new SQLException(e);
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Marca a data da exclusão de um conteúdo exibido nas páginas de curso (comentário,
+     * dúvida, aula, curso, usuário). A linha apagada não deixa data na própria tabela, e sem
+     * esta marca o Last-Modified das páginas continuaria o mesmo. Deve ser chamado depois da
+     * exclusão, na mesma conexão.
+     */
+    protected void recordContentDeletion(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = prepare(conn, RECORD_CONTENT_DELETION)) {
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Grava as linhas com addBatch/executeBatch numa única transação (o driver reescreve
+     * o lote em INSERTs multi-valores). Se o banco recusar alguma linha, o lote é desfeito
+     * até o savepoint e as linhas são reenviadas uma a uma para identificar quais falharam.
+     * Uma linha que o banco aceita sem gravar nada (contagem 0, ex.: INSERT ... SELECT cujo
+     * WHERE não a encontra) também é recusada.
+     *
+     * @param validator  Recusa linhas inválidas sem enviá-las ao banco.
+     * @param keyHandler Recebe os IDs gerados; null se a tabela não gera chave.
+     */
+    protected <T> BatchResult<T> executeBatch(NamedQuery query, List<T> rows, RowValidator<T> validator,
+                                              RowBinder<T> binder, GeneratedKeyHandler<T> keyHandler) throws SQLException {
+        BatchResult<T> result = new BatchResult<>();
+        if (rows == null || rows.isEmpty()) {
+            return result;
+        }
+        return UnitOfWork.inTransaction(() -> {
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = keyHandler != null
+                         ? prepare(conn, query, Statement.RETURN_GENERATED_KEYS)
+                         : prepare(conn, query)) {
+
+                List<Integer> batched = new ArrayList<>();
+                for (int i = 0; i < rows.size(); i++) {
+                    T row = rows.get(i);
+                    String rejection = row == null ? "Row cannot be null." : validator.reject(row);
+                    if (rejection != null) {
+                        result.addFailure(i, row, rejection);
+                        continue;
+                    }
+                    binder.bind(pstmt, row);
+                    pstmt.addBatch();
+                    batched.add(i);
+                }
+                if (batched.isEmpty()) {
+                    return result;
+                }
+
+                Savepoint savepoint = conn.getAutoCommit() ? null : conn.setSavepoint();
+                try {
+                    int[] counts = pstmt.executeBatch();
+                    collectGeneratedKeys(pstmt, rows, batched, counts, keyHandler, result);
+                } catch (BatchUpdateException e) {
+                    if (savepoint != null) {
+                        conn.rollback(savepoint);
+                    }
+                    pstmt.clearBatch();
+                    executeRowByRow(pstmt, rows, batched, binder, keyHandler, result);
+                }
+                return result;
+            }
+        });
+    }
+
+    private <T> void collectGeneratedKeys(PreparedStatement pstmt, List<T> rows, List<Integer> batched, int[] counts,
+                                          GeneratedKeyHandler<T> keyHandler, BatchResult<T> result) throws SQLException {
+        ResultSet keys = keyHandler != null ? pstmt.getGeneratedKeys() : null;
+        try {
+            for (int i = 0; i < batched.size(); i++) {
+                int index = batched.get(i);
+                T row = rows.get(index);
+                // Com o lote reescrito o driver devolve SUCCESS_NO_INFO; só 0 indica linha não gravada.
+                if (i < counts.length && counts[i] == 0) {
+                    result.addFailure(index, row, NOT_WRITTEN);
+                    continue;
+                }
+                if (keys != null && keys.next()) {
+                    keyHandler.accept(row, keys.getInt(1));
+                }
+                result.addSaved(row);
+            }
+        } finally {
+            if (keys != null) {
+                keys.close();
+            }
+        }
+    }
+
+    private <T> void executeRowByRow(PreparedStatement pstmt, List<T> rows, List<Integer> batched, RowBinder<T> binder,
+                                     GeneratedKeyHandler<T> keyHandler, BatchResult<T> result) throws SQLException {
+        for (int index : batched) {
+            T row = rows.get(index);
+            try {
+                binder.bind(pstmt, row);
+                if (pstmt.executeUpdate() == 0) {
+                    result.addFailure(index, row, NOT_WRITTEN);
+                    continue;
+                }
+                if (keyHandler != null) {
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            keyHandler.accept(row, keys.getInt(1));
+                        }
+                    }
+                }
+                result.addSaved(row);
+            } catch (SQLException e) {
+                result.addFailure(index, row, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Mapeia a linha atual do ResultSet usando os índices resolvidos para a instrução.
+     * Cada NamedQuery deve ser lida sempre com o mesmo RowMapping.
+     */
+    protected <T> T mapRow(NamedQuery query, RowMapping<T> mapping, ResultSet rs) throws SQLException {
+        T row = mapping.map(rs, columnIndexes(query, mapping, rs));
+        query.recordRows(1);
+        return row;
+    }
+
+    /**
+     * Consome o ResultSet inteiro (a partir da posição atual) mapeando cada linha.
+     */
+    protected <T> List<T> mapRows(NamedQuery query, RowMapping<T> mapping, ResultSet rs) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        if (!rs.next()) {
+            return rows;
+        }
+        int[] col = columnIndexes(query, mapping, rs);
+        do {
+            rows.add(mapping.map(rs, col));
+        } while (rs.next());
+        query.recordRows(rows.size());
+        return rows;
+    }
+
+    private int[] columnIndexes(NamedQuery query, RowMapping<?> mapping, ResultSet rs) throws SQLException {
+        int[] col = columnIndexes.get(query);
+        if (col == null) {
+            col = mapping.resolve(rs.getMetaData());
+            columnIndexes.put(query, col);
+        }
+        return col;
+    }
+
+    private static void recordPreparation(Connection conn, NamedQuery query) {
+        Connection physical = physicalConnection(conn);
+        Set<String> prepared;
+        synchronized (PREPARED_PER_CONNECTION) {
+            prepared = PREPARED_PER_CONNECTION.computeIfAbsent(physical, c -> new HashSet<>());
+        }
+        boolean firstTime;
+        synchronized (prepared) {
+            firstTime = prepared.add(query.getName());
+        }
+        if (firstTime) {
+            query.recordMiss();
+        } else {
+            query.recordHit();
+        }
+    }
+
+    /**
+     * O proxy do pool muda a cada checkout; a chave do cache precisa ser a conexão física.
+     */
+    private static Connection physicalConnection(Connection conn) {
+        try {
+            Connection unwrapped = conn.unwrap(Connection.class);
+            return unwrapped != null ? unwrapped : conn;
+        } catch (SQLException e) {
+            return conn;
+        }
+    }
 }
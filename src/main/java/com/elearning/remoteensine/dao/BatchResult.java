@@ -0,0 +1,62 @@
+package com.elearning.remoteensine.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de uma escrita em lote: as linhas gravadas (com IDs gerados já preenchidos)
+ * e, para cada linha recusada, sua posição na entrada e o motivo.
+ *
+ * @param <T> Tipo da linha de entrada.
+ */
+public class BatchResult<T> {
+
+  public static class RowFailure<T> {
+    private final int index;
+    private final T row;
+    private final String message;
+
+    RowFailure(int index, T row, String message) {
+      this.index = index;
+      this.row = row;
+      this.message = message;
+    }
+
+    /** Posição da linha na lista (ou array) recebida. */
+    public int getIndex() {
+      return index;
+    }
+
+    public T getRow() {
+      return row;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+  }
+
+  private final List<T> saved = new ArrayList<>();
+  private final List<RowFailure<T>> failures = new ArrayList<>();
+
+  void addSaved(T row) {
+    saved.add(row);
+  }
+
+  void addFailure(int index, T row, String message) {
+    failures.add(new RowFailure<>(index, row, message));
+  }
+
+  public List<T> getSaved() {
+    return Collections.unmodifiableList(saved);
+  }
+
+  public List<RowFailure<T>> getFailures() {
+    return Collections.unmodifiableList(failures);
+  }
+
+  public boolean hasFailures() {
+    return !failures.isEmpty();
+  }
+}
@@ -0,0 +1,288 @@
+package com.elearning.remoteensine.dao;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache de tamanho fixo com política W-TinyLFU: entradas novas passam por uma janela
+ * LRU pequena (1% da capacidade) e, ao sair dela, só entram na área principal se foram
+ * acessadas com mais frequência que a vítima que ocupariam o lugar. A área principal é
+ * uma LRU segmentada (período de experiência + protegida, 80% da área), então uma
+ * varredura de entradas vistas uma única vez não expulsa as que são usadas sempre.
+ * <p>
+ * A frequência vem de um count-min sketch de contadores de 4 bits, com todos os
+ * contadores divididos por dois a cada 10 × capacidade acessos, para que o histórico
+ * antigo perca peso. Todas as operações são sincronizadas na instância.
+ */
+public final class BoundedCache<K, V> {
+
+  /** Chamado, com o lock do cache, para cada entrada expulsa pela política. */
+  @FunctionalInterface
+  public interface EvictionListener<K, V> {
+    void evicted(K key, V value);
+  }
+
+  private static final int WINDOW = 0;
+  private static final int PROBATION = 1;
+  private static final int PROTECTED = 2;
+
+  private final String name;
+  private final int capacity;
+  private final int windowCapacity;
+  private final int protectedCapacity;
+  private final EvictionListener<K, V> listener;
+
+  private final Map<K, Node<K, V>> data = new HashMap<>();
+  private final Queue window = new Queue();
+  private final Queue probation = new Queue();
+  private final Queue protectedQueue = new Queue();
+  private final FrequencySketch sketch;
+
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long rejections;
+
+  public BoundedCache(String name, int capacity, EvictionListener<K, V> listener) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("Cache capacity must be at least 2.");
+    }
+    this.name = name;
+    this.capacity = capacity;
+    this.windowCapacity = Math.max(1, capacity / 100);
+    this.protectedCapacity = (int) ((capacity - windowCapacity) * 0.8);
+    this.listener = listener;
+    this.sketch = new FrequencySketch(capacity);
+  }
+
+  /**
+   * @return O valor guardado, ou null. Conta como acesso para a frequência da chave.
+   */
+  public synchronized V get(K key) {
+    sketch.increment(key.hashCode());
+    Node<K, V> node = data.get(key);
+    if (node == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    touch(node);
+    return node.value;
+  }
+
+  /**
+   * Conta uma falta para uma busca que nem chegou a consultar o cache (ex.: chave
+   * secundária desconhecida), para que a taxa de acerto reflita o que o chamador viu.
+   */
+  synchronized void recordMiss() {
+    misses++;
+  }
+
+  public synchronized void put(K key, V value) {
+    Node<K, V> node = data.get(key);
+    if (node != null) {
+      node.value = value;
+      touch(node);
+      return;
+    }
+    node = new Node<>(key, value);
+    data.put(key, node);
+    window.addFirst(node);
+    if (window.size > windowCapacity) {
+      Node<K, V> candidate = window.removeLast();
+      probation.addFirst(candidate);
+      if (probation.size + protectedQueue.size > capacity - windowCapacity) {
+        evictFromMain(candidate);
+      }
+    }
+  }
+
+  public synchronized V remove(K key) {
+    Node<K, V> node = data.remove(key);
+    if (node == null) {
+      return null;
+    }
+    queueOf(node).unlink(node);
+    return node.value;
+  }
+
+  public synchronized void clear() {
+    data.clear();
+    window.clear();
+    probation.clear();
+    protectedQueue.clear();
+  }
+
+  public synchronized int size() {
+    return data.size();
+  }
+
+  public synchronized CacheStats stats() {
+    return new CacheStats(name, capacity, data.size(), hits, misses, evictions, rejections);
+  }
+
+  /**
+   * O candidato que saiu da janela disputa com o mais antigo do período de experiência;
+   * fica o mais frequente, e o candidato perde empates.
+   */
+  private void evictFromMain(Node<K, V> candidate) {
+    Node<K, V> victim = probation.size > 1 ? probation.last() : protectedQueue.last();
+    Node<K, V> evicted;
+    if (victim != null && sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())) {
+      evicted = victim;
+    } else {
+      evicted = candidate;
+      rejections++;
+    }
+    queueOf(evicted).unlink(evicted);
+    data.remove(evicted.key);
+    evictions++;
+    if (listener != null) {
+      listener.evicted(evicted.key, evicted.value);
+    }
+  }
+
+  private void touch(Node<K, V> node) {
+    if (node.queue == WINDOW) {
+      window.moveToFirst(node);
+    } else if (node.queue == PROBATION) {
+      probation.unlink(node);
+      protectedQueue.addFirst(node);
+      if (protectedQueue.size > protectedCapacity) {
+        probation.addFirst(protectedQueue.removeLast());
+      }
+    } else {
+      protectedQueue.moveToFirst(node);
+    }
+  }
+
+  private Queue queueOf(Node<K, V> node) {
+    return node.queue == WINDOW ? window : node.queue == PROBATION ? probation : protectedQueue;
+  }
+
+  private final class Queue {
+    private final Node<K, V> head = new Node<>(null, null);
+    private int size;
+
+    Queue() {
+      head.prev = head;
+      head.next = head;
+    }
+
+    void addFirst(Node<K, V> node) {
+      node.queue = this == window ? WINDOW : this == probation ? PROBATION : PROTECTED;
+      node.next = head.next;
+      node.prev = head;
+      head.next.prev = node;
+      head.next = node;
+      size++;
+    }
+
+    void moveToFirst(Node<K, V> node) {
+      unlink(node);
+      addFirst(node);
+    }
+
+    Node<K, V> last() {
+      return size == 0 ? null : head.prev;
+    }
+
+    Node<K, V> removeLast() {
+      Node<K, V> node = head.prev;
+      unlink(node);
+      return node;
+    }
+
+    void unlink(Node<K, V> node) {
+      node.prev.next = node.next;
+      node.next.prev = node.prev;
+      node.prev = null;
+      node.next = null;
+      size--;
+    }
+
+    void clear() {
+      head.prev = head;
+      head.next = head;
+      size = 0;
+    }
+  }
+
+  private static final class Node<K, V> {
+    private final K key;
+    private V value;
+    private int queue;
+    private Node<K, V> prev;
+    private Node<K, V> next;
+
+    Node(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Count-min sketch com 4 linhas de contadores de 4 bits (16 por long).
+   */
+  static final class FrequencySketch {
+    private static final long[] SEEDS = {
+        0x97CB3127L, 0xB1A4E79DL, 0xC2B2AE3DL, 0x27D4EB2FL
+    };
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+      int counters = Integer.highestOneBit(Math.max(64, capacity) - 1) << 1;
+      this.table = new long[counters / 16 * 4];
+      this.mask = counters / 16 - 1;
+      this.sampleSize = 10 * capacity;
+    }
+
+    void increment(int hash) {
+      boolean added = false;
+      for (int row = 0; row < 4; row++) {
+        int index = indexOf(hash, row);
+        int offset = offsetOf(hash, row);
+        if (((table[index] >>> offset) & 0xFL) < 15) {
+          table[index] += 1L << offset;
+          added = true;
+        }
+      }
+      if (added && ++additions >= sampleSize) {
+        reset();
+      }
+    }
+
+    int frequency(int hash) {
+      int min = 15;
+      for (int row = 0; row < 4; row++) {
+        min = Math.min(min, (int) ((table[indexOf(hash, row)] >>> offsetOf(hash, row)) & 0xFL));
+      }
+      return min;
+    }
+
+    private int indexOf(int hash, int row) {
+      return row * (mask + 1) + (spread(hash, row) & mask);
+    }
+
+    private int offsetOf(int hash, int row) {
+      return ((spread(hash, row) >>> 24) & 0xF) << 2;
+    }
+
+    private static int spread(int hash, int row) {
+      long h = (hash + SEEDS[row]) * SEEDS[row];
+      return (int) (h ^ (h >>> 32));
+    }
+
+    /** Envelhecimento: divide todos os contadores por dois. */
+    private void reset() {
+      for (int i = 0; i < table.length; i++) {
+        table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+      }
+      additions /= 2;
+    }
+  }
+}
@@ -0,0 +1,419 @@
+package com.elearning.remoteensine.dao;
+
+import com.elearning.remoteensine.util.DataSourceRouting;
+import com.elearning.remoteensine.util.DatabaseConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transporte padrão do {@link InvalidationBus}: cada nó grava seus eventos em
+ * {@code cache_invalidations} e lê os novos a cada {@code poll-interval-ms}, sempre do
+ * primário. Não exige nada além do banco que os nós já compartilham; o atraso fica em
+ * torno do intervalo de polling.
+ * <p>
+ * O AUTO_INCREMENT é reservado no INSERT, não no commit, então um ID menor pode aparecer
+ * depois de um maior. O cursor só avança sobre IDs contíguos; os já aplicados acima dele
+ * são lembrados. Um buraco que dura mais que {@link #GAP_TIMEOUT_MS} só ainda pode fechar
+ * se a transação que reservou o ID continuar aberta, e ela começou antes do buraco
+ * aparecer: sem nenhuma transação tão velha em {@code information_schema.innodb_trx}, o
+ * ID foi de uma transação desfeita e o buraco é pulado sem perda. Se houver, o cursor
+ * espera até {@link #GAP_MAX_WAIT_MS}; passado isso (ou sem acesso à innodb_trx), o
+ * buraco é pulado e o barramento é avisado da perda, descartando todos os caches.
+ * <p>
+ * A cada rodada o nó grava seu batimento em {@code cache_invalidation_nodes}, com a
+ * informação de se consegue publicar. Um outro nó sem batimento há mais que
+ * {@code max-staleness-ms}, ou que avisou não conseguir publicar, pode estar mudando dados
+ * sem que os eventos cheguem aqui: o barramento descarta todos os caches uma vez, e o
+ * transporte deixa de se declarar saudável até o nó voltar, se despedir ou sair pela
+ * retenção.
+ */
+@Repository
+public class CacheInvalidationDAO extends AbstractDAO implements InvalidationTransport {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheInvalidationDAO.class);
+
+  /** Os INSERTs deste transporte são transações curtas; um buraco mais velho que isso não fecha mais. */
+  static final long GAP_TIMEOUT_MS = 5_000;
+  /** Espera máxima por um buraco enquanto houver transação aberta desde antes dele. */
+  static final long GAP_MAX_WAIT_MS = 60_000;
+  private static final long PRUNE_INTERVAL_MS = 60_000;
+
+  private static final RowMapping<StoredEvent> EVENT_ROW = RowMapping.columns(
+      "id", "node_id", "region", "entity_id", "version", "published_at"
+  ).mappedBy((rs, c) -> new StoredEvent(rs.getLong(c[0]), new InvalidationEvent(
+      regionOf(rs.getString(c[2])), rs.getInt(c[3]), rs.getLong(c[4]), rs.getString(c[1]), rs.getLong(c[5]))));
+
+  private static final NamedQuery INSERT_EVENT = namedQuery("cacheInvalidation.insert",
+      "INSERT INTO cache_invalidations (node_id, region, entity_id, version, published_at) VALUES (?, ?, ?, ?, ?)");
+  private static final NamedQuery POLL_EVENTS = namedQuery("cacheInvalidation.poll",
+      "SELECT " + EVENT_ROW.selectList() + " FROM cache_invalidations WHERE id > ? ORDER BY id LIMIT ?");
+  private static final NamedQuery POLL_GAP = namedQuery("cacheInvalidation.pollGap",
+      "SELECT " + EVENT_ROW.selectList() + " FROM cache_invalidations WHERE id > ? AND id < ? ORDER BY id LIMIT ?");
+  private static final NamedQuery LAST_ID = namedQuery("cacheInvalidation.lastId",
+      "SELECT MAX(id) FROM cache_invalidations");
+  /** Idade, em segundos, da transação InnoDB aberta há mais tempo; NULL se não houver nenhuma. */
+  private static final NamedQuery OLDEST_TRANSACTION = namedQuery("cacheInvalidation.oldestTransaction",
+      "SELECT TIMESTAMPDIFF(SECOND, MIN(trx_started), NOW()) FROM information_schema.innodb_trx");
+  private static final NamedQuery PRUNE = namedQuery("cacheInvalidation.prune",
+      "DELETE FROM cache_invalidations WHERE created_at < NOW(3) - INTERVAL ? SECOND LIMIT ?");
+  private static final NamedQuery HEARTBEAT = namedQuery("cacheInvalidation.heartbeat",
+      "INSERT INTO cache_invalidation_nodes (node_id, publishing, heartbeat_at) VALUES (?, ?, NOW(3)) " +
+          "ON DUPLICATE KEY UPDATE publishing = VALUES(publishing), heartbeat_at = VALUES(heartbeat_at)");
+  private static final NamedQuery SILENT_NODES = namedQuery("cacheInvalidation.silentNodes",
+      "SELECT node_id FROM cache_invalidation_nodes WHERE node_id <> ? " +
+          "AND (publishing = FALSE OR heartbeat_at < NOW(3) - INTERVAL ? MICROSECOND) ORDER BY node_id");
+  private static final NamedQuery REMOVE_NODE = namedQuery("cacheInvalidation.removeNode",
+      "DELETE FROM cache_invalidation_nodes WHERE node_id = ?");
+  private static final NamedQuery PRUNE_NODES = namedQuery("cacheInvalidation.pruneNodes",
+      "DELETE FROM cache_invalidation_nodes WHERE heartbeat_at < NOW(3) - INTERVAL ? SECOND");
+
+  @Value("${app.invalidation.poll-interval-ms:500}")
+  private long pollIntervalMs = 500;
+
+  @Value("${app.invalidation.retention-seconds:600}")
+  private int retentionSeconds = 600;
+
+  @Value("${app.invalidation.poll-limit:1000}")
+  private int pollLimit = 1000;
+
+  /** O mesmo limite do barramento: um nó calado por mais que isso já pode ter deixado dados velhos aqui. */
+  @Value("${app.invalidation.max-staleness-ms:5000}")
+  private long nodeTimeoutMs = 5000;
+
+  private volatile String node;
+  private volatile Listener listener;
+  private volatile boolean publishing = true;
+  private ScheduledExecutorService poller;
+
+  /** Todos os IDs até aqui foram aplicados; -1 até a primeira leitura do MAX(id). */
+  private long cursor = -1;
+  /** IDs acima do cursor já aplicados, esperando os buracos abaixo deles. */
+  private final TreeSet<Long> appliedAbove = new TreeSet<>();
+  private long gapSince;
+  private long lastPruneAt;
+  private boolean failing;
+  /** Algum outro nó já avisado como calado; volta a false quando todos são ouvidos. */
+  private boolean nodesSilent;
+
+  public CacheInvalidationDAO(DatabaseConnector databaseConnector) {
+    super(databaseConnector);
+  }
+
+  @Override
+  public String getName() {
+    return "database";
+  }
+
+  /**
+   * Lê o cursor inicial antes de voltar, e não na primeira rodada da thread de polling:
+   * as cargas dos caches feitas depois da partida ficam cobertas pelos eventos acima dele.
+   * Se a leitura falhar, a primeira rodada que conseguir lê-lo avisa a perda.
+   */
+  @Override
+  public void start(String node, Listener listener) {
+    bind(node, listener);
+    lastPruneAt = System.currentTimeMillis();
+    try {
+      cursor = lastId();
+    } catch (SQLException e) {
+      failing = true;
+      log.warn("Falha ao ler a tabela de invalidações: {}", e.getMessage());
+    }
+    poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "cache-invalidation-poll");
+      thread.setDaemon(true);
+      return thread;
+    });
+    poller.scheduleWithFixedDelay(() -> {
+      try {
+        poll(System.currentTimeMillis());
+      } finally {
+        // O batimento é uma escrita: sem isso a thread ficaria fixada no primário.
+        DataSourceRouting.reset();
+      }
+    }, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void send(List<InvalidationEvent> events) throws IOException {
+    try {
+      BatchResult<InvalidationEvent> result = executeBatch(INSERT_EVENT, events, event -> null,
+          CacheInvalidationDAO::bindEvent, null);
+      if (result.hasFailures()) {
+        // Reenviar as linhas já gravadas é inofensivo: aplicar a mesma invalidação duas vezes não muda nada.
+        throw new IOException(result.getFailures().size() + " invalidation events were rejected: " +
+            result.getFailures().get(0).getMessage());
+      }
+    } catch (SQLException e) {
+      throw new IOException("Failed to store invalidation events.", e);
+    }
+  }
+
+  /**
+   * O próximo batimento leva o novo estado; enquanto falso, os outros nós não confiam nos caches.
+   */
+  @Override
+  public void setPublishing(boolean publishing) {
+    this.publishing = publishing;
+  }
+
+  /**
+   * Para o polling e apaga o batimento deste nó, como uma despedida: os outros nós
+   * esquecem este sem descartar os caches.
+   */
+  @Override
+  public void close() {
+    if (poller != null) {
+      poller.shutdownNow();
+    }
+    if (node == null) {
+      return;
+    }
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = prepare(conn, REMOVE_NODE)) {
+      pstmt.setString(1, node);
+      pstmt.executeUpdate();
+    } catch (SQLException e) {
+      log.warn("Não foi possível remover o batimento do nó {}: {}", node, e.getMessage());
+    }
+  }
+
+  /**
+   * Define o nó local e quem recebe os eventos; separado da thread de polling para os
+   * testes chamarem {@link #poll} direto.
+   */
+  void bind(String node, Listener listener) {
+    this.node = node;
+    this.listener = listener;
+  }
+
+  /**
+   * Uma rodada de polling; só a thread do transporte (ou os testes) chama.
+   */
+  void poll(long now) {
+    try {
+      if (cursor < 0) {
+        cursor = lastId();
+        if (failing) {
+          // Eventos gravados enquanto o banco estava fora não serão lidos.
+          listener.onLoss("tabela de invalidações lida pela primeira vez só depois de falhas");
+        }
+      } else {
+        if (!appliedAbove.isEmpty()) {
+          apply(fetch(POLL_GAP, cursor, appliedAbove.last()));
+        }
+        apply(fetch(POLL_EVENTS, appliedAbove.isEmpty() ? cursor : appliedAbove.last(), -1));
+        advance(now);
+      }
+      if (now - lastPruneAt >= PRUNE_INTERVAL_MS) {
+        lastPruneAt = now;
+        prune();
+      }
+      if (failing) {
+        failing = false;
+        log.info("Leitura da tabela de invalidações restabelecida.");
+      }
+      heartbeat();
+      if (checkNodes()) {
+        listener.onHealthy();
+      }
+    } catch (SQLException | RuntimeException e) {
+      if (!failing) {
+        failing = true;
+        log.warn("Falha ao ler a tabela de invalidações: {}", e.getMessage());
+      }
+    }
+  }
+
+  long getCursor() {
+    return cursor;
+  }
+
+  private void heartbeat() throws SQLException {
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = prepare(conn, HEARTBEAT)) {
+      pstmt.setString(1, node);
+      pstmt.setBoolean(2, publishing);
+      pstmt.executeUpdate();
+    }
+  }
+
+  /**
+   * Confere os batimentos dos outros nós. O primeiro nó calado gera um aviso de perda,
+   * que descarta os caches; enquanto houver algum, o transporte não se declara saudável,
+   * e o barramento fica sem caches depois de {@code maxStalenessMs}.
+   *
+   * @return true se todos os outros nós conhecidos estão publicando.
+   */
+  private boolean checkNodes() throws SQLException {
+    List<String> silent = new ArrayList<>();
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = prepare(conn, SILENT_NODES)) {
+      pstmt.setString(1, node);
+      pstmt.setLong(2, nodeTimeoutMs * 1000);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          silent.add(rs.getString(1));
+        }
+      }
+    }
+    if (silent.isEmpty()) {
+      if (nodesSilent) {
+        nodesSilent = false;
+        log.info("Todos os nós voltaram a publicar invalidações.");
+      }
+      return true;
+    }
+    if (!nodesSilent) {
+      nodesSilent = true;
+      listener.onLoss("nós sem publicar invalidações: " + String.join(", ", silent));
+    }
+    return false;
+  }
+
+  private void apply(List<StoredEvent> events) {
+    for (StoredEvent stored : events) {
+      if (stored.id > cursor && appliedAbove.add(stored.id)) {
+        listener.onEvent(stored.event);
+      }
+    }
+  }
+
+  private void advance(long now) {
+    while (!appliedAbove.isEmpty() && appliedAbove.first() == cursor + 1) {
+      cursor = appliedAbove.pollFirst();
+    }
+    if (appliedAbove.isEmpty()) {
+      gapSince = 0;
+      return;
+    }
+    if (gapSince == 0) {
+      gapSince = now;
+      return;
+    }
+    long waited = now - gapSince;
+    if (waited <= GAP_TIMEOUT_MS) {
+      return;
+    }
+    String gap = "IDs " + (cursor + 1) + " a " + (appliedAbove.first() - 1) + " da tabela de invalidações";
+    Boolean mayStillFill = openSince(waited);
+    if (Boolean.FALSE.equals(mayStillFill)) {
+      // Nenhuma transação aberta pode gravar os IDs que faltam: foram de transações desfeitas.
+      log.info("{} pulados: não há transação aberta desde antes do buraco.", gap);
+    } else if (mayStillFill != null && waited <= GAP_MAX_WAIT_MS) {
+      return;
+    } else {
+      // O INSERT pode ainda confirmar, e o evento dele não seria mais lido: descarta tudo.
+      listener.onLoss(gap + " não apareceram em " + waited + " ms");
+    }
+    cursor = appliedAbove.first() - 1;
+    gapSince = 0;
+    advance(now);
+  }
+
+  /**
+   * Se há transação InnoDB aberta há pelo menos {@code waitedMs} (com um segundo de folga,
+   * já que innodb_trx guarda o início em segundos).
+   *
+   * @return null se a innodb_trx não puder ser lida (ex.: usuário sem o privilégio PROCESS).
+   */
+  private Boolean openSince(long waitedMs) {
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = prepare(conn, OLDEST_TRANSACTION);
+         ResultSet rs = pstmt.executeQuery()) {
+      if (!rs.next()) {
+        return false;
+      }
+      long ageSeconds = rs.getLong(1);
+      return !rs.wasNull() && (ageSeconds + 1) * 1000 >= waitedMs;
+    } catch (SQLException e) {
+      log.warn("Não foi possível ler as transações abertas: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  private List<StoredEvent> fetch(NamedQuery query, long after, long before) throws SQLException {
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = prepare(conn, query)) {
+      int index = 1;
+      pstmt.setLong(index++, after);
+      if (before >= 0) {
+        pstmt.setLong(index++, before);
+      }
+      pstmt.setInt(index, pollLimit);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        return mapRows(query, EVENT_ROW, rs);
+      }
+    }
+  }
+
+  private long lastId() throws SQLException {
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = prepare(conn, LAST_ID);
+         ResultSet rs = pstmt.executeQuery()) {
+      return rs.next() ? rs.getLong(1) : 0;
+    }
+  }
+
+  /**
+   * Apaga eventos e batimentos mais velhos que a retenção; todos os nós podem fazer isso
+   * ao mesmo tempo.
+   */
+  private void prune() throws SQLException {
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = prepare(conn, PRUNE)) {
+      pstmt.setInt(1, retentionSeconds);
+      pstmt.setInt(2, pollLimit * 10);
+      pstmt.executeUpdate();
+    }
+    // Um nó que parou sem se despedir deixa de segurar os caches dos outros.
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = prepare(conn, PRUNE_NODES)) {
+      pstmt.setInt(1, retentionSeconds);
+      pstmt.executeUpdate();
+    }
+  }
+
+  private static void bindEvent(PreparedStatement pstmt, InvalidationEvent event) throws SQLException {
+    pstmt.setString(1, event.getNode());
+    pstmt.setString(2, event.getRegion().name());
+    pstmt.setInt(3, event.getId());
+    pstmt.setLong(4, event.getVersion());
+    pstmt.setLong(5, event.getPublishedAt());
+  }
+
+  /**
+   * Região gravada por uma versão mais nova da aplicação vira um descarte geral.
+   */
+  private static CacheRegion regionOf(String name) {
+    try {
+      return CacheRegion.valueOf(name);
+    } catch (IllegalArgumentException | NullPointerException e) {
+      return CacheRegion.ALL;
+    }
+  }
+
+  private static final class StoredEvent {
+    private final long id;
+    private final InvalidationEvent event;
+
+    private StoredEvent(long id, InvalidationEvent event) {
+      this.id = id;
+      this.event = event;
+    }
+  }
+}
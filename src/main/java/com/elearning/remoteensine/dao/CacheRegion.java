@@ -0,0 +1,25 @@
+package com.elearning.remoteensine.dao;
+
+/**
+ * Caches em memória dos DAOs que outros nós precisam descartar quando este nó grava.
+ * O ID de um evento identifica a entrada na região; {@link InvalidationBus#ALL_IDS}
+ * descarta a região inteira.
+ */
+public enum CacheRegion {
+  /** Cache de usuários do {@link UserDAO}, por ID do usuário. */
+  USER,
+  /** Índice de donos de curso do {@link OwnershipDAO}, por ID do curso. */
+  OWNERSHIP,
+  /** Foto do catálogo do {@link CourseDAO}; o ID é o curso a reler. */
+  CATALOG,
+  /** Índice de matrículas do {@link EnrollDAO}; o ID é o curso a reler. */
+  ENROLLMENT,
+  /** Provas publicadas do {@link ExamDefinitionDAO}, por ID da definição. */
+  PUBLISHED_EXAM,
+  /** Índice de inscritos da newsletter do {@link NewsletterDAO}; sempre inteiro. */
+  NEWSLETTER,
+  /** Versão das notas do {@link ExamDAO}, que entra no ETag do catálogo; sempre inteira. */
+  RATINGS,
+  /** Todas as regiões: enviado quando a fila de envio transborda e eventos se perdem. */
+  ALL
+}
@@ -0,0 +1,60 @@
+package com.elearning.remoteensine.dao;
+
+/**
+ * Métricas de um cache em memória, expostas em /monitoramento/cache.
+ */
+public class CacheStats {
+  private final String name;
+  private final int capacity;
+  private final int size;
+  private final long hits;
+  private final long misses;
+  private final long evictions;
+  private final long rejections;
+
+  public CacheStats(String name, int capacity, int size, long hits, long misses, long evictions, long rejections) {
+    this.name = name;
+    this.capacity = capacity;
+    this.size = size;
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.rejections = rejections;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  /** Fração das buscas atendidas pelo cache, entre 0 e 1. */
+  public double getHitRatio() {
+    long requests = hits + misses;
+    return requests == 0 ? 0.0 : (double) hits / requests;
+  }
+
+  /** Entradas expulsas por falta de espaço (não conta as descartadas por alteração). */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /** Das expulsões, quantas foram da entrada nova, por ser menos frequente que a vítima. */
+  public long getRejections() {
+    return rejections;
+  }
+}
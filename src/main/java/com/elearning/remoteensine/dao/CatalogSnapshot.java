@@ -0,0 +1,104 @@
+package com.elearning.remoteensine.dao;
+
+import com.elearning.remoteensine.model.CourseSummary;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Foto imutável do catálogo de cursos: os resumos já ordenados por título (sem
+ * diferenciar maiúsculas) e ID, e o número da versão. Uma alteração gera uma foto nova
+ * com {@link #with}; quem está lendo a anterior não é afetado. Os resumos são imutáveis
+ * e compartilhados entre as fotos; cada um guarda a versão da foto em que foi lido, que
+ * identifica o card renderizado do curso, e muda por cópia.
+ */
+public final class CatalogSnapshot {
+
+  static final Comparator<CourseSummary> TITLE_ORDER = Comparator
+      .comparing(CourseSummary::getTitle, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+      .thenComparing(CourseSummary::getTitle, Comparator.nullsFirst(Comparator.naturalOrder()))
+      .thenComparingInt(CourseSummary::getIdCourse);
+
+  private final long version;
+  private final CourseSummary[] byTitle;
+
+  private CatalogSnapshot(long version, CourseSummary[] byTitle) {
+    this.version = version;
+    this.byTitle = byTitle;
+  }
+
+  static CatalogSnapshot of(long version, List<CourseSummary> courses) {
+    CourseSummary[] sorted = new CourseSummary[courses.size()];
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] = courses.get(i).withVersion(version);
+    }
+    Arrays.sort(sorted, TITLE_ORDER);
+    return new CatalogSnapshot(version, sorted);
+  }
+
+  /**
+   * Cópia desta foto sem o curso informado e, se {@code replacement} não for null, com
+   * ele na posição certa da ordem de título.
+   */
+  CatalogSnapshot with(long newVersion, int idCourse, CourseSummary replacement) {
+    CourseSummary[] next = new CourseSummary[byTitle.length + 1];
+    int size = 0;
+    for (CourseSummary summary : byTitle) {
+      if (summary.getIdCourse() != idCourse) {
+        next[size++] = summary;
+      }
+    }
+    if (replacement != null) {
+      replacement = replacement.withVersion(newVersion);
+      int at = Arrays.binarySearch(next, 0, size, replacement, TITLE_ORDER);
+      at = at >= 0 ? at : -at - 1;
+      System.arraycopy(next, at, next, at + 1, size - at);
+      next[at] = replacement;
+      size++;
+    }
+    return new CatalogSnapshot(newVersion, Arrays.copyOf(next, size));
+  }
+
+  /**
+   * Cópia desta foto com o nome do professor trocado nos cursos dele. A ordem de título
+   * não muda; os resumos afetados são copiados, não alterados.
+   */
+  CatalogSnapshot withProfessorName(long newVersion, int idProfessor, String name) {
+    CourseSummary[] next = byTitle.clone();
+    for (int i = 0; i < next.length; i++) {
+      if (next[i].getProfessorId() == idProfessor) {
+        next[i] = next[i].withProfessorName(name, newVersion);
+      }
+    }
+    return new CatalogSnapshot(newVersion, next);
+  }
+
+  /**
+   * Página do catálogo que começa depois da posição do cursor. Se o curso do cursor
+   * tiver sido removido, a página começa no primeiro curso depois de onde ele estava.
+   */
+  KeysetPage<CourseSummary> page(KeysetPage.Position after, int size) {
+    int from = 0;
+    if (after != null) {
+      CourseSummary probe = new CourseSummary(after.getId(), after.getSortKey(), 0, null, 0, null, 0, 0);
+      int found = Arrays.binarySearch(byTitle, probe, TITLE_ORDER);
+      from = found >= 0 ? found + 1 : -found - 1;
+    }
+    int to = Math.min(from + size, byTitle.length);
+    List<CourseSummary> items = Arrays.asList(Arrays.copyOfRange(byTitle, from, to));
+    if (to >= byTitle.length) {
+      return new KeysetPage<>(items, null);
+    }
+    CourseSummary last = byTitle[to - 1];
+    return new KeysetPage<>(items, KeysetPage.cursor(last.getTitle(), last.getIdCourse()));
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public int size() {
+    return byTitle.length;
+  }
+}
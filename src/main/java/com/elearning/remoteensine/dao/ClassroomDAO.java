@@ -1,6 +1,8 @@
 package com.elearning.remoteensine.dao;
 
 import com.elearning.remoteensine.model.Classroom;
+import com.elearning.remoteensine.model.Course;
+import com.elearning.remoteensine.model.LessonPage;
 import com.elearning.remoteensine.util.DatabaseConnector;
 import org.springframework.stereotype.Repository;
 
@@ -11,6 +13,59 @@ import java.util.List;
 @Repository
 public class ClassroomDAO extends AbstractDAO{
 
+  private static final NamedQuery SAVE_CLASSROOM = namedQuery("classroom.saveClassroom",
+      "INSERT INTO classes (course_id, title, description, content_url, sequence) VALUES (?, ?, ?, ?, ?)");
+  private static final NamedQuery SEARCH_BY_ID = namedQuery("classroom.searchById",
+      "SELECT * FROM classes WHERE classroom_id = ?");
+  private static final NamedQuery LIST_CLASSES_BY_COURSE = namedQuery("classroom.listClassesByCourse",
+      "SELECT * FROM classes WHERE course_id = ? ORDER BY sequence ASC, classroom_id ASC");
+  private static final NamedQuery UPDDATE_CLASS = namedQuery("classroom.upddateClass",
+      "UPDATE classes SET course_id = ?, title = ?, description = ?, content_url = ?, sequence = ? " +
+      "WHERE classroom_id = ?");
+  private static final NamedQuery DELETE_CLASS = namedQuery("classroom.deleteClass",
+      "DELETE FROM classes WHERE classroom_id = ?");
+  private static final NamedQuery DELETE_CLASSES_BY_COURSE = namedQuery("classroom.deleteClassesByCourse",
+      "DELETE FROM classes WHERE course_id = ?");
+
+  /**
+   * Aula com o título do curso e os IDs das aulas vizinhas (mesma ordem de
+   * listClassesByCourse: sequence, classroom_id), tudo numa linha.
+   */
+  private static final RowMapping<LessonPage> LESSON_ROW = RowMapping.columns(
+      "classroom_id", "course_id", "title", "description", "content_url", "sequence",
+      "course_title", "previous_classroom_id", "next_classroom_id"
+  ).mappedBy((rs, c) -> {
+    Classroom classroom = new Classroom();
+    classroom.setClassroomId(rs.getInt(c[0]));
+    classroom.setCourseId(rs.getInt(c[1]));
+    classroom.setTitle(rs.getString(c[2]));
+    classroom.setDescription(rs.getString(c[3]));
+    classroom.setContentURL(rs.getString(c[4]));
+    classroom.setSequence(rs.getInt(c[5]));
+
+    Course course = new Course();
+    course.setIdCourse(classroom.getCourseId());
+    course.setTitle(rs.getString(c[6]));
+
+    int previous = rs.getInt(c[7]);
+    Integer previousId = rs.wasNull() || previous == 0 ? null : previous;
+    int next = rs.getInt(c[8]);
+    Integer nextId = rs.wasNull() || next == 0 ? null : next;
+    return new LessonPage(course, classroom, previousId, nextId);
+  });
+
+  private static final NamedQuery SEARCH_LESSON_IN_COURSE = namedQuery("classroom.searchLessonInCourse",
+      "SELECT cl.classroom_id, cl.course_id, cl.title, cl.description, cl.content_url, cl.sequence, " +
+      "c.title AS course_title, " +
+      "(SELECT p.classroom_id FROM classes p WHERE p.course_id = cl.course_id " +
+      "AND (p.sequence < cl.sequence OR (p.sequence = cl.sequence AND p.classroom_id < cl.classroom_id)) " +
+      "ORDER BY p.sequence DESC, p.classroom_id DESC LIMIT 1) AS previous_classroom_id, " +
+      "(SELECT n.classroom_id FROM classes n WHERE n.course_id = cl.course_id " +
+      "AND (n.sequence > cl.sequence OR (n.sequence = cl.sequence AND n.classroom_id > cl.classroom_id)) " +
+      "ORDER BY n.sequence, n.classroom_id LIMIT 1) AS next_classroom_id " +
+      "FROM classes cl JOIN courses c ON c.course_id = cl.course_id " +
+      "WHERE cl.classroom_id = ? AND cl.course_id = ?");
+
   public ClassroomDAO(DatabaseConnector databaseConnector) {
     super(databaseConnector);
   }
@@ -23,10 +78,8 @@ public class ClassroomDAO extends AbstractDAO{
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public Classroom saveClassroom(Classroom classroom) throws SQLException {
-    String sql = "INSERT INTO classes (course_id, title, description, content_url, sequence) VALUES (?, ?, ?, ?, ?)";
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+         PreparedStatement pstmt = prepare(conn, SAVE_CLASSROOM, Statement.RETURN_GENERATED_KEYS)) {
 
       if (classroom.getCourseId() <= 0) {
         throw new SQLException("Invalid or not defined course ID for class.");
@@ -63,11 +116,10 @@ public class ClassroomDAO extends AbstractDAO{
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public Classroom searchById(int idClassroom) throws SQLException {
-    String sql = "SELECT * FROM classes WHERE classroom_id = ?";
     Classroom classroom = null;
 
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, SEARCH_BY_ID)) {
 
       pstmt.setInt(1, idClassroom);
       ResultSet rs = pstmt.executeQuery();
@@ -88,10 +140,9 @@ public class ClassroomDAO extends AbstractDAO{
    */
   public List<Classroom> listClassesByCourse(int idCourse) throws SQLException {
     List<Classroom> classrooms = new ArrayList<>();
-    String sql = "SELECT * FROM classes WHERE course_id = ? ORDER BY sequence ASC, classroom_id ASC";
 
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, LIST_CLASSES_BY_COURSE)) {
 
       pstmt.setInt(1, idCourse);
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -103,6 +154,27 @@ public class ClassroomDAO extends AbstractDAO{
     return classrooms;
   }
 
+  /**
+   * Busca uma aula do curso junto com o título do curso e as aulas anterior e seguinte,
+   * numa única consulta.
+   *
+   * @param idCourse    O ID do curso.
+   * @param idClassroom O ID da aula.
+   * @return A página da aula, ainda sem exercícios, ou null se a aula não existir nesse curso.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public LessonPage searchLessonInCourse(int idCourse, int idClassroom) throws SQLException {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, SEARCH_LESSON_IN_COURSE)) {
+
+      pstmt.setInt(1, idClassroom);
+      pstmt.setInt(2, idCourse);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        return rs.next() ? mapRow(SEARCH_LESSON_IN_COURSE, LESSON_ROW, rs) : null;
+      }
+    }
+  }
+
   /**
    * Atualiza os dados de uma aula existente no banco.
    *
@@ -111,11 +183,8 @@ public class ClassroomDAO extends AbstractDAO{
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean upddateClass(Classroom classroom) throws SQLException {
-    String sql = "UPDATE classes SET course_id = ?, title = ?, description = ?, content_url = ?, sequence = ? " +
-        "WHERE classroom_id = ?";
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, UPDDATE_CLASS)) {
 
       if (classroom.getCourseId() <= 0) {
         throw new SQLException("Invalid course ID or not defined for the class.");
@@ -139,11 +208,16 @@ public class ClassroomDAO extends AbstractDAO{
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean deleteClass(int idClassroom) throws SQLException {
-    String sql = "DELETE FROM classes WHERE classroom_id = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setInt(1, idClassroom);
-      return pstmt.executeUpdate() > 0;
+    try (Connection conn = getConnection()) {
+      boolean deleted;
+      try (PreparedStatement pstmt = prepare(conn, DELETE_CLASS)) {
+        pstmt.setInt(1, idClassroom);
+        deleted = pstmt.executeUpdate() > 0;
+      }
+      if (deleted) {
+        recordContentDeletion(conn);
+      }
+      return deleted;
     }
   }
 
@@ -157,11 +231,16 @@ public class ClassroomDAO extends AbstractDAO{
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public int deleteClassesByCourse(int idCourse) throws SQLException {
-    String sql = "DELETE FROM classes WHERE classroom_id = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setInt(1, idCourse);
-      return pstmt.executeUpdate();
+    try (Connection conn = getConnection()) {
+      int deleted;
+      try (PreparedStatement pstmt = prepare(conn, DELETE_CLASSES_BY_COURSE)) {
+        pstmt.setInt(1, idCourse);
+        deleted = pstmt.executeUpdate();
+      }
+      if (deleted > 0) {
+        recordContentDeletion(conn);
+      }
+      return deleted;
     }
   }
 
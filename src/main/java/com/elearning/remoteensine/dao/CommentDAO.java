@@ -6,12 +6,46 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.*;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 @Repository
 public class CommentDAO extends AbstractDAO {
 
+  private static final RowMapping<Comment> COMMENT_ROW = RowMapping.columns(
+      "comment_id", "course_id", "student_id", "text", "hour_date"
+  ).mappedBy((rs, c) -> {
+    Comment comment = new Comment();
+    comment.setCommentId(rs.getInt(c[0]));
+    comment.setCourseId(rs.getInt(c[1]));
+    comment.setStudentId(rs.getInt(c[2]));
+    comment.setText(rs.getString(c[3]));
+    Timestamp tsDataHora = rs.getTimestamp(c[4]);
+    if (tsDataHora != null) {
+      comment.setHourDate(tsDataHora.toLocalDateTime());
+    }
+    return comment;
+  });
+
+  private static final NamedQuery SAVE_COMMENT = namedQuery("comment.saveComment",
+      "INSERT INTO courses_comments (course_id, student_id, text, hour_date) VALUES (?, ?, ?, ?)");
+  private static final NamedQuery SEARCH_COMMENT_BY_ID = namedQuery("comment.searchCommentById",
+      "SELECT " + COMMENT_ROW.selectList() + " FROM courses_comments WHERE comment_id = ?");
+  private static final NamedQuery LIST_COURSES_COMMENTS = namedQuery("comment.listCoursesComments",
+      "SELECT " + COMMENT_ROW.selectList() + " FROM courses_comments WHERE course_id = ? ORDER BY hour_date DESC");
+  private static final NamedQuery COURSE_COMMENTS_FIRST_PAGE = namedQuery("comment.courseCommentsFirstPage",
+      "SELECT " + COMMENT_ROW.selectList() + " FROM courses_comments WHERE course_id = ? " +
+      "ORDER BY hour_date DESC, comment_id DESC LIMIT ?");
+  private static final NamedQuery COURSE_COMMENTS_NEXT_PAGE = namedQuery("comment.courseCommentsNextPage",
+      "SELECT " + COMMENT_ROW.selectList() + " FROM courses_comments WHERE course_id = ? " +
+      "AND (hour_date < ? OR (hour_date = ? AND comment_id < ?)) " +
+      "ORDER BY hour_date DESC, comment_id DESC LIMIT ?");
+  private static final NamedQuery LIST_STUDENTS_COMMENTS = namedQuery("comment.listStudentsComments",
+      "SELECT " + COMMENT_ROW.selectList() + " FROM courses_comments WHERE student_id = ? ORDER BY hour_date DESC");
+  private static final NamedQuery UPDATE_COMMENT = namedQuery("comment.updateComment",
+      "UPDATE courses_comments SET text = ?, hour_date = ? WHERE comment_id = ?");
+  private static final NamedQuery DELETE_COMMENT = namedQuery("comment.deleteComment",
+      "DELETE FROM courses_comments WHERE comment_id = ?");
+
   public CommentDAO(DatabaseConnector databaseConnector) {
     super(databaseConnector);
   }
@@ -24,10 +58,8 @@ public class CommentDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public Comment saveComment(Comment comment) throws SQLException {
-    String sql = "INSERT INTO courses_comments (course_id, student_id, text, hour_date) VALUES (?, ?, ?, ?)";
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+         PreparedStatement pstmt = prepare(conn, SAVE_COMMENT, Statement.RETURN_GENERATED_KEYS)) {
 
       pstmt.setInt(1, comment.getCourseId());
       pstmt.setInt(2, comment.getStudentId());
@@ -59,17 +91,16 @@ public class CommentDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public Comment searchCommentById(int idComment) throws SQLException {
-    String sql = "SELECT * FROM courses_comments WHERE comment_id = ?";
     Comment comment = null;
 
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, SEARCH_COMMENT_BY_ID)) {
 
       pstmt.setInt(1, idComment);
       ResultSet rs = pstmt.executeQuery();
 
       if (rs.next()) {
-        comment = mapResultSetComments(rs);
+        comment = mapRow(SEARCH_COMMENT_BY_ID, COMMENT_ROW, rs);
       }
     }
     return comment;
@@ -83,23 +114,55 @@ public class CommentDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public List<Comment> listCoursesComments(int idCourse) throws SQLException {
-    List<Comment> comments = new ArrayList<>();
-    String sql = "SELECT * FROM courses_comments WHERE course_id = ? ORDER BY hour_date DESC";
+    List<Comment> comments;
 
-
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, LIST_COURSES_COMMENTS)) {
 
       pstmt.setInt(1, idCourse);
       try (ResultSet rs = pstmt.executeQuery()) {
-        while (rs.next()) {
-          comments.add(mapResultSetComments(rs));
-        }
+        comments = mapRows(LIST_COURSES_COMMENTS, COMMENT_ROW, rs);
       }
     }
     return comments;
   }
 
+  /**
+   * Lista uma página dos comentários de um curso, do mais recente para o mais antigo.
+   * A página seguinte começa depois do último comentário devolvido (data/hora + ID),
+   * sem OFFSET, então qualquer página custa o mesmo que a primeira.
+   *
+   * @param idCourse O ID do curso.
+   * @param cursor   Cursor devolvido pela página anterior, ou null para a primeira página.
+   * @param size     Quantidade de comentários por página (limitada a {@link KeysetPage#MAX_SIZE}).
+   * @return A página de Comentarios e o cursor da próxima.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   * @throws IllegalArgumentException Se o cursor for inválido.
+   */
+  public KeysetPage<Comment> listCoursesCommentsPage(int idCourse, String cursor, int size) throws SQLException {
+    int limit = KeysetPage.clampSize(size);
+    KeysetPage.Position after = KeysetPage.decode(cursor);
+    NamedQuery query = after == null ? COURSE_COMMENTS_FIRST_PAGE : COURSE_COMMENTS_NEXT_PAGE;
+
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, query)) {
+
+      int i = 1;
+      pstmt.setInt(i++, idCourse);
+      if (after != null) {
+        Timestamp lastHourDate = Timestamp.valueOf(after.getDateTime());
+        pstmt.setTimestamp(i++, lastHourDate);
+        pstmt.setTimestamp(i++, lastHourDate);
+        pstmt.setInt(i++, after.getId());
+      }
+      pstmt.setInt(i, limit + 1);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        return KeysetPage.of(mapRows(query, COMMENT_ROW, rs), limit,
+            comment -> KeysetPage.cursor(comment.getHourDate(), comment.getCommentId()));
+      }
+    }
+  }
+
   /**
    * Lista todos os comentários feitos por um aluno específico.
    *
@@ -108,17 +171,14 @@ public class CommentDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public List<Comment> listStudentsComments(int idStudent) throws SQLException {
-    List<Comment> comments = new ArrayList<>();
-    String sql = "SELECT * FROM courses_comments WHERE student_id = ? ORDER BY hour_date DESC";
+    List<Comment> comments;
 
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, LIST_STUDENTS_COMMENTS)) {
 
       pstmt.setInt(1, idStudent);
       try (ResultSet rs = pstmt.executeQuery()) {
-        while (rs.next()) {
-          comments.add(mapResultSetComments(rs));
-        }
+        comments = mapRows(LIST_STUDENTS_COMMENTS, COMMENT_ROW, rs);
       }
     }
     return comments;
@@ -135,9 +195,8 @@ public class CommentDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean updateComment(Comment comment) throws SQLException {
-    String sql = "UPDATE courses_comments SET text = ?, hour_date = ? WHERE comment_id = ?";
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, UPDATE_COMMENT)) {
 
       pstmt.setString(1, comment.getText());
       pstmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
@@ -155,25 +214,16 @@ public class CommentDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean deleteComment(int idComment) throws SQLException {
-    String sql = "DELETE FROM courses_comments WHERE comment_id = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setInt(1, idComment);
-      return pstmt.executeUpdate() > 0;
-    }
-  }
-
-  private Comment mapResultSetComments(ResultSet rs) throws SQLException {
-    Comment comment = new Comment();
-    comment.setCommentId(rs.getInt("comment_id"));
-    comment.setCourseId(rs.getInt("course_id"));
-    comment.setStudentId(rs.getInt("student_id"));
-    comment.setText(rs.getString("text"));
-    Timestamp tsDataHora = rs.getTimestamp("hour_date");
-    if (tsDataHora != null) {
-      comment.setHourDate(tsDataHora.toLocalDateTime());
+    try (Connection conn = getConnection()) {
+      boolean deleted;
+      try (PreparedStatement pstmt = prepare(conn, DELETE_COMMENT)) {
+        pstmt.setInt(1, idComment);
+        deleted = pstmt.executeUpdate() > 0;
+      }
+      if (deleted) {
+        recordContentDeletion(conn);
+      }
+      return deleted;
     }
-    return comment;
   }
 }
-
@@ -0,0 +1,266 @@
+package com.elearning.remoteensine.dao;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto imutável de inteiros não negativos no formato do Roaring bitmap: os valores
+ * são agrupados pelos 16 bits altos, e cada grupo guarda os 16 bits baixos num array
+ * ordenado de char (até 4096 valores, 2 bytes cada) ou num bitmap de 8 KB (acima disso).
+ * Uma turma pequena ocupa poucos bytes e um curso com milhares de alunos cabe em alguns
+ * bitmaps, e {@link #contains} é uma busca binária seguida de um acesso a array.
+ * <p>
+ * {@link #with} e {@link #without} devolvem uma cópia que compartilha os grupos não
+ * alterados, então o conjunto pode ser lido por várias threads sem lock.
+ */
+final class CompressedBitmap {
+
+  static final CompressedBitmap EMPTY = new CompressedBitmap(new char[0], new Object[0]);
+
+  /** Acima disso um grupo em array ocuparia mais que o bitmap de 65536 bits. */
+  private static final int ARRAY_MAX = 4096;
+  private static final int BITMAP_WORDS = 1024;
+
+  /** 16 bits altos de cada grupo, em ordem crescente. */
+  private final char[] keys;
+  /** Para cada chave, um char[] ordenado ou um long[1024]. */
+  private final Object[] containers;
+
+  private CompressedBitmap(char[] keys, Object[] containers) {
+    this.keys = keys;
+    this.containers = containers;
+  }
+
+  boolean contains(int value) {
+    if (value < 0) {
+      return false;
+    }
+    int index = Arrays.binarySearch(keys, high(value));
+    if (index < 0) {
+      return false;
+    }
+    Object container = containers[index];
+    char low = low(value);
+    if (container instanceof char[]) {
+      return Arrays.binarySearch((char[]) container, low) >= 0;
+    }
+    return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+  }
+
+  CompressedBitmap with(int value) {
+    checkValue(value);
+    char low = low(value);
+    int index = Arrays.binarySearch(keys, high(value));
+    if (index < 0) {
+      int at = -index - 1;
+      char[] newKeys = new char[keys.length + 1];
+      Object[] newContainers = new Object[containers.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, at);
+      System.arraycopy(containers, 0, newContainers, 0, at);
+      newKeys[at] = high(value);
+      newContainers[at] = new char[]{low};
+      System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+      System.arraycopy(containers, at, newContainers, at + 1, containers.length - at);
+      return new CompressedBitmap(newKeys, newContainers);
+    }
+    Object container = containers[index];
+    Object updated;
+    if (container instanceof char[]) {
+      char[] values = (char[]) container;
+      int at = Arrays.binarySearch(values, low);
+      if (at >= 0) {
+        return this;
+      }
+      at = -at - 1;
+      if (values.length + 1 > ARRAY_MAX) {
+        long[] words = toBitmap(values);
+        words[low >>> 6] |= 1L << low;
+        updated = words;
+      } else {
+        char[] grown = new char[values.length + 1];
+        System.arraycopy(values, 0, grown, 0, at);
+        grown[at] = low;
+        System.arraycopy(values, at, grown, at + 1, values.length - at);
+        updated = grown;
+      }
+    } else {
+      long[] words = (long[]) container;
+      if ((words[low >>> 6] & (1L << low)) != 0) {
+        return this;
+      }
+      long[] copy = words.clone();
+      copy[low >>> 6] |= 1L << low;
+      updated = copy;
+    }
+    Object[] newContainers = containers.clone();
+    newContainers[index] = updated;
+    return new CompressedBitmap(keys, newContainers);
+  }
+
+  CompressedBitmap without(int value) {
+    if (!contains(value)) {
+      return this;
+    }
+    char low = low(value);
+    int index = Arrays.binarySearch(keys, high(value));
+    Object container = containers[index];
+    Object updated;
+    if (container instanceof char[]) {
+      char[] values = (char[]) container;
+      if (values.length == 1) {
+        return removeContainer(index);
+      }
+      int at = Arrays.binarySearch(values, low);
+      char[] shrunk = new char[values.length - 1];
+      System.arraycopy(values, 0, shrunk, 0, at);
+      System.arraycopy(values, at + 1, shrunk, at, values.length - at - 1);
+      updated = shrunk;
+    } else {
+      long[] copy = ((long[]) container).clone();
+      copy[low >>> 6] &= ~(1L << low);
+      updated = cardinality(copy) <= ARRAY_MAX ? toArray(copy) : copy;
+    }
+    Object[] newContainers = containers.clone();
+    newContainers[index] = updated;
+    return new CompressedBitmap(keys, newContainers);
+  }
+
+  int cardinality() {
+    int total = 0;
+    for (Object container : containers) {
+      total += container instanceof char[] ? ((char[]) container).length : cardinality((long[]) container);
+    }
+    return total;
+  }
+
+  /**
+   * Quantos grupos estão no formato bitmap (os demais são arrays).
+   */
+  int bitmapGroups() {
+    int total = 0;
+    for (Object container : containers) {
+      if (container instanceof long[]) {
+        total++;
+      }
+    }
+    return total;
+  }
+
+  private CompressedBitmap removeContainer(int index) {
+    if (keys.length == 1) {
+      return EMPTY;
+    }
+    char[] newKeys = new char[keys.length - 1];
+    Object[] newContainers = new Object[containers.length - 1];
+    System.arraycopy(keys, 0, newKeys, 0, index);
+    System.arraycopy(containers, 0, newContainers, 0, index);
+    System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+    System.arraycopy(containers, index + 1, newContainers, index, containers.length - index - 1);
+    return new CompressedBitmap(newKeys, newContainers);
+  }
+
+  private static long[] toBitmap(char[] values) {
+    long[] words = new long[BITMAP_WORDS];
+    for (char value : values) {
+      words[value >>> 6] |= 1L << value;
+    }
+    return words;
+  }
+
+  private static char[] toArray(long[] words) {
+    char[] values = new char[cardinality(words)];
+    int size = 0;
+    for (int i = 0; i < words.length; i++) {
+      long word = words[i];
+      while (word != 0) {
+        values[size++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+    }
+    return values;
+  }
+
+  private static int cardinality(long[] words) {
+    int total = 0;
+    for (long word : words) {
+      total += Long.bitCount(word);
+    }
+    return total;
+  }
+
+  private static char high(int value) {
+    return (char) (value >>> 16);
+  }
+
+  private static char low(int value) {
+    return (char) value;
+  }
+
+  private static void checkValue(int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Bitmap values must not be negative: " + value);
+    }
+  }
+
+  /**
+   * Monta um conjunto a partir de valores em ordem crescente (repetidos são ignorados),
+   * como os lidos de um índice (course_id, student_id).
+   */
+  static final class Builder {
+    private final char[] buffer = new char[1 << 16];
+    private char[] keys = new char[4];
+    private Object[] containers = new Object[4];
+    private int size;
+    private int currentKey = -1;
+    private int buffered;
+
+    void add(int value) {
+      checkValue(value);
+      int key = value >>> 16;
+      if (key != currentKey) {
+        if (key < currentKey) {
+          throw new IllegalArgumentException("Bitmap values must be added in ascending order.");
+        }
+        flush();
+        currentKey = key;
+      }
+      char low = low(value);
+      if (buffered > 0) {
+        char last = buffer[buffered - 1];
+        if (low == last) {
+          return;
+        }
+        if (low < last) {
+          throw new IllegalArgumentException("Bitmap values must be added in ascending order.");
+        }
+      }
+      buffer[buffered++] = low;
+    }
+
+    /**
+     * Devolve o conjunto montado e deixa o builder vazio, pronto para o próximo.
+     */
+    CompressedBitmap build() {
+      flush();
+      CompressedBitmap bitmap = size == 0 ? EMPTY
+          : new CompressedBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(containers, size));
+      size = 0;
+      currentKey = -1;
+      return bitmap;
+    }
+
+    private void flush() {
+      if (buffered == 0) {
+        return;
+      }
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2);
+        containers = Arrays.copyOf(containers, size * 2);
+      }
+      char[] values = Arrays.copyOf(buffer, buffered);
+      keys[size] = (char) currentKey;
+      containers[size] = values.length > ARRAY_MAX ? toBitmap(values) : values;
+      size++;
+      buffered = 0;
+    }
+  }
+}
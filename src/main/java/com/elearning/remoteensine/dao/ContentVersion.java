@@ -0,0 +1,28 @@
+package com.elearning.remoteensine.dao;
+
+/**
+ * Versão do conteúdo de uma página, lida do banco e igual em todos os nós: o texto muda
+ * a cada inclusão, alteração ou exclusão do que a página exibe, e a data é a da última
+ * dessas mudanças.
+ */
+public final class ContentVersion {
+
+  private final String version;
+  private final long lastModified;
+
+  public ContentVersion(String version, long lastModified) {
+    this.version = version;
+    this.lastModified = lastModified;
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  /**
+   * @return Instante da última mudança, em milissegundos, ou -1 se não houver data.
+   */
+  public long getLastModified() {
+    return lastModified;
+  }
+}
@@ -2,20 +2,193 @@ package com.elearning.remoteensine.dao;
 
 import com.elearning.remoteensine.model.Professor;
 import com.elearning.remoteensine.model.Course;
+import com.elearning.remoteensine.model.CourseSummary;
 import com.elearning.remoteensine.util.DatabaseConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import com.elearning.remoteensine.util.UnitOfWork;
+
 import java.sql.*;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Repository
 public class CourseDAO extends AbstractDAO{
 
-    public CourseDAO(DatabaseConnector databaseConnector) {
+    private static final Logger log = LoggerFactory.getLogger(CourseDAO.class);
+
+    /**
+     * Projeção e mapeamento de um Curso. O ProfessorResponsavel terá apenas o ID preenchido.
+     */
+    private static final RowMapping<Course> COURSE_ROW = RowMapping.columns(
+            "course_id", "title", "description", "price", "video_presentation_url",
+            "category", "load_hour", "creation_date", "update_date", "responsible_professor_id"
+    ).mappedBy((rs, c) -> {
+        Course course = new Course();
+        course.setIdCourse(rs.getInt(c[0]));
+        course.setTitle(rs.getString(c[1]));
+        course.setDescription(rs.getString(c[2]));
+        course.setPrice(rs.getDouble(c[3]));
+        course.setPresentationVideo(rs.getString(c[4]));
+        course.setCategory(rs.getString(c[5]));
+        course.setHoursLoad(rs.getInt(c[6]));
+        Timestamp creationDateTs = rs.getTimestamp(c[7]);
+        if (creationDateTs != null) {
+            course.setCreationDate(creationDateTs.toLocalDateTime());
+        }
+        Timestamp updateDateTs = rs.getTimestamp(c[8]);
+        if (updateDateTs != null) {
+            course.setUpdateDate(updateDateTs.toLocalDateTime());
+        }
+
+        Professor professor = new Professor();
+        professor.setIdUser(rs.getInt(c[9]));
+        course.setResponsibleProfessor(professor);
+        return course;
+    });
+
+    /**
+     * Curso com o professor responsável vindo do JOIN com users (sem a senha).
+     * Se o responsável não for um professor, o Professor fica só com o ID, como em COURSE_ROW.
+     */
+    private static final RowMapping<Course> COURSE_WITH_PROFESSOR_ROW = RowMapping.columns(
+            "course_id", "title", "description", "price", "video_presentation_url",
+            "category", "load_hour", "creation_date", "update_date", "responsible_professor_id",
+            "professor_name", "professor_email", "professor_specialization"
+    ).mappedBy((rs, c) -> {
+        Course course = COURSE_ROW.map(rs, c);
+        String professorName = rs.getString(c[10]);
+        if (professorName != null) {
+            Professor professor = course.getResponsibleProfessor();
+            professor.setName(professorName);
+            professor.setEmail(rs.getString(c[11]));
+            professor.setSpecialization(rs.getString(c[12]));
+        }
+        return course;
+    });
+
+    /**
+     * Linha do catálogo: sem a descrição e com o professor só com ID e nome.
+     */
+    private static final RowMapping<CourseSummary> CATALOG_ROW = RowMapping.columns(
+            "course_id", "title", "price", "category", "load_hour", "responsible_professor_id", "professor_name"
+    ).mappedBy((rs, c) -> new CourseSummary(
+            rs.getInt(c[0]),
+            rs.getString(c[1]),
+            rs.getInt(c[5]),
+            rs.getString(c[6]),
+            rs.getDouble(c[2]),
+            rs.getString(c[3]),
+            rs.getInt(c[4]),
+            0));
+
+    private static final String PROFESSOR_JOIN =
+            "FROM courses c LEFT JOIN users u ON u.user_id = c.responsible_professor_id AND u.user_type = 'PROFESSOR' ";
+    private static final String CATALOG_SELECT =
+            "SELECT c.course_id, c.title, c.price, c.category, c.load_hour, c.responsible_professor_id, " +
+            "u.name AS professor_name " + PROFESSOR_JOIN;
+
+    private static final NamedQuery SAVE_COURSE = namedQuery("course.saveCourse",
+            "INSERT INTO courses (title, description, responsible_professor_id , price, video_presentation_url, category, load_hour, creation_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+    private static final NamedQuery SEARCH_COURSE_BY_ID = namedQuery("course.searchCourseById",
+            "SELECT " + COURSE_ROW.selectList() + " FROM courses WHERE course_id = ?");
+    private static final NamedQuery LIST_ALL_COURSES = namedQuery("course.listAllCourses",
+            "SELECT " + COURSE_ROW.selectList() + " FROM courses ORDER BY title");
+    private static final NamedQuery LIST_ALL_COURSES_WITH_PROFESSORS = namedQuery("course.listAllCoursesWithProfessors",
+            "SELECT c.course_id, c.title, c.description, c.price, c.video_presentation_url, c.category, " +
+            "c.load_hour, c.creation_date, c.update_date, c.responsible_professor_id, " +
+            "u.name AS professor_name, u.email AS professor_email, u.specialization AS professor_specialization " +
+            PROFESSOR_JOIN + "ORDER BY c.title");
+    private static final NamedQuery CATALOG_ALL = namedQuery("course.catalogAll",
+            CATALOG_SELECT + "ORDER BY c.title, c.course_id");
+    private static final NamedQuery CATALOG_ENTRY = namedQuery("course.catalogEntry",
+            CATALOG_SELECT + "WHERE c.course_id = ?");
+    private static final NamedQuery LIST_COURSES_BY_PROFESSOR = namedQuery("course.listCoursesByProfessor",
+            "SELECT " + COURSE_ROW.selectList() + " FROM courses WHERE responsible_professor_id = ? ORDER BY title");
+    private static final NamedQuery ATT_COURSES = namedQuery("course.attCourses",
+            "UPDATE courses SET title = ?, description = ?, responsible_professor_id = ?, price = ?, " +
+            "video_presentation_url = ?, category = ?, load_hour = ?, update_date = CURRENT_TIMESTAMP " +
+            "WHERE course_id = ?");
+    private static final NamedQuery DELETE_COURSE = namedQuery("course.deleteCourse",
+            "DELETE FROM courses WHERE course_id = ?");
+    /**
+     * Uma linha por curso. Cada tabela exibida entra com COUNT, MAX da PK e MAX(updated_at),
+     * lidos do índice (curso, updated_at): uma inclusão muda o MAX da PK, uma exclusão muda
+     * o COUNT e uma edição muda o updated_at (V6).
+     */
+    /**
+     * Data da última mudança do que a página de visitante exibe: o curso, o professor,
+     * comentários, dúvidas, aulas e provas (V6/V7), e a última exclusão de conteúdo.
+     */
+    private static final String LAST_MODIFIED =
+            "GREATEST(c.updated_at, COALESCE(u.updated_at, c.updated_at), " +
+            "COALESCE((SELECT MAX(cc.updated_at) FROM courses_comments cc WHERE cc.course_id = c.course_id), c.updated_at), " +
+            "COALESCE((SELECT MAX(d.updated_at) FROM courses_doubts d WHERE d.course_id = c.course_id), c.updated_at), " +
+            "COALESCE((SELECT MAX(cl.updated_at) FROM classes cl WHERE cl.course_id = c.course_id), c.updated_at), " +
+            "COALESCE((SELECT MAX(ed.updated_at) FROM exam_definitions ed WHERE ed.id_course = c.course_id), c.updated_at), " +
+            "COALESCE((SELECT deleted_at FROM content_deletions WHERE id = 1), c.updated_at)) AS last_modified ";
+    private static final NamedQuery CONTENT_VERSION = namedQuery("course.contentVersion",
+            "SELECT CONCAT_WS('/', c.updated_at, u.name, " +
+            "(SELECT CONCAT_WS(':', COUNT(*), MAX(cc.comment_id), MAX(cc.updated_at)) " +
+            "FROM courses_comments cc WHERE cc.course_id = c.course_id), " +
+            "(SELECT CONCAT_WS(':', COUNT(*), MAX(d.doubt_id), MAX(d.updated_at)) " +
+            "FROM courses_doubts d WHERE d.course_id = c.course_id), " +
+            "(SELECT CONCAT_WS(':', COUNT(*), MAX(cl.classroom_id), MAX(cl.updated_at)) " +
+            "FROM classes cl WHERE cl.course_id = c.course_id), " +
+            "(SELECT CONCAT_WS(':', COUNT(*), MAX(ed.id_exam_definition), MAX(ed.updated_at)) " +
+            "FROM exam_definitions ed WHERE ed.id_course = c.course_id), " +
+            "(SELECT CONCAT_WS(':', COUNT(*), MAX(ec.exam_id), MAX(ec.updated_at)) " +
+            "FROM exams_courses ec WHERE ec.student_id = ? AND ec.course_id = c.course_id)) AS content_version, " +
+            LAST_MODIFIED + PROFESSOR_JOIN + "WHERE c.course_id = ?");
+    /**
+     * Uma linha: cursos com COUNT, MAX da PK e MAX(updated_at), professores e faixas de
+     * notas com MAX(updated_at) e a última exclusão. Cada MAX é lido na ponta de um índice.
+     */
+    private static final NamedQuery CATALOG_VERSION = namedQuery("course.catalogVersion",
+            "SELECT CONCAT_WS('/', " +
+            "(SELECT CONCAT_WS(':', COUNT(*), MAX(course_id), MAX(updated_at)) FROM courses), " +
+            "(SELECT MAX(updated_at) FROM users WHERE user_type = 'PROFESSOR'), " +
+            "(SELECT CONCAT_WS(':', COUNT(*), MAX(updated_at)) FROM course_rating_buckets)) AS content_version, " +
+            "GREATEST(" +
+            "COALESCE((SELECT MAX(updated_at) FROM courses), d.deleted_at), " +
+            "COALESCE((SELECT MAX(updated_at) FROM users WHERE user_type = 'PROFESSOR'), d.deleted_at), " +
+            "COALESCE((SELECT MAX(updated_at) FROM course_rating_buckets), d.deleted_at), " +
+            "d.deleted_at) AS last_modified " +
+            "FROM content_deletions d WHERE d.id = 1");
+
+    /**
+     * Foto do catálogo servida por {@link #listCatalogPage}. Leitores só leem a referência;
+     * escritas trocam a foto inteira sob catalogLock. Null até a primeira leitura ou
+     * depois de um descarte vindo de outro nó.
+     */
+    private volatile CatalogSnapshot catalog;
+    private final Object catalogLock = new Object();
+    private final AtomicLong catalogVersions = new AtomicLong();
+
+    private final InvalidationBus invalidationBus;
+    private final OwnershipDAO ownershipDAO;
+    private final EnrollDAO enrollDAO;
+    private final ExamDefinitionDAO examDefinitionDAO;
+
+    public CourseDAO(DatabaseConnector databaseConnector, InvalidationBus invalidationBus, OwnershipDAO ownershipDAO,
+                     EnrollDAO enrollDAO, ExamDefinitionDAO examDefinitionDAO) {
         super(databaseConnector);
+        this.invalidationBus = invalidationBus;
+        this.ownershipDAO = ownershipDAO;
+        this.enrollDAO = enrollDAO;
+        this.examDefinitionDAO = examDefinitionDAO;
+        invalidationBus.subscribe(CacheRegion.CATALOG, idCourse -> {
+            if (idCourse == InvalidationBus.ALL_IDS) {
+                dropCatalog();
+            } else {
+                replaceCatalogEntry(idCourse);
+            }
+        });
     }
 
     /**
@@ -26,11 +199,8 @@ public class CourseDAO extends AbstractDAO{
      * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
      */
     public Course saveCourse(Course course) throws SQLException {
-        String sql = "INSERT INTO courses (title, description, responsible_professor_id , price, video_presentation_url, category, load_hour, creation_date) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-
         try (Connection conn = databaseConnector.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement pstmt = prepare(conn, SAVE_COURSE, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, course.getTitle());
             pstmt.setString(2, course.getDescription());
@@ -55,12 +225,14 @@ public class CourseDAO extends AbstractDAO{
             try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     course.setIdCourse(generatedKeys.getInt(1));
+                    IdentityMap.written(Course.class, course.getIdCourse());
                 } else {
                     throw new SQLException("Failed to create course, no ID obtained.");
                 }
             }
-            return course;
         }
+        refreshCatalogEntry(course.getIdCourse());
+        return course;
     }
 
     /**
@@ -73,17 +245,20 @@ public class CourseDAO extends AbstractDAO{
      * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
      */
     public Course searchCourseById(int idCourse) throws SQLException {
-        String sql = "SELECT * FROM courses WHERE course_id = ?";
+        return IdentityMap.find(Course.class, idCourse, () -> loadCourseById(idCourse));
+    }
+
+    private Course loadCourseById(int idCourse) throws SQLException {
         Course course = null;
 
-        try (Connection conn = databaseConnector.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = prepare(conn, SEARCH_COURSE_BY_ID)) {
 
             pstmt.setInt(1, idCourse);
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
-                course = mapResultSetForCourse(rs);
+                course = mapRow(SEARCH_COURSE_BY_ID, COURSE_ROW, rs);
             }
         }
         return course;
@@ -97,17 +272,11 @@ public class CourseDAO extends AbstractDAO{
      * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
      */
     public List<Course> listAllCourses() throws SQLException {
-        List<Course> courses = new ArrayList<>();
-        String sql = "SELECT * FROM courses ORDER BY title";
-        try (Connection conn = databaseConnector.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
+        List<Course> courses;
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = prepare(conn, LIST_ALL_COURSES);
              ResultSet rs = pstmt.executeQuery()) {
-            int count = 0;
-            while (rs.next()) {
-                count++;
-                Course course = mapResultSetForCourse(rs);
-                courses.add(course);
-            }
+            courses = mapRows(LIST_ALL_COURSES, COURSE_ROW, rs);
         } catch (SQLException e) {
             e.printStackTrace();
             throw e;
@@ -115,6 +284,218 @@ public class CourseDAO extends AbstractDAO{
         return courses;
     }
 
+    /**
+     * Lista todos os cursos com o professor responsável preenchido (nome, e-mail e
+     * especialização) numa única consulta com JOIN.
+     *
+     * @return Uma lista de Cursos ordenada por título.
+     * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+     */
+    public List<Course> listAllCoursesWithProfessors() throws SQLException {
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = prepare(conn, LIST_ALL_COURSES_WITH_PROFESSORS);
+             ResultSet rs = pstmt.executeQuery()) {
+            return mapRows(LIST_ALL_COURSES_WITH_PROFESSORS, COURSE_WITH_PROFESSOR_ROW, rs);
+        }
+    }
+
+    /**
+     * Lista uma página do catálogo em ordem de título, continuando depois do último
+     * curso da página anterior (título + ID). As páginas saem da foto do catálogo em
+     * memória ({@link #catalogSnapshot()}), sem ir ao banco.
+     *
+     * @param cursor Cursor devolvido pela página anterior, ou null para a primeira página.
+     * @param size   Quantidade de cursos por página (limitada a {@link KeysetPage#MAX_SIZE}).
+     * @return A página de resumos de curso e o cursor da próxima.
+     * @throws SQLException Se o catálogo ainda não estiver carregado e a carga falhar.
+     * @throws IllegalArgumentException Se o cursor for inválido.
+     */
+    public KeysetPage<CourseSummary> listCatalogPage(String cursor, int size) throws SQLException {
+        int limit = KeysetPage.clampSize(size);
+        KeysetPage.Position after = KeysetPage.decode(cursor);
+        return catalogSnapshot().page(after, limit);
+    }
+
+    /**
+     * Foto atual do catálogo, sem trava. Só a primeira leitura (ou a primeira depois de
+     * um descarte) carrega o catálogo inteiro, numa única consulta; saveCourse,
+     * attCourses e deleteCourse atualizam a foto no lugar de descartá-la.
+     *
+     * @throws SQLException Se a carga do catálogo falhar.
+     */
+    public CatalogSnapshot catalogSnapshot() throws SQLException {
+        if (!invalidationBus.cachesEnabled()) {
+            // Sem notícias dos outros nós: a foto vem do banco a cada leitura e não fica guardada.
+            return CatalogSnapshot.of(catalogVersions.incrementAndGet(), loadCatalog());
+        }
+        CatalogSnapshot snapshot = catalog;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (catalogLock) {
+            if (catalog == null) {
+                catalog = CatalogSnapshot.of(catalogVersions.incrementAndGet(), loadCatalog());
+            }
+            return catalog;
+        }
+    }
+
+    /**
+     * Catálogo inteiro, lido do primário: a carga pode vir logo depois de um descarte e
+     * não deve trazer o estado anterior de uma réplica atrasada.
+     */
+    private List<CourseSummary> loadCatalog() throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = prepare(conn, CATALOG_ALL);
+             ResultSet rs = pstmt.executeQuery()) {
+            return mapRows(CATALOG_ALL, CATALOG_ROW, rs);
+        }
+    }
+
+    private CourseSummary loadCatalogEntry(int idCourse) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = prepare(conn, CATALOG_ENTRY)) {
+            pstmt.setInt(1, idCourse);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapRow(CATALOG_ENTRY, CATALOG_ROW, rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Troca a foto do catálogo por uma cópia com o curso relido do banco (ou sem ele, se
+     * tiver sido excluído). Roda quando a unidade de trabalho atual termina, então uma
+     * escrita desfeita não aparece no catálogo. Se a releitura falhar, a foto é descartada
+     * e a próxima leitura carrega tudo de novo. Os outros nós relêem o mesmo curso pelo
+     * {@link InvalidationBus}.
+     */
+    private void refreshCatalogEntry(int idCourse) {
+        UnitOfWork.afterCompletion(() -> replaceCatalogEntry(idCourse));
+        invalidationBus.publish(CacheRegion.CATALOG, idCourse);
+    }
+
+    private void replaceCatalogEntry(int idCourse) {
+        synchronized (catalogLock) {
+            CatalogSnapshot current = catalog;
+            if (current == null) {
+                return;
+            }
+            try {
+                catalog = current.with(catalogVersions.incrementAndGet(), idCourse, loadCatalogEntry(idCourse));
+            } catch (SQLException e) {
+                log.warn("Falha ao atualizar o catálogo do curso {}: {}", idCourse, e.getMessage());
+                catalog = null;
+            }
+        }
+    }
+
+    /**
+     * Troca o nome do professor nos cursos dele quando a unidade de trabalho atual terminar
+     * (null se ele deixou de ser professor), sem reler o catálogo. Os outros nós relêem os
+     * mesmos cursos pelo {@link InvalidationBus}.
+     *
+     * @param typeChanged Se o tipo do usuário mudou, o que decide se ele é dono dos cursos.
+     */
+    void professorChanged(int idProfessor, String name, boolean typeChanged, List<Integer> idCourses) {
+        if (typeChanged) {
+            for (int idCourse : idCourses) {
+                ownershipDAO.invalidate(idCourse);
+            }
+        }
+        UnitOfWork.afterCompletion(() -> {
+            synchronized (catalogLock) {
+                if (catalog != null) {
+                    catalog = catalog.withProfessorName(catalogVersions.incrementAndGet(), idProfessor, name);
+                }
+            }
+        });
+        for (int idCourse : idCourses) {
+            invalidationBus.publish(CacheRegion.CATALOG, idCourse);
+        }
+    }
+
+    /**
+     * Cursos excluídos em cascata (ex.: com o professor responsável): descarta os donos e
+     * as provas e, quando a unidade de trabalho atual terminar, tira os cursos do catálogo,
+     * aqui e nos outros nós.
+     */
+    void coursesDeleted(List<Integer> idCourses) {
+        for (int idCourse : idCourses) {
+            ownershipDAO.invalidate(idCourse);
+        }
+        examDefinitionDAO.invalidatePublishedExams();
+        UnitOfWork.afterCompletion(() -> {
+            synchronized (catalogLock) {
+                CatalogSnapshot current = catalog;
+                if (current == null) {
+                    return;
+                }
+                long version = catalogVersions.incrementAndGet();
+                for (int idCourse : idCourses) {
+                    current = current.with(version, idCourse, null);
+                }
+                catalog = current;
+            }
+        });
+        for (int idCourse : idCourses) {
+            invalidationBus.publish(CacheRegion.CATALOG, idCourse);
+        }
+    }
+
+    private void dropCatalog() {
+        synchronized (catalogLock) {
+            catalog = null;
+        }
+    }
+
+    /**
+     * Versão de tudo o que as páginas do curso exibem: os dados do curso e o nome do
+     * professor, comentários, dúvidas, aulas, provas e as tentativas do aluno informado.
+     * Qualquer mudança nesses dados muda o texto devolvido; ele só serve para comparação.
+     * A data não inclui as tentativas do aluno, que não aparecem para visitantes.
+     *
+     * @param idCourse  O ID do curso.
+     * @param idStudent O ID do aluno cujas tentativas de prova aparecem na página, ou 0.
+     * @return A versão do conteúdo, ou null se o curso não existir.
+     * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+     */
+    public ContentVersion findContentVersion(int idCourse, int idStudent) throws SQLException {
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = prepare(conn, CONTENT_VERSION)) {
+
+            pstmt.setInt(1, idStudent);
+            pstmt.setInt(2, idCourse);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapContentVersion(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Versão do catálogo lida do banco, igual em todos os nós, ao contrário da versão da
+     * foto em memória, que recomeça a cada inicialização: os dados dos cursos, os nomes dos
+     * professores e as faixas de notas dos cards.
+     *
+     * @return A versão do catálogo.
+     * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+     */
+    public ContentVersion findCatalogVersion() throws SQLException {
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = prepare(conn, CATALOG_VERSION);
+             ResultSet rs = pstmt.executeQuery()) {
+            if (!rs.next()) {
+                throw new SQLException("Table content_deletions has no row; migration V7 was not applied.");
+            }
+            return mapContentVersion(rs);
+        }
+    }
+
+    private static ContentVersion mapContentVersion(ResultSet rs) throws SQLException {
+        Timestamp lastModified = rs.getTimestamp("last_modified");
+        return new ContentVersion(rs.getString("content_version"),
+                lastModified != null ? lastModified.getTime() : -1);
+    }
+
     /**
      * Lista todos os cursos criados por um professor específico.
      * O objeto Professor dentro de cada Curso terá apenas o ID do professor preenchido.
@@ -124,17 +505,14 @@ public class CourseDAO extends AbstractDAO{
      * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
      */
     public List<Course> listCoursesByProfessor(int idProfessor) throws SQLException {
-        List<Course> courses = new ArrayList<>();
-        String sql = "SELECT * FROM courses WHERE responsible_professor_id = ? ORDER BY title";
+        List<Course> courses;
 
-        try (Connection conn = databaseConnector.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = prepare(conn, LIST_COURSES_BY_PROFESSOR)) {
 
             pstmt.setInt(1, idProfessor);
             try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    courses.add(mapResultSetForCourse(rs));
-                }
+                courses = mapRows(LIST_COURSES_BY_PROFESSOR, COURSE_ROW, rs);
             }
         }
         return courses;
@@ -148,12 +526,10 @@ public class CourseDAO extends AbstractDAO{
      * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
      */
     public boolean attCourses(Course course) throws SQLException {
-        String sql = "UPDATE courses SET title = ?, description = ?, responsible_professor_id = ?, price = ?, " +
-                "video_presentation_url = ?, category = ?, load_hour = ?, update_date = CURRENT_TIMESTAMP " +
-                "WHERE id_course = ?";
-
+        IdentityMap.written(Course.class, course.getIdCourse());
+        boolean updated;
         try (Connection conn = databaseConnector.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = prepare(conn, ATT_COURSES)) {
 
             pstmt.setString(1, course.getTitle());
             pstmt.setString(2, course.getDescription());
@@ -169,8 +545,13 @@ public class CourseDAO extends AbstractDAO{
             pstmt.setInt(7, course.getHoursLoad());
             pstmt.setInt(8, course.getIdCourse());
 
-            return pstmt.executeUpdate() > 0;
+            updated = pstmt.executeUpdate() > 0;
+        }
+        ownershipDAO.invalidate(course.getIdCourse());
+        if (updated) {
+            refreshCatalogEntry(course.getIdCourse());
         }
+        return updated;
     }
 
     /**
@@ -181,37 +562,24 @@ public class CourseDAO extends AbstractDAO{
      * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
      */
     public boolean deleteCourse(int idCourse) throws SQLException {
-        String sql = "DELETE FROM courses WHERE id_course = ?";
-        try (Connection conn = databaseConnector.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, idCourse);
-            return pstmt.executeUpdate() > 0;
+        IdentityMap.written(Course.class, idCourse);
+        boolean deleted;
+        try (Connection conn = databaseConnector.getConnection()) {
+            try (PreparedStatement pstmt = prepare(conn, DELETE_COURSE)) {
+                pstmt.setInt(1, idCourse);
+                deleted = pstmt.executeUpdate() > 0;
+            }
+            if (deleted) {
+                recordContentDeletion(conn);
+            }
         }
-    }
-
-    /**
-     * Método auxiliar para mapear um ResultSet para um objeto Curso.
-     * O ProfessorResponsavel terá apenas o ID preenchido.
-     */
-    private Course mapResultSetForCourse(ResultSet rs) throws SQLException {
-        Course course = new Course();
-        course.setIdCourse(rs.getInt("course_id"));
-        course.setTitle(rs.getString("title"));
-        course.setDescription(rs.getString("description"));
-        course.setPrice(rs.getDouble("price"));
-        course.setPresentationVideo(rs.getString("video_presentation_url"));
-        course.setCategory(rs.getString("category"));
-        course.setHoursLoad(rs.getInt("load_hour"));
-        course.setCreationDate(rs.getTimestamp("creation_date").toLocalDateTime());
-        Timestamp updateDateTs = rs.getTimestamp("update_date");
-        if (updateDateTs != null) {
-            course.setUpdateDate(updateDateTs.toLocalDateTime());
+        ownershipDAO.invalidate(idCourse);
+        if (deleted) {
+            refreshCatalogEntry(idCourse);
+            // As matrículas e as provas do curso são apagadas em cascata.
+            enrollDAO.invalidateEnrollmentIndex();
+            examDefinitionDAO.invalidatePublishedExams();
         }
-
-        Professor professor = new Professor();
-        professor.setIdUser(rs.getInt("responsible_professor_id"));
-        course.setResponsibleProfessor(professor);
-
-        return course;
+        return deleted;
     }
 }
@@ -0,0 +1,36 @@
+package com.elearning.remoteensine.dao;
+
+/**
+ * Curso por trás de uma entidade (aula, exercício, prova...) e o professor responsável
+ * por ele, como resolvido pelo {@link OwnershipDAO}.
+ */
+public final class CourseOwner {
+
+  private final int idCourse;
+  private final int idProfessor;
+
+  public CourseOwner(int idCourse, int idProfessor) {
+    this.idCourse = idCourse;
+    this.idProfessor = idProfessor;
+  }
+
+  public int getIdCourse() {
+    return idCourse;
+  }
+
+  /**
+   * @return ID do professor responsável, ou 0 se o responsável não for um professor.
+   */
+  public int getIdProfessor() {
+    return idProfessor;
+  }
+
+  public boolean isOwnedBy(int idUser) {
+    return idProfessor > 0 && idProfessor == idUser;
+  }
+
+  @Override
+  public String toString() {
+    return "CourseOwner{idCourse=" + idCourse + ", idProfessor=" + idProfessor + "}";
+  }
+}
@@ -13,6 +13,28 @@ import java.util.List;
 @Repository
 public class DoubtDAO extends AbstractDAO {
 
+  private static final NamedQuery SAVE_DOUBT = namedQuery("doubt.saveDoubt",
+      "INSERT INTO courses_doubts (course_id, student_id, title, description, creation_hour_date, status) " +
+      "VALUES (?, ?, ?, ?, ?, ?)");
+  private static final NamedQuery SEARCH_DOUBT_BY_ID = namedQuery("doubt.searchDoubtById",
+      "SELECT * FROM courses_doubts WHERE doubt_id = ?");
+  private static final NamedQuery LIS_COURSES_DOUBT = namedQuery("doubt.lisCoursesDoubt",
+      "SELECT * FROM courses_doubts WHERE course_id = ? ORDER BY creation_hour_date DESC");
+  private static final NamedQuery COURSE_DOUBTS_FIRST_PAGE = namedQuery("doubt.courseDoubtsFirstPage",
+      "SELECT * FROM courses_doubts WHERE course_id = ? " +
+      "ORDER BY creation_hour_date DESC, doubt_id DESC LIMIT ?");
+  private static final NamedQuery COURSE_DOUBTS_NEXT_PAGE = namedQuery("doubt.courseDoubtsNextPage",
+      "SELECT * FROM courses_doubts WHERE course_id = ? " +
+      "AND (creation_hour_date < ? OR (creation_hour_date = ? AND doubt_id < ?)) " +
+      "ORDER BY creation_hour_date DESC, doubt_id DESC LIMIT ?");
+  private static final NamedQuery LIST_STUDENTS_DOUBTS = namedQuery("doubt.listStudentsDoubts",
+      "SELECT * FROM courses_doubts WHERE student_id = ? ORDER BY creation_hour_date DESC");
+  private static final NamedQuery UPDATE_DOUTS = namedQuery("doubt.updateDouts",
+      "UPDATE courses_doubts SET answer = ?, creation_hour_date = ?, answer_professor_id = ?, status = ? " +
+      "WHERE doubt_id = ?");
+  private static final NamedQuery DELETE_DOUBT = namedQuery("doubt.deleteDoubt",
+      "DELETE FROM courses_doubts WHERE doubt_id = ?");
+
   public DoubtDAO(DatabaseConnector databaseConnector) {
     super(databaseConnector);
   }
@@ -25,11 +47,8 @@ public class DoubtDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public Doubt saveDoubt(Doubt doubt) throws SQLException {
-    String sql = "INSERT INTO courses_doubts (course_id, student_id, title, description, creation_hour_date, status) " +
-        "VALUES (?, ?, ?, ?, ?, ?)";
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+         PreparedStatement pstmt = prepare(conn, SAVE_DOUBT, Statement.RETURN_GENERATED_KEYS)) {
 
       pstmt.setInt(1, doubt.getCourseId());
       pstmt.setInt(2, doubt.getStudentId());
@@ -64,11 +83,10 @@ public class DoubtDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public Doubt searchDoubtById(int idDoubt) throws SQLException {
-    String sql = "SELECT * FROM courses_doubts WHERE doubt_id = ?";
     Doubt doubt = null;
 
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, SEARCH_DOUBT_BY_ID)) {
 
       pstmt.setInt(1, idDoubt);
       ResultSet rs = pstmt.executeQuery();
@@ -89,10 +107,9 @@ public class DoubtDAO extends AbstractDAO {
    */
   public List<Doubt> lisCoursesDoubt(int idCourse) throws SQLException {
     List<Doubt> doubts = new ArrayList<>();
-    String sql = "SELECT * FROM courses_doubts WHERE course_id = ? ORDER BY creation_hour_date DESC";
 
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, LIS_COURSES_DOUBT)) {
 
       pstmt.setInt(1, idCourse);
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -104,6 +121,44 @@ public class DoubtDAO extends AbstractDAO {
     return doubts;
   }
 
+  /**
+   * Lista uma página das dúvidas de um curso, da mais recente para a mais antiga,
+   * continuando depois da última dúvida da página anterior (data/hora + ID).
+   *
+   * @param idCourse O ID do curso.
+   * @param cursor   Cursor devolvido pela página anterior, ou null para a primeira página.
+   * @param size     Quantidade de dúvidas por página (limitada a {@link KeysetPage#MAX_SIZE}).
+   * @return A página de Dúvidas e o cursor da próxima.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   * @throws IllegalArgumentException Se o cursor for inválido.
+   */
+  public KeysetPage<Doubt> lisCoursesDoubtPage(int idCourse, String cursor, int size) throws SQLException {
+    int limit = KeysetPage.clampSize(size);
+    KeysetPage.Position after = KeysetPage.decode(cursor);
+    NamedQuery query = after == null ? COURSE_DOUBTS_FIRST_PAGE : COURSE_DOUBTS_NEXT_PAGE;
+    List<Doubt> doubts = new ArrayList<>();
+
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, query)) {
+
+      int i = 1;
+      pstmt.setInt(i++, idCourse);
+      if (after != null) {
+        Timestamp lastCreation = Timestamp.valueOf(after.getDateTime());
+        pstmt.setTimestamp(i++, lastCreation);
+        pstmt.setTimestamp(i++, lastCreation);
+        pstmt.setInt(i++, after.getId());
+      }
+      pstmt.setInt(i, limit + 1);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          doubts.add(mapResultsSetForDoubt(rs));
+        }
+      }
+    }
+    return KeysetPage.of(doubts, limit, doubt -> KeysetPage.cursor(doubt.getCreationHour(), doubt.getDoubtId()));
+  }
+
   /**
    * Lista todas as dúvidas criadas por um aluno específico.
    *
@@ -113,10 +168,9 @@ public class DoubtDAO extends AbstractDAO {
    */
   public List<Doubt> listStudentsDoubts(int idStudent) throws SQLException {
     List<Doubt> doubts = new ArrayList<>();
-    String sql = "SELECT * FROM courses_doubts WHERE student_id = ? ORDER BY creation_hour_date DESC";
 
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, LIST_STUDENTS_DOUBTS)) {
 
       pstmt.setInt(1, idStudent);
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -137,11 +191,8 @@ public class DoubtDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean updateDouts(Doubt doubt) throws SQLException {
-    String sql = "UPDATE courses_doubts SET answer = ?, creation_hour_date = ?, answer_professor_id = ?, status = ? " +
-        "WHERE doubt_id = ?";
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, UPDATE_DOUTS)) {
 
       pstmt.setString(1, doubt.getAnswer());
       if (doubt.getAnswerHour() != null) {
@@ -169,11 +220,16 @@ public class DoubtDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean deleteDoubt(int idDoubt) throws SQLException {
-    String sql = "DELETE FROM courses_doubts WHERE doubt_id = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setInt(1, idDoubt);
-      return pstmt.executeUpdate() > 0;
+    try (Connection conn = getConnection()) {
+      boolean deleted;
+      try (PreparedStatement pstmt = prepare(conn, DELETE_DOUBT)) {
+        pstmt.setInt(1, idDoubt);
+        deleted = pstmt.executeUpdate() > 0;
+      }
+      if (deleted) {
+        recordContentDeletion(conn);
+      }
+      return deleted;
     }
   }
 
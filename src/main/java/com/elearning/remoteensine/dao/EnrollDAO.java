@@ -4,23 +4,120 @@ import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.Enroll;
 import com.elearning.remoteensine.model.Professor;
 import com.elearning.remoteensine.model.Student;
+import com.elearning.remoteensine.util.DataSourceRouting;
 import com.elearning.remoteensine.util.DatabaseConnector;
+import com.elearning.remoteensine.util.UnitOfWork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 @Repository
 public class EnrollDAO extends AbstractDAO{
 
-  public EnrollDAO(DatabaseConnector databaseConnector) {
+  private static final Logger log = LoggerFactory.getLogger(EnrollDAO.class);
+
+  /**
+   * Linha da lista de alunos de um curso: a Matricula com o Student (id, nome, e-mail) e o Curso só com ID.
+   */
+  private static final RowMapping<Enroll> ROSTER_ROW = RowMapping.columns(
+      "student_id", "course_id", "enrollment_date", "progress", "student_name", "student_email"
+  ).mappedBy((rs, c) -> {
+    Course course = new Course();
+    course.setIdCourse(rs.getInt(c[1]));
+
+    Student student = new Student();
+    student.setIdUser(rs.getInt(c[0]));
+    student.setName(rs.getString(c[4]));
+    student.setEmail(rs.getString(c[5]));
+
+    Enroll enroll = new Enroll();
+    enroll.setStudent(student);
+    enroll.setCourse(course);
+    Timestamp enrollmentDateTs = rs.getTimestamp(c[2]);
+    if (enrollmentDateTs != null) {
+      enroll.setEnrollDate(enrollmentDateTs.toLocalDateTime());
+    }
+    enroll.setProgress(rs.getDouble(c[3]));
+    return enroll;
+  });
+
+  /** Erro do MySQL para chave primária/única repetida (SQLState 23000). */
+  private static final int DUPLICATE_ENTRY = 1062;
+
+  private static final NamedQuery ENROLLMENT_STUDENT = namedQuery("enroll.enrollmentStudent",
+      "INSERT INTO students_courses (student_id, course_id, enrollment_date, progress) VALUES (?, ?, ?, ?)");
+  private static final NamedQuery ENROLL_IF_STUDENT = namedQuery("enroll.enrollIfStudent",
+      "INSERT INTO students_courses (student_id, course_id, enrollment_date, progress) " +
+      "SELECT user_id, ?, ?, ? FROM users WHERE user_id = ? AND user_type = 'STUDENT'");
+  private static final NamedQuery CHECK_ENROLL = namedQuery("enroll.checkEnroll",
+      "SELECT COUNT(*) FROM students_courses WHERE student_id = ? AND course_id = ?");
+  private static final NamedQuery LIST_ENROLLED_STUDENT_IDS = namedQuery("enroll.listEnrolledStudentIds",
+      "SELECT student_id FROM students_courses WHERE course_id = ? ORDER BY student_id");
+  private static final NamedQuery ENROLLMENT_INDEX = namedQuery("enroll.enrollmentIndex",
+      "SELECT course_id, student_id FROM students_courses ORDER BY course_id, student_id");
+  private static final NamedQuery LIST_ENROLLED_STUDENT_IDS_FOR_UPDATE = namedQuery("enroll.listEnrolledStudentIdsForUpdate",
+      "SELECT student_id FROM students_courses WHERE course_id = ? FOR UPDATE");
+  private static final NamedQuery LIST_COURSES_BY_STUDENTS = namedQuery("enroll.listCoursesByStudents",
+      "SELECT sc.student_id, sc.course_id, sc.enrollment_date, sc.progress, " +
+      "c.title AS course_title, c.description AS description_course, c.price AS price_course, " +
+      "c.category AS category_course, c.load_hour AS load_hour_course, " +
+      "c.responsible_professor_id AS professor_id_course " +
+      "FROM students_courses sc " +
+      "JOIN courses c ON sc.course_id = c.course_id " +
+      "WHERE sc.student_id = ?");
+  private static final NamedQuery LIS_STUDENT_BY_COURSE = namedQuery("enroll.lisStudentByCourse",
+      "SELECT sc.student_id, sc.course_id, sc.enrollment_date, sc.progress, " +
+      "u.name AS student_name, u.email AS student_email " +
+      "FROM students_courses sc " +
+      "JOIN users u ON sc.student_id = u.user_id " +
+      "WHERE sc.course_id = ? AND u.user_type = 'STUDENT'");
+  private static final NamedQuery UPDATE_PROGRESS = namedQuery("enroll.updateProgress",
+      "UPDATE students_courses SET progress = ? WHERE student_id = ? AND course_id = ?");
+  private static final NamedQuery CANCEL_ENROLL = namedQuery("enroll.cancelEnroll",
+      "DELETE FROM students_courses WHERE student_id = ? AND course_id = ?");
+
+  /**
+   * Índice de matrículas em memória: ID do curso → alunos matriculados. Carregado por
+   * inteiro na primeira verificação e mantido pelas escritas desta classe, que relêem do
+   * primário a matrícula (ou o curso) alterada quando a unidade de trabalho termina, e
+   * trocam só o bitmap daquele curso. Null até a carga, ou depois de
+   * {@link #invalidateEnrollmentIndex()}.
+   */
+  private volatile Map<Integer, CompressedBitmap> enrollments;
+  private final Object enrollmentLock = new Object();
+
+  private final InvalidationBus invalidationBus;
+
+  public EnrollDAO(DatabaseConnector databaseConnector, InvalidationBus invalidationBus) {
     super(databaseConnector);
+    this.invalidationBus = invalidationBus;
+    // Os eventos levam o curso: outro nó relê todos os alunos dele.
+    invalidationBus.subscribe(CacheRegion.ENROLLMENT, idCourse -> {
+      if (idCourse == InvalidationBus.ALL_IDS) {
+        dropEnrollmentIndex();
+      } else {
+        reloadCourseEnrollments(idCourse);
+      }
+    });
   }
 
   /**
    * Matricula um aluno em um curso.
+   * Insere direto e deixa a chave primária (aluno, curso) recusar a repetida, sem
+   * leitura com bloqueio antes: duas matrículas simultâneas não esperam uma pela outra,
+   * e a segunda recebe o erro de chave duplicada.
    *
    * @param idStudent ID do aluno.
    * @param idCourse ID do curso.
@@ -28,26 +125,86 @@ public class EnrollDAO extends AbstractDAO{
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean enrollmentStudent(int idStudent, int idCourse) throws SQLException {
-    String sql = "INSERT INTO students_courses (student_id, course_id, enrollment_date, progress) VALUES (?, ?, ?, ?)";
-    if (checkEnroll(idStudent, idCourse)) {
-      System.out.println("Student ID " + idStudent + " is already enrolled in the course ID " + idCourse);
-      return false;
-    }
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, ENROLLMENT_STUDENT)) {
 
       pstmt.setInt(1, idStudent);
       pstmt.setInt(2, idCourse);
       pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
       pstmt.setDouble(4, 0.0);
 
-      return pstmt.executeUpdate() > 0;
+      boolean enrolled = pstmt.executeUpdate() > 0;
+      refreshEnrollment(idStudent, idCourse);
+      return enrolled;
+    } catch (SQLException e) {
+      if (!isDuplicateEntry(e)) {
+        throw e;
+      }
+      // O InnoDB desfaz só a instrução; uma unidade de trabalho externa continua válida.
+      System.out.println("Student ID " + idStudent + " is already enrolled in the course ID " + idCourse);
+      return false;
     }
   }
 
   /**
-   * Verifica se um aluno está matriculado em um curso específico.
+   * A chave estrangeira violada também vem com SQLState 23000; só o código 1062 é repetição.
+   */
+  private static boolean isDuplicateEntry(SQLException e) {
+    return "23000".equals(e.getSQLState()) && e.getErrorCode() == DUPLICATE_ENTRY;
+  }
+
+  /**
+   * Matricula uma turma inteira em um curso com um único lote de INSERTs.
+   * Alunos já matriculados (ou repetidos no array) são recusados sem ir ao banco. Cada
+   * INSERT seleciona o aluno em users com user_type = 'STUDENT', então IDs inexistentes
+   * ou de professores não gravam nada e voltam como recusados.
+   *
+   * @param idCourse   ID do curso.
+   * @param studentIds IDs dos alunos.
+   * @return IDs dos alunos matriculados e os recusados com o motivo (índice = posição no array).
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public BatchResult<Integer> enrollStudents(int idCourse, int[] studentIds) throws SQLException {
+    List<Integer> ids = new ArrayList<>(studentIds.length);
+    for (int idStudent : studentIds) {
+      ids.add(idStudent);
+    }
+    Timestamp enrollmentDate = Timestamp.valueOf(LocalDateTime.now());
+
+    return UnitOfWork.inTransaction(() -> {
+      Set<Integer> enrolled = listEnrolledStudentIdsForUpdate(idCourse);
+      refreshCourseEnrollments(idCourse);
+      return executeBatch(ENROLL_IF_STUDENT, ids,
+          idStudent -> enrolled.add(idStudent) ? null
+              : "Student ID " + idStudent + " is already enrolled in the course ID " + idCourse,
+          (pstmt, idStudent) -> {
+            pstmt.setInt(1, idCourse);
+            pstmt.setTimestamp(2, enrollmentDate);
+            pstmt.setDouble(3, 0.0);
+            pstmt.setInt(4, idStudent);
+          }, null);
+    });
+  }
+
+  private Set<Integer> listEnrolledStudentIdsForUpdate(int idCourse) throws SQLException {
+    Set<Integer> enrolled = new HashSet<>();
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = prepare(conn, LIST_ENROLLED_STUDENT_IDS_FOR_UPDATE)) {
+      pstmt.setInt(1, idCourse);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          enrolled.add(rs.getInt(1));
+        }
+      }
+    }
+    return enrolled;
+  }
+
+  /**
+   * Verifica se um aluno está matriculado em um curso específico, pelo índice em memória.
+   * Dentro de uma unidade de trabalho a verificação vai ao banco, para enxergar as
+   * escritas ainda não confirmadas da própria transação; com os caches desligados pelo
+   * {@link InvalidationBus}, também, sem recarregar o índice.
    *
    * @param idStudent ID do aluno.
    * @param idCourse ID do curso.
@@ -55,18 +212,157 @@ public class EnrollDAO extends AbstractDAO{
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean checkEnroll(int idStudent, int idCourse) throws SQLException {
-    String sql = "SELECT COUNT(*) FROM students_courses WHERE student_id = ? AND course_id = ?";
+    if (UnitOfWork.isActive() || !invalidationBus.cachesEnabled()) {
+      return countEnroll(CHECK_ENROLL, idStudent, idCourse) > 0;
+    }
+    CompressedBitmap students = enrollmentIndex().get(idCourse);
+    return students != null && students.contains(idStudent);
+  }
+
+  /**
+   * Carrega o índice ao subir a aplicação, depois das migrações, para que a primeira
+   * página não pague a carga. Se falhar, a primeira verificação tenta de novo.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadEnrollmentIndexOnStartup() {
+    try {
+      enrollmentIndex();
+    } catch (SQLException e) {
+      log.warn("Não foi possível carregar o índice de matrículas: {}", e.getMessage());
+    } finally {
+      DataSourceRouting.reset();
+    }
+  }
+
+  private Map<Integer, CompressedBitmap> enrollmentIndex() throws SQLException {
+    Map<Integer, CompressedBitmap> index = enrollments;
+    if (index != null) {
+      return index;
+    }
+    synchronized (enrollmentLock) {
+      if (enrollments == null) {
+        enrollments = loadEnrollmentIndex();
+      }
+      return enrollments;
+    }
+  }
+
+  /**
+   * Lê students_courses inteira num cursor de streaming, já na ordem do índice
+   * (course_id, student_id), montando um bitmap por curso. Vai ao primário, e não a uma
+   * réplica, porque o índice é mantido a partir daqui só pelas escritas seguintes.
+   */
+  private Map<Integer, CompressedBitmap> loadEnrollmentIndex() throws SQLException {
+    long start = System.nanoTime();
+    Map<Integer, CompressedBitmap> index = new ConcurrentHashMap<>();
+    CompressedBitmap.Builder builder = new CompressedBitmap.Builder();
+    long rows = 0;
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepareStreaming(conn, ENROLLMENT_INDEX);
+         ResultSet rs = pstmt.executeQuery()) {
+      int currentCourse = 0;
+      while (rs.next()) {
+        int idCourse = rs.getInt(1);
+        if (idCourse != currentCourse && rows > 0) {
+          index.put(currentCourse, builder.build());
+        }
+        currentCourse = idCourse;
+        builder.add(rs.getInt(2));
+        rows++;
+      }
+      if (rows > 0) {
+        index.put(currentCourse, builder.build());
+      }
+    }
+    log.info("Índice de matrículas carregado: {} matrículas em {} cursos ({} ms)",
+        rows, index.size(), (System.nanoTime() - start) / 1_000_000);
+    return index;
+  }
+
+  /**
+   * Relê a matrícula (aluno, curso) do primário depois do commit da unidade de trabalho
+   * atual e ajusta o bitmap do curso.
+   */
+  private void refreshEnrollment(int idStudent, int idCourse) {
+    UnitOfWork.afterCompletion(() -> {
+      synchronized (enrollmentLock) {
+        Map<Integer, CompressedBitmap> index = enrollments;
+        if (index == null) {
+          return;
+        }
+        try {
+          CompressedBitmap students = index.getOrDefault(idCourse, CompressedBitmap.EMPTY);
+          students = countEnroll(CHECK_ENROLL, idStudent, idCourse) > 0
+              ? students.with(idStudent) : students.without(idStudent);
+          index.put(idCourse, students);
+        } catch (SQLException e) {
+          log.warn("Falha ao atualizar o índice de matrículas do curso {}: {}", idCourse, e.getMessage());
+          enrollments = null;
+        }
+      }
+    });
+    invalidationBus.publish(CacheRegion.ENROLLMENT, idCourse);
+  }
+
+  /**
+   * Como {@link #refreshEnrollment}, relendo todos os alunos do curso.
+   */
+  private void refreshCourseEnrollments(int idCourse) {
+    UnitOfWork.afterCompletion(() -> reloadCourseEnrollments(idCourse));
+    invalidationBus.publish(CacheRegion.ENROLLMENT, idCourse);
+  }
+
+  private void reloadCourseEnrollments(int idCourse) {
+    synchronized (enrollmentLock) {
+      Map<Integer, CompressedBitmap> index = enrollments;
+      if (index == null) {
+        return;
+      }
+      CompressedBitmap.Builder builder = new CompressedBitmap.Builder();
+      try (Connection conn = getConnection();
+           PreparedStatement pstmt = prepare(conn, LIST_ENROLLED_STUDENT_IDS)) {
+        pstmt.setInt(1, idCourse);
+        try (ResultSet rs = pstmt.executeQuery()) {
+          while (rs.next()) {
+            builder.add(rs.getInt(1));
+          }
+        }
+        index.put(idCourse, builder.build());
+      } catch (SQLException e) {
+        log.warn("Falha ao atualizar o índice de matrículas do curso {}: {}", idCourse, e.getMessage());
+        enrollments = null;
+      }
+    }
+  }
+
+  /**
+   * Descarta o índice quando a unidade de trabalho atual terminar, aqui e nos outros nós;
+   * a próxima verificação o carrega de novo. Usado quando matrículas somem em cascata
+   * (curso ou aluno excluído).
+   */
+  void invalidateEnrollmentIndex() {
+    UnitOfWork.afterCompletion(this::dropEnrollmentIndex);
+    invalidationBus.publish(CacheRegion.ENROLLMENT, InvalidationBus.ALL_IDS);
+  }
+
+  private void dropEnrollmentIndex() {
+    synchronized (enrollmentLock) {
+      enrollments = null;
+    }
+  }
+
+  private int countEnroll(NamedQuery query, int idStudent, int idCourse) throws SQLException {
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = prepare(conn, query)) {
       pstmt.setInt(1, idStudent);
       pstmt.setInt(2, idCourse);
       try (ResultSet rs = pstmt.executeQuery()) {
         if (rs.next()) {
-          return rs.getInt(1) > 0;
+          return rs.getInt(1);
         }
       }
     }
-    return false;
+    return 0;
   }
 
   /**
@@ -80,16 +376,9 @@ public class EnrollDAO extends AbstractDAO{
    */
   public List<Enroll> listCoursesByStudents(int idStudent) throws SQLException {
     List<Enroll> enrolls = new ArrayList<>();
-    String sql = "SELECT sc.student_id, sc.course_id, sc.enrollment_date, sc.progress, " +
-        "c.title AS course_title, c.description AS description_course, c.price AS price_course, " +
-        "c.category AS category_course, c.load_hour AS load_hour_course, " +
-        "c.responsible_professor_id AS professor_id_course " +
-        "FROM students_courses sc " +
-        "JOIN courses c ON sc.course_id = c.course_id " +
-        "WHERE sc.student_id = ?";
 
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, LIST_COURSES_BY_STUDENTS)) {
       pstmt.setInt(1, idStudent);
       try (ResultSet rs = pstmt.executeQuery()) {
         while (rs.next()) {
@@ -132,37 +421,25 @@ public class EnrollDAO extends AbstractDAO{
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public List<Enroll> lisStudentByCourse(int idCourse) throws SQLException {
-    List<Enroll> enrolls = new ArrayList<>();
-    String sql = "SELECT sc.student_id, sc.course_id, sc.enrollment_date, sc.progress, " +
-        "u.name AS student_name, u.email AS student_email " +
-        "FROM students_courses sc " +
-        "JOIN users u ON sc.student_id = u.user_id " +
-        "WHERE sc.course_id = ? AND u.user_type = 'STUDENT'";
-
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, LIS_STUDENT_BY_COURSE)) {
       pstmt.setInt(1, idCourse);
       try (ResultSet rs = pstmt.executeQuery()) {
-        while (rs.next()) {
-          Course course = new Course();
-          course.setIdCourse(rs.getInt("course_id"));
-
-          Student student = new Student();
-          student.setIdUser(rs.getInt("student_id"));
-          student.setName(rs.getString("student_name"));
-          student.setEmail(rs.getString("student_email"));
-
-          Enroll enroll = new Enroll();
-          enroll.setStudent(student);
-          enroll.setCourse(course);
-          enroll.setEnrollDate(rs.getTimestamp("enrollment_date").toLocalDateTime());
-          enroll.setProgress(rs.getDouble("progress"));
-
-          enrolls.add(enroll);
-        }
+        return mapRows(LIS_STUDENT_BY_COURSE, ROSTER_ROW, rs);
       }
     }
-    return enrolls;
+  }
+
+  /**
+   * Percorre os alunos matriculados em um curso com um cursor de streaming, para
+   * exportações de cursos grandes. O Stream deve ser fechado, de preferência em try-with-resources.
+   *
+   * @param idCourse ID do curso.
+   * @return Stream de matrículas (com alunos), mapeadas à medida que são lidas.
+   * @throws SQLException Se ocorrer um erro ao abrir o cursor.
+   */
+  public Stream<Enroll> streamStudentsByCourse(int idCourse) throws SQLException {
+    return stream(LIS_STUDENT_BY_COURSE, ROSTER_ROW, pstmt -> pstmt.setInt(1, idCourse));
   }
 
   /**
@@ -175,14 +452,12 @@ public class EnrollDAO extends AbstractDAO{
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean updateProgress(int idStudent, int idCourse, double progress) throws SQLException {
-    String sql = "UPDATE students_courses SET progress = ? WHERE student_id = ? AND course_id = ?";
-
     if (progress < 0.0 || progress > 1.0) {
       System.err.println("Attempt to update progress to invalid value: " + progress);
     }
 
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, UPDATE_PROGRESS)) {
       pstmt.setDouble(1, progress);
       pstmt.setInt(2, idStudent);
       pstmt.setInt(3, idCourse);
@@ -199,12 +474,13 @@ public class EnrollDAO extends AbstractDAO{
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean cancelEnroll(int idStudent, int idCourse) throws SQLException {
-    String sql = "DELETE FROM students_courses WHERE student_id = ? AND course_id = ?";
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, CANCEL_ENROLL)) {
       pstmt.setInt(1, idStudent);
       pstmt.setInt(2, idCourse);
-      return pstmt.executeUpdate() > 0;
+      boolean canceled = pstmt.executeUpdate() > 0;
+      refreshEnrollment(idStudent, idCourse);
+      return canceled;
     }
   }
 }
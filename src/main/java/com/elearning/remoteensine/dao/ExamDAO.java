@@ -1,19 +1,82 @@
 package com.elearning.remoteensine.dao;
 
+import com.elearning.remoteensine.model.CourseRating;
 import com.elearning.remoteensine.model.Exam;
 import com.elearning.remoteensine.util.DatabaseConnector;
+import com.elearning.remoteensine.util.IntObjectMap;
+import com.elearning.remoteensine.util.UnitOfWork;
 import org.springframework.stereotype.Repository;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Repository
 public class  ExamDAO extends AbstractDAO {
 
-  public ExamDAO(DatabaseConnector databaseConnector) {
+  private static final NamedQuery SAVE_EXAM = namedQuery("exam.saveExam",
+      "INSERT INTO exams_courses (course_id, id_exam_definition, student_id, grade, comment, hour_date,submited) " +
+      "VALUES (?, ?, ?, ?, ?, ?, ?)");
+  private static final NamedQuery SEARCH_EXAM_BY_ID = namedQuery("exam.searchExamById",
+      "SELECT * FROM exams_courses WHERE exam_id = ?");
+  private static final NamedQuery SEARCH_EXAM_BY_STUDENT_AND_COURSE = namedQuery("exam.searchExamByStundentACourse",
+      "SELECT * FROM exams_courses WHERE student_id = ? AND course_id = ?");
+  private static final NamedQuery LIST_COURSES_EXAMS = namedQuery("exam.listCoursesExams",
+      "SELECT * FROM exams_courses WHERE course_id = ? ORDER BY hour_date DESC");
+  private static final NamedQuery FIND_GRADE_FOR_UPDATE = namedQuery("exam.findGradeForUpdate",
+      "SELECT course_id, grade FROM exams_courses WHERE exam_id = ? FOR UPDATE");
+  private static final NamedQuery UPDATE_EXAM = namedQuery("exam.updateExam",
+      "UPDATE exams_courses SET grade = ?, comment = ?, hour_date = ? WHERE exam_id = ?");
+  private static final NamedQuery DELETE_EXAM = namedQuery("exam.deleteExam",
+      "DELETE FROM exams_courses WHERE exam_id = ?");
+  private static final NamedQuery ADD_RATING_GRADE = namedQuery("exam.addRatingGrade",
+      "INSERT INTO course_rating_buckets (course_id, bucket, grade_count, grade_sum) VALUES (?, ?, 1, ?) " +
+      "ON DUPLICATE KEY UPDATE grade_count = grade_count + 1, grade_sum = grade_sum + ?");
+  private static final NamedQuery REMOVE_RATING_GRADE = namedQuery("exam.removeRatingGrade",
+      "UPDATE course_rating_buckets SET grade_count = grade_count - 1, grade_sum = grade_sum - ? " +
+      "WHERE course_id = ? AND bucket = ?");
+  /** Notas das tentativas que vão sumir em cascata, agrupadas por curso e faixa; %s filtra as tentativas. */
+  private static final String SUBTRACT_GRADES =
+      "UPDATE course_rating_buckets b " +
+      "JOIN (SELECT course_id, LEAST(grade DIV 10, 9) AS bucket, COUNT(*) AS grade_count, SUM(grade) AS grade_sum " +
+      "FROM exams_courses WHERE %s = ? GROUP BY course_id, LEAST(grade DIV 10, 9)) g " +
+      "ON g.course_id = b.course_id AND g.bucket = b.bucket " +
+      "SET b.grade_count = b.grade_count - g.grade_count, b.grade_sum = b.grade_sum - g.grade_sum";
+  private static final NamedQuery SUBTRACT_STUDENT_GRADES = namedQuery("exam.subtractStudentGrades",
+      String.format(SUBTRACT_GRADES, "student_id"));
+  private static final NamedQuery SUBTRACT_DEFINITION_GRADES = namedQuery("exam.subtractDefinitionGrades",
+      String.format(SUBTRACT_GRADES, "id_exam_definition"));
+  private static final NamedQuery FIND_COURSE_RATING = namedQuery("exam.findCourseRating",
+      "SELECT course_id, bucket, grade_count, grade_sum FROM course_rating_buckets WHERE course_id = ?");
+
+  private static final NamedQuery FIND_ALL_RATINGS = namedQuery("exam.findAllRatings",
+      "SELECT course_id, bucket, grade_count, grade_sum FROM course_rating_buckets");
+
+  /**
+   * Incrementada depois de cada commit que muda alguma nota; entra no ETag do catálogo,
+   * que exibe as médias sem consultar o banco para validar a página, e marca a foto
+   * {@link #ratings} que deixou de valer.
+   */
+  private final AtomicLong ratingsVersions = new AtomicLong();
+
+  /**
+   * Agregados de todos os cursos, lidos de uma vez; trocada sob ratingsLock quando a
+   * versão das notas muda. Null até a primeira leitura.
+   */
+  private volatile RatingsSnapshot ratings;
+  private final Object ratingsLock = new Object();
+
+  private final InvalidationBus invalidationBus;
+
+  public ExamDAO(DatabaseConnector databaseConnector, InvalidationBus invalidationBus) {
     super(databaseConnector);
+    this.invalidationBus = invalidationBus;
+    invalidationBus.subscribe(CacheRegion.RATINGS, ignored -> ratingsVersions.incrementAndGet());
   }
 
   /**
@@ -25,9 +88,18 @@ public class  ExamDAO extends AbstractDAO {
    * incluindo violação da restrição UNIQUE (aluno já avaliou o curso).
    */
   public Exam saveExam(Exam exam) throws SQLException {
-    String sql = "INSERT INTO exams_courses (course_id, id_exam_definition, student_id, grade, comment, hour_date,submited) " +
-        "VALUES (?, ?, ?, ?, ?, ?, ?)";
-    try (Connection conn = getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    return UnitOfWork.inTransaction(() -> {
+      try (Connection conn = getConnection()) {
+        insertExam(conn, exam);
+        addRatingGrade(conn, exam.getCourseId(), exam.getGrade());
+        invalidateRatings();
+        return exam;
+      }
+    });
+  }
+
+  private void insertExam(Connection conn, Exam exam) throws SQLException {
+    try (PreparedStatement pstmt = prepare(conn, SAVE_EXAM, Statement.RETURN_GENERATED_KEYS)) {
       pstmt.setInt(1, exam.getCourseId());
       pstmt.setInt(2, exam.getIdExamDefinition());
       pstmt.setInt(3, exam.getStudentId());
@@ -46,7 +118,6 @@ public class  ExamDAO extends AbstractDAO {
           throw new SQLException("Falha ao salvar tentativa do exame, nenhum ID obtido.");
         }
       }
-      return exam;
     }
   }
 
@@ -58,11 +129,10 @@ public class  ExamDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public Exam searchExamById(int idExam) throws SQLException {
-    String sql = "SELECT * FROM exams_curses WHERE exam_id = ?";
     Exam exam = null;
 
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, SEARCH_EXAM_BY_ID)) {
 
       pstmt.setInt(1, idExam);
       ResultSet rs = pstmt.executeQuery();
@@ -84,10 +154,9 @@ public class  ExamDAO extends AbstractDAO {
    * @throws SQLException Erro de banco.
    */
   public Exam searchExamByStundentACourse(int idStudent, int idCourse) throws SQLException {
-    String sql = "SELECT * FROM avaliacoes_curso WHERE id_student = ? AND id_curso = ?";
     Exam exam = null;
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, SEARCH_EXAM_BY_STUDENT_AND_COURSE)) {
       pstmt.setInt(1, idStudent);
       pstmt.setInt(2, idCourse);
       ResultSet rs = pstmt.executeQuery();
@@ -108,10 +177,9 @@ public class  ExamDAO extends AbstractDAO {
    */
   public List<Exam> listCoursesExams(int idCourse) throws SQLException {
     List<Exam> exams = new ArrayList<>();
-    String sql = "SELECT * FROM exams_courses WHERE course_id = ? ORDER BY hour_date DESC";
 
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, LIST_COURSES_EXAMS)) {
 
       pstmt.setInt(1, idCourse);
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -124,28 +192,128 @@ public class  ExamDAO extends AbstractDAO {
   }
 
   /**
-   * Calcula a média das notas de um curso específico.
+   * Calcula a média das notas de um curso específico, a partir do agregado do curso
+   * (no máximo uma linha por faixa de nota), sem percorrer as tentativas.
    *
    * @param idCourse O ID do curso.
    * @return A média das notas, ou 0.0 se não houver avaliações.
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public double mediaCoursesGrade(int idCourse) throws SQLException {
-    String sql = "SELECT AVG(grade) FROM exams_courses WHERE course_id = ?";
-    double media = 0.0;
+    return findCourseRating(idCourse).getAverage();
+  }
 
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+  /**
+   * Busca o agregado de notas de um curso.
+   *
+   * @param idCourse O ID do curso.
+   * @return O agregado; vazio (sem notas) se o curso ainda não tiver avaliações.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public CourseRating findCourseRating(int idCourse) throws SQLException {
+    RatingBuilder rating = new RatingBuilder(idCourse);
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, FIND_COURSE_RATING)) {
       pstmt.setInt(1, idCourse);
       try (ResultSet rs = pstmt.executeQuery()) {
-        if (rs.next()) {
-          media = rs.getDouble(1);
+        while (rs.next()) {
+          rating.add(rs);
         }
       }
     }
-    return media;
+    return rating.build();
   }
 
+  /**
+   * Busca os agregados de notas de vários cursos de uma vez, para os cards do catálogo.
+   * Lidos da foto em memória ({@link #ratingsSnapshot()}), sem ir ao banco enquanto
+   * nenhuma nota mudar.
+   *
+   * @param idCourses IDs dos cursos.
+   * @return Agregado de cada curso pedido, na ordem recebida; vazio para cursos sem notas.
+   * @throws SQLException Se a carga da foto falhar.
+   */
+  public Map<Integer, CourseRating> findCourseRatings(Collection<Integer> idCourses) throws SQLException {
+    RatingsSnapshot snapshot = ratingsSnapshot();
+    Map<Integer, CourseRating> ratings = new LinkedHashMap<>();
+    for (Integer idCourse : idCourses) {
+      ratings.put(idCourse, snapshot.get(idCourse));
+    }
+    return ratings;
+  }
+
+  /**
+   * Foto atual dos agregados, sem trava enquanto a versão das notas for a da foto. Depois
+   * de uma mudança, a primeira leitura carrega todos os agregados numa única consulta.
+   * Com os caches desligados pelo {@link InvalidationBus}, cada leitura carrega uma foto
+   * que não fica guardada.
+   *
+   * @throws SQLException Se a carga dos agregados falhar.
+   */
+  public RatingsSnapshot ratingsSnapshot() throws SQLException {
+    if (!invalidationBus.cachesEnabled()) {
+      return loadRatings(ratingsVersions.get());
+    }
+    RatingsSnapshot snapshot = ratings;
+    if (snapshot != null && snapshot.getVersion() == ratingsVersions.get()) {
+      return snapshot;
+    }
+    synchronized (ratingsLock) {
+      // A versão é lida antes da consulta: uma nota alterada durante a carga deixa a
+      // foto já vencida, e a leitura seguinte carrega de novo.
+      long version = ratingsVersions.get();
+      if (ratings == null || ratings.getVersion() != version) {
+        ratings = loadRatings(version);
+      }
+      return ratings;
+    }
+  }
+
+  /**
+   * Agregados de todos os cursos (no máximo uma linha por faixa de nota), lidos do
+   * primário: a carga vem logo depois de uma mudança e não deve trazer o estado
+   * anterior de uma réplica atrasada.
+   */
+  private RatingsSnapshot loadRatings(long version) throws SQLException {
+    IntObjectMap<RatingBuilder> builders = new IntObjectMap<>();
+    List<RatingBuilder> courses = new ArrayList<>();
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = prepare(conn, FIND_ALL_RATINGS);
+         ResultSet rs = pstmt.executeQuery()) {
+      while (rs.next()) {
+        int idCourse = rs.getInt("course_id");
+        RatingBuilder builder = builders.get(idCourse);
+        if (builder == null) {
+          builder = new RatingBuilder(idCourse);
+          builders.put(idCourse, builder);
+          courses.add(builder);
+        }
+        builder.add(rs);
+      }
+    }
+    IntObjectMap<CourseRating> byCourse = new IntObjectMap<>(courses.size());
+    for (RatingBuilder builder : courses) {
+      byCourse.put(builder.idCourse, builder.build());
+    }
+    return new RatingsSnapshot(version, byCourse);
+  }
+
+  /**
+   * Versão das notas neste nó: muda depois do commit de qualquer alteração de nota.
+   */
+  public long ratingsVersion() {
+    return ratingsVersions.get();
+  }
+
+  /**
+   * Avisa, depois do commit, que notas mudaram; usado também por quem apaga tentativas
+   * em cascata (exclusão de aluno ou de definição de prova). Os outros nós mudam a
+   * própria versão pelo {@link InvalidationBus}.
+   */
+  void invalidateRatings() {
+    UnitOfWork.afterCompletion(ratingsVersions::incrementAndGet);
+    invalidationBus.publish(CacheRegion.RATINGS, InvalidationBus.ALL_IDS);
+  }
 
   /**
    * Atualiza uma avaliação existente (ex: o aluno edita seu comentário ou nota).
@@ -155,18 +323,25 @@ public class  ExamDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean updateExam(Exam exam) throws SQLException {
-    String sql = "UPDATE exams_courses SET nota = ?, comment = ?, hour_date = ? WHERE exam_id = ?";
-
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-      pstmt.setInt(1, exam.getGrade());
-      pstmt.setString(2, exam.getComment());
-      pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
-      pstmt.setInt(4, exam.getExamId());
-
-      return pstmt.executeUpdate() > 0;
-    }
+    return UnitOfWork.inTransaction(() -> {
+      try (Connection conn = getConnection()) {
+        int[] previous = findGradeForUpdate(conn, exam.getExamId());
+        boolean updated;
+        try (PreparedStatement pstmt = prepare(conn, UPDATE_EXAM)) {
+          pstmt.setInt(1, exam.getGrade());
+          pstmt.setString(2, exam.getComment());
+          pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+          pstmt.setInt(4, exam.getExamId());
+          updated = pstmt.executeUpdate() > 0;
+        }
+        if (updated && previous != null && previous[1] != exam.getGrade()) {
+          removeRatingGrade(conn, previous[0], previous[1]);
+          addRatingGrade(conn, previous[0], exam.getGrade());
+          invalidateRatings();
+        }
+        return updated;
+      }
+    });
   }
 
   /**
@@ -177,15 +352,83 @@ public class  ExamDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean deleteExam(int idExam) throws SQLException {
-    String sql = "DELETE FROM exams_courses WHERE exam_id = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    return UnitOfWork.inTransaction(() -> {
+      try (Connection conn = getConnection()) {
+        int[] previous = findGradeForUpdate(conn, idExam);
+        boolean deleted;
+        try (PreparedStatement pstmt = prepare(conn, DELETE_EXAM)) {
+          pstmt.setInt(1, idExam);
+          deleted = pstmt.executeUpdate() > 0;
+        }
+        if (deleted && previous != null) {
+          removeRatingGrade(conn, previous[0], previous[1]);
+          invalidateRatings();
+        }
+        return deleted;
+      }
+    });
+  }
+
+  /**
+   * Trava a tentativa até o fim da transação e devolve o curso e a nota que ela soma
+   * no agregado, para que outra alteração concorrente não desconte a mesma nota.
+   *
+   * @return {course_id, grade}, ou null se a tentativa não existir.
+   */
+  private int[] findGradeForUpdate(Connection conn, int idExam) throws SQLException {
+    try (PreparedStatement pstmt = prepare(conn, FIND_GRADE_FOR_UPDATE)) {
       pstmt.setInt(1, idExam);
-      return pstmt.executeUpdate() > 0;
+      try (ResultSet rs = pstmt.executeQuery()) {
+        if (rs.next()) {
+          return new int[]{rs.getInt("course_id"), rs.getInt("grade")};
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Tira do agregado as notas de todas as tentativas do aluno. Chamado por quem apaga o
+   * aluno, na mesma unidade de trabalho e antes do DELETE, porque as tentativas somem em
+   * cascata sem passar por este DAO; quem chama avisa {@link #invalidateRatings()}.
+   */
+  void subtractStudentGrades(Connection conn, int idStudent) throws SQLException {
+    subtractGrades(conn, SUBTRACT_STUDENT_GRADES, idStudent);
+  }
+
+  /**
+   * Tira do agregado as notas de todas as tentativas de uma definição de prova, como
+   * {@link #subtractStudentGrades}.
+   */
+  void subtractDefinitionGrades(Connection conn, int idExamDefinition) throws SQLException {
+    subtractGrades(conn, SUBTRACT_DEFINITION_GRADES, idExamDefinition);
+  }
+
+  private void subtractGrades(Connection conn, NamedQuery query, int id) throws SQLException {
+    try (PreparedStatement pstmt = prepare(conn, query)) {
+      pstmt.setInt(1, id);
+      pstmt.executeUpdate();
     }
   }
 
+  private void addRatingGrade(Connection conn, int idCourse, int grade) throws SQLException {
+    try (PreparedStatement pstmt = prepare(conn, ADD_RATING_GRADE)) {
+      pstmt.setInt(1, idCourse);
+      pstmt.setInt(2, CourseRating.bucketOf(grade));
+      pstmt.setInt(3, grade);
+      pstmt.setInt(4, grade);
+      pstmt.executeUpdate();
+    }
+  }
 
+  private void removeRatingGrade(Connection conn, int idCourse, int grade) throws SQLException {
+    try (PreparedStatement pstmt = prepare(conn, REMOVE_RATING_GRADE)) {
+      pstmt.setInt(1, grade);
+      pstmt.setInt(2, idCourse);
+      pstmt.setInt(3, CourseRating.bucketOf(grade));
+      pstmt.executeUpdate();
+    }
+  }
 
   private Exam mapResultSetExam(ResultSet rs) throws SQLException {
     Exam exam = new Exam();
@@ -201,6 +444,29 @@ public class  ExamDAO extends AbstractDAO {
     return exam;
   }
 
-  
+  /**
+   * Soma as linhas de course_rating_buckets de um curso.
+   */
+  private static final class RatingBuilder {
+    private final int idCourse;
+    private final int[] counts = new int[CourseRating.BUCKETS];
+    private long sum;
+
+    private RatingBuilder(int idCourse) {
+      this.idCourse = idCourse;
+    }
+
+    private void add(ResultSet rs) throws SQLException {
+      int bucket = rs.getInt("bucket");
+      if (bucket >= 0 && bucket < CourseRating.BUCKETS) {
+        counts[bucket] += rs.getInt("grade_count");
+        sum += rs.getLong("grade_sum");
+      }
+    }
+
+    private CourseRating build() {
+      return new CourseRating(idCourse, counts, sum);
+    }
+  }
 }
 
@@ -1,8 +1,11 @@
 package com.elearning.remoteensine.dao;
 
 import com.elearning.remoteensine.model.ExamDefinition;
+import com.elearning.remoteensine.model.ExamQuestion;
 import com.elearning.remoteensine.model.GradeStudent;
+import com.elearning.remoteensine.model.PublishedExam;
 import com.elearning.remoteensine.util.DatabaseConnector;
+import com.elearning.remoteensine.util.UnitOfWork;
 import org.springframework.stereotype.Repository;
 
 import java.sql.*;
@@ -13,16 +16,68 @@ import java.util.List;
 @Repository
 public class ExamDefinitionDAO extends AbstractDAO {
 
-  public ExamDefinitionDAO(DatabaseConnector databaseConnector) {
+  private static final NamedQuery SAVE_EXAM_DEFINITION = namedQuery("examDefinition.saveExamDefinition",
+      "INSERT INTO exam_definitions (id_course, title, description, creation_date, update_date) " +
+      "VALUES (?, ?, ?, ?, ?)");
+  private static final NamedQuery FIND_EXAM_DEFINITION_BY_ID = namedQuery("examDefinition.findExamDefinitionById",
+      "SELECT * FROM exam_definitions WHERE id_exam_definition = ?");
+  private static final NamedQuery FIND_EXAM_DEFINITIONS_BY_COURSE_ID = namedQuery("examDefinition.findExamDefinitionsByCourseId",
+      "SELECT * FROM exam_definitions WHERE id_course = ? ORDER BY creation_date DESC");
+  private static final NamedQuery FIND_PUBLISHED_EXAM_DEFINITIONS_BY_COURSE_ID = namedQuery("examDefinition.findPublishedExamDefinitionsByCourseId",
+      "SELECT * FROM exam_definitions WHERE id_course = ? AND published = TRUE ORDER BY creation_date DESC");
+  private static final NamedQuery FIND_EXAM_DEFINITIONS_NOT_SUBMITTED_BY_COURSE_ID = namedQuery("examDefinition.findExamDefinitionsNotSubmittedByCourseId",
+      "SELECT exd.* FROM exam_definitions exd " +
+      "LEFT JOIN exams_courses exc ON exc.id_exam_definition = exd.id_exam_definition " +
+      "WHERE exd.id_course = ? AND exd.published = TRUE AND exc.exam_id IS NULL " +
+      "ORDER BY exd.creation_date DESC");
+  private static final NamedQuery FIND_GRADE_EXAM_DEFITION_BY_COURSE = namedQuery("examDefinition.findGradeExamDefitionByCourse",
+      "SELECT ed.id_exam_definition, ed.title, ed.description, ed.creation_date, ed.published, ec.exam_id, ec.grade AS student_grade, SUM(eq.grade) AS total_exam_value " +
+      "FROM exam_definitions ed " +
+      "JOIN exams_courses ec ON ec.id_exam_definition = ed.id_exam_definition " +
+      "JOIN exam_questions eq ON eq.id_exam_definition = ed.id_exam_definition " +
+      "WHERE ed.id_course = ? AND ec.student_id = ? AND ec.submited = TRUE " +
+      "GROUP BY ed.id_exam_definition, ed.title, ed.description, ed.creation_date, ed.published, ec.exam_id, ec.grade " +
+      "ORDER BY ed.creation_date DESC");
+  private static final NamedQuery UPDATE_EXAM_DEFINITION = namedQuery("examDefinition.updateExamDefinition",
+      "UPDATE exam_definitions SET title = ?, description = ?, published = ? WHERE id_exam_definition = ?");
+  private static final NamedQuery DELETE_EXAM_DEFINITION = namedQuery("examDefinition.deleteExamDefinition",
+      "DELETE FROM exam_definitions WHERE id_exam_definition = ?");
+  private static final NamedQuery FIND_PUBLISHED_EXAM_DEFINITION = namedQuery("examDefinition.findPublishedExamDefinition",
+      "SELECT * FROM exam_definitions WHERE id_exam_definition = ? AND published = TRUE");
+  private static final NamedQuery FIND_PUBLISHED_EXAM_QUESTIONS = namedQuery("examDefinition.findPublishedExamQuestions",
+      "SELECT * FROM exam_questions WHERE id_exam_definition = ? ORDER BY exam_sequence ASC, id_exam_question ASC");
+
+  static final int PUBLISHED_EXAM_CACHE_CAPACITY = 1_000;
+
+  /**
+   * Provas publicadas já montadas, por ID da definição. Compartilhadas entre os alunos e
+   * descartadas quando a definição ou qualquer questão dela é alterada.
+   */
+  private final BoundedCache<Integer, PublishedExam> publishedExams =
+      new BoundedCache<>("publishedExam", PUBLISHED_EXAM_CACHE_CAPACITY, null);
+  private final Object publishedExamsLock = new Object();
+  /** Incrementado a cada descarte; uma consulta iniciada antes dele não entra no cache. */
+  private long publishedExamsGeneration;
+
+  private final InvalidationBus invalidationBus;
+  private final ExamDAO examDAO;
+
+  public ExamDefinitionDAO(DatabaseConnector databaseConnector, InvalidationBus invalidationBus, ExamDAO examDAO) {
     super(databaseConnector);
+    this.invalidationBus = invalidationBus;
+    this.examDAO = examDAO;
+    invalidationBus.subscribe(CacheRegion.PUBLISHED_EXAM, idExamDefinition -> {
+      if (idExamDefinition == InvalidationBus.ALL_IDS) {
+        evictPublishedExams();
+      } else {
+        evictPublishedExam(idExamDefinition);
+      }
+    });
   }
 
   public ExamDefinition saveExamDefinition(ExamDefinition examDef) throws SQLException {
-    String sql = "INSERT INTO exam_definitions (id_course, title, description, creation_date, update_date) " +
-        "VALUES (?, ?, ?, ?, ?)";
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+         PreparedStatement pstmt = prepare(conn, SAVE_EXAM_DEFINITION, Statement.RETURN_GENERATED_KEYS)) {
 
       pstmt.setInt(1, examDef.getIdCourse());
       pstmt.setString(2, examDef.getTitle());
@@ -48,10 +103,9 @@ public class ExamDefinitionDAO extends AbstractDAO {
   }
 
   public ExamDefinition findExamDefinitionById(int idExamDefinition) throws SQLException {
-    String sql = "SELECT * FROM exam_definitions WHERE id_exam_definition = ?";
     ExamDefinition examDef = null;
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, FIND_EXAM_DEFINITION_BY_ID)) {
       pstmt.setInt(1, idExamDefinition);
       try (ResultSet rs = pstmt.executeQuery()) {
         if (rs.next()) {
@@ -68,14 +122,10 @@ public class ExamDefinitionDAO extends AbstractDAO {
 
   public List<ExamDefinition> findExamDefinitionsByCourseId(int idCourse, boolean onlyPublished) throws SQLException {
     List<ExamDefinition> examDefs = new ArrayList<>();
-    String sql = "SELECT * FROM exam_definitions WHERE id_course = ?";
-    if (onlyPublished) {
-      sql += " AND published = TRUE";
-    }
-    sql += " ORDER BY creation_date DESC";
+    NamedQuery query = onlyPublished ? FIND_PUBLISHED_EXAM_DEFINITIONS_BY_COURSE_ID : FIND_EXAM_DEFINITIONS_BY_COURSE_ID;
 
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, query)) {
       pstmt.setInt(1, idCourse);
       try (ResultSet rs = pstmt.executeQuery()) {
         int rowCount = 0;
@@ -96,13 +146,9 @@ public class ExamDefinitionDAO extends AbstractDAO {
 
   public List<ExamDefinition> findExamDefinitionsNotSubmittedByCourseId(int idCourse) throws SQLException {
     List<ExamDefinition> examDefs = new ArrayList<>();
-    String sql = "SELECT exd.* FROM exam_definitions exd " +
-            "LEFT JOIN exams_courses exc ON exc.id_exam_definition = exd.id_exam_definition " +
-            "WHERE exd.id_course = ? AND exd.published = TRUE AND exc.exam_id IS NULL " +
-            "ORDER BY exd.creation_date DESC";
 
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, FIND_EXAM_DEFINITIONS_NOT_SUBMITTED_BY_COURSE_ID)) {
       pstmt.setInt(1, idCourse);
       try (ResultSet rs = pstmt.executeQuery()) {
         int rowCount = 0;
@@ -123,16 +169,9 @@ public class ExamDefinitionDAO extends AbstractDAO {
 
   public List<GradeStudent> findGradeExamDefitionByCourse(int idCourse, int studentId) throws SQLException {
     List<GradeStudent> grades = new ArrayList<>();
-    String sql = "SELECT ed.id_exam_definition, ed.title, ed.description, ed.creation_date, ed.published, ec.exam_id, ec.grade AS student_grade, SUM(eq.grade) AS total_exam_value " +
-            "FROM exam_definitions ed " +
-            "JOIN exams_courses ec ON ec.id_exam_definition = ed.id_exam_definition " +
-            "JOIN exam_questions eq ON eq.id_exam_definition = ed.id_exam_definition " +
-            "WHERE ed.id_course = ? AND ec.student_id = ? AND ec.submited = TRUE " +
-            "GROUP BY ed.id_exam_definition, ed.title, ed.description, ed.creation_date, ed.published, ec.exam_id, ec.grade " +
-            "ORDER BY ed.creation_date DESC";
 
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, FIND_GRADE_EXAM_DEFITION_BY_COURSE)) {
       pstmt.setInt(1, idCourse);
       pstmt.setInt(2, studentId);
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -153,9 +192,8 @@ public class ExamDefinitionDAO extends AbstractDAO {
   }
 
   public boolean updateExamDefinition(ExamDefinition examDef) throws SQLException {
-    String sql = "UPDATE exam_definitions SET title = ?, description = ?, published = ? WHERE id_exam_definition = ?";
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, UPDATE_EXAM_DEFINITION)) {
       pstmt.setString(1, examDef.getTitle());
       pstmt.setString(2, examDef.getDescription());
       pstmt.setBoolean(3, examDef.isPublished());
@@ -165,15 +203,132 @@ public class ExamDefinitionDAO extends AbstractDAO {
     } catch (SQLException e) {
       e.printStackTrace();
       throw e;
+    } finally {
+      invalidatePublishedExam(examDef.getIdDefinitionExam());
     }
   }
 
   public boolean deleteExamDefinition(int idExamDefinition) throws SQLException {
-    String sql = "DELETE FROM exam_definitions WHERE id_exam_definition = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setInt(1, idExamDefinition);
-      return pstmt.executeUpdate() > 0;
+    try {
+      return UnitOfWork.inTransaction(() -> {
+        try (Connection conn = getConnection()) {
+          // As tentativas da prova somem em cascata: as notas saem do agregado antes.
+          examDAO.subtractDefinitionGrades(conn, idExamDefinition);
+          try (PreparedStatement pstmt = prepare(conn, DELETE_EXAM_DEFINITION)) {
+            pstmt.setInt(1, idExamDefinition);
+            boolean deleted = pstmt.executeUpdate() > 0;
+            if (deleted) {
+              examDAO.invalidateRatings();
+            }
+            return deleted;
+          }
+        }
+      });
+    } finally {
+      invalidatePublishedExam(idExamDefinition);
+    }
+  }
+
+  /**
+   * Conteúdo da prova para quem vai realizá-la ou corrigi-la, servido do cache de provas
+   * publicadas. Dentro de uma unidade de trabalho a prova é lida do banco e não entra no
+   * cache, já que a leitura pode enxergar alterações ainda não confirmadas; o mesmo com os
+   * caches desligados pelo {@link InvalidationBus}.
+   *
+   * @param idExamDefinition O ID da definição do exame.
+   * @return A prova com as questões em ordem, ou null se ela não existir ou não estiver publicada.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public PublishedExam findPublishedExam(int idExamDefinition) throws SQLException {
+    if (UnitOfWork.isActive() || !invalidationBus.cachesEnabled()) {
+      return loadPublishedExam(idExamDefinition);
+    }
+    PublishedExam cached = publishedExams.get(idExamDefinition);
+    if (cached != null) {
+      return cached;
+    }
+    long startedAt;
+    synchronized (publishedExamsLock) {
+      startedAt = publishedExamsGeneration;
+    }
+    PublishedExam exam = loadPublishedExam(idExamDefinition);
+    if (exam != null) {
+      synchronized (publishedExamsLock) {
+        if (publishedExamsGeneration == startedAt) {
+          publishedExams.put(idExamDefinition, exam);
+        }
+      }
+    }
+    return exam;
+  }
+
+  /**
+   * A prova em cache é a que todos os alunos vão receber, então é montada a partir do
+   * primário, e não da réplica, que pode ainda não ter a publicação ou a última edição.
+   */
+  private PublishedExam loadPublishedExam(int idExamDefinition) throws SQLException {
+    try (Connection conn = getConnection()) {
+      ExamDefinition examDef;
+      try (PreparedStatement pstmt = prepare(conn, FIND_PUBLISHED_EXAM_DEFINITION)) {
+        pstmt.setInt(1, idExamDefinition);
+        try (ResultSet rs = pstmt.executeQuery()) {
+          if (!rs.next()) {
+            return null;
+          }
+          examDef = mapResultSetToExamDefinition(rs);
+        }
+      }
+      List<ExamQuestion> questions = new ArrayList<>();
+      try (PreparedStatement pstmt = prepare(conn, FIND_PUBLISHED_EXAM_QUESTIONS)) {
+        pstmt.setInt(1, idExamDefinition);
+        try (ResultSet rs = pstmt.executeQuery()) {
+          while (rs.next()) {
+            questions.add(ExamQuestionDAO.mapResultSetToExamQuestion(rs));
+          }
+        }
+      }
+      return new PublishedExam(examDef, questions);
+    } catch (SQLException e) {
+      e.printStackTrace();
+      throw e;
+    }
+  }
+
+  public CacheStats getPublishedExamCacheStats() {
+    return publishedExams.stats();
+  }
+
+  /**
+   * Descarta a prova guardada agora e de novo quando a unidade de trabalho atual terminar,
+   * para que uma leitura feita antes do commit não deixe o conteúdo antigo no cache.
+   * Os outros nós descartam a mesma prova pelo {@link InvalidationBus}.
+   */
+  void invalidatePublishedExam(int idExamDefinition) {
+    evictPublishedExam(idExamDefinition);
+    UnitOfWork.afterCompletion(() -> evictPublishedExam(idExamDefinition));
+    invalidationBus.publish(CacheRegion.PUBLISHED_EXAM, idExamDefinition);
+  }
+
+  /**
+   * Como {@link #invalidatePublishedExam(int)}, para todas as provas.
+   */
+  void invalidatePublishedExams() {
+    evictPublishedExams();
+    UnitOfWork.afterCompletion(this::evictPublishedExams);
+    invalidationBus.publish(CacheRegion.PUBLISHED_EXAM, InvalidationBus.ALL_IDS);
+  }
+
+  private void evictPublishedExam(int idExamDefinition) {
+    synchronized (publishedExamsLock) {
+      publishedExamsGeneration++;
+      publishedExams.remove(idExamDefinition);
+    }
+  }
+
+  private void evictPublishedExams() {
+    synchronized (publishedExamsLock) {
+      publishedExamsGeneration++;
+      publishedExams.clear();
     }
   }
 
@@ -17,24 +17,34 @@ import java.util.Map;
 @Repository
 public class ExamQuestionDAO extends AbstractDAO {
 
-  public ExamQuestionDAO(DatabaseConnector databaseConnector) {
+  private static final NamedQuery SAVE_QUESTION = namedQuery("examQuestion.saveQuestion",
+      "INSERT INTO exam_questions (id_exam_definition, statement, exercise_type, options, correct_answer, grade, exam_sequence) " +
+      "VALUES (?, ?, ?, ?, ?, ?, ?)");
+  private static final NamedQuery FIND_QUESTION_BY_ID = namedQuery("examQuestion.findQuestionById",
+      "SELECT * FROM exam_questions WHERE id_exam_question = ?");
+  private static final NamedQuery FIND_QUESTIONS_BY_EXAM_DEFINITION_ID = namedQuery("examQuestion.findQuestionsByExamDefinitionId",
+      "SELECT * FROM exam_questions WHERE id_exam_definition = ? ORDER BY exam_sequence ASC, id_exam_question ASC");
+  private static final NamedQuery UPDATE_QUESTION = namedQuery("examQuestion.updateQuestion",
+      "UPDATE exam_questions SET statement = ?, exercise_type = ?, options = ?, " +
+      "correct_answer = ?, grade = ?, exam_sequence = ? " +
+      "WHERE id_exam_question = ? AND id_exam_definition = ?");
+  private static final NamedQuery DELETE_QUESTION = namedQuery("examQuestion.deleteQuestion",
+      "DELETE FROM exam_questions WHERE id_exam_question = ?");
+  private static final NamedQuery DELETE_QUESTIONS_BY_EXAM_DEFINITION_ID = namedQuery("examQuestion.deleteQuestionsByExamDefinitionId",
+      "DELETE FROM exam_questions WHERE id_exam_definition = ?");
+
+  private final ExamDefinitionDAO examDefinitionDAO;
+
+  public ExamQuestionDAO(DatabaseConnector databaseConnector, ExamDefinitionDAO examDefinitionDAO) {
     super(databaseConnector);
+    this.examDefinitionDAO = examDefinitionDAO;
   }
 
   public ExamQuestion saveQuestion(ExamQuestion question) throws SQLException {
-    String sql = "INSERT INTO exam_questions (id_exam_definition, statement, exercise_type, options, correct_answer, grade, exam_sequence) " +
-        "VALUES (?, ?, ?, ?, ?, ?, ?)";
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+         PreparedStatement pstmt = prepare(conn, SAVE_QUESTION, Statement.RETURN_GENERATED_KEYS)) {
 
-      pstmt.setInt(1, question.getIdDefinitionExam());
-      pstmt.setString(2, question.getStatement());
-      pstmt.setString(3, question.getExerciseType().name());
-      pstmt.setString(4, question.getOptions());
-      pstmt.setString(5, question.getCorrectAnswer());
-      pstmt.setDouble(6, question.getGrade());
-      pstmt.setInt(7, question.getExamSequence());
+      bindQuestion(pstmt, question);
 
       int affectedRows = pstmt.executeUpdate();
 
@@ -50,14 +60,43 @@ public class ExamQuestionDAO extends AbstractDAO {
         }
       }
       return question;
+    } finally {
+      examDefinitionDAO.invalidatePublishedExam(question.getIdDefinitionExam());
+    }
+  }
+
+  /**
+   * Salva várias questões de uma vez (importação de provas) em um único lote.
+   *
+   * @param questions Questões a serem salvas.
+   * @return As questões salvas, com ID preenchido, e as recusadas com o motivo.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public BatchResult<ExamQuestion> saveQuestions(List<ExamQuestion> questions) throws SQLException {
+    try {
+      return executeBatch(SAVE_QUESTION, questions,
+          question -> question.getExerciseType() == null ? "Tipo de exercício é obrigatório." : null,
+          ExamQuestionDAO::bindQuestion, ExamQuestion::setIdExamQuestion);
+    } finally {
+      questions.stream().mapToInt(ExamQuestion::getIdDefinitionExam).distinct()
+          .forEach(examDefinitionDAO::invalidatePublishedExam);
     }
   }
 
+  private static void bindQuestion(PreparedStatement pstmt, ExamQuestion question) throws SQLException {
+    pstmt.setInt(1, question.getIdDefinitionExam());
+    pstmt.setString(2, question.getStatement());
+    pstmt.setString(3, question.getExerciseType().name());
+    pstmt.setString(4, question.getOptions());
+    pstmt.setString(5, question.getCorrectAnswer());
+    pstmt.setDouble(6, question.getGrade());
+    pstmt.setInt(7, question.getExamSequence());
+  }
+
   public ExamQuestion findQuestionById(int idExamQuestion) throws SQLException {
-    String sql = "SELECT * FROM exam_questions WHERE id_exam_question = ?";
     ExamQuestion question = null;
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, FIND_QUESTION_BY_ID)) {
       pstmt.setInt(1, idExamQuestion);
       try (ResultSet rs = pstmt.executeQuery()) {
         if (rs.next()) {
@@ -70,9 +109,8 @@ public class ExamQuestionDAO extends AbstractDAO {
 
   public List<ExamQuestion> findQuestionsByExamDefinitionId(int idExamDefinition) throws SQLException {
     List<ExamQuestion> questions = new ArrayList<>();
-    String sql = "SELECT * FROM exam_questions WHERE id_exam_definition = ? ORDER BY exam_sequence ASC, id_exam_question ASC";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, FIND_QUESTIONS_BY_EXAM_DEFINITION_ID)) {
       pstmt.setInt(1, idExamDefinition);
       try (ResultSet rs = pstmt.executeQuery()) {
         while (rs.next()) {
@@ -84,11 +122,8 @@ public class ExamQuestionDAO extends AbstractDAO {
   }
 
   public boolean updateQuestion(ExamQuestion question) throws SQLException {
-    String sql = "UPDATE exam_questions SET statement = ?, exercise_type = ?, options = ?, " +
-        "correct_answer = ?, grade = ?, exam_sequence = ? " +
-        "WHERE id_exam_question = ? AND id_exam_definition = ?"; // id_exam_definition para segurança
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, UPDATE_QUESTION)) {
       pstmt.setString(1, question.getStatement());
       pstmt.setString(2, question.getExerciseType().name());
       pstmt.setString(3, question.getOptions());
@@ -98,29 +133,34 @@ public class ExamQuestionDAO extends AbstractDAO {
       pstmt.setInt(7, question.getIdExamQuestion());
       pstmt.setInt(8, question.getIdDefinitionExam());
       return pstmt.executeUpdate() > 0;
+    } finally {
+      examDefinitionDAO.invalidatePublishedExam(question.getIdDefinitionExam());
     }
   }
 
   public boolean deleteQuestion(int idExamQuestion) throws SQLException {
-    String sql = "DELETE FROM exam_questions WHERE id_exam_question = ?";
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, DELETE_QUESTION)) {
       pstmt.setInt(1, idExamQuestion);
       return pstmt.executeUpdate() > 0;
+    } finally {
+      // Só o ID da questão é conhecido aqui; exclusões são raras, então todas as provas são descartadas.
+      examDefinitionDAO.invalidatePublishedExams();
     }
   }
 
   public int deleteQuestionsByExamDefinitionId(int idExamDefinition) throws SQLException {
-    String sql = "DELETE FROM exam_questions WHERE id_exam_definition = ?";
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, DELETE_QUESTIONS_BY_EXAM_DEFINITION_ID)) {
       pstmt.setInt(1, idExamDefinition);
       return pstmt.executeUpdate();
+    } finally {
+      examDefinitionDAO.invalidatePublishedExam(idExamDefinition);
     }
   }
 
 
-  private ExamQuestion mapResultSetToExamQuestion(ResultSet rs) throws SQLException {
+  static ExamQuestion mapResultSetToExamQuestion(ResultSet rs) throws SQLException {
     ExamQuestion question = new ExamQuestion();
     question.setIdExamQuestion(rs.getInt("id_exam_question"));
     question.setIdDefinitionExam(rs.getInt("id_exam_definition"));
@@ -134,7 +174,7 @@ public class ExamQuestionDAO extends AbstractDAO {
     return question;
   }
 
-  private List<Map<String, String>> getParsedOptionsToShow(String options) {
+  private static List<Map<String, String>> getParsedOptionsToShow(String options) {
     if(options == null) return null;
     ObjectMapper mapper = new ObjectMapper();
     try {
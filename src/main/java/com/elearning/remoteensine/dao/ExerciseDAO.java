@@ -12,6 +12,21 @@ import java.util.List;
 @Repository
 public class ExerciseDAO extends AbstractDAO {
 
+  private static final NamedQuery SAVE_EXERCISE = namedQuery("exercise.saveExercise",
+      "INSERT INTO exercises (classroom_id, statement, exercise_type, correct_answer) " +
+      "VALUES (?, ?, ?, ?)");
+  private static final NamedQuery SEARCH_EXERCISE_BY_ID = namedQuery("exercise.searchExerciseById",
+      "SELECT * FROM exercises WHERE exercise_id = ?");
+  private static final NamedQuery LIST_EXERCISES_BY_CLASS = namedQuery("exercise.listExercisesByClass",
+      "SELECT * FROM exercises WHERE classroom_id = ? ORDER BY exercise_id ASC");
+  private static final NamedQuery UPDATE_EXERCISE = namedQuery("exercise.updateExercise",
+      "UPDATE exercises SET classroom_id = ?, statement = ?, exercise_type = ?, correct_answer = ? " +
+      "WHERE exercise_id = ?");
+  private static final NamedQuery DELETE_EXERCISE = namedQuery("exercise.deleteExercise",
+      "DELETE FROM exercises WHERE exercise_id = ?");
+  private static final NamedQuery DELETE_EXERCISE_BY_CLASS = namedQuery("exercise.deleteExerciseByClass",
+      "DELETE FROM exercises WHERE classroom_id = ?");
+
   public ExerciseDAO(DatabaseConnector databaseConnector) {
     super(databaseConnector);
   }
@@ -24,10 +39,8 @@ public class ExerciseDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public Exercise saveExercise(Exercise exercise) throws SQLException {
-    String sql = "INSERT INTO exercises (classroom_id, statement, exercise_type, correct_answer) " +
-        "VALUES (?, ?, ?, ?)";
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+         PreparedStatement pstmt = prepare(conn, SAVE_EXERCISE, Statement.RETURN_GENERATED_KEYS)) {
 
       if (exercise.getClassroomId() <= 0) {
         throw new SQLException("\n" +
@@ -63,11 +76,10 @@ public class ExerciseDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public Exercise searchExerciseById(int idExercise) throws SQLException {
-    String sql = "SELECT * FROM exercises WHERE exercise_id = ?";
     Exercise exercise = null;
 
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, SEARCH_EXERCISE_BY_ID)) {
 
       pstmt.setInt(1, idExercise);
       ResultSet rs = pstmt.executeQuery();
@@ -88,10 +100,9 @@ public class ExerciseDAO extends AbstractDAO {
    */
   public List<Exercise> listExercisesByClass(int idClassroom) throws SQLException {
     List<Exercise> exercises = new ArrayList<>();
-    String sql = "SELECT * FROM exercises WHERE classroom_id = ? ORDER BY exercise_id ASC"; // Ou alguma coluna de ordem se existir
 
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, LIST_EXERCISES_BY_CLASS)) {
 
       pstmt.setInt(1, idClassroom);
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -111,11 +122,8 @@ public class ExerciseDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean updateExercise(Exercise exercise) throws SQLException {
-    String sql = "UPDATE exercises SET classroom_id = ?, statement = ?, exercise_type = ?, correct_answer = ? " +
-        "WHERE exercise_id = ?";
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, UPDATE_EXERCISE)) {
 
       if (exercise.getClassroomId() <= 0) {
         throw new SQLException("Invalid or not defined class ID for the exercise.");
@@ -138,9 +146,8 @@ public class ExerciseDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean deleteExercise(int idExercise) throws SQLException {
-    String sql = "DELETE FROM exercises WHERE exercise_id = ?";
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, DELETE_EXERCISE)) {
       pstmt.setInt(1, idExercise);
       return pstmt.executeUpdate() > 0;
     }
@@ -154,9 +161,8 @@ public class ExerciseDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public int deleteExerciseByClass(int idClassroom) throws SQLException {
-    String sql = "DELETE FROM exercises WHERE classroom_id = ?";
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, DELETE_EXERCISE_BY_CLASS)) {
       pstmt.setInt(1, idClassroom);
       return pstmt.executeUpdate();
     }
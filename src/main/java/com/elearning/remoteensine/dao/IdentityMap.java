@@ -0,0 +1,163 @@
+package com.elearning.remoteensine.dao;
+
+import com.elearning.remoteensine.util.IntObjectMap;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mapa de identidade por requisição: dentro de um escopo aberto com {@link #begin()},
+ * a busca de uma entidade por ID vai ao banco uma única vez e as buscas seguintes
+ * devolvem a mesma instância (inclusive "não encontrado"). Fora de um escopo, e em
+ * outras threads, as buscas vão direto ao banco.
+ * <p>
+ * Os DAOs chamam {@link #written} antes de gravar uma entidade. Depois disso ela não
+ * é mais guardada no escopo, e toda busca volta ao banco, já que a transação pode
+ * ainda ser desfeita.
+ */
+public final class IdentityMap {
+
+  @FunctionalInterface
+  interface Loader<T> {
+    T load() throws SQLException;
+  }
+
+  @FunctionalInterface
+  interface BulkLoader<T> {
+    Map<Integer, T> load(List<Integer> ids) throws SQLException;
+  }
+
+  private static final Object MISSING = new Object();
+  private static final Object WRITTEN = new Object();
+
+  private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+  private IdentityMap() {
+  }
+
+  /**
+   * Abre o escopo da requisição na thread atual. Escopos aninhados participam do externo.
+   *
+   * @return true se abriu um escopo novo (quem abriu deve chamar {@link #end()}).
+   */
+  public static boolean begin() {
+    if (CURRENT.get() != null) {
+      return false;
+    }
+    CURRENT.set(new Scope());
+    return true;
+  }
+
+  public static void end() {
+    CURRENT.remove();
+  }
+
+  public static boolean isActive() {
+    return CURRENT.get() != null;
+  }
+
+  /**
+   * Devolve a entidade do escopo ou a carrega com o loader e a guarda.
+   */
+  static <T> T find(Class<T> type, int id, Loader<T> loader) throws SQLException {
+    Scope scope = CURRENT.get();
+    if (scope == null || scope.writtenTypes.contains(type)) {
+      return loader.load();
+    }
+    IntObjectMap<Object> entries = scope.entries.computeIfAbsent(type, t -> new IntObjectMap<>());
+    Object cached = entries.get(id);
+    if (cached == WRITTEN) {
+      return loader.load();
+    }
+    if (cached != null) {
+      scope.hits++;
+      return cached == MISSING ? null : type.cast(cached);
+    }
+    T loaded = loader.load();
+    entries.put(id, loaded != null ? loaded : MISSING);
+    return loaded;
+  }
+
+  /**
+   * Versão em lote de {@link #find}: só os IDs que ainda não estão no escopo vão ao loader.
+   *
+   * @return Mapa ID → entidade; IDs não encontrados ficam fora do mapa.
+   */
+  static <T> Map<Integer, T> findAll(Class<T> type, Collection<Integer> ids, BulkLoader<T> loader)
+      throws SQLException {
+    Scope scope = CURRENT.get();
+    if (scope == null || scope.writtenTypes.contains(type)) {
+      return loader.load(new ArrayList<>(ids));
+    }
+    IntObjectMap<Object> entries = scope.entries.computeIfAbsent(type, t -> new IntObjectMap<>());
+    Map<Integer, T> found = new HashMap<>();
+    List<Integer> missing = new ArrayList<>();
+    for (Integer id : ids) {
+      Object cached = entries.get(id);
+      if (cached == null || cached == WRITTEN) {
+        missing.add(id);
+      } else {
+        scope.hits++;
+        if (cached != MISSING) {
+          found.put(id, type.cast(cached));
+        }
+      }
+    }
+    if (missing.isEmpty()) {
+      return found;
+    }
+    Map<Integer, T> loaded = loader.load(missing);
+    for (Integer id : missing) {
+      T entity = loaded.get(id);
+      if (entries.get(id) != WRITTEN) {
+        entries.put(id, entity != null ? entity : MISSING);
+      }
+      if (entity != null) {
+        found.put(id, entity);
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Marca a entidade como gravada nesta requisição: descarta a instância guardada e
+   * deixa de guardá-la até o fim do escopo.
+   */
+  static void written(Class<?> type, int id) {
+    Scope scope = CURRENT.get();
+    if (scope != null) {
+      scope.entries.computeIfAbsent(type, t -> new IntObjectMap<>()).put(id, WRITTEN);
+    }
+  }
+
+  /**
+   * Como {@link #written(Class, int)}, para todas as entidades do tipo (ex.: exclusões em cascata).
+   */
+  static void writtenAll(Class<?> type) {
+    Scope scope = CURRENT.get();
+    if (scope != null) {
+      scope.entries.remove(type);
+      scope.writtenTypes.add(type);
+    }
+  }
+
+  /**
+   * @return Quantas buscas do escopo atual foram atendidas sem ir ao banco.
+   */
+  public static int hits() {
+    Scope scope = CURRENT.get();
+    return scope != null ? scope.hits : 0;
+  }
+
+  private static final class Scope {
+    private final Map<Class<?>, IntObjectMap<Object>> entries = new HashMap<>();
+    private final Set<Class<?>> writtenTypes = new HashSet<>();
+    private int hits;
+  }
+}
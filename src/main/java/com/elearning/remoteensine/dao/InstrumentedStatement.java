@@ -0,0 +1,210 @@
+package com.elearning.remoteensine.dao;
+
+import com.elearning.remoteensine.util.DataSourceRouting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Proxy do PreparedStatement de uma {@link NamedQuery} que mede cada execute* no
+ * histograma da instrução, conta as linhas afetadas e registra no log de consultas lentas
+ * as execuções acima do limite. Dos parâmetros só se guarda o tipo, e só com o log
+ * ligado. As escritas executadas são registradas em {@link DataSourceRouting}.
+ * <p>
+ * O ResultSet devolvido é o do driver, sem proxy: as linhas lidas são contadas por
+ * {@link AbstractDAO}, nos laços que já percorrem o resultado, e a leitura das colunas
+ * não passa por Method.invoke.
+ */
+final class InstrumentedStatement implements InvocationHandler {
+
+  private static final Logger log = LoggerFactory.getLogger(InstrumentedStatement.class);
+
+  private static final int RECENT_SLOW_QUERIES = 100;
+  private static final Deque<SlowQuery> SLOW_QUERIES = new ArrayDeque<>();
+  private static final String[] NO_PARAMETERS = new String[0];
+
+  private final PreparedStatement delegate;
+  private final NamedQuery query;
+  private final long slowThresholdNanos;
+  /** Tipo do último valor de cada parâmetro (posição 0 = parâmetro 1). */
+  private String[] parameterTypes = NO_PARAMETERS;
+
+  private InstrumentedStatement(PreparedStatement delegate, NamedQuery query, long slowThresholdNanos) {
+    this.delegate = delegate;
+    this.query = query;
+    this.slowThresholdNanos = slowThresholdNanos;
+  }
+
+  /**
+   * @param slowThresholdMs Limite do log de consultas lentas; 0 ou negativo desliga o log.
+   */
+  static PreparedStatement wrap(PreparedStatement pstmt, NamedQuery query, long slowThresholdMs) {
+    return (PreparedStatement) Proxy.newProxyInstance(
+        PreparedStatement.class.getClassLoader(),
+        new Class<?>[]{PreparedStatement.class},
+        new InstrumentedStatement(pstmt, query, Math.max(0, slowThresholdMs) * 1_000_000));
+  }
+
+  /**
+   * @return As execuções lentas mais recentes, da mais nova para a mais antiga.
+   */
+  static List<SlowQuery> recentSlowQueries() {
+    synchronized (SLOW_QUERIES) {
+      return new ArrayList<>(SLOW_QUERIES);
+    }
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    String name = method.getName();
+    if (args == null) {
+      switch (name) {
+        case "executeQuery":
+        case "executeUpdate":
+        case "executeLargeUpdate":
+        case "execute":
+        case "executeBatch":
+        case "executeLargeBatch":
+          return execute(method);
+        case "clearParameters":
+          Arrays.fill(parameterTypes, null);
+          break;
+        default:
+          break;
+      }
+    } else if (slowThresholdNanos > 0 && args.length >= 2 && args[0] instanceof Integer && name.startsWith("set")) {
+      parameterSet((Integer) args[0], parameterType(name, args[1]));
+    }
+    return call(method, args);
+  }
+
+  /**
+   * Mede a execução. executeQuery não escreve; execute só escreve quando não devolve
+   * ResultSet, e um SELECT por ele não fixa a requisição no primário.
+   */
+  private Object execute(Method method) throws Throwable {
+    boolean readOnly = method.getName().equals("executeQuery");
+    long start = System.nanoTime();
+    Object result;
+    try {
+      result = call(method, null);
+    } catch (Throwable e) {
+      failed(start);
+      throw e;
+    }
+    if (readOnly) {
+      finished(start, -1);
+      return result;
+    }
+    if (result instanceof Boolean && (Boolean) result) {
+      finished(start, -1);
+      return result;
+    }
+    DataSourceRouting.recordWrite();
+    finished(start, affectedRows(result));
+    return result;
+  }
+
+  private long affectedRows(Object result) throws Exception {
+    if (result instanceof Boolean) {
+      return Math.max(0, delegate.getUpdateCount());
+    }
+    if (result instanceof Number) {
+      return Math.max(0, ((Number) result).longValue());
+    }
+    long total = 0;
+    if (result instanceof int[]) {
+      for (int count : (int[]) result) {
+        total += Math.max(0, count);
+      }
+    } else if (result instanceof long[]) {
+      for (long count : (long[]) result) {
+        total += Math.max(0, count);
+      }
+    }
+    return total;
+  }
+
+  private Object call(Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(delegate, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * @param rows Linhas afetadas, ou -1 para consultas (as lidas são contadas no mapeamento).
+   */
+  private void finished(long start, long rows) {
+    long elapsedNanos = System.nanoTime() - start;
+    query.recordExecution(elapsedNanos / 1_000);
+    if (rows > 0) {
+      query.recordRows(rows);
+    }
+    if (slowThresholdNanos > 0 && elapsedNanos >= slowThresholdNanos) {
+      logSlowQuery(elapsedNanos / 1_000_000, rows);
+    }
+  }
+
+  private void failed(long start) {
+    query.recordExecution((System.nanoTime() - start) / 1_000);
+    query.recordError();
+  }
+
+  private void logSlowQuery(long elapsedMillis, long rows) {
+    List<String> parameters = new ArrayList<>();
+    for (int i = 0; i < parameterTypes.length; i++) {
+      if (parameterTypes[i] != null) {
+        parameters.add((i + 1) + ":" + parameterTypes[i]);
+      }
+    }
+    SlowQuery entry = new SlowQuery(query.getName(), LocalDateTime.now(), elapsedMillis, rows,
+        String.join(",", parameters), Thread.currentThread().getName());
+    synchronized (SLOW_QUERIES) {
+      SLOW_QUERIES.addFirst(entry);
+      if (SLOW_QUERIES.size() > RECENT_SLOW_QUERIES) {
+        SLOW_QUERIES.removeLast();
+      }
+    }
+    log.warn("{}", entry);
+  }
+
+  /**
+   * setString(1, "x") guarda "String", setNull(2, ...) guarda "null" e setObject guarda a
+   * classe do valor; o valor nunca é guardado.
+   */
+  private static String parameterType(String name, Object value) {
+    if (name.equals("setNull") || value == null) {
+      return "null";
+    }
+    if (name.equals("setObject")) {
+      return value.getClass().getSimpleName();
+    }
+    return name.substring(3);
+  }
+
+  /**
+   * Só chamado com o log de consultas lentas ligado; desligado, nada é guardado.
+   */
+  private void parameterSet(int parameterIndex, String type) {
+    if (parameterIndex < 1) {
+      return;
+    }
+    if (parameterIndex > parameterTypes.length) {
+      parameterTypes = Arrays.copyOf(parameterTypes, Math.max(parameterIndex, parameterTypes.length * 2));
+    }
+    parameterTypes[parameterIndex - 1] = type;
+  }
+}
@@ -0,0 +1,389 @@
+package com.elearning.remoteensine.dao;
+
+import com.elearning.remoteensine.util.DataSourceRouting;
+import com.elearning.remoteensine.util.UnitOfWork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * Barramento de invalidação entre nós: quando um DAO descarta uma entrada de cache por
+ * causa de uma escrita, publica (região, ID, versão), e os outros nós descartam a mesma
+ * entrada ao receber o evento. Os eventos saem depois do fim da unidade de trabalho, como
+ * os descartes locais, então um nó nunca relê o banco antes do commit.
+ * <p>
+ * Cada DAO registra no construtor como aplicar os eventos da sua região
+ * ({@link #subscribe}); o mesmo handler recebe {@link #ALL_IDS} para descartar a região
+ * inteira. O envio é feito por uma thread própria, a partir de uma fila limitada: se a
+ * fila transbordar, os eventos pendentes viram um único {@link CacheRegion#ALL}.
+ * <p>
+ * O atraso é limitado: se o transporte ficar mais de {@code maxStalenessMs} sem receber,
+ * este nó descarta todos os caches uma vez e para de usá-los ({@link #cachesEnabled()})
+ * até o transporte voltar, e os dados servidos nunca ficam mais velhos que isso. Sem
+ * {@link #start}, o nó roda sozinho e nada é publicado. Do outro lado, se os envios deste
+ * nó falham há mais que o limite, o transporte é avisado ({@link
+ * InvalidationTransport#setPublishing}) e os outros nós param de confiar nos seus caches
+ * até os envios voltarem.
+ * <p>
+ * Um único barramento por contexto, injetado nos DAOs; os testes criam um por caso.
+ */
+@Component
+public class InvalidationBus {
+
+  private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+  /** ID que descarta a região inteira; IDs gerados pelo banco começam em 1. */
+  public static final int ALL_IDS = 0;
+
+  static final int QUEUE_CAPACITY = 10_000;
+  static final int SEND_BATCH_SIZE = 500;
+  private static final long MAX_RETRY_DELAY_MS = 5_000;
+
+  private final Map<CacheRegion, IntConsumer> handlers = new ConcurrentHashMap<>();
+  private final LatencyHistogram lag = new LatencyHistogram();
+  private final LongAdder published = new LongAdder();
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder sendFailures = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder received = new LongAdder();
+  private final LongAdder flushes = new LongAdder();
+
+  private final Object queueLock = new Object();
+  /** Versão do último evento publicado por este nó; só muda sob queueLock. */
+  private long lastVersion;
+
+  private volatile String node = UUID.randomUUID().toString().substring(0, 8);
+  private volatile Running running;
+  private volatile long lastHealthyAt;
+  private volatile boolean stale;
+  private volatile boolean unableToPublish;
+
+  /**
+   * Registra como aplicar os eventos de uma região vindos de outros nós. Um novo registro
+   * substitui o anterior.
+   *
+   * @param handler Recebe o ID da entrada, ou {@link #ALL_IDS}; não deve publicar de novo.
+   */
+  void subscribe(CacheRegion region, IntConsumer handler) {
+    handlers.put(region, handler);
+  }
+
+  /**
+   * Publica o descarte de uma entrada para os outros nós quando a unidade de trabalho
+   * atual terminar (na hora, sem unidade ativa).
+   */
+  void publish(CacheRegion region, int id) {
+    if (running == null) {
+      return;
+    }
+    UnitOfWork.afterCompletion(() -> enqueue(region, id));
+  }
+
+  /**
+   * Liga o barramento: abre o transporte e inicia as threads de envio e de verificação
+   * do atraso.
+   *
+   * @param nodeId         Identificação deste nó; vazio para uma aleatória.
+   * @param maxStalenessMs Tempo máximo sem notícias do transporte antes de descartar tudo.
+   * @throws IOException Se o transporte não puder ser aberto.
+   */
+  public synchronized void start(InvalidationTransport transport, String nodeId, long maxStalenessMs)
+      throws IOException {
+    if (running != null) {
+      throw new IllegalStateException("Invalidation bus is already running.");
+    }
+    if (maxStalenessMs <= 0) {
+      throw new IllegalArgumentException("Max staleness must be positive.");
+    }
+    if (nodeId != null && !nodeId.isBlank()) {
+      node = nodeId.trim();
+    }
+    lastHealthyAt = System.currentTimeMillis();
+    stale = false;
+    transport.start(node, new Receiver());
+    Running started = new Running(transport, maxStalenessMs);
+    running = started;
+    started.sender.start();
+    started.watchdog.scheduleWithFixedDelay(() -> checkStaleness(System.currentTimeMillis()),
+        1, 1, TimeUnit.SECONDS);
+    log.info("Barramento de invalidação iniciado: nó {}, transporte {}", node, transport.getName());
+  }
+
+  /**
+   * Envia o que ainda está na fila e fecha o transporte.
+   */
+  public synchronized void stop() {
+    Running current = running;
+    if (current == null) {
+      return;
+    }
+    running = null;
+    stale = false;
+    unableToPublish = false;
+    current.watchdog.shutdownNow();
+    current.sender.interrupt();
+    try {
+      current.sender.join(MAX_RETRY_DELAY_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    current.transport.close();
+  }
+
+  public String node() {
+    return node;
+  }
+
+  /**
+   * Se os caches em memória podem ser lidos e preenchidos. Falso enquanto o transporte
+   * está sem notícias há mais que o limite: os caches foram descartados e as leituras vão
+   * ao banco, sem guardar o resultado, até o transporte voltar.
+   */
+  public boolean cachesEnabled() {
+    return !stale;
+  }
+
+  public InvalidationStats stats() {
+    Running current = running;
+    long now = System.currentTimeMillis();
+    return new InvalidationStats(
+        current == null ? "none" : current.transport.getName(),
+        node,
+        published.sum(),
+        sent.sum(),
+        sendFailures.sum(),
+        dropped.sum(),
+        current == null ? 0 : current.queue.size(),
+        received.sum(),
+        flushes.sum(),
+        lag.getCount(),
+        lag.percentile(50) / 1000,
+        lag.percentile(99) / 1000,
+        lag.getMaxMicros() / 1000,
+        current == null ? 0 : now - lastHealthyAt,
+        current == null ? 0 : current.maxStalenessMs,
+        unableToPublish);
+  }
+
+  private void enqueue(CacheRegion region, int id) {
+    Running current = running;
+    if (current == null) {
+      return;
+    }
+    published.increment();
+    long now = System.currentTimeMillis();
+    // Versões entram na fila em ordem: um buraco na sequência significa evento perdido.
+    synchronized (queueLock) {
+      if (current.queue.offer(new InvalidationEvent(region, id, lastVersion + 1, node, now))) {
+        lastVersion++;
+        return;
+      }
+      dropped.add(current.queue.size() + 1L);
+      current.queue.clear();
+      lastVersion++;
+      current.queue.offer(new InvalidationEvent(CacheRegion.ALL, ALL_IDS, lastVersion, node, now));
+    }
+  }
+
+  /**
+   * Aplica um evento recebido. Eventos deste nó já foram aplicados na escrita.
+   */
+  void receive(InvalidationEvent event) {
+    // A saúde vem só de onHealthy: um evento de um nó não diz nada sobre os outros.
+    if (event.getNode().equals(node)) {
+      return;
+    }
+    received.increment();
+    lag.record(Math.max(0, System.currentTimeMillis() - event.getPublishedAt()) * 1000);
+    if (event.getRegion() == CacheRegion.ALL) {
+      flushAll("eventos descartados no nó " + event.getNode());
+      return;
+    }
+    apply(event.getRegion(), event.getId());
+  }
+
+  /**
+   * Descarta todas as regiões, quando não dá para saber quais entradas mudaram.
+   */
+  void flushAll(String reason) {
+    log.warn("Descartando todos os caches ({}).", reason);
+    flushRegions();
+  }
+
+  private void flushRegions() {
+    flushes.increment();
+    for (CacheRegion region : handlers.keySet()) {
+      apply(region, ALL_IDS);
+    }
+  }
+
+  /**
+   * Chamado a cada segundo: sem notícias do transporte há mais que o limite, nenhum
+   * cache pode ser confiado. Os caches são descartados uma vez e ficam desligados até o
+   * transporte voltar, em vez de serem recarregados e descartados a cada verificação
+   * contra um banco que pode ser a causa do problema. Na volta, um novo descarte tira o
+   * que uma carga já em andamento na passagem tenha guardado.
+   */
+  void checkStaleness(long now) {
+    Running current = running;
+    if (current == null) {
+      return;
+    }
+    if (now - lastHealthyAt <= current.maxStalenessMs) {
+      if (stale) {
+        flushRegions();
+        stale = false;
+        log.info("Barramento de invalidação voltou a receber eventos; caches religados.");
+      }
+      return;
+    }
+    if (!stale) {
+      // Desliga antes de descartar: nenhuma leitura volta a preencher o que sai agora.
+      stale = true;
+      log.warn("Barramento de invalidação sem notícias do transporte {} há {} ms; caches descartados e desligados até ele voltar.",
+          current.transport.getName(), now - lastHealthyAt);
+      flushRegions();
+    }
+  }
+
+  private void apply(CacheRegion region, int id) {
+    IntConsumer handler = handlers.get(region);
+    if (handler == null) {
+      return;
+    }
+    try {
+      handler.accept(id);
+    } catch (RuntimeException e) {
+      log.warn("Falha ao aplicar invalidação {}:{}", region, id, e);
+      if (id != ALL_IDS) {
+        apply(region, ALL_IDS);
+      }
+    }
+  }
+
+  private final class Receiver implements InvalidationTransport.Listener {
+
+    @Override
+    public void onEvent(InvalidationEvent event) {
+      receive(event);
+    }
+
+    @Override
+    public void onHealthy() {
+      lastHealthyAt = System.currentTimeMillis();
+    }
+
+    @Override
+    public void onLoss(String reason) {
+      flushAll(reason);
+    }
+  }
+
+  /**
+   * Estado de um barramento ligado: transporte, fila e threads.
+   */
+  private final class Running {
+    private final InvalidationTransport transport;
+    private final long maxStalenessMs;
+    private final BlockingQueue<InvalidationEvent> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread sender;
+    private final ScheduledExecutorService watchdog;
+
+    private Running(InvalidationTransport transport, long maxStalenessMs) {
+      this.transport = transport;
+      this.maxStalenessMs = maxStalenessMs;
+      this.sender = new Thread(this::sendLoop, "cache-invalidation-send");
+      this.sender.setDaemon(true);
+      this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-watchdog");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+
+    private void sendLoop() {
+      List<InvalidationEvent> batch = new ArrayList<>(SEND_BATCH_SIZE);
+      while (true) {
+        try {
+          if (batch.isEmpty()) {
+            InvalidationEvent first = queue.poll(1, TimeUnit.SECONDS);
+            if (first == null) {
+              if (running != this) {
+                return;
+              }
+              continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, SEND_BATCH_SIZE - 1);
+          }
+          sendWithRetry(batch);
+          batch.clear();
+        } catch (InterruptedException e) {
+          // Desligando: uma última tentativa com o que sobrou.
+          queue.drainTo(batch);
+          trySend(batch);
+          return;
+        } finally {
+          DataSourceRouting.reset();
+        }
+      }
+    }
+
+    /**
+     * Tenta até conseguir. Falhando há mais que o limite, os outros nós podem estar servindo
+     * dados que este já mudou: o transporte é avisado para que deixem de confiar nos caches,
+     * e de novo quando um envio passa.
+     */
+    private void sendWithRetry(List<InvalidationEvent> batch) throws InterruptedException {
+      long delay = 100;
+      long failingSince = 0;
+      while (!trySend(batch)) {
+        long now = System.currentTimeMillis();
+        if (failingSince == 0) {
+          failingSince = now;
+        } else if (!unableToPublish && now - failingSince > maxStalenessMs) {
+          unableToPublish = true;
+          log.error("Nó {} sem conseguir publicar invalidações há {} ms; os outros nós deixam de confiar nos caches até os envios voltarem.",
+              node, now - failingSince);
+          transport.setPublishing(false);
+        }
+        Thread.sleep(delay);
+        delay = Math.min(delay * 2, MAX_RETRY_DELAY_MS);
+      }
+      if (unableToPublish) {
+        unableToPublish = false;
+        log.info("Nó {} voltou a publicar invalidações.", node);
+        transport.setPublishing(true);
+      }
+    }
+
+    private boolean trySend(List<InvalidationEvent> batch) {
+      if (batch.isEmpty()) {
+        return true;
+      }
+      try {
+        transport.send(batch);
+        sent.add(batch.size());
+        return true;
+      } catch (IOException e) {
+        sendFailures.increment();
+        log.warn("Falha ao enviar {} invalidações por {}: {}", batch.size(), transport.getName(), e.getMessage());
+        return false;
+      }
+    }
+  }
+}
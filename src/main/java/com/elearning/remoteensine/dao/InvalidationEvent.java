@@ -0,0 +1,53 @@
+package com.elearning.remoteensine.dao;
+
+/**
+ * Aviso de que uma entrada de cache mudou no banco: região, ID da entrada e versão, que
+ * é o número de sequência do evento no nó que o publicou (começa em 1 a cada
+ * inicialização). Nó de origem e instante de publicação servem para ignorar os próprios
+ * eventos e medir o atraso de entrega.
+ */
+public final class InvalidationEvent {
+
+  private final CacheRegion region;
+  private final int id;
+  private final long version;
+  private final String node;
+  private final long publishedAt;
+
+  public InvalidationEvent(CacheRegion region, int id, long version, String node, long publishedAt) {
+    if (region == null || node == null) {
+      throw new IllegalArgumentException("Invalidation event needs a region and a node.");
+    }
+    this.region = region;
+    this.id = id;
+    this.version = version;
+    this.node = node;
+    this.publishedAt = publishedAt;
+  }
+
+  public CacheRegion getRegion() {
+    return region;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public String getNode() {
+    return node;
+  }
+
+  /** Instante da publicação no relógio do nó de origem, em milissegundos. */
+  public long getPublishedAt() {
+    return publishedAt;
+  }
+
+  @Override
+  public String toString() {
+    return region + ":" + id + "@" + node + "#" + version;
+  }
+}
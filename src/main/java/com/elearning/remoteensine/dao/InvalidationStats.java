@@ -0,0 +1,119 @@
+package com.elearning.remoteensine.dao;
+
+/**
+ * Métricas do {@link InvalidationBus}, expostas em /monitoramento/invalidacao. O atraso é
+ * medido do instante da publicação no nó de origem até a aplicação neste nó, então
+ * depende dos relógios dos nós estarem sincronizados.
+ */
+public class InvalidationStats {
+  private final String transport;
+  private final String node;
+  private final long published;
+  private final long sent;
+  private final long sendFailures;
+  private final long dropped;
+  private final int queued;
+  private final long received;
+  private final long flushes;
+  private final long lagSamples;
+  private final long lagP50Millis;
+  private final long lagP99Millis;
+  private final long lagMaxMillis;
+  private final long millisSinceHealthy;
+  private final long maxStalenessMillis;
+  private final boolean unableToPublish;
+
+  public InvalidationStats(String transport, String node, long published, long sent, long sendFailures,
+                           long dropped, int queued, long received, long flushes, long lagSamples,
+                           long lagP50Millis, long lagP99Millis, long lagMaxMillis,
+                           long millisSinceHealthy, long maxStalenessMillis, boolean unableToPublish) {
+    this.transport = transport;
+    this.node = node;
+    this.published = published;
+    this.sent = sent;
+    this.sendFailures = sendFailures;
+    this.dropped = dropped;
+    this.queued = queued;
+    this.received = received;
+    this.flushes = flushes;
+    this.lagSamples = lagSamples;
+    this.lagP50Millis = lagP50Millis;
+    this.lagP99Millis = lagP99Millis;
+    this.lagMaxMillis = lagMaxMillis;
+    this.millisSinceHealthy = millisSinceHealthy;
+    this.maxStalenessMillis = maxStalenessMillis;
+    this.unableToPublish = unableToPublish;
+  }
+
+  /** "database", "multicast" ou "none" (nó único, nada é publicado). */
+  public String getTransport() {
+    return transport;
+  }
+
+  public String getNode() {
+    return node;
+  }
+
+  /** Eventos publicados por este nó. */
+  public long getPublished() {
+    return published;
+  }
+
+  public long getSent() {
+    return sent;
+  }
+
+  /** Lotes que o transporte recusou; são reenviados. */
+  public long getSendFailures() {
+    return sendFailures;
+  }
+
+  /** Eventos descartados porque a fila de envio transbordou (trocados por um descarte geral). */
+  public long getDropped() {
+    return dropped;
+  }
+
+  public int getQueued() {
+    return queued;
+  }
+
+  /** Eventos de outros nós aplicados aqui. */
+  public long getReceived() {
+    return received;
+  }
+
+  /** Descartes de todos os caches: eventos perdidos ou transporte parado. */
+  public long getFlushes() {
+    return flushes;
+  }
+
+  public long getLagSamples() {
+    return lagSamples;
+  }
+
+  public long getLagP50Millis() {
+    return lagP50Millis;
+  }
+
+  public long getLagP99Millis() {
+    return lagP99Millis;
+  }
+
+  public long getLagMaxMillis() {
+    return lagMaxMillis;
+  }
+
+  /** Tempo desde a última notícia do transporte; acima do limite, os caches são descartados. */
+  public long getMillisSinceHealthy() {
+    return millisSinceHealthy;
+  }
+
+  public long getMaxStalenessMillis() {
+    return maxStalenessMillis;
+  }
+
+  /** Os envios deste nó falham há mais que o limite; os outros nós não confiam nos caches. */
+  public boolean isUnableToPublish() {
+    return unableToPublish;
+  }
+}
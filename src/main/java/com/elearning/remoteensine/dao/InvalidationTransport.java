@@ -0,0 +1,57 @@
+package com.elearning.remoteensine.dao;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Meio pelo qual os eventos do {@link InvalidationBus} chegam aos outros nós.
+ * Implementações: {@link CacheInvalidationDAO} (tabela de alterações lida por polling,
+ * o padrão) e {@link MulticastInvalidationTransport} (UDP multicast na rede local).
+ */
+public interface InvalidationTransport {
+
+  /**
+   * Recebe o que o transporte entrega. As chamadas vêm das threads do transporte.
+   */
+  interface Listener {
+
+    /** Evento de qualquer nó, inclusive deste; o barramento ignora os próprios. */
+    void onEvent(InvalidationEvent event);
+
+    /** O transporte está recebendo normalmente (polling feito, pacote recebido). */
+    void onHealthy();
+
+    /** Eventos de outro nó podem ter se perdido; o barramento descarta todos os caches. */
+    void onLoss(String reason);
+  }
+
+  /** Nome exibido nas métricas, ex.: "database" ou "multicast". */
+  String getName();
+
+  /**
+   * Começa a receber eventos em threads próprias.
+   *
+   * @param node Nó local, para o transporte anunciar a própria versão aos outros.
+   * @throws IOException Se o transporte não puder ser aberto.
+   */
+  void start(String node, Listener listener) throws IOException;
+
+  /**
+   * Envia um lote de eventos deste nó, na ordem das versões. Chamado só pela thread de
+   * envio do barramento.
+   *
+   * @throws IOException Se o lote não foi entregue; o barramento tenta de novo.
+   */
+  void send(List<InvalidationEvent> events) throws IOException;
+
+  /**
+   * Chamado pelo barramento com false quando os envios deste nó falham há mais que
+   * {@code maxStalenessMs}, e com true quando voltam. Enquanto não publica, o nó deve
+   * aparecer aos outros como fora do ar, para que descartem os caches e deixem de se
+   * declarar saudáveis: os dados que este nó muda não chegam até eles.
+   */
+  void setPublishing(boolean publishing);
+
+  /** Para as threads e libera os recursos. */
+  void close();
+}
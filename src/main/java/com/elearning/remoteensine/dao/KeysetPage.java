@@ -0,0 +1,127 @@
+package com.elearning.remoteensine.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de uma listagem paginada por chave (keyset): em vez de OFFSET, a próxima página
+ * começa depois da última chave de ordenação + ID vistos, então a página N custa o mesmo
+ * que a primeira. O cursor é opaco para quem chama (vai na URL como está).
+ *
+ * @param <T> Tipo dos itens.
+ */
+public final class KeysetPage<T> {
+
+  public static final int DEFAULT_SIZE = 20;
+  public static final int MAX_SIZE = 100;
+
+  private static final char SEPARATOR = '|';
+
+  private final List<T> items;
+  private final String nextCursor;
+
+  public KeysetPage(List<T> items, String nextCursor) {
+    this.items = Collections.unmodifiableList(items);
+    this.nextCursor = nextCursor;
+  }
+
+  public List<T> getItems() {
+    return items;
+  }
+
+  /**
+   * @return Cursor da página seguinte, ou null se esta for a última.
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+
+  /**
+   * Limita o tamanho pedido a [1, MAX_SIZE]; valores não positivos viram DEFAULT_SIZE.
+   */
+  public static int clampSize(int size) {
+    if (size <= 0) {
+      return DEFAULT_SIZE;
+    }
+    return Math.min(size, MAX_SIZE);
+  }
+
+  /**
+   * Monta a página a partir de uma consulta feita com LIMIT size + 1: a linha extra só
+   * indica que existe próxima página e não é devolvida.
+   */
+  static <T> KeysetPage<T> of(List<T> fetched, int size, Function<T, String> cursorOf) {
+    if (fetched.size() <= size) {
+      return new KeysetPage<>(fetched, null);
+    }
+    List<T> items = fetched.subList(0, size);
+    return new KeysetPage<>(items, cursorOf.apply(items.get(size - 1)));
+  }
+
+  static String cursor(String sortKey, int id) {
+    String raw = (sortKey != null ? sortKey : "") + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static String cursor(LocalDateTime sortKey, int id) {
+    return cursor(sortKey != null ? sortKey.toString() : null, id);
+  }
+
+  /**
+   * @return A posição codificada no cursor, ou null se o cursor estiver vazio (primeira página).
+   * @throws IllegalArgumentException se o cursor não tiver sido gerado por {@link #cursor}.
+   */
+  static Position decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+      int separator = raw.lastIndexOf(SEPARATOR);
+      if (separator >= 0) {
+        return new Position(raw.substring(0, separator), Integer.parseInt(raw.substring(separator + 1)));
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid page cursor.", e);
+    }
+    throw new IllegalArgumentException("Invalid page cursor.");
+  }
+
+  /**
+   * Última chave de ordenação + ID da página anterior.
+   */
+  static final class Position {
+    private final String sortKey;
+    private final int id;
+
+    private Position(String sortKey, int id) {
+      this.sortKey = sortKey;
+      this.id = id;
+    }
+
+    String getSortKey() {
+      return sortKey;
+    }
+
+    LocalDateTime getDateTime() {
+      try {
+        return LocalDateTime.parse(sortKey);
+      } catch (DateTimeParseException e) {
+        throw new IllegalArgumentException("Invalid page cursor.", e);
+      }
+    }
+
+    int getId() {
+      return id;
+    }
+  }
+}
@@ -0,0 +1,360 @@
+package com.elearning.remoteensine.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transporte do {@link InvalidationBus} por UDP multicast, para nós na mesma rede local:
+ * sem banco no caminho, o atraso é o da rede. UDP pode perder pacotes, então cada pacote
+ * leva a última versão enviada pelo nó, e a cada {@code heartbeatMs} um pacote vazio
+ * repete essa versão. Um buraco na sequência de um nó, um nó que reinicia ou um nó que
+ * fica calado por cinco batimentos fazem o barramento descartar todos os caches; o nó
+ * calado continua conhecido, e o transporte só volta a se declarar saudável quando todos
+ * os nós conhecidos são ouvidos. Um nó que não consegue enviar seus eventos para de bater,
+ * e os outros o tratam como calado.
+ * <p>
+ * Formato (texto UTF-8): a linha {@code INV1 <nó> <início> <última versão> [BYE]} e uma
+ * linha {@code <região> <id> <versão> <publicado em>} por evento.
+ */
+public final class MulticastInvalidationTransport implements InvalidationTransport {
+
+  private static final Logger log = LoggerFactory.getLogger(MulticastInvalidationTransport.class);
+
+  static final String MAGIC = "INV1";
+  /** Abaixo do MTU da Ethernet, para que um pacote não seja fragmentado. */
+  static final int MAX_PACKET_BYTES = 1400;
+  private static final int SILENT_HEARTBEATS = 5;
+
+  private final InetSocketAddress group;
+  private final String interfaceName;
+  private final int ttl;
+  private final long heartbeatMs;
+  /** Distingue uma reinicialização de um nó com o mesmo nome, cujas versões recomeçam. */
+  private final long incarnation = System.currentTimeMillis();
+  private final AtomicLong lastSentVersion = new AtomicLong();
+  private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+
+  private volatile String node;
+  private volatile Listener listener;
+  private volatile MulticastSocket socket;
+  private volatile long startedAt;
+  private volatile boolean publishing = true;
+  private Thread receiver;
+  private ScheduledExecutorService heartbeat;
+
+  /**
+   * @param groupAddress  Grupo multicast, ex.: 239.255.42.99.
+   * @param interfaceName Interface de rede (ex.: eth0); vazio para a padrão do sistema.
+   * @param ttl           Saltos permitidos; 1 mantém os pacotes na rede local.
+   */
+  public MulticastInvalidationTransport(String groupAddress, int port, String interfaceName, int ttl,
+                                        long heartbeatMs) throws IOException {
+    InetAddress address = InetAddress.getByName(groupAddress);
+    if (!address.isMulticastAddress()) {
+      throw new IllegalArgumentException(groupAddress + " is not a multicast address.");
+    }
+    if (heartbeatMs <= 0) {
+      throw new IllegalArgumentException("Heartbeat interval must be positive.");
+    }
+    this.group = new InetSocketAddress(address, port);
+    this.interfaceName = interfaceName;
+    this.ttl = ttl;
+    this.heartbeatMs = heartbeatMs;
+  }
+
+  @Override
+  public String getName() {
+    return "multicast";
+  }
+
+  @Override
+  public void start(String node, Listener listener) throws IOException {
+    bind(node, listener, System.currentTimeMillis());
+    NetworkInterface networkInterface = null;
+    if (interfaceName != null && !interfaceName.isBlank()) {
+      networkInterface = NetworkInterface.getByName(interfaceName.trim());
+      if (networkInterface == null) {
+        throw new IOException("Network interface " + interfaceName + " not found.");
+      }
+    }
+    // MulticastSocket liga SO_REUSEADDR: vários processos na mesma máquina usam a porta.
+    MulticastSocket opened = new MulticastSocket(group.getPort());
+    try {
+      opened.setTimeToLive(ttl);
+      opened.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+      if (networkInterface != null) {
+        opened.setNetworkInterface(networkInterface);
+      }
+      opened.joinGroup(group, networkInterface);
+    } catch (IOException e) {
+      opened.close();
+      throw e;
+    }
+    socket = opened;
+
+    receiver = new Thread(this::receiveLoop, "cache-invalidation-multicast");
+    receiver.setDaemon(true);
+    receiver.start();
+    heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "cache-invalidation-heartbeat");
+      thread.setDaemon(true);
+      return thread;
+    });
+    heartbeat.scheduleWithFixedDelay(this::beat, 0, heartbeatMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Define o nó local e quem recebe os eventos; separado do socket para os testes
+   * alimentarem {@link #handle} direto.
+   */
+  void bind(String node, Listener listener, long startedAt) {
+    this.node = node;
+    this.listener = listener;
+    this.startedAt = startedAt;
+  }
+
+  @Override
+  public void send(List<InvalidationEvent> events) throws IOException {
+    StringBuilder lines = new StringBuilder();
+    long packetVersion = 0;
+    for (InvalidationEvent event : events) {
+      String line = event.getRegion() + " " + event.getId() + " " + event.getVersion() + " " +
+          event.getPublishedAt() + "\n";
+      if (lines.length() > 0 && header(packetVersion, false).length() + lines.length() + line.length() > MAX_PACKET_BYTES) {
+        transmit(header(packetVersion, false) + lines);
+        lines.setLength(0);
+      }
+      lines.append(line);
+      packetVersion = event.getVersion();
+    }
+    if (lines.length() > 0) {
+      transmit(header(packetVersion, false) + lines);
+    }
+    lastSentVersion.accumulateAndGet(packetVersion, Math::max);
+  }
+
+  /**
+   * Sem batimentos, os outros nós param de se declarar saudáveis em cinco intervalos, e
+   * não recebem uma versão repetida que esconderia os eventos presos na fila deste.
+   */
+  @Override
+  public void setPublishing(boolean publishing) {
+    this.publishing = publishing;
+  }
+
+  @Override
+  public void close() {
+    if (heartbeat != null) {
+      heartbeat.shutdownNow();
+    }
+    MulticastSocket current = socket;
+    if (current == null) {
+      return;
+    }
+    try {
+      // Despedida: os outros nós esquecem este sem descartar os caches.
+      transmit(header(lastSentVersion.get(), true));
+    } catch (IOException e) {
+      log.warn("Não foi possível avisar a saída do nó pelo multicast: {}", e.getMessage());
+    }
+    socket = null;
+    current.close();
+  }
+
+  private String header(long version, boolean bye) {
+    return MAGIC + " " + node + " " + incarnation + " " + version + (bye ? " BYE" : "") + "\n";
+  }
+
+  private void transmit(String text) throws IOException {
+    MulticastSocket current = socket;
+    if (current == null) {
+      throw new IOException("Multicast transport is closed.");
+    }
+    byte[] data = text.getBytes(StandardCharsets.UTF_8);
+    current.send(new DatagramPacket(data, data.length, group));
+  }
+
+  /**
+   * Repete a última versão enviada e avisa o barramento se os nós conhecidos estão sendo
+   * ouvidos. Enviar o próprio batimento não diz nada sobre o que chega dos outros.
+   */
+  private void beat() {
+    try {
+      if (publishing) {
+        transmit(header(lastSentVersion.get(), false));
+      }
+    } catch (IOException e) {
+      log.warn("Falha ao enviar o batimento do multicast: {}", e.getMessage());
+    }
+    if (checkPeers(System.currentTimeMillis()) && receiver.isAlive()) {
+      listener.onHealthy();
+    }
+  }
+
+  /**
+   * Confere os batimentos recebidos. Um nó calado por cinco batimentos gera um aviso de
+   * perda e continua conhecido: enquanto não for ouvido de novo (ou não se despedir), o
+   * transporte não se declara saudável, e o barramento fica sem caches depois de
+   * {@code maxStalenessMs}.
+   *
+   * @return true se todos os nós conhecidos foram ouvidos há pouco.
+   */
+  boolean checkPeers(long now) {
+    boolean healthy = true;
+    for (Map.Entry<String, Peer> entry : peers.entrySet()) {
+      Peer peer = entry.getValue();
+      if (now - peer.lastHeardAt <= SILENT_HEARTBEATS * heartbeatMs) {
+        continue;
+      }
+      healthy = false;
+      if (!peer.silent) {
+        peer.silent = true;
+        listener.onLoss("nó " + entry.getKey() + " sem batimentos");
+      }
+    }
+    return healthy;
+  }
+
+  private void receiveLoop() {
+    byte[] buffer = new byte[MAX_PACKET_BYTES * 2];
+    while (socket != null) {
+      DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+      try {
+        MulticastSocket current = socket;
+        if (current == null) {
+          return;
+        }
+        current.receive(packet);
+        handle(new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8),
+            System.currentTimeMillis());
+      } catch (SocketException e) {
+        // Socket fechado pelo close().
+        return;
+      } catch (IOException | RuntimeException e) {
+        log.warn("Pacote de invalidação ignorado: {}", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Confere a sequência do nó de origem e entrega os eventos do pacote.
+   */
+  void handle(String text, long now) {
+    String[] lines = text.split("\n");
+    String[] header = lines[0].split(" ");
+    if (header.length < 4 || !MAGIC.equals(header[0])) {
+      throw new IllegalArgumentException("not an invalidation packet");
+    }
+    String sender = header[1];
+    if (sender.equals(node)) {
+      return;
+    }
+    long senderIncarnation = Long.parseLong(header[2]);
+    long senderVersion = Long.parseLong(header[3]);
+    boolean bye = header.length > 4 && "BYE".equals(header[4]);
+
+    List<InvalidationEvent> events = new ArrayList<>(lines.length - 1);
+    // Um batimento sem eventos diz que todos até senderVersion já foram enviados.
+    long firstVersion = senderVersion + 1;
+    for (int i = 1; i < lines.length; i++) {
+      if (lines[i].isBlank()) {
+        continue;
+      }
+      InvalidationEvent event = parseEvent(lines[i], sender);
+      firstVersion = Math.min(firstVersion, event.getVersion());
+      events.add(event);
+    }
+
+    String loss = track(sender, senderIncarnation, firstVersion, senderVersion, bye, now);
+    if (loss != null) {
+      listener.onLoss(loss);
+    }
+    for (InvalidationEvent event : events) {
+      listener.onEvent(event);
+    }
+  }
+
+  /**
+   * @return O motivo para descartar todos os caches, ou null se nada se perdeu.
+   */
+  private String track(String sender, long senderIncarnation, long firstVersion, long lastVersion,
+                       boolean bye, long now) {
+    Peer peer = peers.get(sender);
+    if (peer == null || peer.incarnation != senderIncarnation) {
+      if (bye) {
+        return null;
+      }
+      peers.put(sender, new Peer(senderIncarnation, lastVersion, now));
+      if (peer != null) {
+        return "nó " + sender + " reiniciado";
+      }
+      // Um nó visto pela primeira vez depois de o ouvirmos por um tempo já pode ter
+      // publicado eventos que não chegaram aqui.
+      boolean missedStart = firstVersion > 1 && now - startedAt > SILENT_HEARTBEATS * heartbeatMs;
+      return missedStart ? "primeiros eventos do nó " + sender + " não recebidos" : null;
+    }
+    synchronized (peer) {
+      peer.lastHeardAt = now;
+      // Um buraco deixado pelo tempo calado aparece na versão, como qualquer outro.
+      peer.silent = false;
+      String loss = null;
+      if (firstVersion > peer.lastVersion + 1) {
+        loss = "eventos " + (peer.lastVersion + 1) + " a " + (firstVersion - 1) + " do nó " + sender + " perdidos";
+      }
+      // Pacotes fora de ordem trazem versões menores: os eventos valem, a sequência não volta.
+      peer.lastVersion = Math.max(peer.lastVersion, lastVersion);
+      if (bye) {
+        peers.remove(sender);
+      }
+      return loss;
+    }
+  }
+
+  private static InvalidationEvent parseEvent(String line, String sender) {
+    String[] fields = line.split(" ");
+    if (fields.length != 4) {
+      throw new IllegalArgumentException("malformed event line: " + line);
+    }
+    CacheRegion region;
+    try {
+      region = CacheRegion.valueOf(fields[0]);
+    } catch (IllegalArgumentException e) {
+      // Região de uma versão mais nova da aplicação: descarta tudo por segurança.
+      region = CacheRegion.ALL;
+    }
+    return new InvalidationEvent(region, Integer.parseInt(fields[1]), Long.parseLong(fields[2]), sender,
+        Long.parseLong(fields[3]));
+  }
+
+  private static final class Peer {
+    private final long incarnation;
+    private long lastVersion;
+    private volatile long lastHeardAt;
+    /** Já avisado como calado; volta a false quando o nó é ouvido. */
+    private volatile boolean silent;
+
+    private Peer(long incarnation, long lastVersion, long lastHeardAt) {
+      this.incarnation = incarnation;
+      this.lastVersion = lastVersion;
+      this.lastHeardAt = lastHeardAt;
+    }
+  }
+}
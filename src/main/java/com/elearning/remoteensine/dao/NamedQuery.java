@@ -0,0 +1,77 @@
+package com.elearning.remoteensine.dao;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrução SQL registrada com um nome estável em {@link AbstractDAO}.
+ * O texto é sempre o mesmo para o mesmo nome, o que permite ao driver
+ * reaproveitar o prepared statement já compilado em cada conexão do pool.
+ */
+public final class NamedQuery {
+
+  private final String name;
+  private final String sql;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder rows = new LongAdder();
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  NamedQuery(String name, String sql) {
+    this.name = name;
+    this.sql = sql;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  /** Preparações em que a conexão física já tinha esta instrução em cache. */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /** Preparações que precisaram ser compiladas pelo servidor. */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  void recordHit() {
+    hits.increment();
+  }
+
+  void recordMiss() {
+    misses.increment();
+  }
+
+  void recordExecution(long micros) {
+    latency.record(micros);
+  }
+
+  void recordError() {
+    errors.increment();
+  }
+
+  void recordRows(long count) {
+    rows.add(count);
+  }
+
+  /**
+   * Retrato das execuções desde o startup: latência (percentis do histograma),
+   * linhas lidas/afetadas e falhas.
+   */
+  public StatementStats snapshot() {
+    return new StatementStats(name, latency.getCount(), errors.sum(), rows.sum(),
+        latency.getTotalMicros(), latency.percentile(50), latency.percentile(90),
+        latency.percentile(99), latency.percentile(99.9), latency.getMaxMicros());
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
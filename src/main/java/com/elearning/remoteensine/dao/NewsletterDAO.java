@@ -1,19 +1,71 @@
 package com.elearning.remoteensine.dao;
 
 import com.elearning.remoteensine.model.NewsLetterInscription;
+import com.elearning.remoteensine.util.DataSourceRouting;
 import com.elearning.remoteensine.util.DatabaseConnector;
+import com.elearning.remoteensine.util.UnitOfWork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
 
 import java.sql.*;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public class NewsletterDAO extends AbstractDAO {
 
-  public NewsletterDAO(DatabaseConnector databaseConnector) {
+  private static final Logger log = LoggerFactory.getLogger(NewsletterDAO.class);
+
+  private static final RowMapping<NewsLetterInscription> INSCRIPTION_ROW = RowMapping.columns(
+      "inscription_id", "email", "inscription_hour", "active"
+  ).mappedBy((rs, c) -> {
+    NewsLetterInscription inscription = new NewsLetterInscription();
+    inscription.setInscriptionId(rs.getInt(c[0]));
+    inscription.setEmail(rs.getString(c[1]));
+    Timestamp tsCreationDate = rs.getTimestamp(c[2]);
+    if (tsCreationDate != null) {
+      inscription.setInscriptionDate(tsCreationDate.toLocalDateTime());
+    }
+    inscription.setActive(rs.getBoolean(c[3]));
+    return inscription;
+  });
+
+  private static final NamedQuery SAVE_INSCRIPTION = namedQuery("newsletter.saveInscription",
+      "INSERT INTO newsletter_inscription(email, inscription_hour, active) VALUES (?, ?, ?)");
+  private static final NamedQuery SEARCH_BY_EMAIL = namedQuery("newsletter.searchByEmail",
+      "SELECT " + INSCRIPTION_ROW.selectList() + " FROM newsletter_inscription WHERE email = ?");
+  private static final NamedQuery UPDATE_INSCRIPTION_STATUS = namedQuery("newsletter.updateInscriptionStatus",
+      "UPDATE newsletter_inscription SET active = ? WHERE inscription_id = ?");
+  private static final NamedQuery LIST_ALL_INSCRIPTIONS = namedQuery("newsletter.listAllInscriptions",
+      "SELECT " + INSCRIPTION_ROW.selectList() + " FROM newsletter_inscription ORDER BY inscription_hour DESC");
+  private static final NamedQuery LIST_ACTIVE_INSCRIPTIONS = namedQuery("newsletter.listActiveInscriptions",
+      "SELECT " + INSCRIPTION_ROW.selectList() + " FROM newsletter_inscription WHERE active = TRUE ORDER BY inscription_hour DESC");
+  private static final NamedQuery ACTIVE_SUBSCRIBER_EMAILS = namedQuery("newsletter.activeSubscriberEmails",
+      "SELECT email FROM newsletter_inscription WHERE active = TRUE");
+
+  /**
+   * E-mails com inscrição ativa, para responder {@link #isActiveSubscriber} sem ir ao banco.
+   * Carregado por inteiro na primeira verificação e mantido pelas escritas desta classe, que
+   * relêem do primário o e-mail alterado quando a unidade de trabalho termina. Null até a
+   * carga, ou depois de {@link #invalidateSubscribers()}.
+   */
+  private volatile SubscriberFilter subscribers;
+  private final Object subscribersLock = new Object();
+
+  private final InvalidationBus invalidationBus;
+
+  public NewsletterDAO(DatabaseConnector databaseConnector, InvalidationBus invalidationBus) {
     super(databaseConnector);
+    this.invalidationBus = invalidationBus;
+    // Os eventos não carregam o e-mail: outro nó descarta o índice e o recarrega na próxima verificação.
+    invalidationBus.subscribe(CacheRegion.NEWSLETTER, ignored -> dropSubscribers());
   }
 
   /**
@@ -24,14 +76,10 @@ public class NewsletterDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro, incluindo violação da constraint UNIQUE para e-mail.
    */
   public NewsLetterInscription saveInscription(NewsLetterInscription inscription) throws SQLException {
-    String sql = "INSERT INTO newsletter_inscription(email, inscription_hour, active) VALUES (?, ?, ?)";
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+         PreparedStatement pstmt = prepare(conn, SAVE_INSCRIPTION, Statement.RETURN_GENERATED_KEYS)) {
 
-      pstmt.setString(1, inscription.getEmail());
-      pstmt.setTimestamp(2, Timestamp.valueOf(inscription.getInscriptionDate() != null ? inscription.getInscriptionDate() : LocalDateTime.now()));
-      pstmt.setBoolean(3, inscription.isActive());
+      bindInscription(pstmt, inscription);
 
       int affectedRows = pstmt.executeUpdate();
 
@@ -46,10 +94,43 @@ public class NewsletterDAO extends AbstractDAO {
           throw new SQLException("Failed to save newsletter subscription, no ID obtained.");
         }
       }
+      refreshSubscriber(inscription.getEmail());
       return inscription;
     }
   }
 
+  /**
+   * Salva várias inscrições em um único lote (importação de listas de e-mail).
+   * E-mails vazios ou repetidos na própria lista são recusados antes de ir ao banco;
+   * e-mails já cadastrados são recusados pela constraint UNIQUE, linha a linha.
+   *
+   * @param inscriptions Inscrições a serem salvas.
+   * @return As inscrições salvas, com ID preenchido, e as recusadas com o motivo.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public BatchResult<NewsLetterInscription> saveInscriptions(List<NewsLetterInscription> inscriptions) throws SQLException {
+    Set<String> seenEmails = new HashSet<>();
+    try {
+      return executeBatch(SAVE_INSCRIPTION, inscriptions,
+          inscription -> {
+            if (inscription.getEmail() == null || inscription.getEmail().isBlank()) {
+              return "E-mail is required.";
+            }
+            return seenEmails.add(inscription.getEmail().toLowerCase()) ? null : "Duplicated e-mail in batch.";
+          },
+          NewsletterDAO::bindInscription, NewsLetterInscription::setInscriptionId);
+    } finally {
+      // Uma importação pode trazer milhares de e-mails; o índice é recarregado em vez de relido e-mail a e-mail.
+      invalidateSubscribers();
+    }
+  }
+
+  private static void bindInscription(PreparedStatement pstmt, NewsLetterInscription inscription) throws SQLException {
+    pstmt.setString(1, inscription.getEmail());
+    pstmt.setTimestamp(2, Timestamp.valueOf(inscription.getInscriptionDate() != null ? inscription.getInscriptionDate() : LocalDateTime.now()));
+    pstmt.setBoolean(3, inscription.isActive());
+  }
+
   /**
    * Busca uma inscrição na newsletter pelo e-mail.
    *
@@ -58,17 +139,16 @@ public class NewsletterDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public NewsLetterInscription searchByEmail(String email) throws SQLException {
-    String sql = "SELECT * FROM newsletter_inscription WHERE email = ?";
     NewsLetterInscription inscription = null;
 
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, SEARCH_BY_EMAIL)) {
 
       pstmt.setString(1, email);
       ResultSet rs = pstmt.executeQuery();
 
       if (rs.next()) {
-        inscription = mapResultSetForInscriptions(rs);
+        inscription = mapRow(SEARCH_BY_EMAIL, INSCRIPTION_ROW, rs);
       }
     }
     return inscription;
@@ -82,52 +162,163 @@ public class NewsletterDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean updateInscriptionStatus(NewsLetterInscription inscription) throws SQLException {
-    String sql = "UPDATE newsletter_inscription SET active = ? WHERE inscription_id = ?";
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, UPDATE_INSCRIPTION_STATUS)) {
       pstmt.setBoolean(1, inscription.isActive());
       pstmt.setInt(2, inscription.getInscriptionId());
       return pstmt.executeUpdate() > 0;
+    } finally {
+      if (inscription.getEmail() != null) {
+        refreshSubscriber(inscription.getEmail());
+      } else {
+        invalidateSubscribers();
+      }
     }
   }
 
   /**
-   * Lista todos os e-mails inscritos (opcionalmente, apenas os ativos).
+   * Verifica se o e-mail tem inscrição ativa. Fora de uma unidade de trabalho a resposta vem
+   * do índice em memória: o filtro de Bloom descarta a maioria dos e-mails não inscritos e os
+   * demais são conferidos no conjunto de hashes. Dentro de uma unidade de trabalho a inscrição
+   * é lida do banco, já que ela pode ter sido alterada e ainda não confirmada; com os caches
+   * desligados pelo {@link InvalidationBus}, também, sem recarregar o índice.
    *
-   * @param activeOnly Se true, lista apenas inscrições ativas.
-   * @return Lista de NewsletterInscricao.
-   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   * @param email O e-mail a ser verificado.
+   * @return true se o e-mail está inscrito e ativo.
+   * @throws SQLException Se ocorrer um erro ao carregar o índice.
    */
-  public List<NewsLetterInscription> listAllInscriptions(boolean activeOnly) throws SQLException {
-    List<NewsLetterInscription> inscriptions = new ArrayList<>();
-    String sql = "SELECT * FROM newsletter_inscription";
-    if (activeOnly) {
-      sql += " WHERE active = TRUE";
+  public boolean isActiveSubscriber(String email) throws SQLException {
+    if (UnitOfWork.isActive() || !invalidationBus.cachesEnabled()) {
+      NewsLetterInscription inscription = searchByEmail(email);
+      return inscription != null && inscription.isActive();
+    }
+    return subscriberIndex().contains(SubscriberFilter.hash(emailKey(email)));
+  }
+
+  /**
+   * Carrega o índice ao subir a aplicação, depois das migrações, para que a primeira
+   * página do catálogo não pague a carga. Se falhar, a primeira verificação tenta de novo.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadSubscribersOnStartup() {
+    try {
+      subscriberIndex();
+    } catch (SQLException e) {
+      log.warn("Não foi possível carregar o índice de inscritos da newsletter: {}", e.getMessage());
+    } finally {
+      DataSourceRouting.reset();
+    }
+  }
+
+  private SubscriberFilter subscriberIndex() throws SQLException {
+    SubscriberFilter index = subscribers;
+    if (index != null) {
+      return index;
+    }
+    synchronized (subscribersLock) {
+      if (subscribers == null) {
+        subscribers = loadSubscribers();
+      }
+      return subscribers;
     }
-    sql += " ORDER BY inscription_hour DESC";
+  }
 
+  /**
+   * Lê os e-mails ativos num cursor de streaming. Vai ao primário, e não a uma réplica,
+   * porque o índice é mantido a partir daqui só pelas escritas seguintes.
+   */
+  private SubscriberFilter loadSubscribers() throws SQLException {
+    long start = System.nanoTime();
+    SubscriberFilter.Builder builder = new SubscriberFilter.Builder();
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql);
+         PreparedStatement pstmt = prepareStreaming(conn, ACTIVE_SUBSCRIBER_EMAILS);
          ResultSet rs = pstmt.executeQuery()) {
-
       while (rs.next()) {
-        inscriptions.add(mapResultSetForInscriptions(rs));
+        String email = rs.getString(1);
+        if (email != null) {
+          builder.add(SubscriberFilter.hash(emailKey(email)));
+        }
       }
     }
-    return inscriptions;
+    SubscriberFilter index = builder.build();
+    log.info("Índice de inscritos da newsletter carregado: {} e-mails ({} ms)",
+        index.size(), (System.nanoTime() - start) / 1_000_000);
+    return index;
   }
 
+  /**
+   * Relê a inscrição do e-mail no primário depois do commit da unidade de trabalho atual
+   * e ajusta o índice.
+   */
+  private void refreshSubscriber(String email) {
+    UnitOfWork.afterCompletion(() -> {
+      synchronized (subscribersLock) {
+        SubscriberFilter index = subscribers;
+        if (index == null) {
+          return;
+        }
+        try {
+          NewsLetterInscription inscription = searchByEmail(email);
+          long hash = SubscriberFilter.hash(emailKey(email));
+          subscribers = inscription != null && inscription.isActive() ? index.with(hash) : index.without(hash);
+        } catch (SQLException e) {
+          log.warn("Não foi possível atualizar o índice de inscritos da newsletter: {}", e.getMessage());
+          subscribers = null;
+        }
+      }
+    });
+    invalidationBus.publish(CacheRegion.NEWSLETTER, InvalidationBus.ALL_IDS);
+  }
 
-  private NewsLetterInscription mapResultSetForInscriptions(ResultSet rs) throws SQLException {
-    NewsLetterInscription inscription = new NewsLetterInscription();
-    inscription.setInscriptionId(rs.getInt("inscription_id"));
-    inscription.setEmail(rs.getString("email"));
-    Timestamp tsCreationDate = rs.getTimestamp("inscription_hour");
-    if (tsCreationDate != null) {
-      inscription.setInscriptionDate(tsCreationDate.toLocalDateTime());
+  /**
+   * Descarta o índice quando a unidade de trabalho atual terminar, aqui e nos outros nós;
+   * a próxima verificação o carrega de novo.
+   */
+  private void invalidateSubscribers() {
+    UnitOfWork.afterCompletion(this::dropSubscribers);
+    invalidationBus.publish(CacheRegion.NEWSLETTER, InvalidationBus.ALL_IDS);
+  }
+
+  private void dropSubscribers() {
+    synchronized (subscribersLock) {
+      subscribers = null;
     }
-    inscription.setActive(rs.getBoolean("active"));
-    return inscription;
   }
+
+  /** O MySQL compara e-mails sem diferenciar maiúsculas e ignora espaços no fim. */
+  private static String emailKey(String email) {
+    return email.stripTrailing().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Lista todos os e-mails inscritos (opcionalmente, apenas os ativos).
+   *
+   * @param activeOnly Se true, lista apenas inscrições ativas.
+   * @return Lista de NewsletterInscricao.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public List<NewsLetterInscription> listAllInscriptions(boolean activeOnly) throws SQLException {
+    NamedQuery query = activeOnly ? LIST_ACTIVE_INSCRIPTIONS : LIST_ALL_INSCRIPTIONS;
+
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = prepare(conn, query);
+         ResultSet rs = pstmt.executeQuery()) {
+      return mapRows(query, INSCRIPTION_ROW, rs);
+    }
+  }
+
+  /**
+   * Percorre as inscrições com um cursor de streaming, sem carregar a tabela inteira
+   * na memória (exportações). O Stream deve ser fechado, de preferência em try-with-resources.
+   *
+   * @param activeOnly Se true, percorre apenas inscrições ativas.
+   * @return Stream de NewsletterInscricao, mapeadas à medida que são lidas.
+   * @throws SQLException Se ocorrer um erro ao abrir o cursor.
+   */
+  public Stream<NewsLetterInscription> streamAllInscriptions(boolean activeOnly) throws SQLException {
+    NamedQuery query = activeOnly ? LIST_ACTIVE_INSCRIPTIONS : LIST_ALL_INSCRIPTIONS;
+    return stream(query, INSCRIPTION_ROW, pstmt -> { });
+  }
+
 }
 
@@ -0,0 +1,170 @@
+package com.elearning.remoteensine.dao;
+
+import com.elearning.remoteensine.util.DatabaseConnector;
+import com.elearning.remoteensine.util.UnitOfWork;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Responde "qual curso está por trás desta entidade e quem é o professor dono dele" numa
+ * única consulta por chave primária, em vez de carregar a entidade, o curso e o usuário
+ * separadamente. Só conta como dono um usuário do tipo PROFESSOR.
+ * <p>
+ * O dono de cada curso fica num índice em memória curso → professor, preenchido por
+ * todas as consultas desta classe. O CourseDAO descarta a entrada ao alterar ou excluir
+ * o curso, e o UserDAO descarta o índice inteiro ao alterar ou excluir um usuário.
+ */
+@Repository
+public class OwnershipDAO extends AbstractDAO {
+
+  private static final RowMapping<CourseOwner> OWNER_ROW = RowMapping.columns("course_id", "professor_id")
+      .mappedBy((rs, c) -> new CourseOwner(rs.getInt(c[0]), rs.getInt(c[1])));
+
+  private static final String OWNER_SELECT = "SELECT c.course_id, u.user_id AS professor_id ";
+  private static final String PROFESSOR_JOIN =
+      "LEFT JOIN users u ON u.user_id = c.responsible_professor_id AND u.user_type = 'PROFESSOR' ";
+
+  private static final NamedQuery COURSE_OWNER = namedQuery("ownership.courseOwner",
+      OWNER_SELECT + "FROM courses c " + PROFESSOR_JOIN + "WHERE c.course_id = ?");
+  private static final NamedQuery CLASSROOM_OWNER = namedQuery("ownership.classroomOwner",
+      OWNER_SELECT + "FROM classes cl JOIN courses c ON c.course_id = cl.course_id " + PROFESSOR_JOIN +
+      "WHERE cl.classroom_id = ?");
+  private static final NamedQuery EXERCISE_OWNER = namedQuery("ownership.exerciseOwner",
+      OWNER_SELECT + "FROM exercises e JOIN classes cl ON cl.classroom_id = e.classroom_id " +
+      "JOIN courses c ON c.course_id = cl.course_id " + PROFESSOR_JOIN +
+      "WHERE e.exercise_id = ?");
+  private static final NamedQuery EXAM_DEFINITION_OWNER = namedQuery("ownership.examDefinitionOwner",
+      OWNER_SELECT + "FROM exam_definitions d JOIN courses c ON c.course_id = d.id_course " + PROFESSOR_JOIN +
+      "WHERE d.id_exam_definition = ?");
+  private static final NamedQuery EXAM_QUESTION_OWNER = namedQuery("ownership.examQuestionOwner",
+      OWNER_SELECT + "FROM exam_questions q JOIN exam_definitions d ON d.id_exam_definition = q.id_exam_definition " +
+      "JOIN courses c ON c.course_id = d.id_course " + PROFESSOR_JOIN +
+      "WHERE q.id_exam_question = ?");
+
+  /** ID do curso → ID do professor dono (0 se o responsável não é professor). */
+  private final Map<Integer, Integer> owners = new ConcurrentHashMap<>();
+  private final Object indexLock = new Object();
+  /** Incrementado a cada descarte; uma consulta iniciada antes dele não entra no índice. */
+  private long generation;
+
+  private final InvalidationBus invalidationBus;
+
+  public OwnershipDAO(DatabaseConnector databaseConnector, InvalidationBus invalidationBus) {
+    super(databaseConnector);
+    this.invalidationBus = invalidationBus;
+    invalidationBus.subscribe(CacheRegion.OWNERSHIP, idCourse -> {
+      if (idCourse == InvalidationBus.ALL_IDS) {
+        evictAll();
+      } else {
+        evict(idCourse);
+      }
+    });
+  }
+
+  /**
+   * Dono de um curso. Atendido pelo índice em memória quando o curso já foi resolvido.
+   *
+   * @param idCourse O ID do curso.
+   * @return O curso e seu dono, ou null se o curso não existir.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public CourseOwner findCourseOwner(int idCourse) throws SQLException {
+    Integer idProfessor = owners.get(idCourse);
+    if (idProfessor != null) {
+      return new CourseOwner(idCourse, idProfessor);
+    }
+    return findOwner(COURSE_OWNER, idCourse);
+  }
+
+  /**
+   * @return O curso da aula e seu dono, ou null se a aula não existir.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public CourseOwner findClassroomOwner(int idClassroom) throws SQLException {
+    return findOwner(CLASSROOM_OWNER, idClassroom);
+  }
+
+  /**
+   * @return O curso (da aula) do exercício e seu dono, ou null se o exercício não existir.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public CourseOwner findExerciseOwner(int idExercise) throws SQLException {
+    return findOwner(EXERCISE_OWNER, idExercise);
+  }
+
+  /**
+   * @return O curso da definição de exame e seu dono, ou null se a definição não existir.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public CourseOwner findExamDefinitionOwner(int idExamDefinition) throws SQLException {
+    return findOwner(EXAM_DEFINITION_OWNER, idExamDefinition);
+  }
+
+  /**
+   * @return O curso (da definição de exame) da questão e seu dono, ou null se a questão não existir.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public CourseOwner findExamQuestionOwner(int idExamQuestion) throws SQLException {
+    return findOwner(EXAM_QUESTION_OWNER, idExamQuestion);
+  }
+
+  /**
+   * A verificação antecede uma escrita, então vai ao primário, e não à réplica.
+   */
+  private CourseOwner findOwner(NamedQuery query, int id) throws SQLException {
+    long startedAt;
+    synchronized (indexLock) {
+      startedAt = generation;
+    }
+    CourseOwner owner = null;
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = prepare(conn, query)) {
+
+      pstmt.setInt(1, id);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        if (rs.next()) {
+          owner = mapRow(query, OWNER_ROW, rs);
+        }
+      }
+    }
+    if (owner != null) {
+      synchronized (indexLock) {
+        if (generation == startedAt && invalidationBus.cachesEnabled()) {
+          owners.put(owner.getIdCourse(), owner.getIdProfessor());
+        }
+      }
+    }
+    return owner;
+  }
+
+  /**
+   * Descarta o dono guardado do curso agora e de novo quando a unidade de trabalho atual
+   * terminar, para que uma leitura feita antes do commit não deixe o dono antigo no índice.
+   * Os outros nós descartam o mesmo curso pelo {@link InvalidationBus}.
+   */
+  void invalidate(int idCourse) {
+    evict(idCourse);
+    UnitOfWork.afterCompletion(() -> evict(idCourse));
+    invalidationBus.publish(CacheRegion.OWNERSHIP, idCourse);
+  }
+
+  private void evict(int idCourse) {
+    synchronized (indexLock) {
+      generation++;
+      owners.remove(idCourse);
+    }
+  }
+
+  private void evictAll() {
+    synchronized (indexLock) {
+      generation++;
+      owners.clear();
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.elearning.remoteensine.dao;
+
+import com.elearning.remoteensine.model.CourseRating;
+import com.elearning.remoteensine.util.IntObjectMap;
+
+/**
+ * Foto imutável dos agregados de notas de todos os cursos, com a versão das notas
+ * ({@link ExamDAO#ratingsVersion()}) em que foi lida. Enquanto a versão não muda, os
+ * cards do catálogo leem as médias daqui, sem consultar o banco; uma versão nova faz a
+ * próxima leitura carregar outra foto.
+ */
+public final class RatingsSnapshot {
+
+  private final long version;
+  private final IntObjectMap<CourseRating> byCourse;
+
+  RatingsSnapshot(long version, IntObjectMap<CourseRating> byCourse) {
+    this.version = version;
+    this.byCourse = byCourse;
+  }
+
+  /**
+   * @return O agregado do curso; vazio (sem notas) se o curso ainda não tiver avaliações.
+   */
+  public CourseRating get(int idCourse) {
+    CourseRating rating = byCourse.get(idCourse);
+    return rating != null ? rating : CourseRating.empty(idCourse);
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public int size() {
+    return byCourse.size();
+  }
+}
@@ -0,0 +1,101 @@
+package com.elearning.remoteensine.dao;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Mapeamento de linha por índice de coluna.
+ * Declara as colunas que o mapper lê (na ordem da projeção) e converte cada linha
+ * usando os índices já resolvidos, sem procurar colunas por nome a cada linha.
+ * A resolução nome → índice é feita uma vez por instrução em {@link AbstractDAO}.
+ *
+ * @param <T> Tipo do modelo produzido.
+ */
+public final class RowMapping<T> {
+
+  @FunctionalInterface
+  public interface IndexedMapper<T> {
+    /**
+     * @param rs  ResultSet posicionado na linha atual.
+     * @param col Índices JDBC (base 1) das colunas, na ordem declarada em {@link RowMapping#columns}.
+     */
+    T map(ResultSet rs, int[] col) throws SQLException;
+  }
+
+  public static final class Columns {
+    private final String[] labels;
+
+    private Columns(String[] labels) {
+      this.labels = labels;
+    }
+
+    public <T> RowMapping<T> mappedBy(IndexedMapper<T> mapper) {
+      return new RowMapping<>(labels, mapper);
+    }
+  }
+
+  private final String[] labels;
+  private final IndexedMapper<T> mapper;
+  private final String selectList;
+  private final int[] positional;
+
+  private RowMapping(String[] labels, IndexedMapper<T> mapper) {
+    this.labels = labels;
+    this.mapper = mapper;
+    this.selectList = String.join(", ", labels);
+    this.positional = new int[labels.length];
+    for (int i = 0; i < labels.length; i++) {
+      positional[i] = i + 1;
+    }
+  }
+
+  public static Columns columns(String... labels) {
+    return new Columns(labels.clone());
+  }
+
+  /**
+   * @return Lista de colunas para projeção explícita ("col_a, col_b, ..."), no lugar de SELECT *.
+   */
+  public String selectList() {
+    return selectList;
+  }
+
+  public T map(ResultSet rs, int[] col) throws SQLException {
+    return mapper.map(rs, col);
+  }
+
+  /**
+   * Resolve os índices das colunas declaradas a partir dos metadados do ResultSet.
+   * Sem metadados disponíveis, assume que a consulta usa exatamente {@link #selectList()}.
+   *
+   * @throws SQLException se alguma coluna declarada não estiver presente no resultado.
+   */
+  int[] resolve(ResultSetMetaData metaData) throws SQLException {
+    if (metaData == null) {
+      return positional;
+    }
+    int count = metaData.getColumnCount();
+    String[] available = new String[count];
+    for (int i = 0; i < count; i++) {
+      available[i] = metaData.getColumnLabel(i + 1);
+    }
+    int[] indexes = new int[labels.length];
+    for (int i = 0; i < labels.length; i++) {
+      indexes[i] = indexOf(available, labels[i]);
+      if (indexes[i] == 0) {
+        throw new SQLException("Column '" + labels[i] + "' not present in result set.");
+      }
+    }
+    return indexes;
+  }
+
+  private static int indexOf(String[] available, String label) {
+    for (int i = 0; i < available.length; i++) {
+      if (label.equalsIgnoreCase(available[i])) {
+        return i + 1;
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,63 @@
+package com.elearning.remoteensine.dao;
+
+import java.time.LocalDateTime;
+
+/**
+ * Execução que passou do limite {@code app.datasource.slow-query-threshold-ms}.
+ * Os parâmetros vêm redigidos: só posição e tipo, nunca o valor.
+ */
+public class SlowQuery {
+  private final String name;
+  private final LocalDateTime executedAt;
+  private final long elapsedMillis;
+  private final long rows;
+  private final String parameters;
+  private final String thread;
+
+  public SlowQuery(String name, LocalDateTime executedAt, long elapsedMillis, long rows,
+                   String parameters, String thread) {
+    this.name = name;
+    this.executedAt = executedAt;
+    this.elapsedMillis = elapsedMillis;
+    this.rows = rows;
+    this.parameters = parameters;
+    this.thread = thread;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public LocalDateTime getExecutedAt() {
+    return executedAt;
+  }
+
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  /** Linhas afetadas por escritas; -1 em consultas, cujas linhas ainda não foram lidas no execute. */
+  public long getRows() {
+    return rows;
+  }
+
+  public String getParameters() {
+    return parameters;
+  }
+
+  public String getThread() {
+    return thread;
+  }
+
+  /**
+   * Linha chave=valor do log de consultas lentas.
+   */
+  @Override
+  public String toString() {
+    return "slow_query name=" + name
+        + " elapsed_ms=" + elapsedMillis
+        + " rows=" + (rows < 0 ? "-" : String.valueOf(rows))
+        + " params=[" + parameters + "]"
+        + " thread=" + thread;
+  }
+}
@@ -0,0 +1,77 @@
+package com.elearning.remoteensine.dao;
+
+/**
+ * Métricas de uma instrução registrada, expostas em /monitoramento/sql.
+ * Latências em microssegundos, medidas do envio ao banco até o retorno do execute.
+ */
+public class StatementStats {
+  private final String name;
+  private final long executions;
+  private final long errors;
+  private final long rows;
+  private final long totalMicros;
+  private final long p50Micros;
+  private final long p90Micros;
+  private final long p99Micros;
+  private final long p999Micros;
+  private final long maxMicros;
+
+  public StatementStats(String name, long executions, long errors, long rows, long totalMicros,
+                        long p50Micros, long p90Micros, long p99Micros, long p999Micros, long maxMicros) {
+    this.name = name;
+    this.executions = executions;
+    this.errors = errors;
+    this.rows = rows;
+    this.totalMicros = totalMicros;
+    this.p50Micros = p50Micros;
+    this.p90Micros = p90Micros;
+    this.p99Micros = p99Micros;
+    this.p999Micros = p999Micros;
+    this.maxMicros = maxMicros;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getExecutions() {
+    return executions;
+  }
+
+  public long getErrors() {
+    return errors;
+  }
+
+  /** Linhas lidas (consultas) ou afetadas (escritas). */
+  public long getRows() {
+    return rows;
+  }
+
+  public long getTotalMicros() {
+    return totalMicros;
+  }
+
+  public long getMeanMicros() {
+    return executions == 0 ? 0 : totalMicros / executions;
+  }
+
+  public long getP50Micros() {
+    return p50Micros;
+  }
+
+  public long getP90Micros() {
+    return p90Micros;
+  }
+
+  public long getP99Micros() {
+    return p99Micros;
+  }
+
+  public long getP999Micros() {
+    return p999Micros;
+  }
+
+  public long getMaxMicros() {
+    return maxMicros;
+  }
+}
@@ -12,6 +12,19 @@ import java.util.List;
 @Repository
 public class StudentsExerciseAnswerDAO extends AbstractDAO {
 
+  private static final NamedQuery SAVE_ANSWER = namedQuery("studentsExerciseAnswer.saveAnswer",
+      "INSERT INTO student_exercise_answers " +
+      "(id_exercise, id_student, id_class, id_course, answer_text, send_date, is_correct, grade, feedback_professor) " +
+      "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+  private static final NamedQuery GET_ANSWER_BY_STUDENT_AND_EXERCISE = namedQuery("studentsExerciseAnswer.getAnswerByStudentAndExercise",
+      "SELECT * FROM student_exercise_answers WHERE id_student = ? AND id_exercise = ?");
+  private static final NamedQuery GET_ANSWERS_BY_STUDENT_AND_CLASSROOM = namedQuery("studentsExerciseAnswer.getAnswersByStudentAndClassroom",
+      "SELECT * FROM student_exercise_answers WHERE id_student = ? AND id_class = ?");
+  private static final NamedQuery UPDATE_ANSWER = namedQuery("studentsExerciseAnswer.updateAnswer",
+      "UPDATE student_exercise_answers SET " +
+      "answer_text = ?, send_date = ?, is_correct = ?, grade = ?, feedback_professor = ? " +
+      "WHERE id_student_answer_exercise = ?");
+
   public StudentsExerciseAnswerDAO(DatabaseConnector databaseConnector) {
     super(databaseConnector);
   }
@@ -23,31 +36,10 @@ public class StudentsExerciseAnswerDAO extends AbstractDAO {
    * Por simplicidade, este método apenas tenta inserir.
    */
   public StudentsExerciseAnswer saveAnswer(StudentsExerciseAnswer answer) throws SQLException {
-    String sql = "INSERT INTO student_exercise_answers " +
-        "(id_exercise, id_student, id_class, id_course, answer_text, send_date, is_correct, grade, feedback_professor) " +
-        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-      pstmt.setInt(1, answer.getIdExercise());
-      pstmt.setInt(2, answer.getIdStudent());
-      pstmt.setInt(3, answer.getIdClass());
-      pstmt.setInt(4, answer.getIdCourse());
-      pstmt.setString(5, answer.getAnswerText());
-      pstmt.setTimestamp(6, Timestamp.valueOf(answer.getSendDate() != null ? answer.getSendDate() : LocalDateTime.now()));
+         PreparedStatement pstmt = prepare(conn, SAVE_ANSWER, Statement.RETURN_GENERATED_KEYS)) {
 
-      if (answer.getCorrect() != null) {
-        pstmt.setBoolean(7, answer.getCorrect());
-      } else {
-        pstmt.setNull(7, Types.BOOLEAN);
-      }
-      if (answer.getGrade() != null) {
-        pstmt.setDouble(8, answer.getGrade());
-      } else {
-        pstmt.setNull(8, Types.DECIMAL);
-      }
-      pstmt.setString(9, answer.getFeedbackProfessor());
+      bindAnswer(pstmt, answer);
 
       int affectedRows = pstmt.executeUpdate();
 
@@ -66,15 +58,48 @@ public class StudentsExerciseAnswerDAO extends AbstractDAO {
     }
   }
 
+  /**
+   * Salva várias respostas em um único lote. Respostas repetidas para o mesmo aluno e
+   * exercício (UNIQUE KEY) são recusadas individualmente sem afetar as demais.
+   *
+   * @param answers Respostas a serem salvas.
+   * @return As respostas salvas, com ID preenchido, e as recusadas com o motivo.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public BatchResult<StudentsExerciseAnswer> saveAnswers(List<StudentsExerciseAnswer> answers) throws SQLException {
+    return executeBatch(SAVE_ANSWER, answers, answer -> null,
+        StudentsExerciseAnswerDAO::bindAnswer, StudentsExerciseAnswer::setIdStudentAnswerExercise);
+  }
+
+  private static void bindAnswer(PreparedStatement pstmt, StudentsExerciseAnswer answer) throws SQLException {
+    pstmt.setInt(1, answer.getIdExercise());
+    pstmt.setInt(2, answer.getIdStudent());
+    pstmt.setInt(3, answer.getIdClass());
+    pstmt.setInt(4, answer.getIdCourse());
+    pstmt.setString(5, answer.getAnswerText());
+    pstmt.setTimestamp(6, Timestamp.valueOf(answer.getSendDate() != null ? answer.getSendDate() : LocalDateTime.now()));
+
+    if (answer.getCorrect() != null) {
+      pstmt.setBoolean(7, answer.getCorrect());
+    } else {
+      pstmt.setNull(7, Types.BOOLEAN);
+    }
+    if (answer.getGrade() != null) {
+      pstmt.setDouble(8, answer.getGrade());
+    } else {
+      pstmt.setNull(8, Types.DECIMAL);
+    }
+    pstmt.setString(9, answer.getFeedbackProfessor());
+  }
+
   /**
    * Busca a resposta de um aluno para um exercício específico.
    * Útil para verificar se já respondeu ou para carregar uma resposta existente.
    */
   public StudentsExerciseAnswer getAnswerByStudentAndExercise(int studentId, int exerciseId) throws SQLException {
-    String sql = "SELECT * FROM student_exercise_answers WHERE id_student = ? AND id_exercise = ?";
     StudentsExerciseAnswer answer = null;
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, GET_ANSWER_BY_STUDENT_AND_EXERCISE)) {
       pstmt.setInt(1, studentId);
       pstmt.setInt(2, exerciseId);
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -91,9 +116,8 @@ public class StudentsExerciseAnswerDAO extends AbstractDAO {
    */
   public List<StudentsExerciseAnswer> getAnswersByStudentAndClassroom(int studentId, int classroomId) throws SQLException {
     List<StudentsExerciseAnswer> answers = new ArrayList<>();
-    String sql = "SELECT * FROM student_exercise_answers WHERE id_student = ? AND id_class = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, GET_ANSWERS_BY_STUDENT_AND_CLASSROOM)) {
       pstmt.setInt(1, studentId);
       pstmt.setInt(2, classroomId);
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -110,11 +134,8 @@ public class StudentsExerciseAnswerDAO extends AbstractDAO {
    * Útil se você permitir que o aluno edite a resposta ou se o professor for adicionar nota/feedback.
    */
   public boolean updateAnswer(StudentsExerciseAnswer answer) throws SQLException {
-    String sql = "UPDATE student_exercise_answers SET " +
-        "answer_text = ?, send_date = ?, is_correct = ?, grade = ?, feedback_professor = ? " +
-        "WHERE id_student_answer_exercise = ?";
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, UPDATE_ANSWER)) {
 
       pstmt.setString(1, answer.getAnswerText());
       pstmt.setTimestamp(2, Timestamp.valueOf(answer.getSendDate() != null ? answer.getSendDate() : LocalDateTime.now()));
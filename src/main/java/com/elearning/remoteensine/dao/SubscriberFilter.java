@@ -0,0 +1,226 @@
+package com.elearning.remoteensine.dao;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Conjunto imutável de e-mails, guardados como hashes de 64 bits: um filtro de Bloom
+ * responde "não está" sem tocar no conjunto, e só os positivos do filtro são conferidos
+ * numa tabela de endereçamento aberto (8 bytes por e-mail). Com 64 bits, a chance de
+ * dois e-mails distintos colidirem é desprezível para qualquer lista de newsletter.
+ * <p>
+ * {@link #with} e {@link #without} devolvem uma cópia, então o conjunto pode ser lido
+ * por várias threads sem lock. Uma remoção não apaga bits do filtro (outros e-mails podem
+ * usá-los); o filtro é refeito a partir da tabela quando ela cresce ou quando as remoções
+ * acumuladas passam do número de e-mails.
+ */
+final class SubscriberFilter {
+
+  static final SubscriberFilter EMPTY = build(new long[0], 0);
+
+  /** Com 10 bits por e-mail e 7 funções de hash, cerca de 1% de falsos positivos. */
+  private static final int BITS_PER_ENTRY = 10;
+  private static final int HASH_FUNCTIONS = 7;
+  private static final int MIN_TABLE_SIZE = 16;
+  /** Marca de posição vazia na tabela; um hash igual a ela é guardado como {@link #ZERO_HASH}. */
+  private static final long EMPTY_SLOT = 0L;
+  private static final long ZERO_HASH = 1L;
+
+  /** Hashes em endereçamento aberto com sondagem linear, ocupação até a metade. */
+  private final long[] table;
+  private final int size;
+  private final long[] bloom;
+  /** Remoções desde que o filtro foi montado; seus bits continuam ligados. */
+  private final int removedSinceBuild;
+
+  private SubscriberFilter(long[] table, int size, long[] bloom, int removedSinceBuild) {
+    this.table = table;
+    this.size = size;
+    this.bloom = bloom;
+    this.removedSinceBuild = removedSinceBuild;
+  }
+
+  boolean contains(long hash) {
+    hash = nonZero(hash);
+    return mightContain(bloom, hash) && indexOf(table, hash) >= 0;
+  }
+
+  SubscriberFilter with(long hash) {
+    hash = nonZero(hash);
+    if (contains(hash)) {
+      return this;
+    }
+    if ((size + 1) * 2 > table.length) {
+      long[] grown = new long[Math.max(MIN_TABLE_SIZE, table.length * 2)];
+      for (long value : table) {
+        if (value != EMPTY_SLOT) {
+          insert(grown, value);
+        }
+      }
+      insert(grown, hash);
+      return build(grown, size + 1);
+    }
+    long[] newTable = table.clone();
+    insert(newTable, hash);
+    long[] newBloom = bloom.clone();
+    addToBloom(newBloom, hash);
+    return new SubscriberFilter(newTable, size + 1, newBloom, removedSinceBuild);
+  }
+
+  SubscriberFilter without(long hash) {
+    hash = nonZero(hash);
+    int index = indexOf(table, hash);
+    if (index < 0) {
+      return this;
+    }
+    long[] newTable = table.clone();
+    delete(newTable, index);
+    if (removedSinceBuild + 1 > size - 1) {
+      return build(newTable, size - 1);
+    }
+    return new SubscriberFilter(newTable, size - 1, bloom, removedSinceBuild + 1);
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Hash de 64 bits de um e-mail já normalizado: FNV-1a sobre os bytes UTF-8, seguido do
+   * embaralhamento final do MurmurHash3, para que os bits baixos usados pelo filtro e pela
+   * tabela sejam bem distribuídos.
+   */
+  static long hash(String email) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= 0x100000001b3L;
+    }
+    return mix(hash);
+  }
+
+  /**
+   * Monta um conjunto a partir dos hashes lidos do banco (repetidos são ignorados).
+   */
+  static final class Builder {
+    private long[] table = new long[MIN_TABLE_SIZE];
+    private int size;
+
+    void add(long hash) {
+      hash = nonZero(hash);
+      if (indexOf(table, hash) >= 0) {
+        return;
+      }
+      if ((size + 1) * 2 > table.length) {
+        long[] grown = new long[table.length * 2];
+        for (long value : table) {
+          if (value != EMPTY_SLOT) {
+            insert(grown, value);
+          }
+        }
+        table = grown;
+      }
+      insert(table, hash);
+      size++;
+    }
+
+    SubscriberFilter build() {
+      return size == 0 ? EMPTY : SubscriberFilter.build(table, size);
+    }
+  }
+
+  /** Filtro dimensionado para a tabela cheia, ou seja, metade do número de posições. */
+  private static SubscriberFilter build(long[] table, int size) {
+    int expected = Math.max(MIN_TABLE_SIZE, table.length) / 2;
+    long[] bloom = new long[Math.max(1, (expected * BITS_PER_ENTRY + 63) / 64)];
+    for (long value : table) {
+      if (value != EMPTY_SLOT) {
+        addToBloom(bloom, value);
+      }
+    }
+    return new SubscriberFilter(table, size, bloom, 0);
+  }
+
+  /** Kirsch-Mitzenmacher: as k posições saem de duas metades do mesmo hash. */
+  private static boolean mightContain(long[] bloom, long hash) {
+    long bits = (long) bloom.length * 64;
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= HASH_FUNCTIONS; i++) {
+      long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bits;
+      if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void addToBloom(long[] bloom, long hash) {
+    long bits = (long) bloom.length * 64;
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= HASH_FUNCTIONS; i++) {
+      long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bits;
+      bloom[(int) (bit >>> 6)] |= 1L << bit;
+    }
+  }
+
+  private static int indexOf(long[] table, long hash) {
+    if (table.length == 0) {
+      return -1;
+    }
+    int mask = table.length - 1;
+    for (int i = slot(hash, mask); ; i = (i + 1) & mask) {
+      long value = table[i];
+      if (value == hash) {
+        return i;
+      }
+      if (value == EMPTY_SLOT) {
+        return -1;
+      }
+    }
+  }
+
+  private static void insert(long[] table, long hash) {
+    int mask = table.length - 1;
+    int i = slot(hash, mask);
+    while (table[i] != EMPTY_SLOT) {
+      i = (i + 1) & mask;
+    }
+    table[i] = hash;
+  }
+
+  /**
+   * Remove sem deixar marcas de posição apagada: os valores seguintes do mesmo trecho
+   * que não estão na sua posição ideal são puxados para o buraco.
+   */
+  private static void delete(long[] table, int index) {
+    int mask = table.length - 1;
+    int hole = index;
+    for (int i = (index + 1) & mask; table[i] != EMPTY_SLOT; i = (i + 1) & mask) {
+      int ideal = slot(table[i], mask);
+      boolean movable = hole <= i ? (ideal <= hole || ideal > i) : (ideal <= hole && ideal > i);
+      if (movable) {
+        table[hole] = table[i];
+        hole = i;
+      }
+    }
+    table[hole] = EMPTY_SLOT;
+  }
+
+  private static int slot(long hash, int mask) {
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+
+  private static long nonZero(long hash) {
+    return hash == EMPTY_SLOT ? ZERO_HASH : hash;
+  }
+
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
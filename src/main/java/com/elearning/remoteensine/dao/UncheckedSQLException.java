@@ -0,0 +1,19 @@
+package com.elearning.remoteensine.dao;
+
+import java.sql.SQLException;
+
+/**
+ * Envolve uma {@link SQLException} lançada durante a leitura de um {@code Stream}
+ * devolvido por um DAO, já que as operações de Stream não declaram exceções verificadas.
+ */
+public class UncheckedSQLException extends RuntimeException {
+
+  public UncheckedSQLException(SQLException cause) {
+    super(cause.getMessage(), cause);
+  }
+
+  @Override
+  public synchronized SQLException getCause() {
+    return (SQLException) super.getCause();
+  }
+}
@@ -0,0 +1,123 @@
+package com.elearning.remoteensine.dao;
+
+import com.elearning.remoteensine.model.Professor;
+import com.elearning.remoteensine.model.Student;
+import com.elearning.remoteensine.model.User;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache de usuários do {@link UserDAO}, por ID e por e-mail, limitado pela política de
+ * {@link BoundedCache}. As entradas são guardadas sem a senha e cada busca devolve uma
+ * cópia, para que quem altera o objeto recebido não altere o cache.
+ * <p>
+ * O índice por e-mail só aponta para IDs: uma entrada expulsa ou descartada leva junto
+ * o seu e-mail, e um e-mail que aponte para um usuário com outro e-mail é tratado como falta.
+ */
+final class UserCache {
+
+  private final BoundedCache<Integer, User> byId;
+  private final Map<String, Integer> idsByEmail = new ConcurrentHashMap<>();
+  private final Object lock = new Object();
+  /** Incrementado a cada descarte; uma consulta iniciada antes dele não entra no cache. */
+  private long generation;
+
+  private final InvalidationBus invalidationBus;
+
+  UserCache(int capacity, InvalidationBus invalidationBus) {
+    this.invalidationBus = invalidationBus;
+    this.byId = new BoundedCache<>("user", capacity,
+        (id, user) -> idsByEmail.remove(emailKey(user.getEmail()), id));
+  }
+
+  User findById(int idUser) {
+    User cached = byId.get(idUser);
+    return cached == null ? null : withoutPassword(cached);
+  }
+
+  User findByEmail(String email) {
+    Integer idUser = email == null ? null : idsByEmail.get(emailKey(email));
+    if (idUser == null) {
+      byId.recordMiss();
+      return null;
+    }
+    User cached = byId.get(idUser);
+    if (cached == null || !email.equalsIgnoreCase(cached.getEmail())) {
+      return null;
+    }
+    return withoutPassword(cached);
+  }
+
+  /**
+   * Valor a passar para {@link #put}, lido antes de ir ao banco.
+   */
+  long generation() {
+    synchronized (lock) {
+      return generation;
+    }
+  }
+
+  /**
+   * Guarda o usuário lido do banco, a menos que ele tenha sido descartado depois de
+   * {@code startedAt}, caso em que a leitura pode ser anterior à alteração, ou que os
+   * caches estejam desligados pelo {@link InvalidationBus}.
+   */
+  void put(User user, long startedAt) {
+    synchronized (lock) {
+      if (generation != startedAt || !invalidationBus.cachesEnabled()) {
+        return;
+      }
+      byId.put(user.getIdUser(), withoutPassword(user));
+      if (user.getEmail() != null) {
+        idsByEmail.put(emailKey(user.getEmail()), user.getIdUser());
+      }
+    }
+  }
+
+  void invalidate(int idUser) {
+    synchronized (lock) {
+      generation++;
+      User removed = byId.remove(idUser);
+      if (removed != null && removed.getEmail() != null) {
+        idsByEmail.remove(emailKey(removed.getEmail()), idUser);
+      }
+    }
+  }
+
+  /**
+   * Descarta tudo, quando outro nó avisa que não sabe quais usuários mudaram.
+   */
+  void invalidateAll() {
+    synchronized (lock) {
+      generation++;
+      byId.clear();
+      idsByEmail.clear();
+    }
+  }
+
+  CacheStats stats() {
+    return byId.stats();
+  }
+
+  /** O MySQL compara e-mails sem diferenciar maiúsculas. */
+  private static String emailKey(String email) {
+    return email.toLowerCase(Locale.ROOT);
+  }
+
+  static User withoutPassword(User user) {
+    User copy;
+    if (user instanceof Professor) {
+      copy = new Professor(user.getName(), user.getEmail(), null, ((Professor) user).getSpecialization());
+    } else if (user instanceof Student) {
+      copy = new Student(user.getName(), user.getEmail(), null);
+    } else {
+      copy = new User(user.getName(), user.getEmail(), null, user.getUserType());
+    }
+    copy.setIdUser(user.getIdUser());
+    copy.setUserType(user.getUserType());
+    copy.setRegisterDate(user.getRegisterDate());
+    return copy;
+  }
+}
@@ -1,20 +1,85 @@
 package com.elearning.remoteensine.dao;
 
+import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.Professor;
 import com.elearning.remoteensine.model.Student;
 import com.elearning.remoteensine.model.User;
 import com.elearning.remoteensine.model.enums.UserType;
 import com.elearning.remoteensine.util.DatabaseConnector;
+import com.elearning.remoteensine.util.UnitOfWork;
 import org.springframework.stereotype.Repository;
 
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Repository
 public class UserDAO extends AbstractDAO {
 
-  public UserDAO(DatabaseConnector databaseConnector) {
+  private static final NamedQuery SAVE_USER = namedQuery("user.saveUser",
+      "INSERT INTO users (name, email, password, user_type, specialization, register_hour) VALUES (?, ?, ?, ?, ?, ?)");
+  private static final NamedQuery SEARCH_BY_EMAIL = namedQuery("user.searchByEmail",
+      "SELECT * FROM users WHERE email = ?");
+  private static final NamedQuery SEARCH_BY_ID = namedQuery("user.searchById",
+      "SELECT * FROM users WHERE user_id = ?");
+  private static final NamedQuery ATT_USER = namedQuery("user.attUser",
+      "UPDATE users SET name = ?, email = ?, password = COALESCE(?, password), user_type = ?, specialization = ?, register_hour = ? WHERE user_id = ?");
+  private static final NamedQuery DELETE_USER = namedQuery("user.deleteUser",
+      "DELETE FROM users WHERE user_id = ?");
+  /** Nome e tipo atuais, travados até o fim da transação, com os cursos de que o usuário é responsável. */
+  private static final NamedQuery RESPONSIBLE_STATE = namedQuery("user.responsibleState",
+      "SELECT u.name, u.user_type, c.course_id FROM users u " +
+      "LEFT JOIN courses c ON c.responsible_professor_id = u.user_id WHERE u.user_id = ? FOR UPDATE");
+  /**
+   * Tamanhos fixos da lista IN de searchByIds. Cada tamanho é uma instrução registrada,
+   * então o driver reaproveita o prepared statement em vez de compilar um SQL por quantidade
+   * de IDs; o último lote é completado repetindo o último ID.
+   */
+  private static final int[] ID_BATCH_SIZES = {8, 32, 128, 500};
+  private static final NamedQuery[] SEARCH_BY_IDS = new NamedQuery[ID_BATCH_SIZES.length];
+
+  static {
+    for (int i = 0; i < ID_BATCH_SIZES.length; i++) {
+      SEARCH_BY_IDS[i] = namedQuery("user.searchByIds." + ID_BATCH_SIZES[i],
+          "SELECT * FROM users WHERE user_id IN (" + String.join(", ", Collections.nCopies(ID_BATCH_SIZES[i], "?")) + ")");
+    }
+  }
+
+  /**
+   * Usuários guardados em memória por searchById, searchByIds e searchByEmail. Quase todo
+   * serviço valida o usuário por ID, então esta é a consulta mais frequente do sistema.
+   */
+  private static final int USER_CACHE_CAPACITY = 10_000;
+
+  private final UserCache cache;
+
+  private final InvalidationBus invalidationBus;
+  private final CourseDAO courseDAO;
+  private final EnrollDAO enrollDAO;
+  private final ExamDAO examDAO;
+
+  public UserDAO(DatabaseConnector databaseConnector, InvalidationBus invalidationBus, CourseDAO courseDAO,
+                 EnrollDAO enrollDAO, ExamDAO examDAO) {
     super(databaseConnector);
+    this.invalidationBus = invalidationBus;
+    this.courseDAO = courseDAO;
+    this.enrollDAO = enrollDAO;
+    this.examDAO = examDAO;
+    this.cache = new UserCache(USER_CACHE_CAPACITY, invalidationBus);
+    invalidationBus.subscribe(CacheRegion.USER, idUser -> {
+      if (idUser == InvalidationBus.ALL_IDS) {
+        cache.invalidateAll();
+      } else {
+        cache.invalidate(idUser);
+      }
+    });
   }
 
   /**
@@ -26,10 +91,8 @@ public class UserDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public User saveUser(User user) throws SQLException {
-    String sql = "INSERT INTO users (name, email, password, user_type, specialization, register_hour) VALUES (?, ?, ?, ?, ?, ?)";
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+         PreparedStatement pstmt = prepare(conn, SAVE_USER, Statement.RETURN_GENERATED_KEYS)) {
 
       pstmt.setString(1, user.getName());
       pstmt.setString(2, user.getEmail());
@@ -58,6 +121,7 @@ public class UserDAO extends AbstractDAO {
       try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
         if (generatedKeys.next()) {
           user.setIdUser(generatedKeys.getInt(1));
+          IdentityMap.written(User.class, user.getIdUser());
         } else {
           throw new SQLException("Failed to create user, no ID obtained.");
         }
@@ -67,18 +131,40 @@ public class UserDAO extends AbstractDAO {
   }
 
   /**
-   * Busca um usuário pelo seu endereço de e-mail.
+   * Busca um usuário pelo seu endereço de e-mail. O usuário vem sem a senha; para
+   * validar o login use {@link #searchCredentialsByEmail}.
    *
    * @param email O e-mail do usuário a ser buscado.
    * @return Um objeto Usuario (Student ou Professor) se encontrado, ou null caso contrário.
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public User searchByEmail(String email) throws SQLException {
-    String sql = "SELECT * FROM users WHERE email = ?";
+    User cached = cache.findByEmail(email);
+    if (cached != null) {
+      return cached;
+    }
+    long startedAt = cache.generation();
+    User user = searchCredentialsByEmail(email);
+    if (user == null) {
+      return null;
+    }
+    cache.put(user, startedAt);
+    return UserCache.withoutPassword(user);
+  }
+
+  /**
+   * Busca um usuário pelo e-mail com a senha hasheada, sempre no banco. É o único
+   * caminho que devolve a senha, e deve ser usado só para validar o login.
+   *
+   * @param email O e-mail do usuário a ser buscado.
+   * @return Um objeto Usuario (Student ou Professor) se encontrado, ou null caso contrário.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public User searchCredentialsByEmail(String email) throws SQLException {
     User user = null;
 
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, SEARCH_BY_EMAIL)) {
 
       pstmt.setString(1, email);
       ResultSet rs = pstmt.executeQuery();
@@ -91,18 +177,30 @@ public class UserDAO extends AbstractDAO {
   }
 
   /**
-   * Busca um usuário pelo seu ID.
+   * Busca um usuário pelo seu ID. O usuário vem sem a senha.
    *
    * @param idUser O ID do usuário a ser buscado.
    * @return Um objeto Usuario (Student ou Professor) se encontrado, ou null caso contrário.
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public User searchById(int idUser) throws SQLException {
-    String sql = "SELECT * FROM users WHERE user_id = ?";
+    return IdentityMap.find(User.class, idUser, () -> loadById(idUser));
+  }
+
+  /**
+   * As leituras que preenchem o cache vão ao primário: uma réplica atrasada logo depois
+   * de uma alteração deixaria a versão antiga no cache até a próxima expulsão.
+   */
+  private User loadById(int idUser) throws SQLException {
+    User cached = cache.findById(idUser);
+    if (cached != null) {
+      return cached;
+    }
+    long startedAt = cache.generation();
     User user = null;
 
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, SEARCH_BY_ID)) {
 
       pstmt.setInt(1, idUser);
       ResultSet rs = pstmt.executeQuery();
@@ -111,7 +209,80 @@ public class UserDAO extends AbstractDAO {
         user = mapResultSetParaUser(rs);
       }
     }
-    return user;
+    if (user == null) {
+      return null;
+    }
+    cache.put(user, startedAt);
+    return UserCache.withoutPassword(user);
+  }
+
+  /**
+   * Busca vários usuários de uma vez, com consultas IN de até 500 IDs.
+   * IDs repetidos ou não positivos são ignorados.
+   *
+   * @param idUsers Os IDs dos usuários.
+   * @return Mapa ID → Usuario (Student ou Professor), sem as senhas; IDs não encontrados ficam fora do mapa.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public Map<Integer, User> searchByIds(Collection<Integer> idUsers) throws SQLException {
+    List<Integer> ids = new ArrayList<>();
+    for (Integer id : new LinkedHashSet<>(idUsers)) {
+      if (id != null && id > 0) {
+        ids.add(id);
+      }
+    }
+    if (ids.isEmpty()) {
+      return new HashMap<>();
+    }
+    return IdentityMap.findAll(User.class, ids, this::loadByIds);
+  }
+
+  private Map<Integer, User> loadByIds(List<Integer> requested) throws SQLException {
+    Map<Integer, User> users = new HashMap<>();
+    List<Integer> ids = new ArrayList<>();
+    for (Integer id : requested) {
+      User cached = cache.findById(id);
+      if (cached != null) {
+        users.put(id, cached);
+      } else {
+        ids.add(id);
+      }
+    }
+    if (ids.isEmpty()) {
+      return users;
+    }
+    long startedAt = cache.generation();
+    try (Connection conn = getConnection()) {
+      int from = 0;
+      while (from < ids.size()) {
+        int bucket = batchSizeIndex(ids.size() - from);
+        int size = ID_BATCH_SIZES[bucket];
+        int to = Math.min(from + size, ids.size());
+        try (PreparedStatement pstmt = prepare(conn, SEARCH_BY_IDS[bucket])) {
+          for (int i = 0; i < size; i++) {
+            pstmt.setInt(i + 1, ids.get(Math.min(from + i, to - 1)));
+          }
+          try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+              User user = mapResultSetParaUser(rs);
+              cache.put(user, startedAt);
+              users.put(user.getIdUser(), UserCache.withoutPassword(user));
+            }
+          }
+        }
+        from = to;
+      }
+    }
+    return users;
+  }
+
+  private static int batchSizeIndex(int remaining) {
+    for (int i = 0; i < ID_BATCH_SIZES.length; i++) {
+      if (remaining <= ID_BATCH_SIZES[i]) {
+        return i;
+      }
+    }
+    return ID_BATCH_SIZES.length - 1;
   }
 
   /**
@@ -148,32 +319,46 @@ public class UserDAO extends AbstractDAO {
   }
   /**
    * Atualiza os dados de um usuário existente no banco.
-   * A senha, se modificada, já deve vir hasheada.
+   * A senha, se modificada, já deve vir hasheada; se vier null (usuário obtido pelas
+   * buscas que não trazem a senha), a senha atual é mantida.
    *
    * @param user O objeto Usuario com os dados atualizados.
    * @return true se a atualização foi bem-sucedida, false caso contrário.
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean attUser(User user) throws SQLException {
-    String sql = "UPDATE users SET name = ?, email = ?, password = ?, user_type = ?, specialization = ?, register_hour = ? WHERE user_id = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    IdentityMap.written(User.class, user.getIdUser());
+    return UnitOfWork.inTransaction(() -> {
+      try (Connection conn = getConnection()) {
+        ResponsibleState previous = loadResponsibleState(conn, user.getIdUser());
+        boolean updated;
+        try (PreparedStatement pstmt = prepare(conn, ATT_USER)) {
+          pstmt.setString(1, user.getName());
+          pstmt.setString(2, user.getEmail());
+          pstmt.setString(3, user.getPassword());
+          pstmt.setString(4, user.getUserType().name());
 
-      pstmt.setString(1, user.getName());
-      pstmt.setString(2, user.getEmail());
-      pstmt.setString(3, user.getPassword());
-      pstmt.setString(4, user.getUserType().name());
+          if (user instanceof Professor) {
+            pstmt.setString(5, ((Professor) user).getSpecialization());
+          } else {
+            pstmt.setNull(5, Types.VARCHAR);
+          }
+          pstmt.setTimestamp(6, Timestamp.valueOf(user.getRegisterDate() != null ? user.getRegisterDate() : LocalDateTime.now()));
+          pstmt.setInt(7, user.getIdUser());
 
-      if (user instanceof Professor) {
-        pstmt.setString(5, ((Professor) user).getSpecialization());
-      } else {
-        pstmt.setNull(5, Types.VARCHAR);
+          updated = pstmt.executeUpdate() > 0;
+        }
+        invalidateCached(user.getIdUser());
+        if (updated && previous != null && previous.shownInCoursesChanged(user)) {
+          // O catálogo mostra o nome do professor; sem o tipo PROFESSOR, nenhum nome. O tipo
+          // também decide se ele conta como dono dos próprios cursos.
+          courseDAO.professorChanged(user.getIdUser(),
+              user.getUserType() == UserType.PROFESSOR ? user.getName() : null,
+              previous.userType != user.getUserType(), previous.idCourses);
+        }
+        return updated;
       }
-      pstmt.setTimestamp(6, Timestamp.valueOf(user.getRegisterDate() != null ? user.getRegisterDate() : LocalDateTime.now()));
-      pstmt.setInt(7, user.getIdUser());
-
-      return pstmt.executeUpdate() > 0;
-    }
+    });
   }
 
   /**
@@ -184,11 +369,102 @@ public class UserDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean deleteUser(int idUser) throws SQLException {
-    String sql = "DELETE FROM users WHERE user_id = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    IdentityMap.written(User.class, idUser);
+    // Os cursos do professor são apagados em cascata.
+    IdentityMap.writtenAll(Course.class);
+    return UnitOfWork.inTransaction(() -> {
+      try (Connection conn = getConnection()) {
+        ResponsibleState previous = loadResponsibleState(conn, idUser);
+        // As tentativas do aluno somem em cascata: as notas saem do agregado antes.
+        examDAO.subtractStudentGrades(conn, idUser);
+        boolean deleted;
+        try (PreparedStatement pstmt = prepare(conn, DELETE_USER)) {
+          pstmt.setInt(1, idUser);
+          deleted = pstmt.executeUpdate() > 0;
+        }
+        if (deleted) {
+          // Comentários, dúvidas e cursos do usuário saem em cascata.
+          recordContentDeletion(conn);
+        }
+        invalidateCached(idUser);
+        if (deleted) {
+          enrollDAO.invalidateEnrollmentIndex();
+          examDAO.invalidateRatings();
+          if (previous != null && !previous.idCourses.isEmpty()) {
+            // Os cursos do professor excluído saem em cascata e levam junto as provas.
+            courseDAO.coursesDeleted(previous.idCourses);
+          }
+        }
+        return deleted;
+      }
+    });
+  }
+
+  /**
+   * Lê e trava o nome, o tipo e os cursos do usuário antes de alterá-lo.
+   *
+   * @return O estado atual, ou null se o usuário não existir.
+   */
+  private ResponsibleState loadResponsibleState(Connection conn, int idUser) throws SQLException {
+    try (PreparedStatement pstmt = prepare(conn, RESPONSIBLE_STATE)) {
       pstmt.setInt(1, idUser);
-      return pstmt.executeUpdate() > 0;
+      try (ResultSet rs = pstmt.executeQuery()) {
+        ResponsibleState state = null;
+        while (rs.next()) {
+          if (state == null) {
+            state = new ResponsibleState(rs.getString(1), UserType.valueOf(rs.getString(2)));
+          }
+          int idCourse = rs.getInt(3);
+          if (!rs.wasNull()) {
+            state.idCourses.add(idCourse);
+          }
+        }
+        return state;
+      }
+    }
+  }
+
+  /**
+   * Métricas do cache de usuários.
+   */
+  public CacheStats getCacheStats() {
+    return cache.stats();
+  }
+
+  /**
+   * Descarta o usuário do cache agora e de novo quando a unidade de trabalho atual
+   * terminar, para que uma leitura feita antes do commit não deixe a versão antiga.
+   * Os outros nós descartam o mesmo usuário pelo {@link InvalidationBus}.
+   */
+  private void invalidateCached(int idUser) {
+    cache.invalidate(idUser);
+    UnitOfWork.afterCompletion(() -> cache.invalidate(idUser));
+    invalidationBus.publish(CacheRegion.USER, idUser);
+  }
+
+  /** O que os cursos de um usuário exibem dele antes de uma alteração. */
+  private static final class ResponsibleState {
+    private final String name;
+    private final UserType userType;
+    private final List<Integer> idCourses = new ArrayList<>();
+
+    private ResponsibleState(String name, UserType userType) {
+      this.name = name;
+      this.userType = userType;
+    }
+
+    /**
+     * Só um professor aparece nos cursos (como dono e pelo nome no catálogo); a mudança
+     * importa se ele é ou era professor e o nome ou o tipo mudou.
+     */
+    private boolean shownInCoursesChanged(User updated) {
+      if (idCourses.isEmpty()) {
+        return false;
+      }
+      if (userType != UserType.PROFESSOR && updated.getUserType() != UserType.PROFESSOR) {
+        return false;
+      }
+      return userType != updated.getUserType() || !Objects.equals(name, updated.getName());
     }
   }
 }
@@ -6,12 +6,72 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.*;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public class VisitorQuestionDAO extends AbstractDAO {
 
+  private static final RowMapping<VisitorQuestion> QUESTION_ROW = RowMapping.columns(
+      "question_id", "visitor_name", "visitor_email", "question_text", "question_hour_date",
+      "answer", "answer_hour_date", "professor_responsible_id"
+  ).mappedBy((rs, c) -> {
+    VisitorQuestion question = new VisitorQuestion();
+    question.setQuestionId(rs.getInt(c[0]));
+    question.setVisitorName(rs.getString(c[1]));
+    question.setVisitorEmail(rs.getString(c[2]));
+    question.setQuestionText(rs.getString(c[3]));
+
+    Timestamp tsPergunta = rs.getTimestamp(c[4]);
+    if (tsPergunta != null) {
+      question.setQuestionHour(tsPergunta.toLocalDateTime());
+    }
+
+    question.setAnswer(rs.getString(c[5]));
+
+    Timestamp tsAnswer = rs.getTimestamp(c[6]);
+    if (tsAnswer != null) {
+      question.setAnswerHour(tsAnswer.toLocalDateTime());
+    }
+
+    Integer idResp = rs.getInt(c[7]);
+    if (rs.wasNull()) {
+      question.setProfessorResponsibleId(null);
+    } else {
+      question.setProfessorResponsibleId(idResp);
+    }
+    return question;
+  });
+
+  private static final NamedQuery SAVE_QUESTION = namedQuery("visitorQuestion.saveQuestion",
+      "INSERT INTO visitors_questions (visitor_name, visitor_email, question_text, question_hour_date) " +
+      "VALUES (?, ?, ?, ?)");
+  private static final NamedQuery SEARCH_BY_ID = namedQuery("visitorQuestion.searchById",
+      "SELECT " + QUESTION_ROW.selectList() + " FROM visitors_questions WHERE question_id = ?");
+  private static final NamedQuery LIST_ALL_QUESTIONS = namedQuery("visitorQuestion.listAllQuestions",
+      "SELECT " + QUESTION_ROW.selectList() + " FROM visitors_questions ORDER BY question_hour_date DESC");
+  private static final NamedQuery LIST_UNANSWERED_QUESTIONS = namedQuery("visitorQuestion.listUnansweredQuestions",
+      "SELECT " + QUESTION_ROW.selectList() + " FROM visitors_questions WHERE answer IS NULL ORDER BY question_hour_date DESC");
+  private static final NamedQuery QUESTIONS_FIRST_PAGE = namedQuery("visitorQuestion.questionsFirstPage",
+      "SELECT " + QUESTION_ROW.selectList() + " FROM visitors_questions " +
+      "ORDER BY question_hour_date DESC, question_id DESC LIMIT ?");
+  private static final NamedQuery QUESTIONS_NEXT_PAGE = namedQuery("visitorQuestion.questionsNextPage",
+      "SELECT " + QUESTION_ROW.selectList() + " FROM visitors_questions " +
+      "WHERE question_hour_date < ? OR (question_hour_date = ? AND question_id < ?) " +
+      "ORDER BY question_hour_date DESC, question_id DESC LIMIT ?");
+  private static final NamedQuery UNANSWERED_QUESTIONS_FIRST_PAGE = namedQuery("visitorQuestion.unansweredQuestionsFirstPage",
+      "SELECT " + QUESTION_ROW.selectList() + " FROM visitors_questions WHERE answer IS NULL " +
+      "ORDER BY question_hour_date DESC, question_id DESC LIMIT ?");
+  private static final NamedQuery UNANSWERED_QUESTIONS_NEXT_PAGE = namedQuery("visitorQuestion.unansweredQuestionsNextPage",
+      "SELECT " + QUESTION_ROW.selectList() + " FROM visitors_questions WHERE answer IS NULL " +
+      "AND (question_hour_date < ? OR (question_hour_date = ? AND question_id < ?)) " +
+      "ORDER BY question_hour_date DESC, question_id DESC LIMIT ?");
+  private static final NamedQuery UPDATE_QUESTION = namedQuery("visitorQuestion.updateQuestion",
+      "UPDATE visitors_questions SET answer = ?, answer_hour_date = ?, professor_responsible_id = ? " +
+      "WHERE question_id = ?");
+  private static final NamedQuery DELETE_QUESTION = namedQuery("visitorQuestion.deleteQuestion",
+      "DELETE FROM visitors_questions WHERE question_id = ?");
+
   public VisitorQuestionDAO(DatabaseConnector databaseConnector) {
     super(databaseConnector);
   }
@@ -24,11 +84,8 @@ public class VisitorQuestionDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public VisitorQuestion saveQuestion(VisitorQuestion question) throws SQLException {
-    String sql = "INSERT INTO visitors_questions (visitor_name, visitor_email, question_text, question_hour_date) " +
-        "VALUES (?, ?, ?, ?)";
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+         PreparedStatement pstmt = prepare(conn, SAVE_QUESTION, Statement.RETURN_GENERATED_KEYS)) {
 
       pstmt.setString(1, question.getVisitorName());
       pstmt.setString(2, question.getVisitorEmail());
@@ -60,17 +117,16 @@ public class VisitorQuestionDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public VisitorQuestion searchById(int idQuestion) throws SQLException {
-    String sql = "SELECT * FROM visitors_questions WHERE question_id = ?";
     VisitorQuestion question = null;
 
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, SEARCH_BY_ID)) {
 
       pstmt.setInt(1, idQuestion);
       ResultSet rs = pstmt.executeQuery();
 
       if (rs.next()) {
-        question = mapResultSetForQuestion(rs);
+        question = mapRow(SEARCH_BY_ID, QUESTION_ROW, rs);
       }
     }
     return question;
@@ -84,22 +140,65 @@ public class VisitorQuestionDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public List<VisitorQuestion> listAllQuestions(boolean onlyUnanswered) throws SQLException {
-    List<VisitorQuestion> questions = new ArrayList<>();
-    String sql = "SELECT * FROM visitors_questions";
-    if (onlyUnanswered) {
-      sql += " WHERE answer IS NULL";
-    }
-    sql += " ORDER BY question_hour_date DESC";
+    NamedQuery query = onlyUnanswered ? LIST_UNANSWERED_QUESTIONS : LIST_ALL_QUESTIONS;
 
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql);
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, query);
          ResultSet rs = pstmt.executeQuery()) {
+      return mapRows(query, QUESTION_ROW, rs);
+    }
+  }
+
+  /**
+   * Lista uma página das perguntas de visitantes, da mais recente para a mais antiga,
+   * continuando depois da última pergunta da página anterior (data/hora + ID).
+   *
+   * @param onlyUnanswered Se true, lista apenas perguntas sem resposta.
+   * @param cursor         Cursor devolvido pela página anterior, ou null para a primeira página.
+   * @param size           Quantidade de perguntas por página (limitada a {@link KeysetPage#MAX_SIZE}).
+   * @return A página de PerguntaVisitante e o cursor da próxima.
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   * @throws IllegalArgumentException Se o cursor for inválido.
+   */
+  public KeysetPage<VisitorQuestion> listQuestionsPage(boolean onlyUnanswered, String cursor, int size) throws SQLException {
+    int limit = KeysetPage.clampSize(size);
+    KeysetPage.Position after = KeysetPage.decode(cursor);
+    NamedQuery query;
+    if (after == null) {
+      query = onlyUnanswered ? UNANSWERED_QUESTIONS_FIRST_PAGE : QUESTIONS_FIRST_PAGE;
+    } else {
+      query = onlyUnanswered ? UNANSWERED_QUESTIONS_NEXT_PAGE : QUESTIONS_NEXT_PAGE;
+    }
 
-      while (rs.next()) {
-        questions.add(mapResultSetForQuestion(rs));
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = prepare(conn, query)) {
+
+      int i = 1;
+      if (after != null) {
+        Timestamp lastQuestionHour = Timestamp.valueOf(after.getDateTime());
+        pstmt.setTimestamp(i++, lastQuestionHour);
+        pstmt.setTimestamp(i++, lastQuestionHour);
+        pstmt.setInt(i++, after.getId());
+      }
+      pstmt.setInt(i, limit + 1);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        return KeysetPage.of(mapRows(query, QUESTION_ROW, rs), limit,
+            question -> KeysetPage.cursor(question.getQuestionHour(), question.getQuestionId()));
       }
     }
-    return questions;
+  }
+
+  /**
+   * Percorre as perguntas de visitantes com um cursor de streaming, sem carregar a
+   * tabela inteira na memória. O Stream deve ser fechado, de preferência em try-with-resources.
+   *
+   * @param onlyUnanswered Se true, percorre apenas perguntas sem resposta.
+   * @return Stream de PerguntaVisitante, mapeadas à medida que são lidas.
+   * @throws SQLException Se ocorrer um erro ao abrir o cursor.
+   */
+  public Stream<VisitorQuestion> streamAllQuestions(boolean onlyUnanswered) throws SQLException {
+    NamedQuery query = onlyUnanswered ? LIST_UNANSWERED_QUESTIONS : LIST_ALL_QUESTIONS;
+    return stream(query, QUESTION_ROW, pstmt -> { });
   }
 
   /**
@@ -110,11 +209,8 @@ public class VisitorQuestionDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean updateQuestion(VisitorQuestion question) throws SQLException {
-    String sql = "UPDATE visitors_questions SET answer = ?, answer_hour_date = ?, professor_responsible_id = ? " +
-        "WHERE question_id = ?";
-
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, UPDATE_QUESTION)) {
 
       pstmt.setString(1, question.getAnswer());
       if (question.getAnswerHour() != null) {
@@ -141,40 +237,11 @@ public class VisitorQuestionDAO extends AbstractDAO {
    * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
    */
   public boolean deleteQuestion(int idQuestion) throws SQLException {
-    String sql = "DELETE FROM visitors_questions WHERE question_id = ?";
     try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+         PreparedStatement pstmt = prepare(conn, DELETE_QUESTION)) {
       pstmt.setInt(1, idQuestion);
       return pstmt.executeUpdate() > 0;
     }
   }
-
-  private VisitorQuestion mapResultSetForQuestion(ResultSet rs) throws SQLException {
-    VisitorQuestion question = new VisitorQuestion();
-    question.setQuestionId(rs.getInt("question_id"));
-    question.setVisitorName(rs.getString("visitor_name"));
-    question.setVisitorEmail(rs.getString("visitor_email"));
-    question.setQuestionText(rs.getString("question_text"));
-
-    Timestamp tsPergunta = rs.getTimestamp("question_hour_date");
-    if (tsPergunta != null) {
-      question.setQuestionHour(tsPergunta.toLocalDateTime());
-    }
-
-    question.setAnswer(rs.getString("answer"));
-
-    Timestamp tsAnswer = rs.getTimestamp("answer_hour_date");
-    if (tsAnswer != null) {
-      question.setQuestionHour(tsAnswer.toLocalDateTime());
-    }
-
-    Integer idResp = rs.getInt("professor_responsible_id");
-    if (rs.wasNull()) {
-      question.setProfessorResponsibleId(null);
-    } else {
-      question.setProfessorResponsibleId(idResp);
-    }
-    return question;
-  }
 }
 
@@ -86,6 +86,38 @@ public class Classroom {
       this.exercises.add(exercise);
     }
   }
+  /**
+   * Versão de uma lista de aulas como ela é exibida (ordem, IDs, títulos, descrições e
+   * links): listas iguais têm a mesma versão, e qualquer alteração a muda. Usada como
+   * chave do HTML já renderizado da lista.
+   */
+  public static String versionOf(List<Classroom> classes) {
+    if (classes == null) {
+      return "none";
+    }
+    long hash = 0xcbf29ce484222325L;
+    for (Classroom classroom : classes) {
+      hash = mix(hash, Integer.toString(classroom.classroomId));
+      hash = mix(hash, Integer.toString(classroom.sequence));
+      hash = mix(hash, classroom.title);
+      hash = mix(hash, classroom.description);
+      hash = mix(hash, classroom.contentURL);
+    }
+    return classes.size() + "-" + Long.toHexString(hash);
+  }
+
+  /** FNV-1a 64 bits; null e vazio diferem pelo separador. */
+  private static long mix(long hash, String value) {
+    if (value != null) {
+      for (int i = 0; i < value.length(); i++) {
+        hash ^= value.charAt(i);
+        hash *= 0x100000001b3L;
+      }
+    }
+    hash ^= value == null ? 0x1f : 0x1e;
+    return hash * 0x100000001b3L;
+  }
+
   @Override
   public String toString() {
     return "Aula{" +
@@ -0,0 +1,112 @@
+package com.elearning.remoteensine.model;
+
+import com.elearning.remoteensine.dao.KeysetPage;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tudo o que a página de detalhes do curso exibe, montado de uma vez pelo
+ * CourseDetailsService. Imutável: as listas não podem ser alteradas.
+ * Se o curso não existir, {@link #getCourse()} é null e as listas ficam vazias.
+ */
+public final class CourseDetailsView {
+
+  private final Course course;
+  private final KeysetPage<Comment> comments;
+  private final KeysetPage<Doubt> doubts;
+  private final List<Classroom> classes;
+  private final List<ExamDefinition> managedExamDefinitions;
+  private final List<ExamDefinition> availableExams;
+  private final List<GradeStudent> grades;
+  private final boolean student;
+  private final boolean professor;
+  private final boolean enrolled;
+  private final boolean courseOwner;
+
+  public CourseDetailsView(Course course, KeysetPage<Comment> comments, KeysetPage<Doubt> doubts,
+                           List<Classroom> classes, List<ExamDefinition> managedExamDefinitions,
+                           List<ExamDefinition> availableExams, List<GradeStudent> grades,
+                           boolean student, boolean professor, boolean enrolled, boolean courseOwner) {
+    this.course = course;
+    this.comments = comments != null ? comments : new KeysetPage<>(Collections.emptyList(), null);
+    this.doubts = doubts != null ? doubts : new KeysetPage<>(Collections.emptyList(), null);
+    this.classes = unmodifiable(classes);
+    this.managedExamDefinitions = unmodifiable(managedExamDefinitions);
+    this.availableExams = unmodifiable(availableExams);
+    this.grades = unmodifiable(grades);
+    this.student = student;
+    this.professor = professor;
+    this.enrolled = enrolled;
+    this.courseOwner = courseOwner;
+  }
+
+  /**
+   * Visão vazia, para um curso que não existe (ou que não pôde ser carregado).
+   */
+  public static CourseDetailsView notFound(boolean student, boolean professor) {
+    return new CourseDetailsView(null, null, null, null, null, null, null, student, professor, false, false);
+  }
+
+  private static <T> List<T> unmodifiable(List<T> list) {
+    return list != null ? Collections.unmodifiableList(list) : Collections.emptyList();
+  }
+
+  public Course getCourse() {
+    return course;
+  }
+
+  public List<Comment> getComments() {
+    return comments.getItems();
+  }
+
+  public String getNextCommentsCursor() {
+    return comments.getNextCursor();
+  }
+
+  public List<Doubt> getDoubts() {
+    return doubts.getItems();
+  }
+
+  public String getNextDoubtsCursor() {
+    return doubts.getNextCursor();
+  }
+
+  public List<Classroom> getClasses() {
+    return classes;
+  }
+
+  /**
+   * @return Definições de prova do curso (publicadas ou não), só para o professor dono.
+   */
+  public List<ExamDefinition> getManagedExamDefinitions() {
+    return managedExamDefinitions;
+  }
+
+  /**
+   * @return Provas publicadas ainda não respondidas, só para aluno matriculado.
+   */
+  public List<ExamDefinition> getAvailableExams() {
+    return availableExams;
+  }
+
+  public List<GradeStudent> getGrades() {
+    return grades;
+  }
+
+  public boolean isStudent() {
+    return student;
+  }
+
+  public boolean isProfessor() {
+    return professor;
+  }
+
+  public boolean isEnrolled() {
+    return enrolled;
+  }
+
+  public boolean isCourseOwner() {
+    return courseOwner;
+  }
+}
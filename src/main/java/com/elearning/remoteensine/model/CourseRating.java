@@ -0,0 +1,92 @@
+package com.elearning.remoteensine.model;
+
+import java.util.Arrays;
+
+/**
+ * Notas de um curso já agregadas: quantidade, soma e histograma por faixa de 10 pontos
+ * (0-9, 10-19, ..., 90-100). Lido da tabela course_rating_buckets, que o ExamDAO mantém
+ * a cada tentativa gravada, alterada ou excluída, então a média não percorre as tentativas.
+ */
+public final class CourseRating {
+
+  public static final int BUCKETS = 10;
+
+  private final int idCourse;
+  private final int[] counts;
+  private final long count;
+  private final long sum;
+
+  /**
+   * @param counts Quantidade de notas em cada faixa, com {@link #BUCKETS} posições.
+   * @param sum    Soma de todas as notas.
+   */
+  public CourseRating(int idCourse, int[] counts, long sum) {
+    if (counts.length != BUCKETS) {
+      throw new IllegalArgumentException("Rating histogram must have " + BUCKETS + " buckets.");
+    }
+    this.idCourse = idCourse;
+    this.counts = counts.clone();
+    this.sum = sum;
+    long total = 0;
+    for (int bucketCount : counts) {
+      total += bucketCount;
+    }
+    this.count = total;
+  }
+
+  public static CourseRating empty(int idCourse) {
+    return new CourseRating(idCourse, new int[BUCKETS], 0);
+  }
+
+  /**
+   * Faixa de uma nota de 0 a 100; o 100 entra na última faixa.
+   */
+  public static int bucketOf(int grade) {
+    return Math.max(0, Math.min(grade / 10, BUCKETS - 1));
+  }
+
+  public int getIdCourse() {
+    return idCourse;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getSum() {
+    return sum;
+  }
+
+  /**
+   * @return A média das notas, ou 0.0 se o curso ainda não tem notas.
+   */
+  public double getAverage() {
+    return count == 0 ? 0.0 : (double) sum / count;
+  }
+
+  public int countIn(int bucket) {
+    return counts[bucket];
+  }
+
+  /**
+   * Percentual das notas na faixa, arredondado, para a altura das barras do histograma.
+   */
+  public int percentIn(int bucket) {
+    return count == 0 ? 0 : (int) Math.round(counts[bucket] * 100.0 / count);
+  }
+
+  /**
+   * Rótulo da faixa, ex.: "70-79"; a última é "90-100".
+   */
+  public String labelOf(int bucket) {
+    int from = bucket * 10;
+    return from + "-" + (bucket == BUCKETS - 1 ? 100 : from + 9);
+  }
+
+  /**
+   * Muda sempre que o histograma ou a soma mudam; entra na chave do card em cache.
+   */
+  public String getVersion() {
+    return sum + ":" + Arrays.toString(counts);
+  }
+}
@@ -0,0 +1,84 @@
+package com.elearning.remoteensine.model;
+
+/**
+ * Visão resumida de um curso para o catálogo: sem a descrição (TEXT) e com o
+ * professor responsável trazido na mesma consulta (apenas ID e nome).
+ * <p>
+ * Imutável: os resumos são compartilhados entre as fotos do catálogo e com as páginas
+ * já renderizadas; uma mudança gera um resumo novo ({@link #withVersion},
+ * {@link #withProfessorName}).
+ */
+public final class CourseSummary {
+  private final int idCourse;
+  private final String title;
+  private final int professorId;
+  private final String professorName;
+  private final double price;
+  private final String category;
+  private final int hoursLoad;
+  /** Versão do catálogo em que este resumo foi lido; muda sempre que o curso muda. */
+  private final long version;
+
+  public CourseSummary(int idCourse, String title, int professorId, String professorName,
+                       double price, String category, int hoursLoad, long version) {
+    this.idCourse = idCourse;
+    this.title = title;
+    this.professorId = professorId;
+    this.professorName = professorName;
+    this.price = price;
+    this.category = category;
+    this.hoursLoad = hoursLoad;
+    this.version = version;
+  }
+
+  /**
+   * @return Este resumo, se já estiver na versão informada, ou uma cópia com ela.
+   */
+  public CourseSummary withVersion(long newVersion) {
+    if (newVersion == version) {
+      return this;
+    }
+    return new CourseSummary(idCourse, title, professorId, professorName, price, category, hoursLoad, newVersion);
+  }
+
+  /**
+   * @return Uma cópia com o nome do professor trocado, na versão informada.
+   */
+  public CourseSummary withProfessorName(String name, long newVersion) {
+    return new CourseSummary(idCourse, title, professorId, name, price, category, hoursLoad, newVersion);
+  }
+
+  public int getIdCourse() {
+    return idCourse;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  /** ID do professor responsável, ou 0 se o curso não tiver um. */
+  public int getProfessorId() {
+    return professorId;
+  }
+
+  /** Nome do professor responsável, ou null se o curso não tiver um. */
+  public String getProfessorName() {
+    return professorName;
+  }
+
+  public double getPrice() {
+    return price;
+  }
+
+  public String getCategory() {
+    return category;
+  }
+
+  public int getHoursLoad() {
+    return hoursLoad;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+}
@@ -0,0 +1,84 @@
+package com.elearning.remoteensine.model;
+
+import com.elearning.remoteensine.util.IntObjectMap;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de uma aula para o aluno: o curso (ID e título), a aula, as aulas anterior
+ * e seguinte na ordem do curso, os exercícios e as respostas do aluno indexadas pelo
+ * ID do exercício. Imutável.
+ */
+public final class LessonPage {
+
+  private final Course course;
+  private final Classroom classroom;
+  private final Integer previousClassroomId;
+  private final Integer nextClassroomId;
+  private final List<Exercise> exercises;
+  private final IntObjectMap<StudentsExerciseAnswer> answers;
+
+  public LessonPage(Course course, Classroom classroom, Integer previousClassroomId, Integer nextClassroomId) {
+    this(course, classroom, previousClassroomId, nextClassroomId, Collections.emptyList(), new IntObjectMap<>());
+  }
+
+  private LessonPage(Course course, Classroom classroom, Integer previousClassroomId, Integer nextClassroomId,
+                     List<Exercise> exercises, IntObjectMap<StudentsExerciseAnswer> answers) {
+    this.course = course;
+    this.classroom = classroom;
+    this.previousClassroomId = previousClassroomId;
+    this.nextClassroomId = nextClassroomId;
+    this.exercises = exercises;
+    this.answers = answers;
+  }
+
+  /**
+   * @return Uma cópia desta página com os exercícios e as respostas do aluno.
+   */
+  public LessonPage withExercises(List<Exercise> exercises, List<StudentsExerciseAnswer> studentAnswers) {
+    IntObjectMap<StudentsExerciseAnswer> byExercise = new IntObjectMap<>(studentAnswers.size());
+    for (StudentsExerciseAnswer answer : studentAnswers) {
+      byExercise.put(answer.getIdExercise(), answer);
+    }
+    return new LessonPage(course, classroom, previousClassroomId, nextClassroomId,
+        Collections.unmodifiableList(exercises), byExercise);
+  }
+
+  public Course getCourse() {
+    return course;
+  }
+
+  public Classroom getClassroom() {
+    return classroom;
+  }
+
+  /**
+   * @return ID da aula anterior, ou null se esta for a primeira.
+   */
+  public Integer getPreviousClassroomId() {
+    return previousClassroomId;
+  }
+
+  /**
+   * @return ID da próxima aula, ou null se esta for a última.
+   */
+  public Integer getNextClassroomId() {
+    return nextClassroomId;
+  }
+
+  public List<Exercise> getExercises() {
+    return exercises;
+  }
+
+  /**
+   * @return A resposta do aluno ao exercício, ou null se ele ainda não respondeu.
+   */
+  public StudentsExerciseAnswer getAnswer(int exerciseId) {
+    return answers.get(exerciseId);
+  }
+
+  public int getAnsweredCount() {
+    return answers.size();
+  }
+}
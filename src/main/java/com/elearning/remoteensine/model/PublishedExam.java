@@ -0,0 +1,56 @@
+package com.elearning.remoteensine.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conteúdo de uma prova publicada, como o aluno a vê: a definição e as questões em ordem,
+ * com as alternativas já convertidas para {@code parsedOptions}.
+ * <p>
+ * A mesma instância é entregue a todos os alunos que abrem ou submetem a prova, então ela
+ * é somente leitura: as listas e as alternativas não podem ser alteradas, e a definição e
+ * as questões não devem ser modificadas por quem as recebe.
+ */
+public final class PublishedExam {
+
+  private final ExamDefinition definition;
+  private final List<ExamQuestion> questions;
+
+  public PublishedExam(ExamDefinition definition, List<ExamQuestion> questions) {
+    List<ExamQuestion> ordered = new ArrayList<>(questions.size());
+    for (ExamQuestion question : questions) {
+      question.setParsedOptions(unmodifiable(question.getParsedOptions()));
+      ordered.add(question);
+    }
+    this.questions = Collections.unmodifiableList(ordered);
+    this.definition = definition;
+    this.definition.setQuestions(this.questions);
+  }
+
+  public ExamDefinition getDefinition() {
+    return definition;
+  }
+
+  public List<ExamQuestion> getQuestions() {
+    return questions;
+  }
+
+  public int getIdDefinitionExam() {
+    return definition.getIdDefinitionExam();
+  }
+
+  private static List<Map<String, String>> unmodifiable(List<Map<String, String>> options) {
+    if (options == null) {
+      return null;
+    }
+    List<Map<String, String>> copy = new ArrayList<>(options.size());
+    for (Map<String, String> option : options) {
+      // LinkedHashMap mantém a ordem das chaves como veio do JSON.
+      copy.add(Collections.unmodifiableMap(new LinkedHashMap<>(option)));
+    }
+    return Collections.unmodifiableList(copy);
+  }
+}
@@ -2,10 +2,10 @@ package com.elearning.remoteensine.service;
 
 import com.elearning.remoteensine.dao.ClassroomDAO;
 import com.elearning.remoteensine.dao.CourseDAO;
-import com.elearning.remoteensine.dao.UserDAO;
+import com.elearning.remoteensine.dao.CourseOwner;
+import com.elearning.remoteensine.dao.OwnershipDAO;
 import com.elearning.remoteensine.model.Classroom;
 import com.elearning.remoteensine.model.Course;
-import com.elearning.remoteensine.model.User;
 import org.springframework.stereotype.Service;
 
 import java.sql.SQLException;
@@ -16,12 +16,12 @@ public class ClassroomService {
 
   private ClassroomDAO classroomDAO;
   private CourseDAO courseDAO;
-  private UserDAO userDAO;
+  private OwnershipDAO ownershipDAO;
 
-  public ClassroomService(ClassroomDAO classroomDAO, CourseDAO courseDAO, UserDAO userDAO) {
+  public ClassroomService(ClassroomDAO classroomDAO, CourseDAO courseDAO, OwnershipDAO ownershipDAO) {
     this.classroomDAO = classroomDAO;
     this.courseDAO = courseDAO;
-    this.userDAO = userDAO;
+    this.ownershipDAO = ownershipDAO;
   }
 
   /**
@@ -49,16 +49,13 @@ public class ClassroomService {
       throw new IllegalArgumentException("invalid course ID.");
     }
 
-    Course course = courseDAO.searchCourseById(idCourse);
-    if (course == null) {
+    CourseOwner owner = ownershipDAO.findCourseOwner(idCourse);
+    if (owner == null) {
       throw new IllegalArgumentException("Course ID " + idCourse + " not found.");
     }
 
-    if (course.getResponsibleProfessor() == null || course.getResponsibleProfessor().getIdUser() != idProfessorLogged) {
-      User loggedProfessor = userDAO.searchById(idProfessorLogged);
-      if (loggedProfessor == null || course.getResponsibleProfessor().getIdUser() != loggedProfessor.getIdUser()){
-        throw new IllegalAccessException("Teacher not authorized to add lessons to this course.");
-      }
+    if (!owner.isOwnedBy(idProfessorLogged)) {
+      throw new IllegalAccessException("Teacher not authorized to add lessons to this course.");
     }
 
     Classroom newClass = new Classroom(idCourse, title, description, contentURL, sequence);
@@ -89,6 +86,13 @@ public class ClassroomService {
     if (course == null) {
       throw new IllegalArgumentException("Course ID " + idCourse + " not found.");
     }
+    return loadClasses(idCourse);
+  }
+
+  /**
+   * Aulas do curso, sem a busca de validação de {@link #listCoursesClasses}.
+   */
+  List<Classroom> loadClasses(int idCourse) throws SQLException {
     return classroomDAO.listClassesByCourse(idCourse);
   }
 
@@ -115,12 +119,12 @@ public class ClassroomService {
       throw new IllegalArgumentException("Class ID " + idClassroom + " not found.");
     }
 
-    Course classCourse = courseDAO.searchCourseById(existingClass.getCourseId());
-    if (classCourse == null) {
+    CourseOwner owner = ownershipDAO.findCourseOwner(existingClass.getCourseId());
+    if (owner == null) {
       throw new IllegalArgumentException("Course associated with the class (ID: " + existingClass.getCourseId() + ") not found.");
     }
 
-    if (classCourse.getResponsibleProfessor() == null || classCourse.getResponsibleProfessor().getIdUser() != idProfessorLogged) {
+    if (!owner.isOwnedBy(idProfessorLogged)) {
       throw new IllegalAccessException("Teacher not authorized to modify this lesson\n.");
     }
 
@@ -146,20 +150,15 @@ public class ClassroomService {
           throws SQLException, IllegalArgumentException, IllegalAccessException {
 
     System.out.println("SERVICE (Aula): Tentando deletar aula ID: " + idClassroom + " do curso ID: " + idCurso);
-    Classroom aulaParaDeletar = classroomDAO.searchById(idClassroom); //
+    CourseOwner donoDaAula = ownershipDAO.findClassroomOwner(idClassroom);
 
-    if (aulaParaDeletar == null) {
+    if (donoDaAula == null) {
       throw new IllegalArgumentException("Aula com ID " + idClassroom + " não encontrada.");
     }
-    if (aulaParaDeletar.getCourseId() != idCurso) {
+    if (donoDaAula.getIdCourse() != idCurso) {
       throw new IllegalArgumentException("Aula não pertence ao curso especificado.");
     }
-
-    Course cursoDaAula = courseDAO.searchCourseById(idCurso);
-    if (cursoDaAula == null) {
-      throw new IllegalArgumentException("Curso associado à aula não encontrado.");
-    }
-    if (cursoDaAula.getResponsibleProfessor() == null || cursoDaAula.getResponsibleProfessor().getIdUser() != idProfessorLogged) {
+    if (!donoDaAula.isOwnedBy(idProfessorLogged)) {
       throw new IllegalAccessException("Professor não autorizado a deletar aulas deste curso.");
     }
 
@@ -170,11 +169,11 @@ public class ClassroomService {
   public Classroom saveOrUpdateClass(Classroom classroom, int idCourse, int idProfessorLogged)
       throws SQLException, IllegalArgumentException, IllegalAccessException {
 
-    Course course = courseDAO.searchCourseById(idCourse);
-    if (course == null) {
+    CourseOwner owner = ownershipDAO.findCourseOwner(idCourse);
+    if (owner == null) {
       throw new IllegalArgumentException("Curso com ID " + idCourse + " não encontrado.");
     }
-    if (course.getResponsibleProfessor() == null || course.getResponsibleProfessor().getIdUser() != idProfessorLogged) {
+    if (!owner.isOwnedBy(idProfessorLogged)) {
       throw new IllegalAccessException("Professor não autorizado a gerenciar aulas para este curso.");
     }
 
@@ -4,6 +4,7 @@ import com.elearning.remoteensine.dao.CommentDAO;
 import com.elearning.remoteensine.dao.CourseDAO;
 import com.elearning.remoteensine.dao.UserDAO;
 import com.elearning.remoteensine.dao.EnrollDAO;
+import com.elearning.remoteensine.dao.KeysetPage;
 import com.elearning.remoteensine.model.Comment;
 import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.Student;
@@ -168,21 +169,47 @@ public class CommentService {
     }
     List<Comment> comments = commentDAO.listCoursesComments(idCourse);
     System.out.println("Service: Encontrados " + comments.size() + " comentários para o curso ID " + idCourse); // DEBUG
+    fillStudentNames(comments);
+    return comments;
+  }
+
+  /**
+   * Lista uma página dos comentários de um curso (mais recentes primeiro), populando o nome do aluno.
+   *
+   * @param idCourse ID do curso.
+   * @param cursor Cursor da página anterior, ou null para a primeira página.
+   * @param size Quantidade de comentários por página.
+   * @return Página de comentários com nome do aluno.
+   * @throws SQLException Erro de banco.
+   * @throws IllegalArgumentException Se o curso não for encontrado ou o cursor for inválido.
+   */
+  public KeysetPage<Comment> listStudentsCommentsInCoursePage(int idCourse, String cursor, int size) throws SQLException {
+    if (courseDAO.searchCourseById(idCourse) == null) {
+      throw new IllegalArgumentException("Curso com ID " + idCourse + " não encontrado.");
+    }
+    return loadCommentsPage(idCourse, cursor, size);
+  }
+
+  /**
+   * Igual a {@link #listStudentsCommentsInCoursePage}, sem validar o curso (quem chama já o buscou).
+   */
+  KeysetPage<Comment> loadCommentsPage(int idCourse, String cursor, int size) throws SQLException {
+    KeysetPage<Comment> page = commentDAO.listCoursesCommentsPage(idCourse, cursor, size);
+    fillStudentNames(page.getItems());
+    return page;
+  }
+
+  private void fillStudentNames(List<Comment> comments) throws SQLException {
+    UserBatchLoader users = new UserBatchLoader(userDAO);
     for (Comment comment : comments) {
       if (comment.getStudentId() > 0) {
-        User student = userDAO.searchById(comment.getStudentId());
-        if (student != null) {
-
-          comment.setStudentName(student.getName());
-        } else {
-          comment.setStudentName("Aluno Desconhecido");
-        }
+        users.load(comment.getStudentId(), student ->
+            comment.setStudentName(student != null ? student.getName() : "Aluno Desconhecido"));
       } else {
 
         comment.setStudentName("ID de Aluno Inválido");
       }
     }
-    return comments;
+    users.dispatch();
   }
 }
-
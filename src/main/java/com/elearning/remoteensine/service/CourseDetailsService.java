@@ -0,0 +1,154 @@
+package com.elearning.remoteensine.service;
+
+import com.elearning.remoteensine.dao.KeysetPage;
+import com.elearning.remoteensine.model.Classroom;
+import com.elearning.remoteensine.model.Comment;
+import com.elearning.remoteensine.model.Course;
+import com.elearning.remoteensine.model.CourseDetailsView;
+import com.elearning.remoteensine.model.Doubt;
+import com.elearning.remoteensine.model.ExamDefinition;
+import com.elearning.remoteensine.model.GradeStudent;
+import com.elearning.remoteensine.model.User;
+import com.elearning.remoteensine.model.enums.UserType;
+import com.elearning.remoteensine.util.PageLoadExecutor;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Monta a página de detalhes do curso. O curso é buscado uma única vez e as demais
+ * partes (comentários, dúvidas, aulas e o que depende do usuário logado) são carregadas
+ * em paralelo no {@link PageLoadExecutor}, então a página demora o tempo da consulta
+ * mais lenta, e não a soma de todas.
+ */
+@Service
+public class CourseDetailsService {
+
+  private final CourseService courseService;
+  private final CommentService commentService;
+  private final DoubtService doubtService;
+  private final ClassroomService classroomService;
+  private final EnrollService enrollService;
+  private final ExamDefinitionService examDefinitionService;
+  private final PageLoadExecutor executor;
+
+  public CourseDetailsService(CourseService courseService, CommentService commentService,
+                              DoubtService doubtService, ClassroomService classroomService,
+                              EnrollService enrollService, ExamDefinitionService examDefinitionService,
+                              PageLoadExecutor executor) {
+    this.courseService = courseService;
+    this.commentService = commentService;
+    this.doubtService = doubtService;
+    this.classroomService = classroomService;
+    this.enrollService = enrollService;
+    this.examDefinitionService = examDefinitionService;
+    this.executor = executor;
+  }
+
+  /**
+   * Carrega tudo o que a página /cursos/{id} exibe para o usuário informado.
+   *
+   * @param idCourse       ID do curso.
+   * @param viewer         Usuário logado, ou null para visitante.
+   * @param commentsCursor Cursor da página de comentários, ou null para a primeira.
+   * @param doubtsCursor   Cursor da página de dúvidas, ou null para a primeira.
+   * @return A visão da página; com curso null se ele não existir.
+   * @throws SQLException             Se alguma das consultas falhar.
+   * @throws IllegalArgumentException Se um dos cursores for inválido.
+   */
+  public CourseDetailsView loadCourseDetails(int idCourse, User viewer, String commentsCursor, String doubtsCursor)
+      throws SQLException {
+    boolean student = viewer != null && viewer.getUserType() == UserType.STUDENT;
+    boolean professor = viewer != null && viewer.getUserType() == UserType.PROFESSOR;
+
+    // Nada abaixo depende do curso, exceto as provas do professor: tudo parte junto.
+    CompletableFuture<Course> course = load(() -> courseService.searchCourseByIdComplete(idCourse));
+    CompletableFuture<KeysetPage<Comment>> comments =
+        load(() -> commentService.loadCommentsPage(idCourse, commentsCursor, KeysetPage.DEFAULT_SIZE));
+    CompletableFuture<KeysetPage<Doubt>> doubts =
+        load(() -> doubtService.loadDoubtsPage(idCourse, doubtsCursor, KeysetPage.DEFAULT_SIZE));
+    CompletableFuture<List<Classroom>> classes = load(() -> classroomService.loadClasses(idCourse));
+
+    CompletableFuture<Boolean> enrolled = student
+        ? load(() -> enrollService.checkEnrolledStudents(viewer.getIdUser(), idCourse))
+        : CompletableFuture.completedFuture(false);
+    CompletableFuture<List<ExamDefinition>> availableExams = enrolled.thenCompose(isEnrolled -> isEnrolled
+        ? load(() -> examDefinitionService.listarProvasPorCursoPublicadasNaoSubmetidas(idCourse))
+        : CompletableFuture.completedFuture(Collections.emptyList()));
+    CompletableFuture<List<GradeStudent>> grades = enrolled.thenCompose(isEnrolled -> isEnrolled
+        ? load(() -> examDefinitionService.listarNotasDoAlunoPorProvaECursoId(idCourse, viewer.getIdUser()))
+        : CompletableFuture.completedFuture(Collections.emptyList()));
+
+    CompletableFuture<Boolean> owner = course.thenApply(loaded -> professor && isOwner(loaded, viewer));
+    CompletableFuture<List<ExamDefinition>> managedExams = owner.thenCompose(isOwner -> isOwner
+        ? load(() -> examDefinitionService.getExamDefinitionsForCourseManagement(idCourse, viewer.getIdUser()))
+        : CompletableFuture.completedFuture(Collections.emptyList()));
+
+    Course loadedCourse = await(course);
+    if (loadedCourse == null) {
+      // As outras consultas já retornam vazio para um curso inexistente; só esperamos terminarem.
+      awaitQuietly(comments, doubts, classes, availableExams, grades);
+      return CourseDetailsView.notFound(student, professor);
+    }
+    return new CourseDetailsView(loadedCourse, await(comments), await(doubts), await(classes),
+        await(managedExams), await(availableExams), await(grades),
+        student, professor, await(enrolled), await(owner));
+  }
+
+  private static boolean isOwner(Course course, User viewer) {
+    return course != null && course.getResponsibleProfessor() != null
+        && course.getResponsibleProfessor().getIdUser() == viewer.getIdUser();
+  }
+
+  private <T> CompletableFuture<T> load(Load<T> load) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return load.run();
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+  }
+
+  /**
+   * Espera o resultado, devolvendo a exceção original da consulta em vez da CompletionException.
+   */
+  private static <T> T await(CompletableFuture<T> future) throws SQLException {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("Failed to load course details.", cause);
+    }
+  }
+
+  private static void awaitQuietly(CompletableFuture<?>... futures) {
+    for (CompletableFuture<?> future : futures) {
+      try {
+        future.join();
+      } catch (CompletionException ignored) {
+        // A página já será exibida como "curso não encontrado".
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface Load<T> {
+    T run() throws Exception;
+  }
+}
@@ -3,11 +3,14 @@ package com.elearning.remoteensine.service;
 import com.elearning.remoteensine.dao.DoubtDAO;
 import com.elearning.remoteensine.dao.UserDAO;
 import com.elearning.remoteensine.dao.CourseDAO;
+import com.elearning.remoteensine.dao.KeysetPage;
 import com.elearning.remoteensine.model.Professor;
 import com.elearning.remoteensine.model.Course;
+import com.elearning.remoteensine.model.CourseSummary;
 import com.elearning.remoteensine.model.User;
 import com.elearning.remoteensine.model.enums.UserType;
 import com.elearning.remoteensine.util.DatabaseConnector;
+import com.elearning.remoteensine.util.UnitOfWork;
 import org.springframework.stereotype.Service;
 
 import javax.xml.crypto.Data;
@@ -78,37 +81,41 @@ public class CourseService {
    * @throws SQLException Erro de banco.
    */
   public Course searchCourseByIdComplete(int idCourse) throws SQLException {
-    Course course = courseDAO.searchCourseById(idCourse);
-    if (course != null && course.getResponsibleProfessor() != null && course.getResponsibleProfessor().getIdUser() > 0) {
-      User professorUser = userDAO.searchById(course.getResponsibleProfessor().getIdUser());
-      if (professorUser instanceof Professor) {
-        course.setResponsibleProfessor((Professor) professorUser);
+    return UnitOfWork.readOnly(() -> {
+      Course course = courseDAO.searchCourseById(idCourse);
+      if (course != null && course.getResponsibleProfessor() != null && course.getResponsibleProfessor().getIdUser() > 0) {
+        User professorUser = userDAO.searchById(course.getResponsibleProfessor().getIdUser());
+        if (professorUser instanceof Professor) {
+          course.setResponsibleProfessor((Professor) professorUser);
+        }
       }
-    }
-    return course;
+      return course;
+    });
   }
   /**
-   * Lista todos os cursos disponíveis, populando o professor responsável de cada um.
+   * Lista todos os cursos disponíveis com o professor responsável de cada um,
+   * numa única consulta.
    *
    * @return Lista de cursos.
    * @throws SQLException Erro de banco.
    */
   public List<Course> listAllCoursesWithProfessors() throws SQLException {
-    List<Course> courses = courseDAO.listAllCourses();
-    if (courses != null) {
-      for (Course course : courses) {
-        if (course.getResponsibleProfessor() != null && course.getResponsibleProfessor().getIdUser() > 0) {
-          int professorId = course.getResponsibleProfessor().getIdUser();
-          User userProfessor = userDAO.searchById(professorId);
-          if (userProfessor != null && userProfessor.getUserType() == UserType.PROFESSOR) {
-            course.setResponsibleProfessor((Professor) userProfessor);
-          }
-        }
-      }
-    }
-    System.out.println("SERVICE: Saindo de listAllCoursesWithProfessors. Tamanho final da lista de cursos a ser retornada: " + (courses != null ? courses.size() : "null"));
-    return courses;
+    return courseDAO.listAllCoursesWithProfessors();
   }
+
+  /**
+   * Lista uma página do catálogo (resumos com o nome do professor) numa única consulta.
+   *
+   * @param cursor Cursor da página anterior, ou null para a primeira página.
+   * @param size Quantidade de cursos por página.
+   * @return Página de resumos de curso.
+   * @throws SQLException Erro de banco.
+   * @throws IllegalArgumentException Se o cursor for inválido.
+   */
+  public KeysetPage<CourseSummary> listCatalogPage(String cursor, int size) throws SQLException {
+    return courseDAO.listCatalogPage(cursor, size);
+  }
+
   /**
    * Lista todos os cursos criados por um professor específico.
    *
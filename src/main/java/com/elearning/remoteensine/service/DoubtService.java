@@ -3,6 +3,9 @@ package com.elearning.remoteensine.service;
 import com.elearning.remoteensine.dao.UserDAO;
 import com.elearning.remoteensine.dao.DoubtDAO;
 import com.elearning.remoteensine.dao.CourseDAO;
+import com.elearning.remoteensine.dao.CourseOwner;
+import com.elearning.remoteensine.dao.OwnershipDAO;
+import com.elearning.remoteensine.dao.KeysetPage;
 import com.elearning.remoteensine.model.Professor;
 import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.User;
@@ -20,11 +23,13 @@ public class DoubtService {
     private DoubtDAO doubtDAO;
     private UserDAO userDAO;
     private CourseDAO courseDAO;
+    private OwnershipDAO ownershipDAO;
 
-  public DoubtService(DoubtDAO doubtDAO, UserDAO userDAO, CourseDAO courseDAO) {
+  public DoubtService(DoubtDAO doubtDAO, UserDAO userDAO, CourseDAO courseDAO, OwnershipDAO ownershipDAO) {
     this.doubtDAO = doubtDAO;
     this.userDAO = userDAO;
     this.courseDAO = courseDAO;
+    this.ownershipDAO = ownershipDAO;
   }
 
   /**
@@ -93,12 +98,12 @@ public class DoubtService {
     }
     Professor professor = (Professor) userProfessor;
 
-    Course doubtCourse = courseDAO.searchCourseById(doubt.getCourseId());
-    if (doubtCourse == null) {
+    CourseOwner owner = ownershipDAO.findCourseOwner(doubt.getCourseId());
+    if (owner == null) {
       throw new IllegalArgumentException("Course associated with doubt (ID: " + doubt.getCourseId() + ") not found.");
     }
 
-    if (doubtCourse.getResponsibleProfessor() == null || doubtCourse.getResponsibleProfessor().getIdUser() != professor.getIdUser()) {
+    if (!owner.isOwnedBy(professor.getIdUser())) {
       throw new IllegalAccessException("Professor not authorized to answer questions about this course.");
     }
 
@@ -137,6 +142,30 @@ public class DoubtService {
     return doubtDAO.lisCoursesDoubt(idCourse);
   }
 
+  /**
+   * Lista uma página das dúvidas de um curso (mais recentes primeiro).
+   *
+   * @param idCourse ID do curso.
+   * @param cursor Cursor da página anterior, ou null para a primeira página.
+   * @param size Quantidade de dúvidas por página.
+   * @return Página de dúvidas.
+   * @throws SQLException Erro de banco.
+   * @throws IllegalArgumentException Se o curso não for encontrado ou o cursor for inválido.
+   */
+  public KeysetPage<Doubt> listCourseDoubtsPage(int idCourse, String cursor, int size) throws SQLException {
+    if (courseDAO.searchCourseById(idCourse) == null) {
+      throw new IllegalArgumentException("Curso com ID " + idCourse + " não encontrado.");
+    }
+    return loadDoubtsPage(idCourse, cursor, size);
+  }
+
+  /**
+   * Página de dúvidas sem a checagem do curso, para quem já o carregou.
+   */
+  KeysetPage<Doubt> loadDoubtsPage(int idCourse, String cursor, int size) throws SQLException {
+    return doubtDAO.lisCoursesDoubtPage(idCourse, cursor, size);
+  }
+
   /**
    * Lista todas as dúvidas de um aluno.
    *
@@ -167,24 +196,18 @@ public class DoubtService {
       return true;
     }
 
-    User loggedUser = userDAO.searchById(idUserLogged);
-    if (loggedUser == null) {
-      throw new IllegalArgumentException("\n" +
-          "Logged in user not found.");
-    }
-
-    boolean authorized = false;
-    if (doubt.getStudentId() == idUserLogged) {
-      authorized = true;
-    } else if (loggedUser.getUserType() == UserType.PROFESSOR) {
-      Course doubtCourse = courseDAO.searchCourseById(doubt.getCourseId());
-      if (doubtCourse != null && doubtCourse.getResponsibleProfessor() != null &&
-          doubtCourse.getResponsibleProfessor().getIdUser() == idUserLogged) {
-        authorized = true;
-      }
+    boolean authorized = doubt.getStudentId() == idUserLogged;
+    if (!authorized) {
+      CourseOwner owner = ownershipDAO.findCourseOwner(doubt.getCourseId());
+      authorized = owner != null && owner.isOwnedBy(idUserLogged);
     }
     if (!authorized) {
-        throw new IllegalAccessException("User not authorized to close this question.");
+      // O usuário só é buscado para explicar a recusa.
+      if (userDAO.searchById(idUserLogged) == null) {
+        throw new IllegalArgumentException("\n" +
+            "Logged in user not found.");
+      }
+      throw new IllegalAccessException("User not authorized to close this question.");
     }
     doubt.setStatus(DoubtStatus.FECHADA);
     return doubtDAO.updateDouts(doubt);
@@ -204,25 +227,20 @@ public class DoubtService {
 
     List<Doubt> doubts = doubtDAO.lisCoursesDoubt(idCourse);
 
+    UserBatchLoader users = new UserBatchLoader(userDAO);
     for (Doubt doubt : doubts) {
       if (doubt.getStudentId() > 0) {
-        User aluno = userDAO.searchById(doubt.getStudentId());
-        if (aluno != null) {
-          doubt.setStudentName(aluno.getName());
-        } else {
-          doubt.setStudentName("Aluno Desconhecido");
-        }
+        users.load(doubt.getStudentId(), aluno ->
+            doubt.setStudentName(aluno != null ? aluno.getName() : "Aluno Desconhecido"));
       }
 
       if (doubt.getProfessorId() != null && doubt.getProfessorId() > 0) {
-        User professor = userDAO.searchById(doubt.getProfessorId());
-        if (professor != null && professor.getUserType() == UserType.PROFESSOR) {
-          doubt.setProfessorName(professor.getName());
-        } else {
-          doubt.setProfessorName("Professor Desconhecido");
-        }
+        users.load(doubt.getProfessorId(), professor ->
+            doubt.setProfessorName(professor != null && professor.getUserType() == UserType.PROFESSOR
+                ? professor.getName() : "Professor Desconhecido"));
       }
     }
+    users.dispatch();
     return doubts;
 }
 }
@@ -1,17 +1,24 @@
 package com.elearning.remoteensine.service;
 
+import com.elearning.remoteensine.dao.BatchResult;
 import com.elearning.remoteensine.dao.EnrollDAO;
 import com.elearning.remoteensine.dao.UserDAO;
 import com.elearning.remoteensine.dao.CourseDAO;
+import com.elearning.remoteensine.dao.UncheckedSQLException;
 import com.elearning.remoteensine.model.Enroll;
 import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.User;
 import com.elearning.remoteensine.model.Student;
 import com.elearning.remoteensine.model.enums.UserType;
+import com.elearning.remoteensine.util.UnitOfWork;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class EnrollService {
@@ -36,21 +43,40 @@ public class EnrollService {
    * ou se o aluno já estiver matriculado.
    */
   public boolean makeEnroll(int idStudent, int idCourse) throws SQLException, IllegalArgumentException {
-    User student = userDAO.searchById(idStudent);
-    if (student == null || student.getUserType() != UserType.STUDENT) {
-      throw new IllegalArgumentException("Student ID " + idStudent + " not found.");
-    }
+    return UnitOfWork.inTransaction(() -> {
+      User student = userDAO.searchById(idStudent);
+      if (student == null || student.getUserType() != UserType.STUDENT) {
+        throw new IllegalArgumentException("Student ID " + idStudent + " not found.");
+      }
 
-    Course course = courseDAO.searchCourseById(idCourse);
-    if (course == null) {
-      throw new IllegalArgumentException("Course com ID " + idCourse + " not found.");
-    }
+      Course course = courseDAO.searchCourseById(idCourse);
+      if (course == null) {
+        throw new IllegalArgumentException("Course com ID " + idCourse + " not found.");
+      }
 
-    if (enrollDAO.checkEnroll(idStudent, idCourse)) {
-      throw new IllegalArgumentException("Student already enrolled in this course.");
-    }
+      if (enrollDAO.checkEnroll(idStudent, idCourse)) {
+        throw new IllegalArgumentException("Student already enrolled in this course.");
+      }
 
-    return enrollDAO.enrollmentStudent(idStudent, idCourse);
+      return enrollDAO.enrollmentStudent(idStudent, idCourse);
+    });
+  }
+
+  /**
+   * Matricula uma turma inteira em um curso num único lote (ex.: a lista de alunos de uma
+   * empresa ou sala). A existência do curso e a permissão devem ser verificadas pelo chamador.
+   *
+   * @param idCourse ID do curso.
+   * @param studentIds IDs dos alunos.
+   * @return Os alunos matriculados e os recusados (já matriculados, repetidos ou que não são alunos).
+   * @throws SQLException Se ocorrer erro no banco.
+   * @throws IllegalArgumentException Se nenhum aluno for informado.
+   */
+  public BatchResult<Integer> enrollCohort(int idCourse, int[] studentIds) throws SQLException, IllegalArgumentException {
+    if (studentIds == null || studentIds.length == 0) {
+      throw new IllegalArgumentException("No student IDs informed.");
+    }
+    return enrollDAO.enrollStudents(idCourse, studentIds);
   }
 
   /**
@@ -88,6 +114,54 @@ public class EnrollService {
     return enrollDAO.lisStudentByCourse(idCourse);
   }
 
+  /**
+   * Exporta a lista de alunos de um curso em CSV (aluno, nome, e-mail, data da matrícula, progresso),
+   * lendo as matrículas por streaming para não carregar turmas grandes inteiras na memória.
+   * A existência do curso e a permissão devem ser verificadas pelo chamador.
+   *
+   * @param idCourse ID do curso.
+   * @param out Destino do CSV (ex: o writer da resposta HTTP).
+   * @return Quantidade de alunos exportados.
+   * @throws SQLException Se ocorrer erro no banco.
+   * @throws IOException Se ocorrer erro ao escrever no destino.
+   */
+  public int exportEnrolledStudents(int idCourse, Writer out) throws SQLException, IOException {
+    int count = 0;
+    out.write("student_id,name,email,enrollment_date,progress\n");
+    try (Stream<Enroll> enrolls = enrollDAO.streamStudentsByCourse(idCourse)) {
+      Iterator<Enroll> rows = enrolls.iterator();
+      while (rows.hasNext()) {
+        Enroll enroll = rows.next();
+        Student student = enroll.getStudent();
+        out.write(student.getIdUser() + "," + csvField(student.getName()) + "," + csvField(student.getEmail()) + ","
+            + (enroll.getEnrollDate() != null ? enroll.getEnrollDate() : "") + "," + enroll.getProgress() + "\n");
+        count++;
+      }
+    } catch (UncheckedSQLException e) {
+      throw e.getCause();
+    }
+    out.flush();
+    return count;
+  }
+
+  /**
+   * Campo CSV com aspas quando necessário. Nomes e e-mails vêm do próprio usuário: valores
+   * que começam com =, +, -, @, tab ou CR seriam lidos como fórmula pelo Excel/LibreOffice,
+   * então recebem um apóstrofo na frente.
+   */
+  private static String csvField(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+      value = "'" + value;
+    }
+    if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+      return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+    return value;
+  }
+
   /**
    * Atualiza o progresso do aluno em um curso.
    *
@@ -1,9 +1,9 @@
 package com.elearning.remoteensine.service;
 
-import com.elearning.remoteensine.dao.CourseDAO;
+import com.elearning.remoteensine.dao.CourseOwner;
 import com.elearning.remoteensine.dao.ExamDefinitionDAO;
+import com.elearning.remoteensine.dao.OwnershipDAO;
 import com.elearning.remoteensine.dao.UserDAO;
-import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.ExamDefinition; // Sua classe
 import com.elearning.remoteensine.model.GradeStudent;
 import com.elearning.remoteensine.model.User;
@@ -19,12 +19,12 @@ import java.util.List;
 public class ExamDefinitionService {
 
   private ExamDefinitionDAO examDefinitionDAO;
-  private CourseDAO courseDAO;
+  private OwnershipDAO ownershipDAO;
   private UserDAO userDAO;
 
-  public ExamDefinitionService(ExamDefinitionDAO examDefinitionDAO, CourseDAO courseDAO, UserDAO userDAO) {
+  public ExamDefinitionService(ExamDefinitionDAO examDefinitionDAO, OwnershipDAO ownershipDAO, UserDAO userDAO) {
     this.examDefinitionDAO = examDefinitionDAO;
-    this.courseDAO = courseDAO;
+    this.ownershipDAO = ownershipDAO;
     this.userDAO = userDAO;
   }
 
@@ -35,17 +35,17 @@ public class ExamDefinitionService {
       throw new IllegalArgumentException("O título do exame não pode ser vazio.");
     }
 
-    Course curso = courseDAO.searchCourseById(idCourse);
-    if (curso == null) {
+    CourseOwner owner = ownershipDAO.findCourseOwner(idCourse);
+    if (owner == null) {
       throw new IllegalArgumentException("Curso com ID " + idCourse + " não encontrado.");
     }
 
-    User professor = userDAO.searchById(idProfessorLogado);
-    if (professor == null || professor.getUserType() != UserType.PROFESSOR) {
-      throw new IllegalArgumentException("Usuário com ID " + idProfessorLogado + " não é um professor válido.");
-    }
-
-    if (curso.getResponsibleProfessor() == null || curso.getResponsibleProfessor().getIdUser() != idProfessorLogado) {
+    if (!owner.isOwnedBy(idProfessorLogado)) {
+      // O dono é sempre um professor; o usuário só é buscado para explicar a recusa.
+      User professor = userDAO.searchById(idProfessorLogado);
+      if (professor == null || professor.getUserType() != UserType.PROFESSOR) {
+        throw new IllegalArgumentException("Usuário com ID " + idProfessorLogado + " não é um professor válido.");
+      }
       throw new IllegalAccessException("Professor não autorizado a criar exames para este curso.");
     }
 
@@ -59,11 +59,11 @@ public class ExamDefinitionService {
 
   public List<ExamDefinition> getExamDefinitionsForCourse(int idCourse, int idProfessorLogado)
       throws SQLException, IllegalAccessException, IllegalArgumentException {
-    Course curso = courseDAO.searchCourseById(idCourse);
-    if (curso == null) {
+    CourseOwner owner = ownershipDAO.findCourseOwner(idCourse);
+    if (owner == null) {
       throw new IllegalArgumentException("Curso com ID " + idCourse + " não encontrado.");
     }
-    if (curso.getResponsibleProfessor() == null || curso.getResponsibleProfessor().getIdUser() != idProfessorLogado) {
+    if (!owner.isOwnedBy(idProfessorLogado)) {
       throw new IllegalAccessException("Professor não autorizado a ver definições de exame deste curso.");
     }
     return examDefinitionDAO.findExamDefinitionsByCourseId(idCourse, true);
@@ -80,8 +80,8 @@ public class ExamDefinitionService {
       throw new IllegalArgumentException("Esta definição de exame não pertence ao curso especificado (ID: "+ idCourse +").");
     }
 
-    Course curso = courseDAO.searchCourseById(idCourse);
-    if (curso == null || curso.getResponsibleProfessor() == null || curso.getResponsibleProfessor().getIdUser() != idProfessorLogado) {
+    CourseOwner owner = ownershipDAO.findCourseOwner(idCourse);
+    if (owner == null || !owner.isOwnedBy(idProfessorLogado)) {
       throw new IllegalAccessException("Professor não autorizado a modificar este exame.");
     }
 
@@ -94,26 +94,20 @@ public class ExamDefinitionService {
   public boolean deleteExamDefinition(int idExamDefinition, int idCourse, int idProfessorLogado)
       throws SQLException, IllegalArgumentException, IllegalAccessException {
 
-    ExamDefinition examDef = examDefinitionDAO.findExamDefinitionById(idExamDefinition);
-    if (examDef == null) {
+    CourseOwner owner = ownershipDAO.findExamDefinitionOwner(idExamDefinition);
+    if (owner == null) {
       throw new IllegalArgumentException("Definição de exame com ID " + idExamDefinition + " não encontrada.");
     }
-    if (examDef.getIdCourse() != idCourse) {
+    if (owner.getIdCourse() != idCourse) {
       throw new IllegalArgumentException("Esta definição de exame não pertence ao curso especificado (ID: "+ idCourse +").");
     }
-
-    Course curso = courseDAO.searchCourseById(idCourse);
-    if (curso == null || curso.getResponsibleProfessor() == null || curso.getResponsibleProfessor().getIdUser() != idProfessorLogado) {
+    if (!owner.isOwnedBy(idProfessorLogado)) {
       throw new IllegalAccessException("Professor não autorizado a deletar este exame.");
     }
     return examDefinitionDAO.deleteExamDefinition(idExamDefinition);
   }
   public List<ExamDefinition> listarProvasPorCursoPublicadasNaoSubmetidas(int idCurso) throws SQLException {
-    System.out.println("SERVICE (Aluno): Chamando DAO para buscar provas publicadas para curso ID: " + idCurso);
-    List<ExamDefinition> publishedsNotAnswered = examDefinitionDAO.findExamDefinitionsNotSubmittedByCourseId(idCurso);
-    System.out.println("SERVICE (Aluno): DAO retornou " + (publishedsNotAnswered != null ? publishedsNotAnswered.size() : "null") + " provas (supostamente publicadas).");
-
-    return publishedsNotAnswered;
+    return examDefinitionDAO.findExamDefinitionsNotSubmittedByCourseId(idCurso);
   }
 
   public List<GradeStudent> listarNotasDoAlunoPorProvaECursoId(int idCurso, int studentId) throws SQLException {
@@ -127,33 +121,29 @@ public class ExamDefinitionService {
 
   public boolean publishExamDefinition(int idExamDefinition, int idProfessorLogado)
       throws SQLException, IllegalArgumentException, IllegalAccessException {
-    System.out.println("SERVICE: Entrando em publishExamDefinition para ExamDef ID: " + idExamDefinition + " por Professor ID: " + idProfessorLogado); // LOG S1
     ExamDefinition examDef = examDefinitionDAO.findExamDefinitionById(idExamDefinition);
     if (examDef == null) {
-      System.err.println("SERVICE: ExamDef ID " + idExamDefinition + " NÃO ENCONTRADO no DAO."); // LOG S2
       throw new IllegalArgumentException("Definição de exame com ID " + idExamDefinition + " não encontrada.");
     }
-    System.out.println("SERVICE: ExamDef ID " + idExamDefinition + " encontrado. Status atual de publicação: " + examDef.isPublished()); // LOG S3 (use seu getter isPublished/isPublicada)
-    Course curso = courseDAO.searchCourseById(examDef.getIdCourse());
-    if (curso == null) {
-      System.err.println("SERVICE: Curso associado (ID: " + examDef.getIdCourse() + ") à ExamDef ID " + idExamDefinition + " NÃO ENCONTRADO."); // LOG S4
+    CourseOwner owner = ownershipDAO.findCourseOwner(examDef.getIdCourse());
+    if (owner == null) {
       throw new IllegalArgumentException("Curso associado (ID: "+ examDef.getIdCourse() +") à definição de exame não encontrado.");
     }
-    if (curso.getResponsibleProfessor() == null || curso.getResponsibleProfessor().getIdUser() != idProfessorLogado) {
-      System.err.println("SERVICE: Professor ID " + idProfessorLogado + " NÃO AUTORIZADO para publicar ExamDef ID " + idExamDefinition + " do curso ID " + curso.getIdCourse()); // LOG S5
+    if (!owner.isOwnedBy(idProfessorLogado)) {
       throw new IllegalAccessException("Professor não autorizado a publicar este exame.");
     }
 
     if (examDef.isPublished()) {
-      System.out.println("SERVICE: Exame ID " + idExamDefinition + " já está publicado.");
       return true;
     }
 
     examDef.setPublished(true);
     examDef.setUpdateData(LocalDateTime.now());
-    System.out.println("SERVICE: Objeto ExamDef (ID: " + idExamDefinition + ") modificado para published=true. Chamando DAO para atualizar..."); // LOG S7
     boolean atualizadoPeloDAO = examDefinitionDAO.updateExamDefinition(examDef);
-    System.out.println("SERVICE: DAO.updateExamDefinition retornou: " + atualizadoPeloDAO + " para ExamDef ID: " + idExamDefinition); // LOG S8
+    if (atualizadoPeloDAO) {
+      // Carrega a prova no cache antes que os alunos comecem a abri-la.
+      examDefinitionDAO.findPublishedExam(idExamDefinition);
+    }
     return atualizadoPeloDAO;
   }
 
@@ -165,22 +155,20 @@ public class ExamDefinitionService {
       throw new IllegalArgumentException("Definição de exame com ID " + idExamDefinition + " não encontrada.");
     }
 
-    Course curso = courseDAO.searchCourseById(examDef.getIdCourse());
-    if (curso == null) {
+    CourseOwner owner = ownershipDAO.findCourseOwner(examDef.getIdCourse());
+    if (owner == null) {
       throw new IllegalArgumentException("Curso associado (ID: "+ examDef.getIdCourse() +") à definição de exame não encontrado.");
     }
-    if (curso.getResponsibleProfessor() == null || curso.getResponsibleProfessor().getIdUser() != idProfessorLogado) {
+    if (!owner.isOwnedBy(idProfessorLogado)) {
       throw new IllegalAccessException("Professor não autorizado a despublicar este exame.");
     }
 
     if (!examDef.isPublished()) {
-      System.out.println("SERVICE: Exame ID " + idExamDefinition + " já está despublicado/não publicado.");
       return true;
     }
 
     examDef.setPublished(false);
     examDef.setUpdateData(LocalDateTime.now());
-    System.out.println("SERVICE: Despublicando exame ID " + idExamDefinition);
     return examDefinitionDAO.updateExamDefinition(examDef);
   }
 }
\ No newline at end of file
@@ -1,12 +1,14 @@
 package com.elearning.remoteensine.service;
 
+import com.elearning.remoteensine.dao.BatchResult;
+import com.elearning.remoteensine.dao.CourseOwner;
 import com.elearning.remoteensine.dao.ExamDefinitionDAO;
 import com.elearning.remoteensine.dao.ExamQuestionDAO;
-import com.elearning.remoteensine.dao.CourseDAO; // Para buscar o curso e verificar o professor
+import com.elearning.remoteensine.dao.OwnershipDAO; // Para verificar o professor dono do curso
 import com.elearning.remoteensine.dao.UserDAO;     // Para verificar o tipo de usuário
-import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.ExamDefinition;
 import com.elearning.remoteensine.model.ExamQuestion;
+import com.elearning.remoteensine.model.PublishedExam;
 import com.elearning.remoteensine.model.User;
 import com.elearning.remoteensine.model.enums.ExerciseType; // Seu enum
 import com.elearning.remoteensine.model.enums.UserType;     // Seu enum
@@ -17,6 +19,7 @@ import org.springframework.stereotype.Service;
 
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -24,13 +27,13 @@ public class ExamQuestionService {
 
   private final ExamQuestionDAO examQuestionDAO;
   private final ExamDefinitionDAO examDefinitionDAO;
-  private final CourseDAO courseDAO;
+  private final OwnershipDAO ownershipDAO;
   private final UserDAO userDAO;
 
-  public ExamQuestionService(ExamQuestionDAO examQuestionDAO, ExamDefinitionDAO examDefinitionDAO, CourseDAO courseDAO, UserDAO userDAO) {
+  public ExamQuestionService(ExamQuestionDAO examQuestionDAO, ExamDefinitionDAO examDefinitionDAO, OwnershipDAO ownershipDAO, UserDAO userDAO) {
     this.examQuestionDAO = examQuestionDAO;
     this.examDefinitionDAO = examDefinitionDAO;
-    this.courseDAO = courseDAO;
+    this.ownershipDAO = ownershipDAO;
     this.userDAO = userDAO;
   }
 
@@ -55,21 +58,16 @@ public class ExamQuestionService {
                                                   String respostaCorreta, double pontuacao, int ordemNaProva)
       throws SQLException, IllegalArgumentException, IllegalAccessException {
 
-    User professor = userDAO.searchById(idProfessorLogado);
-    if (professor == null || professor.getUserType() != UserType.PROFESSOR) {
-      throw new IllegalArgumentException("Usuário com ID " + idProfessorLogado + " não é um professor válido.");
-    }
-
-    ExamDefinition examDef = examDefinitionDAO.findExamDefinitionById(idExamDefinition);
-    if (examDef == null) {
-      throw new IllegalArgumentException("Definição de exame com ID " + idExamDefinition + " não encontrada.");
-    }
-
-    Course course = courseDAO.searchCourseById(examDef.getIdCourse());
-    if (course == null) {
-      throw new IllegalArgumentException("Curso associado à definição de exame (ID Curso: " + examDef.getIdCourse() + ") não encontrado.");
-    }
-    if (course.getResponsibleProfessor() == null || course.getResponsibleProfessor().getIdUser() != idProfessorLogado) {
+    CourseOwner owner = ownershipDAO.findExamDefinitionOwner(idExamDefinition);
+    if (owner == null || !owner.isOwnedBy(idProfessorLogado)) {
+      // O dono é sempre um professor; o usuário só é buscado para explicar a recusa.
+      User professor = userDAO.searchById(idProfessorLogado);
+      if (professor == null || professor.getUserType() != UserType.PROFESSOR) {
+        throw new IllegalArgumentException("Usuário com ID " + idProfessorLogado + " não é um professor válido.");
+      }
+      if (owner == null) {
+        throw new IllegalArgumentException("Definição de exame com ID " + idExamDefinition + " não encontrada.");
+      }
       throw new IllegalAccessException("Professor não autorizado a adicionar questões a este exame.");
     }
 
@@ -89,6 +87,50 @@ public class ExamQuestionService {
     return examQuestionDAO.saveQuestion(novaQuestao);
   }
 
+  /**
+   * Importa para uma prova as questões de outra prova do mesmo professor, gravadas num
+   * único lote. As questões importadas entram depois das que a prova já tem.
+   *
+   * @param idExamDefinition ID da definição do exame que recebe as questões.
+   * @param idSourceExamDefinition ID da definição do exame de onde as questões são copiadas.
+   * @param idProfessorLogado ID do professor, que deve ser dono das duas provas.
+   * @return As questões gravadas, com ID preenchido, e as recusadas com o motivo.
+   * @throws SQLException Se ocorrer erro no banco.
+   * @throws IllegalArgumentException Se alguma das provas não for encontrada ou a de origem não tiver questões.
+   * @throws IllegalAccessException Se o professor não for dono das duas provas.
+   */
+  public BatchResult<ExamQuestion> importQuestionsFromExamDefinition(int idExamDefinition, int idSourceExamDefinition,
+                                                                     int idProfessorLogado)
+      throws SQLException, IllegalArgumentException, IllegalAccessException {
+    if (idExamDefinition == idSourceExamDefinition) {
+      throw new IllegalArgumentException("Escolha uma prova de origem diferente da prova atual.");
+    }
+    for (int id : new int[]{idExamDefinition, idSourceExamDefinition}) {
+      CourseOwner owner = ownershipDAO.findExamDefinitionOwner(id);
+      if (owner == null) {
+        throw new IllegalArgumentException("Definição de exame com ID " + id + " não encontrada.");
+      }
+      if (!owner.isOwnedBy(idProfessorLogado)) {
+        throw new IllegalAccessException("Professor não autorizado a importar questões entre estes exames.");
+      }
+    }
+
+    List<ExamQuestion> origem = examQuestionDAO.findQuestionsByExamDefinitionId(idSourceExamDefinition);
+    if (origem.isEmpty()) {
+      throw new IllegalArgumentException("A prova de origem não tem questões para importar.");
+    }
+    int ultimaOrdem = examQuestionDAO.findQuestionsByExamDefinitionId(idExamDefinition).stream()
+        .mapToInt(ExamQuestion::getExamSequence).max().orElse(0);
+
+    List<ExamQuestion> copias = new ArrayList<>(origem.size());
+    for (ExamQuestion questao : origem) {
+      copias.add(new ExamQuestion(idExamDefinition, questao.getStatement(), questao.getExerciseType(),
+          questao.getOptions(), questao.getCorrectAnswer(), questao.getGrade(),
+          ultimaOrdem + questao.getExamSequence()));
+    }
+    return examQuestionDAO.saveQuestions(copias);
+  }
+
   /**
    * Lista todas as questões de uma definição de exame específica.
    * Requer que o usuário logado seja o professor dono do curso ao qual o exame pertence.
@@ -103,22 +145,15 @@ public class ExamQuestionService {
   public List<ExamQuestion> getQuestionsForExamDefinition(int idExamDefinition, int idProfessorLogado)
       throws SQLException, IllegalArgumentException, IllegalAccessException {
 
-    User professor = userDAO.searchById(idProfessorLogado);
-    if (professor == null || professor.getUserType() != UserType.PROFESSOR) {
-      throw new IllegalArgumentException("Usuário não é um professor válido.");
-    }
-
-    ExamDefinition examDef = examDefinitionDAO.findExamDefinitionById(idExamDefinition);
-    if (examDef == null) {
-      throw new IllegalArgumentException("Definição de exame com ID " + idExamDefinition + " não encontrada.");
-    }
-
-    Course course = courseDAO.searchCourseById(examDef.getIdCourse());
-    if (course == null) {
-      throw new IllegalArgumentException("Curso associado à definição de exame não encontrado.");
-    }
-
-    if (course.getResponsibleProfessor() == null || course.getResponsibleProfessor().getIdUser() != idProfessorLogado) {
+    CourseOwner owner = ownershipDAO.findExamDefinitionOwner(idExamDefinition);
+    if (owner == null || !owner.isOwnedBy(idProfessorLogado)) {
+      User professor = userDAO.searchById(idProfessorLogado);
+      if (professor == null || professor.getUserType() != UserType.PROFESSOR) {
+        throw new IllegalArgumentException("Usuário não é um professor válido.");
+      }
+      if (owner == null) {
+        throw new IllegalArgumentException("Definição de exame com ID " + idExamDefinition + " não encontrada.");
+      }
       throw new IllegalAccessException("Professor não autorizado a visualizar questões deste exame.");
     }
 
@@ -128,12 +163,9 @@ public class ExamQuestionService {
   public ExamQuestion getQuestionById(int idQuestaoExame, int idProfessorLogado) throws SQLException, IllegalAccessException {
     ExamQuestion question = examQuestionDAO.findQuestionById(idQuestaoExame);
     if (question != null) {
-      ExamDefinition examDef = examDefinitionDAO.findExamDefinitionById(question.getIdDefinitionExam());
-      if(examDef != null) {
-        Course course = courseDAO.searchCourseById(examDef.getIdCourse());
-        if (course != null && course.getResponsibleProfessor() != null && course.getResponsibleProfessor().getIdUser() == idProfessorLogado) {
-          return question;
-        }
+      CourseOwner owner = ownershipDAO.findExamDefinitionOwner(question.getIdDefinitionExam());
+      if (owner != null && owner.isOwnedBy(idProfessorLogado)) {
+        return question;
       }
     }
     throw new IllegalAccessException("Não foi possível buscar a questão ou acesso não autorizado.");
@@ -142,12 +174,11 @@ public class ExamQuestionService {
 
   public boolean updateExamQuestion(ExamQuestion question, int idProfessorLogado)
       throws SQLException, IllegalArgumentException, IllegalAccessException {
-    ExamDefinition examDef = examDefinitionDAO.findExamDefinitionById(question.getIdDefinitionExam());
-    if (examDef == null) {
+    CourseOwner owner = ownershipDAO.findExamDefinitionOwner(question.getIdDefinitionExam());
+    if (owner == null) {
       throw new IllegalArgumentException("Definição de exame associada à questão não encontrada.");
     }
-    Course course = courseDAO.searchCourseById(examDef.getIdCourse());
-    if (course == null || course.getResponsibleProfessor() == null || course.getResponsibleProfessor().getIdUser() != idProfessorLogado) {
+    if (!owner.isOwnedBy(idProfessorLogado)) {
       throw new IllegalAccessException("Professor não autorizado a atualizar questões deste exame.");
     }
 
@@ -156,16 +187,11 @@ public class ExamQuestionService {
 
   public boolean deleteExamQuestion(int idQuestaoExame, int idProfessorLogado)
       throws SQLException, IllegalArgumentException, IllegalAccessException {
-    ExamQuestion question = examQuestionDAO.findQuestionById(idQuestaoExame);
-    if (question == null) {
+    CourseOwner owner = ownershipDAO.findExamQuestionOwner(idQuestaoExame);
+    if (owner == null) {
       throw new IllegalArgumentException("Questão com ID " + idQuestaoExame + " não encontrada.");
     }
-    ExamDefinition examDef = examDefinitionDAO.findExamDefinitionById(question.getIdDefinitionExam());
-    if (examDef == null) {
-      throw new IllegalArgumentException("Definição de exame associada à questão não encontrada.");
-    }
-    Course course = courseDAO.searchCourseById(examDef.getIdCourse());
-    if (course == null || course.getResponsibleProfessor() == null || course.getResponsibleProfessor().getIdUser() != idProfessorLogado) {
+    if (!owner.isOwnedBy(idProfessorLogado)) {
       throw new IllegalAccessException("Professor não autorizado a deletar questões deste exame.");
     }
 
@@ -186,10 +212,26 @@ public class ExamQuestionService {
       throws SQLException, IllegalArgumentException {
 
     System.out.println("SERVICE (ExamQuestion): Buscando questões para aluno para ExamDef ID: " + idExamDefinition);
+    PublishedExam published = examDefinitionDAO.findPublishedExam(idExamDefinition);
+    if (published != null) {
+      return published.getQuestions();
+    }
     ExamDefinition examDef = examDefinitionDAO.findExamDefinitionById(idExamDefinition);
     if (examDef == null) {
       throw new IllegalArgumentException("Definição de exame com ID " + idExamDefinition + " não encontrada.");
     }
     return examQuestionDAO.findQuestionsByExamDefinitionId(idExamDefinition);
   }
+
+  /**
+   * Prova publicada, com a definição e as questões, compartilhada entre todos os alunos
+   * que a realizam. O conteúdo é somente leitura.
+   *
+   * @param idExamDefinition ID da definição do exame.
+   * @return A prova, ou null se ela não existir ou não estiver publicada.
+   * @throws SQLException Se ocorrer erro no banco.
+   */
+  public PublishedExam getPublishedExam(int idExamDefinition) throws SQLException {
+    return examDefinitionDAO.findPublishedExam(idExamDefinition);
+  }
 }
\ No newline at end of file
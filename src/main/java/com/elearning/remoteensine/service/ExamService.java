@@ -5,16 +5,19 @@ import com.elearning.remoteensine.dao.CourseDAO;
 import com.elearning.remoteensine.dao.UserDAO;
 import com.elearning.remoteensine.dao.EnrollDAO;
 import com.elearning.remoteensine.dao.ExamDefinitionDAO;
+import com.elearning.remoteensine.model.CourseRating;
 import com.elearning.remoteensine.model.Exam;
 import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.ExamDefinition;
 import com.elearning.remoteensine.model.User;
 import com.elearning.remoteensine.model.enums.UserType;
+import com.elearning.remoteensine.util.UnitOfWork;
 import org.springframework.stereotype.Service;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ExamService {
@@ -89,19 +92,22 @@ public class ExamService {
       return new ArrayList<>();
     }
 
+    UserBatchLoader users = new UserBatchLoader(userDAO);
     for (Exam exam : exams) {
       if (exam.getStudentId() > 0) {
-        User student = userDAO.searchById(exam.getStudentId());
-        if (student != null) {
-          exam.setStudentName(student.getName()); // Usa o setter adicionado em Exam.java
-        } else {
-          System.err.println("Service (Exam): Aluno NÃO encontrado para ID " + exam.getStudentId() + " na avaliação ID " + exam.getExamId());
-          exam.setStudentName("Aluno Desconhecido");
-        }
+        users.load(exam.getStudentId(), student -> {
+          if (student != null) {
+            exam.setStudentName(student.getName()); // Usa o setter adicionado em Exam.java
+          } else {
+            System.err.println("Service (Exam): Aluno NÃO encontrado para ID " + exam.getStudentId() + " na avaliação ID " + exam.getExamId());
+            exam.setStudentName("Aluno Desconhecido");
+          }
+        });
       } else {
         exam.setStudentName("ID de Aluno Inválido");
       }
     }
+    users.dispatch();
     return exams;
   }
 
@@ -170,6 +176,16 @@ public class ExamService {
     return examDAO.mediaCoursesGrade(idCourse);
   }
 
+  /**
+   * Obtém média e distribuição das notas de vários cursos, para os cards do catálogo.
+   * @param idCourses IDs dos cursos da página.
+   * @return O agregado de cada curso; cursos sem notas vêm com contagem zero.
+   * @throws SQLException Erro de banco.
+   */
+  public Map<Integer, CourseRating> getCourseRatings(List<Integer> idCourses) throws SQLException {
+    return examDAO.findCourseRatings(idCourses);
+  }
+
   /**
    * Permite que o autor da avaliação atualize sua nota ou comentário.
    *
@@ -252,35 +268,37 @@ public class ExamService {
    * @throws IllegalArgumentException Se dados inválidos.
    */
   public Exam saveStudentExamAttempt(Exam examAttempt) throws SQLException, IllegalArgumentException {
-    if (examAttempt == null) {
-      throw new IllegalArgumentException("Tentativa de exame não pode ser nula.");
-    }
+    return UnitOfWork.inTransaction(() -> {
+      if (examAttempt == null) {
+        throw new IllegalArgumentException("Tentativa de exame não pode ser nula.");
+      }
 
-    System.out.println("SERVICE (ExamAttempt): Validando aluno ID: " + examAttempt.getStudentId());
-    User student = userDAO.searchById(examAttempt.getStudentId());
-    if (student == null || student.getUserType() != UserType.STUDENT) {
-      System.err.println("SERVICE (ExamAttempt): Aluno inválido ou não é estudante. ID: " + examAttempt.getStudentId());
-      throw new IllegalArgumentException("Aluno inválido para esta tentativa de exame.");
-    }
+      System.out.println("SERVICE (ExamAttempt): Validando aluno ID: " + examAttempt.getStudentId());
+      User student = userDAO.searchById(examAttempt.getStudentId());
+      if (student == null || student.getUserType() != UserType.STUDENT) {
+        System.err.println("SERVICE (ExamAttempt): Aluno inválido ou não é estudante. ID: " + examAttempt.getStudentId());
+        throw new IllegalArgumentException("Aluno inválido para esta tentativa de exame.");
+      }
 
-    ExamDefinition examDefValidation = examDefinitionDAO.findExamDefinitionById(examAttempt.getIdExamDefinition());
+      ExamDefinition examDefValidation = examDefinitionDAO.findExamDefinitionById(examAttempt.getIdExamDefinition());
 
-    if (examDefValidation == null) {
-      throw new IllegalArgumentException("Definição de exame inválida para esta tentativa.");
-    }
+      if (examDefValidation == null) {
+        throw new IllegalArgumentException("Definição de exame inválida para esta tentativa.");
+      }
 
-    if (examAttempt.getCourseId() != examDefValidation.getIdCourse()){
-      System.out.printf("SERVICE (ExamAttempt): INCONSISTÊNCIA - ID do curso da tentativa (%d) não corresponde ao ID do curso da definição do exame (%d)%n",
-              examAttempt.getCourseId(), examDefValidation.getIdCourse());
-      throw new IllegalArgumentException("Inconsistência entre o curso da tentativa e o curso da definição do exame.");
-    }
+      if (examAttempt.getCourseId() != examDefValidation.getIdCourse()){
+        System.out.printf("SERVICE (ExamAttempt): INCONSISTÊNCIA - ID do curso da tentativa (%d) não corresponde ao ID do curso da definição do exame (%d)%n",
+                examAttempt.getCourseId(), examDefValidation.getIdCourse());
+        throw new IllegalArgumentException("Inconsistência entre o curso da tentativa e o curso da definição do exame.");
+      }
 
 
-    System.out.printf("SERVICE (Exam): Salvando tentativa de exame para Aluno ID: %d, Definição de Exame ID: %d, Nota %d%n",
-            examAttempt.getStudentId(),
-            examAttempt.getIdExamDefinition(),
-            examAttempt.getGrade());
+      System.out.printf("SERVICE (Exam): Salvando tentativa de exame para Aluno ID: %d, Definição de Exame ID: %d, Nota %d%n",
+              examAttempt.getStudentId(),
+              examAttempt.getIdExamDefinition(),
+              examAttempt.getGrade());
 
-    return examDAO.saveExam(examAttempt);
+      return examDAO.saveExam(examAttempt);
+    });
   }
 }
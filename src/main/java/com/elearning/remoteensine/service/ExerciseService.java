@@ -1,13 +1,11 @@
 package com.elearning.remoteensine.service;
 
 import com.elearning.remoteensine.dao.ClassroomDAO;
-import com.elearning.remoteensine.dao.CourseDAO;
+import com.elearning.remoteensine.dao.CourseOwner;
 import com.elearning.remoteensine.dao.ExerciseDAO;
-import com.elearning.remoteensine.dao.UserDAO;
+import com.elearning.remoteensine.dao.OwnershipDAO;
 import com.elearning.remoteensine.model.Classroom;
-import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.Exercise;
-import com.elearning.remoteensine.model.User;
 import com.elearning.remoteensine.model.enums.ExerciseType;
 import org.springframework.stereotype.Service;
 
@@ -19,15 +17,13 @@ public class ExerciseService {
 
   private ExerciseDAO exerciseDAO;
   private ClassroomDAO classroomDAO;
-  private CourseDAO courseDAO;
-  private UserDAO userDAO;
+  private OwnershipDAO ownershipDAO;
 
 
-  public ExerciseService(ExerciseDAO exerciseDAO, ClassroomDAO classroomDAO, CourseDAO courseDAO, UserDAO userDAO) {
+  public ExerciseService(ExerciseDAO exerciseDAO, ClassroomDAO classroomDAO, OwnershipDAO ownershipDAO) {
     this.exerciseDAO = exerciseDAO;
     this.classroomDAO = classroomDAO;
-    this.courseDAO = courseDAO;
-    this.userDAO = userDAO;
+    this.ownershipDAO = ownershipDAO;
   }
 
   /**
@@ -55,17 +51,12 @@ public class ExerciseService {
       throw new IllegalArgumentException("Invalid class ID.");
     }
 
-    Classroom classroom = classroomDAO.searchById(idClassroom);
-    if (classroom == null) {
+    CourseOwner owner = ownershipDAO.findClassroomOwner(idClassroom);
+    if (owner == null) {
       throw new IllegalArgumentException("Class ID " + idClassroom + " not found.");
     }
 
-    Course classCourse = courseDAO.searchCourseById(classroom.getCourseId());
-    if (classCourse == null) {
-      throw new IllegalArgumentException("Course associated with the class (ID: " + classroom.getCourseId() + ") não encontrado.");
-    }
-
-    if (classCourse.getResponsibleProfessor() == null || classCourse.getResponsibleProfessor().getIdUser() != idProfessorLogged) {
+    if (!owner.isOwnedBy(idProfessorLogged)) {
       throw new IllegalAccessException("Professor não autorizado a adicionar exercícios a esta aula.");
     }
 
@@ -123,17 +114,12 @@ public class ExerciseService {
       throw new IllegalArgumentException("Exercise ID " + idExercise + " not found.");
     }
 
-    Classroom exerciseClass = classroomDAO.searchById(existingExercise.getClassroomId());
-    if (exerciseClass == null) {
+    CourseOwner owner = ownershipDAO.findClassroomOwner(existingExercise.getClassroomId());
+    if (owner == null) {
       throw new IllegalArgumentException("Class associated with exercise (ID: " + existingExercise.getClassroomId() + ") not found.");
     }
 
-    Course classCourse = courseDAO.searchCourseById(exerciseClass.getCourseId());
-    if (classCourse == null) {
-      throw new IllegalArgumentException("Course associated with class (ID: " + exerciseClass.getCourseId() + ") not found.");
-    }
-
-    if (classCourse.getResponsibleProfessor() == null || classCourse.getResponsibleProfessor().getIdUser() != idProfessorLogged) {
+    if (!owner.isOwnedBy(idProfessorLogged)) {
       throw new IllegalAccessException("Teacher not authorized to modify this exercise.");
     }
 
@@ -158,22 +144,12 @@ public class ExerciseService {
   public boolean removeExercise(int idExercise, int idProfessorLogged)
       throws SQLException, IllegalArgumentException, IllegalAccessException {
 
-    Exercise existingExercise = exerciseDAO.searchExerciseById(idExercise);
-    if (existingExercise == null) {
+    CourseOwner owner = ownershipDAO.findExerciseOwner(idExercise);
+    if (owner == null) {
       throw new IllegalArgumentException("Exercise ID " + idExercise + " not found.");
     }
 
-    Classroom exerciseClass = classroomDAO.searchById(existingExercise.getClassroomId());
-    if (exerciseClass == null) {
-      throw new IllegalArgumentException("Class associated with exercise (ID: " + existingExercise.getClassroomId() + ") not found.");
-    }
-
-    Course classCourse = courseDAO.searchCourseById(exerciseClass.getCourseId());
-    if (classCourse == null) {
-      throw new IllegalArgumentException("Course associated with class (ID: " + exerciseClass.getCourseId() + ") not found.");
-    }
-
-    if (classCourse.getResponsibleProfessor() == null || classCourse.getResponsibleProfessor().getIdUser() != idProfessorLogged) {
+    if (!owner.isOwnedBy(idProfessorLogged)) {
       throw new IllegalAccessException("Teacher not authorized to modify this exercise.");
     }
 
@@ -1,12 +1,20 @@
 package com.elearning.remoteensine.service;
 
+import com.elearning.remoteensine.dao.BatchResult;
 import com.elearning.remoteensine.dao.NewsletterDAO;
+import com.elearning.remoteensine.dao.UncheckedSQLException;
 import com.elearning.remoteensine.model.NewsLetterInscription;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class NewsletterService {
@@ -48,6 +56,35 @@ public class NewsletterService {
     return newsletterDAO.saveInscription(newInscription);
   }
 
+  /**
+   * Importa uma lista de e-mails (um por linha, ou separados por vírgula ou ponto e vírgula),
+   * gravada num único lote. E-mails repetidos na lista ou já inscritos são recusados
+   * individualmente, sem impedir a gravação dos demais.
+   *
+   * @param emails A lista de e-mails.
+   * @return As inscrições criadas, com ID preenchido, e as recusadas com o motivo.
+   * @throws SQLException Se ocorrer erro no banco.
+   * @throws IllegalArgumentException Se a lista estiver vazia ou tiver e-mails em formato inválido.
+   */
+  public BatchResult<NewsLetterInscription> importEmails(String emails) throws SQLException, IllegalArgumentException {
+    if (emails == null || emails.trim().isEmpty()) {
+      throw new IllegalArgumentException("Email list cannot be empty.");
+    }
+    List<NewsLetterInscription> inscriptions = new ArrayList<>();
+    List<String> invalid = new ArrayList<>();
+    for (String email : emails.trim().split("[\\s,;]+")) {
+      if (EMAIL_PATTERN.matcher(email).matches()) {
+        inscriptions.add(new NewsLetterInscription(email));
+      } else {
+        invalid.add(email);
+      }
+    }
+    if (!invalid.isEmpty()) {
+      throw new IllegalArgumentException("Invalid email format: " + String.join(", ", invalid));
+    }
+    return newsletterDAO.saveInscriptions(inscriptions);
+  }
+
   /**
    * Cancela a inscrição de um e-mail na newsletter.
    *
@@ -77,7 +114,8 @@ public class NewsletterService {
   }
 
   /**
-   * Verifica o status da inscrição de um e-mail na newsletter.
+   * Verifica o status da inscrição de um e-mail na newsletter, pelo índice em memória
+   * de inscritos (sem consulta ao banco na listagem do catálogo).
    *
    * @param email O e-mail a ser verificado.
    * @return true se o e-mail está inscrito e ativo, false caso contrário.
@@ -87,8 +125,7 @@ public class NewsletterService {
     if (email == null || email.trim().isEmpty()) {
       return false;
     }
-    NewsLetterInscription inscription = newsletterDAO.searchByEmail(email);
-    return inscription != null && inscription.isActive();
+    return newsletterDAO.isActiveSubscriber(email);
   }
 
   /**
@@ -97,12 +134,34 @@ public class NewsletterService {
    * @throws SQLException Erro de banco.
    */
   public List<String> listAllActivesEmails() throws SQLException {
-    List<NewsLetterInscription> inscriptions = newsletterDAO.listAllInscriptions(true);
-    List<String> emails = new java.util.ArrayList<>();
-    for (NewsLetterInscription inscription : inscriptions) {
-      emails.add(inscription.getEmail());
+    try (Stream<NewsLetterInscription> inscriptions = newsletterDAO.streamAllInscriptions(true)) {
+      return inscriptions.map(NewsLetterInscription::getEmail).collect(Collectors.toList());
+    } catch (UncheckedSQLException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Exporta os e-mails ativos, um por linha, lendo as inscrições por streaming.
+   * @param out Destino da exportação (ex: o writer da resposta HTTP).
+   * @return Quantidade de e-mails exportados.
+   * @throws SQLException Erro de banco.
+   * @throws IOException Erro ao escrever no destino.
+   */
+  public int exportActiveEmails(Writer out) throws SQLException, IOException {
+    int count = 0;
+    try (Stream<NewsLetterInscription> inscriptions = newsletterDAO.streamAllInscriptions(true)) {
+      Iterator<NewsLetterInscription> rows = inscriptions.iterator();
+      while (rows.hasNext()) {
+        out.write(rows.next().getEmail());
+        out.write('\n');
+        count++;
+      }
+    } catch (UncheckedSQLException e) {
+      throw e.getCause();
     }
-    return emails;
+    out.flush();
+    return count;
   }
 
   /**
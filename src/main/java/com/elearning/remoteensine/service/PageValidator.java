@@ -0,0 +1,42 @@
+package com.elearning.remoteensine.service;
+
+/**
+ * Validadores HTTP de uma página: ETag fraco e, na página de visitante, Last-Modified,
+ * calculados antes de a página ser carregada, para responder 304 a quem já tem a versão atual.
+ */
+public final class PageValidator {
+
+  private final String etag;
+  private final boolean shared;
+  private final long lastModified;
+
+  PageValidator(String etag, boolean shared, long lastModified) {
+    this.etag = etag;
+    this.shared = shared;
+    this.lastModified = lastModified;
+  }
+
+  /**
+   * ETag no formato {@code W/"..."}.
+   */
+  public String getEtag() {
+    return etag;
+  }
+
+  /**
+   * Se a página é a mesma para qualquer visitante (ninguém logado) e pode ficar num cache
+   * compartilhado; as demais dependem de quem as vê.
+   */
+  public boolean isShared() {
+    return shared;
+  }
+
+  /**
+   * Instante da última mudança da página, em milissegundos, ou -1 se a data sozinha não a
+   * identifica: uma página de usuário logado também muda com quem a vê e com a matrícula,
+   * que não têm data, e fica só com o ETag.
+   */
+  public long getLastModified() {
+    return lastModified;
+  }
+}
@@ -0,0 +1,135 @@
+package com.elearning.remoteensine.service;
+
+import com.elearning.remoteensine.dao.ContentVersion;
+import com.elearning.remoteensine.dao.CourseDAO;
+import com.elearning.remoteensine.model.User;
+import com.elearning.remoteensine.model.enums.UserType;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.HexFormat;
+
+/**
+ * Calcula os validadores das páginas de curso a partir das versões do que elas exibem,
+ * lidas do banco e iguais em todos os nós, sem carregar nem renderizar a página. O ETag é
+ * um hash dessas versões e de tudo o que muda a página para quem a vê (usuário, papel,
+ * matrícula, cursores); é fraco porque a página é equivalente, não idêntica byte a byte.
+ * <p>
+ * O Last-Modified só vai na página de visitante: nela a data da última mudança do
+ * conteúdo basta para identificar a página.
+ */
+@Service
+public class PageValidatorService {
+
+  private final CourseDAO courseDAO;
+  private final EnrollService enrollService;
+  private final NewsletterService newsletterService;
+
+  public PageValidatorService(CourseDAO courseDAO, EnrollService enrollService,
+                              NewsletterService newsletterService) {
+    this.courseDAO = courseDAO;
+    this.enrollService = enrollService;
+    this.newsletterService = newsletterService;
+  }
+
+  /**
+   * Validadores de uma página do catálogo (/cursos). Uma consulta de uma linha, lida das
+   * pontas dos índices; as médias dos cards entram pela data das faixas de notas.
+   *
+   * @param cursor Cursor da página, ou null para a primeira.
+   * @param viewer Usuário logado, ou null para visitante.
+   * @throws SQLException Se a consulta de versão falhar.
+   */
+  public PageValidator catalogPage(String cursor, User viewer) throws SQLException {
+    ContentVersion version = courseDAO.findCatalogVersion();
+    boolean subscriber = isStudent(viewer) && newsletterService.checkInscriptionStatus(viewer.getEmail());
+    String page = "catalog|" + cursor + "|" + viewerKey(viewer);
+    return validator(page, viewer, version, subscriber);
+  }
+
+  /**
+   * Validadores da página de detalhes de um curso (/cursos/{id}).
+   *
+   * @param idCourse       ID do curso.
+   * @param commentsCursor Cursor da página de comentários, ou null.
+   * @param doubtsCursor   Cursor da página de dúvidas, ou null.
+   * @param viewer         Usuário logado, ou null para visitante.
+   * @return Os validadores, ou null se o curso não existir (a página de erro não é validada).
+   * @throws SQLException Se a consulta de versão falhar.
+   */
+  public PageValidator courseDetails(int idCourse, String commentsCursor, String doubtsCursor, User viewer)
+      throws SQLException {
+    ContentVersion version = contentVersion(idCourse, viewer);
+    if (version == null) {
+      return null;
+    }
+    boolean enrolled = isStudent(viewer) && enrollService.checkEnrolledStudents(viewer.getIdUser(), idCourse);
+    String page = "course|" + idCourse + "|" + commentsCursor + "|" + doubtsCursor + "|" + viewerKey(viewer);
+    return validator(page, viewer, version, enrolled);
+  }
+
+  /**
+   * Validadores da lista de aulas de um curso (/cursos/{id}/aulas), que só é exibida a
+   * alunos matriculados.
+   *
+   * @param idCourse ID do curso.
+   * @param viewer   Aluno logado e já verificado como matriculado.
+   * @return Os validadores, ou null se o curso não existir.
+   * @throws SQLException Se a consulta de versão falhar.
+   */
+  public PageValidator courseClasses(int idCourse, User viewer) throws SQLException {
+    ContentVersion version = contentVersion(idCourse, viewer);
+    if (version == null) {
+      return null;
+    }
+    return validator("classes|" + idCourse + "|" + viewerKey(viewer), viewer, version);
+  }
+
+  private ContentVersion contentVersion(int idCourse, User viewer) throws SQLException {
+    return courseDAO.findContentVersion(idCourse, isStudent(viewer) ? viewer.getIdUser() : 0);
+  }
+
+  /**
+   * @param viewer Usuário logado; null na página de visitante, igual para todos.
+   * @param others Demais estados de quem vê a página (matrícula, inscrição).
+   */
+  private PageValidator validator(String page, User viewer, ContentVersion version, Object... others) {
+    StringBuilder state = new StringBuilder(page).append('|').append(version.getVersion());
+    for (Object other : others) {
+      state.append('|').append(other);
+    }
+    boolean shared = viewer == null;
+    return new PageValidator("W/\"" + hash(state.toString()) + "\"", shared,
+        shared ? version.getLastModified() : -1);
+  }
+
+  /**
+   * O nome aparece no cabeçalho das páginas; o papel e o ID decidem o que é exibido.
+   */
+  private static String viewerKey(User viewer) {
+    if (viewer == null) {
+      return "anonymous";
+    }
+    return viewer.getIdUser() + ":" + viewer.getUserType() + ":" + viewer.getName();
+  }
+
+  private static boolean isStudent(User viewer) {
+    return viewer != null && viewer.getUserType() == UserType.STUDENT;
+  }
+
+  /**
+   * 128 bits do SHA-256: o ETag não expõe o nome nem o ID de quem vê a página.
+   */
+  private static String hash(String state) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] bytes = digest.digest(state.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(bytes, 0, 16);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.", e);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.elearning.remoteensine.service;
 
+import com.elearning.remoteensine.dao.BatchResult;
 import com.elearning.remoteensine.dao.ClassroomDAO; // Ou AulaDAO
 import com.elearning.remoteensine.dao.CourseDAO;
 import com.elearning.remoteensine.dao.EnrollDAO;
@@ -9,16 +10,21 @@ import com.elearning.remoteensine.dao.UserDAO;
 import com.elearning.remoteensine.model.Classroom;
 import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.Exercise;
+import com.elearning.remoteensine.model.LessonPage;
 import com.elearning.remoteensine.model.StudentsExerciseAnswer;
 import com.elearning.remoteensine.model.User;
 import com.elearning.remoteensine.model.enums.ExerciseType;
 import com.elearning.remoteensine.model.enums.UserType;
+import com.elearning.remoteensine.util.UnitOfWork;
 
 import org.springframework.stereotype.Service;
 
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Service
@@ -55,61 +61,141 @@ public class StudentsExerciseAnswerService {
    */
   public StudentsExerciseAnswer submitOrUpdateAnswer(int exerciseId, int studentId, int classroomId, int courseId, String studentAnswerText)
       throws SQLException, IllegalArgumentException {
+    return UnitOfWork.inTransaction(() -> {
 
-    User student = userDAO.searchById(studentId);
-    if (student == null || student.getUserType() != UserType.STUDENT) {
-      throw new IllegalArgumentException("Aluno com ID " + studentId + " não encontrado ou não é um estudante válido.");
-    }
+      User student = userDAO.searchById(studentId);
+      if (student == null || student.getUserType() != UserType.STUDENT) {
+        throw new IllegalArgumentException("Aluno com ID " + studentId + " não encontrado ou não é um estudante válido.");
+      }
 
-    Course course = courseDAO.searchCourseById(courseId);
-    if (course == null) {
-      throw new IllegalArgumentException("Curso com ID " + courseId + " não encontrado.");
-    }
-    Classroom classroom = classroomDAO.searchById(classroomId);
-    if (classroom == null || classroom.getCourseId() != courseId) {
-      throw new IllegalArgumentException("Aula com ID " + classroomId + " não encontrada ou não pertence ao curso especificado.");
-    }
+      Course course = courseDAO.searchCourseById(courseId);
+      if (course == null) {
+        throw new IllegalArgumentException("Curso com ID " + courseId + " não encontrado.");
+      }
+      Classroom classroom = classroomDAO.searchById(classroomId);
+      if (classroom == null || classroom.getCourseId() != courseId) {
+        throw new IllegalArgumentException("Aula com ID " + classroomId + " não encontrada ou não pertence ao curso especificado.");
+      }
 
-    if (!enrollDAO.checkEnroll(studentId, courseId)) {
-      throw new IllegalArgumentException("Aluno não está matriculado no curso para responder exercícios.");
-    }
+      if (!enrollDAO.checkEnroll(studentId, courseId)) {
+        throw new IllegalArgumentException("Aluno não está matriculado no curso para responder exercícios.");
+      }
 
-    Exercise exercise = exerciseDAO.searchExerciseById(exerciseId);
-    if (exercise == null || exercise.getClassroomId() != classroomId) {
-      throw new IllegalArgumentException("Exercício com ID " + exerciseId + " não encontrado ou não pertence à aula especificada.");
-    }
+      Exercise exercise = exerciseDAO.searchExerciseById(exerciseId);
+      if (exercise == null || exercise.getClassroomId() != classroomId) {
+        throw new IllegalArgumentException("Exercício com ID " + exerciseId + " não encontrado ou não pertence à aula especificada.");
+      }
 
-    if (studentAnswerText == null || studentAnswerText.trim().isEmpty()) {
-      throw new IllegalArgumentException("A resposta do exercício não pode ser vazia.");
-    }
-    StudentsExerciseAnswer existingAnswer = answerDAO.getAnswerByStudentAndExercise(studentId, exerciseId);
-    Boolean isCorrect = null;
-    Double grade = null;
-
-    if (exercise.getExerciseType() == ExerciseType.MULTIPLA_ESCOLHA) {
-      isCorrect = Objects.equals(studentAnswerText.trim(), exercise.getCorrectAnswer() != null ? exercise.getCorrectAnswer().trim() : null);
-      if (Boolean.TRUE.equals(isCorrect)) {
-        grade = 10.0;
+      if (studentAnswerText == null || studentAnswerText.trim().isEmpty()) {
+        throw new IllegalArgumentException("A resposta do exercício não pode ser vazia.");
+      }
+      StudentsExerciseAnswer existingAnswer = answerDAO.getAnswerByStudentAndExercise(studentId, exerciseId);
+      Boolean isCorrect = correctMultipleChoice(exercise, studentAnswerText);
+      Double grade = gradeOf(isCorrect);
+
+      if (existingAnswer != null) {
+        System.out.println("SERVICE: Atualizando resposta existente para exercício ID " + exerciseId + " do aluno ID " + studentId);
+        existingAnswer.setAnswerText(studentAnswerText);
+        existingAnswer.setSendDate(LocalDateTime.now());
+        existingAnswer.setCorrect(isCorrect);
+        existingAnswer.setGrade(grade);
+        answerDAO.updateAnswer(existingAnswer);
+        return existingAnswer;
       } else {
-        grade = 0.0;
+        System.out.println("SERVICE: Salvando nova resposta para exercício ID " + exerciseId + " do aluno ID " + studentId);
+        StudentsExerciseAnswer newAnswer = new StudentsExerciseAnswer(exerciseId, studentId, classroomId, studentAnswerText);
+        newAnswer.setIdCourse(courseId);
+        newAnswer.setCorrect(isCorrect);
+        newAnswer.setGrade(grade);
+        return answerDAO.saveAnswer(newAnswer);
       }
+    });
+  }
+
+  /**
+   * Submete de uma vez as respostas de um aluno para vários exercícios de uma aula. As
+   * respostas novas são gravadas num único lote; as de exercícios já respondidos são
+   * atualizadas. Respostas vazias são ignoradas.
+   *
+   * @param studentId          ID do aluno.
+   * @param classroomId        ID da aula.
+   * @param courseId           ID do curso ao qual a aula pertence.
+   * @param answersByExercise  Texto da resposta por ID de exercício.
+   * @return As respostas novas gravadas, com ID preenchido, e as recusadas com o motivo.
+   * @throws SQLException             Se ocorrer erro no banco.
+   * @throws IllegalArgumentException Se dados inválidos, entidades não encontradas, ou permissões violadas.
+   */
+  public BatchResult<StudentsExerciseAnswer> submitAnswers(int studentId, int classroomId, int courseId,
+                                                           Map<Integer, String> answersByExercise)
+      throws SQLException, IllegalArgumentException {
+    return UnitOfWork.inTransaction(() -> {
+
+      User student = userDAO.searchById(studentId);
+      if (student == null || student.getUserType() != UserType.STUDENT) {
+        throw new IllegalArgumentException("Aluno com ID " + studentId + " não encontrado ou não é um estudante válido.");
+      }
+      Classroom classroom = classroomDAO.searchById(classroomId);
+      if (classroom == null || classroom.getCourseId() != courseId) {
+        throw new IllegalArgumentException("Aula com ID " + classroomId + " não encontrada ou não pertence ao curso especificado.");
+      }
+      if (!enrollDAO.checkEnroll(studentId, courseId)) {
+        throw new IllegalArgumentException("Aluno não está matriculado no curso para responder exercícios.");
+      }
+
+      Map<Integer, Exercise> exercises = new HashMap<>();
+      for (Exercise exercise : exerciseDAO.listExercisesByClass(classroomId)) {
+        exercises.put(exercise.getExerciseId(), exercise);
+      }
+      Map<Integer, StudentsExerciseAnswer> existingAnswers = new HashMap<>();
+      for (StudentsExerciseAnswer answer : answerDAO.getAnswersByStudentAndClassroom(studentId, classroomId)) {
+        existingAnswers.put(answer.getIdExercise(), answer);
+      }
+
+      List<StudentsExerciseAnswer> newAnswers = new ArrayList<>();
+      for (Map.Entry<Integer, String> entry : answersByExercise.entrySet()) {
+        String answerText = entry.getValue();
+        if (answerText == null || answerText.trim().isEmpty()) {
+          continue;
+        }
+        Exercise exercise = exercises.get(entry.getKey());
+        if (exercise == null) {
+          throw new IllegalArgumentException("Exercício com ID " + entry.getKey() + " não encontrado ou não pertence à aula especificada.");
+        }
+        Boolean isCorrect = correctMultipleChoice(exercise, answerText);
+        StudentsExerciseAnswer existingAnswer = existingAnswers.get(exercise.getExerciseId());
+        if (existingAnswer != null) {
+          existingAnswer.setAnswerText(answerText);
+          existingAnswer.setSendDate(LocalDateTime.now());
+          existingAnswer.setCorrect(isCorrect);
+          existingAnswer.setGrade(gradeOf(isCorrect));
+          answerDAO.updateAnswer(existingAnswer);
+        } else {
+          StudentsExerciseAnswer newAnswer = new StudentsExerciseAnswer(exercise.getExerciseId(), studentId, classroomId, answerText);
+          newAnswer.setIdCourse(courseId);
+          newAnswer.setCorrect(isCorrect);
+          newAnswer.setGrade(gradeOf(isCorrect));
+          newAnswers.add(newAnswer);
+        }
+      }
+      return answerDAO.saveAnswers(newAnswers);
+    });
+  }
+
+  /**
+   * Corrige automaticamente as questões de múltipla escolha; null para os demais tipos.
+   */
+  private static Boolean correctMultipleChoice(Exercise exercise, String answerText) {
+    if (exercise.getExerciseType() != ExerciseType.MULTIPLA_ESCOLHA) {
+      return null;
     }
-    if (existingAnswer != null) {
-      System.out.println("SERVICE: Atualizando resposta existente para exercício ID " + exerciseId + " do aluno ID " + studentId);
-      existingAnswer.setAnswerText(studentAnswerText);
-      existingAnswer.setSendDate(LocalDateTime.now());
-      existingAnswer.setCorrect(isCorrect);
-      existingAnswer.setGrade(grade);
-      answerDAO.updateAnswer(existingAnswer);
-      return existingAnswer;
-    } else {
-      System.out.println("SERVICE: Salvando nova resposta para exercício ID " + exerciseId + " do aluno ID " + studentId);
-      StudentsExerciseAnswer newAnswer = new StudentsExerciseAnswer(exerciseId, studentId, classroomId, studentAnswerText);
-      newAnswer.setIdCourse(courseId);
-      newAnswer.setCorrect(isCorrect);
-      newAnswer.setGrade(grade);
-      return answerDAO.saveAnswer(newAnswer);
+    return Objects.equals(answerText.trim(), exercise.getCorrectAnswer() != null ? exercise.getCorrectAnswer().trim() : null);
+  }
+
+  private static Double gradeOf(Boolean isCorrect) {
+    if (isCorrect == null) {
+      return null;
     }
+    return isCorrect ? 10.0 : 0.0;
   }
 
   /**
@@ -134,4 +220,25 @@ public class StudentsExerciseAnswerService {
   public StudentsExerciseAnswer getStudentAnswerForExercise(int studentId, int exerciseId) throws SQLException {
     return answerDAO.getAnswerByStudentAndExercise(studentId, exerciseId);
   }
+
+  /**
+   * Monta a página de uma aula para o aluno com três consultas: aula + curso + aulas
+   * vizinhas, exercícios da aula e todas as respostas do aluno nessa aula.
+   *
+   * @param idCourse    ID do curso.
+   * @param idClassroom ID da aula.
+   * @param studentId   ID do aluno.
+   * @return A página da aula, ou null se a aula não pertencer ao curso.
+   * @throws SQLException Erro de banco.
+   */
+  public LessonPage loadLessonPage(int idCourse, int idClassroom, int studentId) throws SQLException {
+    return UnitOfWork.readOnly(() -> {
+      LessonPage page = classroomDAO.searchLessonInCourse(idCourse, idClassroom);
+      if (page == null) {
+        return null;
+      }
+      return page.withExercises(exerciseDAO.listExercisesByClass(idClassroom),
+          answerDAO.getAnswersByStudentAndClassroom(studentId, idClassroom));
+    });
+  }
 }
\ No newline at end of file
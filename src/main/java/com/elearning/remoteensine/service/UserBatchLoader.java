@@ -0,0 +1,81 @@
+package com.elearning.remoteensine.service;
+
+import com.elearning.remoteensine.dao.UserDAO;
+import com.elearning.remoteensine.model.User;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Carregador de usuários em lote, no estilo DataLoader: os serviços registram com
+ * {@link #load} o ID e o que fazer com o usuário, e {@link #dispatch()} resolve todos
+ * os IDs pendentes numa única chamada a {@link UserDAO#searchByIds}. IDs repetidos
+ * (o mesmo autor em vários comentários) são buscados uma vez só.
+ * Vale para uma única montagem de resposta; não é thread-safe.
+ *
+ * <pre>
+ * UserBatchLoader users = new UserBatchLoader(userDAO);
+ * for (Comment comment : comments) {
+ *   users.load(comment.getStudentId(), student -> comment.setStudentName(...));
+ * }
+ * users.dispatch();
+ * </pre>
+ */
+public final class UserBatchLoader {
+
+  private final UserDAO userDAO;
+  private final Map<Integer, User> loaded = new HashMap<>();
+  private final Set<Integer> pending = new LinkedHashSet<>();
+  private final List<Request> requests = new ArrayList<>();
+
+  public UserBatchLoader(UserDAO userDAO) {
+    this.userDAO = userDAO;
+  }
+
+  /**
+   * Agenda a busca do usuário. O callback é chamado em {@link #dispatch()}, na ordem
+   * de registro, com o usuário ou null se ele não existir.
+   */
+  public void load(int idUser, Consumer<User> callback) {
+    if (!loaded.containsKey(idUser)) {
+      pending.add(idUser);
+    }
+    requests.add(new Request(idUser, callback));
+  }
+
+  /**
+   * Busca os IDs pendentes e entrega os usuários aos callbacks registrados.
+   *
+   * @throws SQLException Se ocorrer um erro de acesso ao banco de dados.
+   */
+  public void dispatch() throws SQLException {
+    if (!pending.isEmpty()) {
+      Map<Integer, User> found = userDAO.searchByIds(new ArrayList<>(pending));
+      for (Integer idUser : pending) {
+        loaded.put(idUser, found.get(idUser));
+      }
+      pending.clear();
+    }
+    List<Request> ready = new ArrayList<>(requests);
+    requests.clear();
+    for (Request request : ready) {
+      request.callback.accept(loaded.get(request.idUser));
+    }
+  }
+
+  private static final class Request {
+    private final int idUser;
+    private final Consumer<User> callback;
+
+    private Request(int idUser, Consumer<User> callback) {
+      this.idUser = idUser;
+      this.callback = callback;
+    }
+  }
+}
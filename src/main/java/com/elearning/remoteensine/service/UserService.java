@@ -72,7 +72,7 @@ public class UserService {
    * @throws SQLException Se ocorrer um erro durante a operação com o banco de dados.
    */
   public User validateLogin(String email, String purePassword) throws SQLException {
-    User bdUser = userDAO.searchByEmail(email);
+    User bdUser = userDAO.searchCredentialsByEmail(email);
     if (bdUser != null) {
       if (BCrypt.checkpw(purePassword, bdUser.getPassword())) {
         return bdUser;
@@ -2,6 +2,7 @@ package com.elearning.remoteensine.service;
 
 import com.elearning.remoteensine.dao.VisitorQuestionDAO;
 import com.elearning.remoteensine.dao.UserDAO;
+import com.elearning.remoteensine.dao.KeysetPage;
 import com.elearning.remoteensine.model.VisitorQuestion;
 import com.elearning.remoteensine.model.Professor;
 import com.elearning.remoteensine.model.User;
@@ -118,6 +119,20 @@ public class VisitorQuestionService {
     return questionDAO.listAllQuestions(onlyUnanswered);
   }
 
+  /**
+   * Lista uma página das perguntas de visitantes (mais recentes primeiro).
+   *
+   * @param onlyUnanswered true para listar apenas perguntas sem resposta.
+   * @param cursor Cursor da página anterior, ou null para a primeira página.
+   * @param size Quantidade de perguntas por página.
+   * @return Página de perguntas.
+   * @throws SQLException Erro de banco.
+   * @throws IllegalArgumentException Se o cursor for inválido.
+   */
+  public KeysetPage<VisitorQuestion> listQuestionsPage(boolean onlyUnanswered, String cursor, int size) throws SQLException {
+    return questionDAO.listQuestionsPage(onlyUnanswered, cursor, size);
+  }
+
   /**
    * Deleta uma pergunta de visitante (ex: por um administrador ou professor).
    * @param idQuestion ID da pergunta a ser deletada.
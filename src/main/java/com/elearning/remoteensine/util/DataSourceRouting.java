@@ -0,0 +1,85 @@
+package com.elearning.remoteensine.util;
+
+/**
+ * Estado de roteamento primário/réplica da thread atual.
+ * Os DAOs marcam leituras que podem ir para uma réplica; as demais conexões vêm do
+ * primário. Uma escrita executada (executeUpdate/executeBatch ou o commit de uma
+ * {@link UnitOfWork}) fixa a thread no primário até o fim da requisição (e, via
+ * {@link ReadYourWritesFilter}, a sessão por uma janela curta); só pegar uma conexão
+ * do primário para ler não fixa nada. Threads de fundo chamam {@link #reset()} num
+ * finally ao fim de cada tarefa, ou ficariam fixadas para sempre.
+ */
+public final class DataSourceRouting {
+
+  private static final ThreadLocal<Boolean> READ_REQUESTED = ThreadLocal.withInitial(() -> false);
+  private static final ThreadLocal<Long> PINNED_UNTIL = ThreadLocal.withInitial(() -> 0L);
+  private static final ThreadLocal<Boolean> WROTE = ThreadLocal.withInitial(() -> false);
+  private static final ThreadLocal<Runnable> ON_FIRST_WRITE = new ThreadLocal<>();
+
+  private DataSourceRouting() {
+  }
+
+  /**
+   * Marca que a próxima conexão pedida nesta thread é somente leitura.
+   *
+   * @return O valor anterior, a ser devolvido em {@link #endRead(boolean)}.
+   */
+  public static boolean beginRead() {
+    boolean previous = READ_REQUESTED.get();
+    READ_REQUESTED.set(true);
+    return previous;
+  }
+
+  public static void endRead(boolean previous) {
+    READ_REQUESTED.set(previous);
+  }
+
+  public static boolean isReadRequested() {
+    return READ_REQUESTED.get();
+  }
+
+  /**
+   * @return true se as leituras desta thread devem ir ao primário (escrita recente).
+   */
+  public static boolean isPinnedToPrimary() {
+    return WROTE.get() || PINNED_UNTIL.get() > System.currentTimeMillis();
+  }
+
+  public static void pinUntil(long epochMillis) {
+    PINNED_UNTIL.set(epochMillis);
+  }
+
+  /**
+   * Chamado a cada escrita executada; só a primeira da thread aciona o aviso de
+   * {@link #onFirstWrite}.
+   */
+  public static void recordWrite() {
+    if (WROTE.get()) {
+      return;
+    }
+    WROTE.set(true);
+    Runnable listener = ON_FIRST_WRITE.get();
+    if (listener != null) {
+      listener.run();
+    }
+  }
+
+  /**
+   * Registra o que fazer na primeira escrita desta thread, ainda durante a escrita e
+   * antes de a resposta ser enviada. Vale até o {@link #reset()}.
+   */
+  public static void onFirstWrite(Runnable listener) {
+    ON_FIRST_WRITE.set(listener);
+  }
+
+  public static boolean wroteInCurrentRequest() {
+    return WROTE.get();
+  }
+
+  public static void reset() {
+    READ_REQUESTED.remove();
+    PINNED_UNTIL.remove();
+    WROTE.remove();
+    ON_FIRST_WRITE.remove();
+  }
+}
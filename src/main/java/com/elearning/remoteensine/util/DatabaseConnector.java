@@ -1,16 +1,38 @@
 package com.elearning.remoteensine.util;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Component;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Ponto único de obtenção de conexões JDBC para os DAOs.
+ * Por padrão entrega conexões de um pool limitado (HikariCP); com
+ * {@code app.datasource.pool.enabled=false} volta a abrir uma conexão
+ * nova via {@link DriverManager} a cada chamada.
+ * Com {@code app.datasource.replica-urls} preenchido, leituras marcadas pelos DAOs
+ * (ver {@link DataSourceRouting}) são distribuídas entre as réplicas; escritas e
+ * leituras logo após uma escrita vão sempre ao primário.
+ */
 @Component
 public class DatabaseConnector {
 
+  private static final Logger log = LoggerFactory.getLogger(DatabaseConnector.class);
+
   @Value("${spring.datasource.url}")
   private String URL;
 
@@ -20,13 +42,190 @@ public class DatabaseConnector {
   @Value("${spring.datasource.password}")
   private String PASSWORD;
 
+  @Value("${app.datasource.pool.enabled:true}")
+  private boolean poolEnabled;
+
+  @Value("${app.datasource.pool.maximum-size:10}")
+  private int maximumPoolSize;
+
+  @Value("${app.datasource.pool.minimum-idle:2}")
+  private int minimumIdle;
+
+  @Value("${app.datasource.pool.connection-timeout-ms:3000}")
+  private long connectionTimeoutMs;
+
+  @Value("${app.datasource.pool.validation-timeout-ms:1000}")
+  private long validationTimeoutMs;
+
+  @Value("${app.datasource.pool.idle-timeout-ms:300000}")
+  private long idleTimeoutMs;
+
+  @Value("${app.datasource.pool.max-lifetime-ms:1800000}")
+  private long maxLifetimeMs;
+
+  @Value("${app.datasource.pool.keepalive-ms:120000}")
+  private long keepaliveMs;
+
+  @Value("${app.datasource.pool.leak-detection-threshold-ms:20000}")
+  private long leakDetectionThresholdMs;
+
+  @Value("${app.datasource.statement-cache.size:250}")
+  private int statementCacheSize;
+
+  @Value("${app.datasource.statement-cache.sql-limit:2048}")
+  private int statementCacheSqlLimit;
+
+  @Value("${app.datasource.replica-urls:}")
+  private String replicaUrls;
+
+  @Value("${app.datasource.slow-query-threshold-ms:200}")
+  private long slowQueryThresholdMs;
+
+  private HikariDataSource dataSource;
+  private final List<String> replicaJdbcUrls = new ArrayList<>();
+  private final List<HikariDataSource> replicaDataSources = new ArrayList<>();
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  private final LongAdder checkoutCount = new LongAdder();
+  private final LongAdder checkoutNanos = new LongAdder();
+  private final AtomicLong maxCheckoutNanos = new AtomicLong();
+
+  @PostConstruct
+  public void init() {
+    for (String replicaUrl : replicaUrls.split(",")) {
+      if (!replicaUrl.isBlank()) {
+        replicaJdbcUrls.add(replicaUrl.trim());
+      }
+    }
+    if (!poolEnabled) {
+      return;
+    }
+    dataSource = createPool("ensinoremoto-pool", URL);
+    for (int i = 0; i < replicaJdbcUrls.size(); i++) {
+      replicaDataSources.add(createPool("ensinoremoto-replica-" + (i + 1), replicaJdbcUrls.get(i)));
+    }
+  }
+
+  private HikariDataSource createPool(String poolName, String jdbcUrl) {
+    HikariConfig config = new HikariConfig();
+    config.setPoolName(poolName);
+    config.setJdbcUrl(jdbcUrl);
+    config.setUsername(USER);
+    config.setPassword(PASSWORD);
+    config.setMaximumPoolSize(maximumPoolSize);
+    config.setMinimumIdle(Math.min(minimumIdle, maximumPoolSize));
+    config.setConnectionTimeout(connectionTimeoutMs);
+    config.setValidationTimeout(validationTimeoutMs);
+    config.setIdleTimeout(idleTimeoutMs);
+    config.setMaxLifetime(maxLifetimeMs);
+    config.setKeepaliveTime(keepaliveMs);
+    config.setLeakDetectionThreshold(leakDetectionThresholdMs);
+    // Prepared statements do lado do servidor, mantidos em cache por conexão física do pool.
+    config.addDataSourceProperty("useServerPrepStmts", "true");
+    config.addDataSourceProperty("cachePrepStmts", "true");
+    config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(statementCacheSize));
+    config.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(statementCacheSqlLimit));
+    // addBatch/executeBatch de INSERT vira um único INSERT multi-valores.
+    config.addDataSourceProperty("rewriteBatchedStatements", "true");
+    // Não derruba a aplicação se o banco estiver fora no startup (mesmo comportamento do DriverManager).
+    config.setInitializationFailTimeout(-1);
+    return new HikariDataSource(config);
+  }
+
+  /**
+   * Conexão do primário, ou de uma réplica quando o DAO marcou a chamada como leitura
+   * e a thread não está fixada no primário. Se a réplica falhar, cai para o primário.
+   * Dentro de uma {@link UnitOfWork} devolve sempre a conexão ligada à unidade.
+   */
   public Connection getConnection() throws SQLException {
-    System.out.println("URL utilizada: " + URL);
-    System.out.println("USER: " + USER);
-    System.out.println("Tentando conectar...");
-    Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
-    System.out.println("✅ Conectado com sucesso!");
+    UnitOfWork.Binding unit = UnitOfWork.current();
+    if (unit != null) {
+      if (!unit.isBound()) {
+        unit.bind(unit.isReadOnly() ? routedReadConnection() : getPrimaryConnection());
+      }
+      return unit.connectionForDao();
+    }
+    if (DataSourceRouting.isReadRequested()) {
+      return routedReadConnection();
+    }
+    return getPrimaryConnection();
+  }
+
+  private Connection routedReadConnection() throws SQLException {
+    if (!replicaJdbcUrls.isEmpty() && !DataSourceRouting.isPinnedToPrimary()) {
+      try {
+        return getReplicaConnection();
+      } catch (SQLException e) {
+        log.warn("Réplica indisponível, usando o primário: {}", e.getMessage());
+      }
+    }
+    return getPrimaryConnection();
+  }
+
+  private Connection getPrimaryConnection() throws SQLException {
+    if (dataSource == null) {
+      return DriverManager.getConnection(URL, USER, PASSWORD);
+    }
+    long start = System.nanoTime();
+    Connection conn = dataSource.getConnection();
+    recordCheckout(System.nanoTime() - start);
     return conn;
-//      return DriverManager.getConnection(URL, USER, PASSWORD);
+  }
+
+  private Connection getReplicaConnection() throws SQLException {
+    int index = Math.floorMod(nextReplica.getAndIncrement(), replicaJdbcUrls.size());
+    if (replicaDataSources.isEmpty()) {
+      return DriverManager.getConnection(replicaJdbcUrls.get(index), USER, PASSWORD);
+    }
+    return replicaDataSources.get(index).getConnection();
+  }
+
+  private void recordCheckout(long nanos) {
+    checkoutCount.increment();
+    checkoutNanos.add(nanos);
+    maxCheckoutNanos.accumulateAndGet(nanos, Math::max);
+  }
+
+  public boolean isPooled() {
+    return dataSource != null;
+  }
+
+  /**
+   * Retrato do pool no momento da chamada: conexões ativas/ociosas,
+   * threads esperando e latência de checkout acumulada desde o startup.
+   */
+  public PoolStats getPoolStats() {
+    long count = checkoutCount.sum();
+    long avgMicros = count == 0 ? 0 : checkoutNanos.sum() / count / 1_000;
+    long maxMicros = maxCheckoutNanos.get() / 1_000;
+    if (dataSource == null || dataSource.getHikariPoolMXBean() == null) {
+      return new PoolStats(false, 0, 0, 0, 0, 0, count, avgMicros, maxMicros);
+    }
+    HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+    return new PoolStats(true, pool.getActiveConnections(), pool.getIdleConnections(),
+        pool.getTotalConnections(), pool.getThreadsAwaitingConnection(), maximumPoolSize,
+        count, avgMicros, maxMicros);
+  }
+
+  /**
+   * Execuções de instruções dos DAOs acima deste tempo vão para o log de consultas lentas;
+   * 0 desliga o log.
+   */
+  public long getSlowQueryThresholdMs() {
+    return slowQueryThresholdMs;
+  }
+
+  public int getReplicaCount() {
+    return replicaJdbcUrls.size();
+  }
+
+  @PreDestroy
+  public void close() {
+    if (dataSource != null) {
+      dataSource.close();
+    }
+    for (HikariDataSource replica : replicaDataSources) {
+      replica.close();
+    }
   }
 }
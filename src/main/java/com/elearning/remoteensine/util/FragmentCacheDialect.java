@@ -0,0 +1,249 @@
+package com.elearning.remoteensine.util;
+
+import com.elearning.remoteensine.dao.BoundedCache;
+import com.elearning.remoteensine.dao.CacheStats;
+import com.elearning.remoteensine.dao.InvalidationBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.dialect.AbstractProcessorDialect;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.inline.NoOpInliner;
+import org.thymeleaf.model.IModel;
+import org.thymeleaf.model.IModelFactory;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.IProcessor;
+import org.thymeleaf.processor.element.AbstractAttributeModelProcessor;
+import org.thymeleaf.processor.element.IElementModelStructureHandler;
+import org.thymeleaf.standard.StandardDialect;
+import org.thymeleaf.standard.expression.StandardExpressions;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Atributo {@code cache:fragment} dos templates: guarda o HTML renderizado do elemento
+ * (com tudo o que ele contém) sob a chave informada, e as próximas páginas com a mesma
+ * chave recebem o HTML pronto, sem avaliar nada dentro do elemento.
+ * <p>
+ * A chave é uma expressão avaliada antes dos atributos th:* do próprio elemento, e deve
+ * identificar a entidade e a sua versão, além de tudo o que muda o trecho para quem o vê
+ * (ex.: ser o professor dono). Como a versão faz parte da chave, nada precisa ser
+ * invalidado: uma versão nova simplesmente não encontra o HTML antigo, que sai do cache
+ * pela política W-TinyLFU de {@link BoundedCache}. Trechos personalizados (botão de
+ * matrícula, notas) ficam fora dos elementos em cache.
+ * <p>
+ * A chave também leva as variáveis que o elemento lê e que a expressão da chave não cita:
+ * valores simples (texto, número, booleano, enum) entram na chave pelo valor; um objeto
+ * só pode ser lido se aparecer na chave, que responde pela versão dele, e um elemento que
+ * lê um objeto fora da chave é processado a cada página, sem cache.
+ * <pre>
+ * &lt;div class="course-card" cache:fragment="${'course-card:' + curso.idCourse + ':' + curso.version}"&gt;
+ * </pre>
+ * O cache é dividido em {@link #SHARDS} partes pelo hash da chave, cada uma com o seu
+ * lock, para que as páginas renderizadas ao mesmo tempo não esperem umas pelas outras.
+ */
+@Component
+public class FragmentCacheDialect extends AbstractProcessorDialect {
+
+  public static final String PREFIX = "cache";
+
+  private static final Logger log = LoggerFactory.getLogger(FragmentCacheDialect.class);
+
+  /** Entradas de alguns KB cada: cards do catálogo e listas de aulas. */
+  static final int FRAGMENT_CACHE_CAPACITY = 2_000;
+  /** Potência de 2; cada parte fica com 1/SHARDS da capacidade. */
+  static final int SHARDS = 16;
+
+  /** Corpo de uma expressão ${...}, inclusive dentro de @{...} e [[...]]. */
+  private static final Pattern VARIABLE_EXPRESSION = Pattern.compile("\\$\\{([^}]*)}");
+  private static final Pattern STRING_LITERAL = Pattern.compile("'[^']*'");
+  /** Nome no início de um caminho: não vem depois de ".", "#" ou "@". */
+  private static final Pattern ROOT_NAME = Pattern.compile("(?<![\\w.#@$])[A-Za-z_]\\w*");
+
+  /**
+   * Chave: nome do template + chave do atributo + variáveis simples lidas fora da chave,
+   * para que trechos de templates diferentes com a mesma chave não se misturem.
+   */
+  @SuppressWarnings("unchecked")
+  private final BoundedCache<String, String>[] fragments = new BoundedCache[SHARDS];
+
+  /**
+   * Variáveis que cada elemento lê e que a chave não cita, por template + expressão da
+   * chave. Calculado no primeiro uso; há uma entrada por cache:fragment dos templates.
+   */
+  private final Map<String, String[]> readsOutsideKey = new ConcurrentHashMap<>();
+  private final Set<String> warnedFragments = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Segue o cache de templates do Thymeleaf: em desenvolvimento (devtools) os templates
+   * são relidos a cada página, e os trechos também não são guardados.
+   */
+  private final boolean enabled;
+
+  private final InvalidationBus invalidationBus;
+
+  public FragmentCacheDialect(@Value("${spring.thymeleaf.cache:true}") boolean enabled,
+                              InvalidationBus invalidationBus) {
+    // Antes do dialeto padrão: o elemento inteiro, com os seus th:each/th:if, vai para o cache.
+    super("Fragment Cache", PREFIX, StandardDialect.PROCESSOR_PRECEDENCE - 100);
+    this.enabled = enabled;
+    this.invalidationBus = invalidationBus;
+    for (int i = 0; i < SHARDS; i++) {
+      fragments[i] = new BoundedCache<>("fragment", FRAGMENT_CACHE_CAPACITY / SHARDS, null);
+    }
+  }
+
+  @Override
+  public Set<IProcessor> getProcessors(String dialectPrefix) {
+    return Set.of(new FragmentProcessor(dialectPrefix));
+  }
+
+  /**
+   * @return A soma das partes do cache.
+   */
+  public CacheStats getCacheStats() {
+    int capacity = 0;
+    int size = 0;
+    long hits = 0;
+    long misses = 0;
+    long evictions = 0;
+    long rejections = 0;
+    for (BoundedCache<String, String> shard : fragments) {
+      CacheStats stats = shard.stats();
+      capacity += stats.getCapacity();
+      size += stats.getSize();
+      hits += stats.getHits();
+      misses += stats.getMisses();
+      evictions += stats.getEvictions();
+      rejections += stats.getRejections();
+    }
+    return new CacheStats("fragment", capacity, size, hits, misses, evictions, rejections);
+  }
+
+  private BoundedCache<String, String> shardFor(String key) {
+    int hash = key.hashCode();
+    return fragments[(hash ^ (hash >>> 16)) & (SHARDS - 1)];
+  }
+
+  /**
+   * Nomes de variável no início dos caminhos das expressões ${...} do texto, sem o que
+   * está entre aspas simples. Inclui palavras como "and" ou "null", que não são variáveis
+   * do contexto e são ignoradas depois.
+   */
+  static Set<String> variableNames(String markup) {
+    Set<String> names = new LinkedHashSet<>();
+    Matcher expression = VARIABLE_EXPRESSION.matcher(markup);
+    while (expression.find()) {
+      String body = STRING_LITERAL.matcher(expression.group(1)).replaceAll("''");
+      Matcher name = ROOT_NAME.matcher(body);
+      while (name.find()) {
+        names.add(name.group());
+      }
+    }
+    return names;
+  }
+
+  private final class FragmentProcessor extends AbstractAttributeModelProcessor {
+
+    private static final String ATTRIBUTE = "fragment";
+
+    private FragmentProcessor(String dialectPrefix) {
+      super(TemplateMode.HTML, dialectPrefix, null, false, ATTRIBUTE, true, 0, false);
+    }
+
+    @Override
+    protected void doProcess(ITemplateContext context, IModel model, AttributeName attributeName,
+                             String attributeValue, IElementModelStructureHandler structureHandler) {
+      IModelFactory modelFactory = context.getModelFactory();
+      IProcessableElementTag openTag = (IProcessableElementTag) model.get(0);
+      model.replace(0, modelFactory.removeAttribute(openTag, attributeName));
+      // Com o barramento de invalidação atrasado, as versões das chaves não são confiáveis.
+      if (!enabled || !invalidationBus.cachesEnabled()) {
+        return;
+      }
+
+      Object key = StandardExpressions.getExpressionParser(context.getConfiguration())
+          .parseExpression(context, attributeValue)
+          .execute(context);
+      if (key == null || key.toString().isBlank()) {
+        // Sem chave, o elemento é processado normalmente, a cada página.
+        return;
+      }
+      String fragmentId = context.getTemplateData().getTemplate() + "|" + attributeValue;
+      String[] reads = readsOutsideKey.computeIfAbsent(fragmentId, id -> readsOutsideKey(model, attributeValue));
+      StringBuilder keyBuilder = new StringBuilder(context.getTemplateData().getTemplate()).append('|').append(key);
+      for (String name : reads) {
+        if (!context.containsVariable(name)) {
+          continue;
+        }
+        Object value = context.getVariable(name);
+        if (value != null && !isSimpleValue(value)) {
+          if (warnedFragments.add(fragmentId)) {
+            log.warn("cache:fragment {} lê o objeto '{}' fora da chave; o trecho não será guardado.",
+                fragmentId, name);
+          }
+          return;
+        }
+        keyBuilder.append('|').append(name).append('=').append(value);
+      }
+      String cacheKey = keyBuilder.toString();
+      BoundedCache<String, String> shard = shardFor(cacheKey);
+      String html = shard.get(cacheKey);
+      if (html == null) {
+        html = render(context, model);
+        shard.put(cacheKey, html);
+      }
+      model.reset();
+      model.add(modelFactory.createText(html));
+      // O HTML já está pronto: "[[...]]" vindo de um título ou descrição não é expressão.
+      structureHandler.setInliner(NoOpInliner.INSTANCE);
+    }
+
+    private static String[] readsOutsideKey(IModel model, String attributeValue) {
+      Set<String> names = variableNames(markup(model));
+      names.removeAll(variableNames(attributeValue));
+      return names.toArray(new String[0]);
+    }
+
+    private static boolean isSimpleValue(Object value) {
+      return value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+          || value instanceof Character || value instanceof Enum;
+    }
+
+    private static String markup(IModel model) {
+      StringWriter markup = new StringWriter();
+      try {
+        model.write(markup);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return markup.toString();
+    }
+
+    /**
+     * Processa o elemento à parte, com as mesmas variáveis da página, como o
+     * {@code th:inline} faz com o texto de um elemento.
+     */
+    private static String render(ITemplateContext context, IModel model) {
+      TemplateManager templateManager = context.getConfiguration().getTemplateManager();
+      TemplateModel fragment = templateManager.parseString(context.getTemplateData(), markup(model),
+          0, 0, context.getTemplateMode(), false);
+      StringWriter html = new StringWriter();
+      templateManager.process(fragment, context, html);
+      return html.toString();
+    }
+  }
+}
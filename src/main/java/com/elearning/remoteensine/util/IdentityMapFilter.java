@@ -0,0 +1,37 @@
+package com.elearning.remoteensine.util;
+
+import com.elearning.remoteensine.dao.IdentityMap;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Abre um {@link IdentityMap} para cada requisição: cursos e usuários buscados por ID
+ * vêm do banco uma vez só, mesmo que vários serviços os validem na mesma requisição.
+ */
+@Component
+public class IdentityMapFilter implements Filter {
+
+  @Value("${app.datasource.identity-map.enabled:true}")
+  private boolean enabled;
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    if (!enabled || !IdentityMap.begin()) {
+      chain.doFilter(request, response);
+      return;
+    }
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      IdentityMap.end();
+    }
+  }
+}
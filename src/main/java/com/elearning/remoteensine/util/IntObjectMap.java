@@ -0,0 +1,144 @@
+package com.elearning.remoteensine.util;
+
+/**
+ * Mapa de chave int para objeto, sem boxing das chaves: endereçamento aberto com
+ * sondagem linear em dois arrays paralelos. Não aceita valores null (null marca a
+ * posição vazia) e não tem remoção; serve para montar um índice uma vez e consultá-lo.
+ *
+ * @param <V> Tipo dos valores.
+ */
+public final class IntObjectMap<V> {
+
+  private static final int MIN_CAPACITY = 8;
+
+  private int[] keys;
+  private Object[] values;
+  private int size;
+
+  public IntObjectMap() {
+    this(MIN_CAPACITY / 2);
+  }
+
+  /**
+   * @param expectedSize Quantidade de entradas esperada; evita redimensionar até esse tamanho.
+   */
+  public IntObjectMap(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < expectedSize * 2) {
+      capacity <<= 1;
+    }
+    keys = new int[capacity];
+    values = new Object[capacity];
+  }
+
+  /**
+   * Associa o valor à chave, substituindo o anterior.
+   *
+   * @return O valor anterior, ou null se a chave não existia.
+   */
+  public V put(int key, V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("IntObjectMap does not accept null values.");
+    }
+    int slot = slotOf(key);
+    @SuppressWarnings("unchecked")
+    V previous = (V) values[slot];
+    keys[slot] = key;
+    values[slot] = value;
+    if (previous == null && ++size * 2 > keys.length) {
+      grow();
+    }
+    return previous;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(int key) {
+    return (V) values[slotOf(key)];
+  }
+
+  public boolean containsKey(int key) {
+    return values[slotOf(key)] != null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Posição da chave, ou a posição vazia onde ela seria inserida.
+   */
+  private int slotOf(int key) {
+    int mask = keys.length - 1;
+    int slot = mix(key) & mask;
+    while (values[slot] != null && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void grow() {
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    keys = new int[oldKeys.length * 2];
+    values = new Object[oldValues.length * 2];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != null) {
+        int slot = slotOf(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /** Espalha IDs sequenciais pela tabela (constante de Fibonacci). */
+  private static int mix(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < keys.length; i++) {
+      if (values[i] != null) {
+        if (sb.length() > 1) {
+          sb.append(", ");
+        }
+        sb.append(keys[i]).append('=').append(values[i]);
+      }
+    }
+    return sb.append('}').toString();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof IntObjectMap)) {
+      return false;
+    }
+    IntObjectMap<?> other = (IntObjectMap<?>) o;
+    if (other.size != size) {
+      return false;
+    }
+    for (int i = 0; i < keys.length; i++) {
+      if (values[i] != null && !values[i].equals(other.get(keys[i]))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (values[i] != null) {
+        hash += keys[i] ^ values[i].hashCode();
+      }
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,97 @@
+package com.elearning.remoteensine.util;
+
+import com.elearning.remoteensine.dao.CacheInvalidationDAO;
+import com.elearning.remoteensine.dao.InvalidationBus;
+import com.elearning.remoteensine.dao.InvalidationTransport;
+import com.elearning.remoteensine.dao.MulticastInvalidationTransport;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Liga o {@link InvalidationBus} com o transporte configurado em
+ * {@code app.invalidation.transport}: "database" (padrão, tabela cache_invalidations),
+ * "multicast" (UDP na rede local) ou "none" (um único nó). Roda depois da inicialização,
+ * quando as migrações já criaram a tabela, e antes das cargas dos caches no mesmo evento
+ * (EnrollDAO, NewsletterDAO): um evento gravado durante uma carga fica acima do cursor
+ * inicial do transporte e é aplicado sobre ela.
+ */
+@Component
+public class InvalidationBusLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(InvalidationBusLifecycle.class);
+
+  private final InvalidationBus invalidationBus;
+  private final CacheInvalidationDAO cacheInvalidationDAO;
+
+  @Value("${app.invalidation.transport:database}")
+  private String transport = "database";
+
+  @Value("${app.invalidation.node-id:}")
+  private String nodeId = "";
+
+  @Value("${app.invalidation.max-staleness-ms:5000}")
+  private long maxStalenessMs = 5000;
+
+  @Value("${app.invalidation.multicast.group:239.255.42.99}")
+  private String multicastGroup = "239.255.42.99";
+
+  @Value("${app.invalidation.multicast.port:45678}")
+  private int multicastPort = 45678;
+
+  @Value("${app.invalidation.multicast.interface:}")
+  private String multicastInterface = "";
+
+  @Value("${app.invalidation.multicast.ttl:1}")
+  private int multicastTtl = 1;
+
+  @Value("${app.invalidation.multicast.heartbeat-ms:1000}")
+  private long multicastHeartbeatMs = 1000;
+
+  public InvalidationBusLifecycle(InvalidationBus invalidationBus, CacheInvalidationDAO cacheInvalidationDAO) {
+    this.invalidationBus = invalidationBus;
+    this.cacheInvalidationDAO = cacheInvalidationDAO;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void start() {
+    try {
+      InvalidationTransport selected = selectTransport();
+      if (selected == null) {
+        log.info("Barramento de invalidação desligado: caches valem só para este nó.");
+        return;
+      }
+      invalidationBus.start(selected, nodeId, maxStalenessMs);
+    } catch (IOException | RuntimeException e) {
+      log.error("Não foi possível iniciar o barramento de invalidação ({})", transport, e);
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    invalidationBus.stop();
+  }
+
+  private InvalidationTransport selectTransport() throws IOException {
+    switch (transport.trim().toLowerCase()) {
+      case "none":
+        return null;
+      case "multicast":
+        return new MulticastInvalidationTransport(multicastGroup, multicastPort, multicastInterface,
+            multicastTtl, multicastHeartbeatMs);
+      case "database":
+        return cacheInvalidationDAO;
+      default:
+        throw new IllegalArgumentException("Unknown invalidation transport: " + transport);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.elearning.remoteensine.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool limitado para carregar em paralelo as partes independentes de uma página.
+ * Cada tarefa ocupa uma conexão, então o pool deve ficar abaixo do tamanho do pool
+ * do {@link DatabaseConnector}. Com a fila cheia, a tarefa roda na própria thread da
+ * requisição (a página fica sequencial, mas não falha).
+ * <p>
+ * A fixação no primário da thread que submete ({@link DataSourceRouting}) é repassada
+ * às tarefas; dentro de uma {@link UnitOfWork} as tarefas rodam na mesma thread, para
+ * continuarem usando a conexão da unidade de trabalho.
+ */
+@Component
+public class PageLoadExecutor implements Executor {
+
+  @Value("${app.page-load.threads:6}")
+  private int threads = 6;
+
+  @Value("${app.page-load.queue-capacity:100}")
+  private int queueCapacity = 100;
+
+  private ThreadPoolExecutor pool;
+
+  @PostConstruct
+  public void init() {
+    AtomicInteger sequence = new AtomicInteger();
+    ThreadFactory factory = runnable -> {
+      Thread thread = new Thread(runnable, "page-load-" + sequence.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.CallerRunsPolicy());
+    pool.allowCoreThreadTimeOut(true);
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    if (pool == null || UnitOfWork.isActive()) {
+      task.run();
+      return;
+    }
+    boolean pinned = DataSourceRouting.isPinnedToPrimary();
+    Thread caller = Thread.currentThread();
+    pool.execute(() -> {
+      if (Thread.currentThread() == caller) {
+        // CallerRunsPolicy: já está na thread da requisição, com o estado dela.
+        task.run();
+        return;
+      }
+      if (pinned) {
+        DataSourceRouting.pinUntil(Long.MAX_VALUE);
+      }
+      try {
+        task.run();
+      } finally {
+        DataSourceRouting.reset();
+      }
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+}
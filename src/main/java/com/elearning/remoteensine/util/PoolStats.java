@@ -0,0 +1,66 @@
+package com.elearning.remoteensine.util;
+
+/**
+ * Valores do pool de conexões expostos em /monitoramento/pool.
+ */
+public class PoolStats {
+  private final boolean pooled;
+  private final int activeConnections;
+  private final int idleConnections;
+  private final int totalConnections;
+  private final int threadsAwaiting;
+  private final int maximumPoolSize;
+  private final long checkoutCount;
+  private final long avgCheckoutMicros;
+  private final long maxCheckoutMicros;
+
+  public PoolStats(boolean pooled, int activeConnections, int idleConnections, int totalConnections,
+                   int threadsAwaiting, int maximumPoolSize, long checkoutCount,
+                   long avgCheckoutMicros, long maxCheckoutMicros) {
+    this.pooled = pooled;
+    this.activeConnections = activeConnections;
+    this.idleConnections = idleConnections;
+    this.totalConnections = totalConnections;
+    this.threadsAwaiting = threadsAwaiting;
+    this.maximumPoolSize = maximumPoolSize;
+    this.checkoutCount = checkoutCount;
+    this.avgCheckoutMicros = avgCheckoutMicros;
+    this.maxCheckoutMicros = maxCheckoutMicros;
+  }
+
+  public boolean isPooled() {
+    return pooled;
+  }
+
+  public int getActiveConnections() {
+    return activeConnections;
+  }
+
+  public int getIdleConnections() {
+    return idleConnections;
+  }
+
+  public int getTotalConnections() {
+    return totalConnections;
+  }
+
+  public int getThreadsAwaiting() {
+    return threadsAwaiting;
+  }
+
+  public int getMaximumPoolSize() {
+    return maximumPoolSize;
+  }
+
+  public long getCheckoutCount() {
+    return checkoutCount;
+  }
+
+  public long getAvgCheckoutMicros() {
+    return avgCheckoutMicros;
+  }
+
+  public long getMaxCheckoutMicros() {
+    return maxCheckoutMicros;
+  }
+}
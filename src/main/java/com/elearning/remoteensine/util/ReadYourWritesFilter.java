@@ -0,0 +1,60 @@
+package com.elearning.remoteensine.util;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Garante leitura das próprias escritas com réplicas: quando uma requisição escreve
+ * no primário, a sessão fica fixada no primário por alguns segundos, cobrindo o
+ * redirect seguinte (ex.: matrícula seguida de GET /cursos/{id}). A fixação é gravada
+ * na sessão já na primeira escrita, antes de a resposta sair, e renovada no fim da
+ * requisição.
+ */
+@Component
+public class ReadYourWritesFilter implements Filter {
+
+  static final String PINNED_UNTIL_ATTRIBUTE = "primaryPinnedUntil";
+
+  @Value("${app.datasource.read-your-writes-ms:5000}")
+  private long stickinessMs;
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    HttpServletRequest httpRequest = request instanceof HttpServletRequest ? (HttpServletRequest) request : null;
+    try {
+      if (httpRequest != null) {
+        HttpSession session = httpRequest.getSession(false);
+        Object pinnedUntil = session != null ? session.getAttribute(PINNED_UNTIL_ATTRIBUTE) : null;
+        if (pinnedUntil instanceof Long) {
+          DataSourceRouting.pinUntil((Long) pinnedUntil);
+        }
+        DataSourceRouting.onFirstWrite(() -> pinSession(httpRequest));
+      }
+      chain.doFilter(request, response);
+    } finally {
+      // A janela conta a partir do fim da requisição; a sessão criada depois da escrita
+      // (ex.: cadastro seguido de login) também é fixada aqui.
+      if (httpRequest != null && DataSourceRouting.wroteInCurrentRequest()) {
+        pinSession(httpRequest);
+      }
+      DataSourceRouting.reset();
+    }
+  }
+
+  private void pinSession(HttpServletRequest request) {
+    HttpSession session = request.getSession(false);
+    if (session != null) {
+      session.setAttribute(PINNED_UNTIL_ATTRIBUTE, System.currentTimeMillis() + stickinessMs);
+    }
+  }
+}
@@ -0,0 +1,313 @@
+package com.elearning.remoteensine.util;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Aplica na inicialização as migrações versionadas de {@code db_scripts/migrations}
+ * ({@code V<versão>__<descrição>.sql}) que ainda não constam em {@code schema_migrations}.
+ * Um lock nomeado do MySQL impede que duas instâncias migrem ao mesmo tempo.
+ * Uma migração já aplicada não pode ser editada: o checksum diferente interrompe o startup.
+ * Uma falha também interrompe o startup. Como o MySQL confirma cada DDL na hora, a migração
+ * que falhou no meio é reexecutada desde o início: os objetos que ela já tinha criado
+ * (tabela, coluna ou índice) são mantidos, e os demais comandos devem ser idempotentes.
+ */
+@Component
+public class SchemaMigrator {
+
+  private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+
+  private static final String LOCATION = "classpath:db_scripts/migrations/V*__*.sql";
+
+  private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+  private static final String LOCK_NAME = "ensinoremoto.schema_migrations";
+  private static final int LOCK_TIMEOUT_SECONDS = 60;
+  /**
+   * Erros de objeto já existente (ER_TABLE_EXISTS_ERROR, ER_DUP_FIELDNAME, ER_DUP_KEYNAME):
+   * banco criado pelo schema.sql antigo ou migração interrompida depois de parte dos comandos.
+   */
+  private static final Set<Integer> ALREADY_EXISTS = Set.of(1050, 1060, 1061);
+
+  private final DatabaseConnector databaseConnector;
+
+  @Value("${app.datasource.migrations.enabled:true}")
+  private boolean enabled;
+
+  public SchemaMigrator(DatabaseConnector databaseConnector) {
+    this.databaseConnector = databaseConnector;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (!enabled) {
+      return;
+    }
+    try (Connection conn = databaseConnector.getConnection()) {
+      int applied = migrate(conn);
+      log.info("Migrações de esquema aplicadas: {}.", applied);
+    } catch (SQLException e) {
+      throw new IllegalStateException("Could not apply schema migrations.", e);
+    }
+  }
+
+  /**
+   * Aplica, em ordem de versão, as migrações pendentes na conexão informada.
+   *
+   * @return Quantidade de migrações aplicadas.
+   * @throws IllegalStateException se uma migração aplicada foi alterada depois.
+   */
+  public static int migrate(Connection conn) throws SQLException {
+    return migrate(conn, loadMigrations());
+  }
+
+  static int migrate(Connection conn, List<Migration> migrations) throws SQLException {
+    acquireLock(conn);
+    try {
+      createHistoryTable(conn);
+      Map<Integer, Long> applied = appliedChecksums(conn);
+      int count = 0;
+      for (Migration migration : migrations) {
+        Long checksum = applied.get(migration.version);
+        if (checksum != null) {
+          if (checksum != migration.checksum) {
+            throw new IllegalStateException("Migration " + migration.fileName + " was changed after being applied.");
+          }
+          continue;
+        }
+        long start = System.nanoTime();
+        for (String statement : migration.statements) {
+          execute(conn, statement);
+        }
+        recordApplied(conn, migration, (System.nanoTime() - start) / 1_000_000);
+        count++;
+      }
+      return count;
+    } finally {
+      releaseLock(conn);
+    }
+  }
+
+  private static List<Migration> loadMigrations() {
+    List<Migration> migrations = new ArrayList<>();
+    try {
+      for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+        if (!FILE_NAME.matcher(resource.getFilename()).matches()) {
+          continue;
+        }
+        try (InputStream in = resource.getInputStream()) {
+          migrations.add(parse(resource.getFilename(), new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read schema migrations.", e);
+    }
+    return ordered(migrations);
+  }
+
+  /**
+   * Monta a migração a partir do nome do arquivo e do conteúdo do script.
+   *
+   * @return A migração, ou null se o nome não seguir {@code V<versão>__<descrição>.sql}.
+   */
+  static Migration parse(String fileName, String script) {
+    Matcher matcher = FILE_NAME.matcher(fileName);
+    if (!matcher.matches()) {
+      return null;
+    }
+    return new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '), fileName, script);
+  }
+
+  /**
+   * Ordena por versão numérica (V10 depois de V2).
+   *
+   * @throws IllegalStateException se duas migrações tiverem a mesma versão.
+   */
+  static List<Migration> ordered(List<Migration> unordered) {
+    List<Migration> migrations = new ArrayList<>(unordered);
+    migrations.sort(Comparator.comparingInt(migration -> migration.version));
+    for (int i = 1; i < migrations.size(); i++) {
+      if (migrations.get(i).version == migrations.get(i - 1).version) {
+        throw new IllegalStateException("Duplicated schema migration version " + migrations.get(i).version + ".");
+      }
+    }
+    return migrations;
+  }
+
+  /**
+   * Divide o script em instruções no ';', sem considerar os que estão dentro de literais
+   * ({@code '...'}, {@code "..."}, {@code `...`}) ou de comentários ({@code --}, {@code #} e de bloco).
+   * Os comentários são removidos; linhas só de comentário somem por inteiro.
+   */
+  static List<String> splitStatements(String script) {
+    List<String> statements = new ArrayList<>();
+    StringBuilder sql = new StringBuilder();
+    char quote = 0;
+    boolean inBlockComment = false;
+    for (String line : script.split("\\R")) {
+      if (quote == 0 && !inBlockComment && line.trim().startsWith("--")) {
+        continue;
+      }
+      int i = 0;
+      while (i < line.length()) {
+        char c = line.charAt(i);
+        if (inBlockComment) {
+          if (line.startsWith("*/", i)) {
+            inBlockComment = false;
+            i++;
+          }
+        } else if (quote != 0) {
+          sql.append(c);
+          if (c == '\\' && quote != '`' && i + 1 < line.length()) {
+            sql.append(line.charAt(++i));
+          } else if (c == quote) {
+            // Aspas dobradas ('') fecham e reabrem o literal.
+            quote = 0;
+          }
+        } else if (c == '\'' || c == '"' || c == '`') {
+          quote = c;
+          sql.append(c);
+        } else if (c == '#' || isDashComment(line, i)) {
+          break;
+        } else if (line.startsWith("/*", i)) {
+          inBlockComment = true;
+          sql.append(' ');
+          i++;
+        } else if (c == ';') {
+          addStatement(statements, sql);
+        } else {
+          sql.append(c);
+        }
+        i++;
+      }
+      sql.append('\n');
+    }
+    addStatement(statements, sql);
+    return statements;
+  }
+
+  /** No MySQL, {@code --} só abre comentário quando seguido de espaço ou fim de linha. */
+  private static boolean isDashComment(String line, int i) {
+    return line.startsWith("--", i) && (i + 2 == line.length() || Character.isWhitespace(line.charAt(i + 2)));
+  }
+
+  private static void addStatement(List<String> statements, StringBuilder sql) {
+    if (!sql.toString().isBlank()) {
+      statements.add(sql.toString().trim());
+    }
+    sql.setLength(0);
+  }
+
+  private static void execute(Connection conn, String sql) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute(sql);
+    } catch (SQLException e) {
+      if (!ALREADY_EXISTS.contains(e.getErrorCode())) {
+        throw e;
+      }
+      log.info("Objeto já existente, mantido: {}", e.getMessage());
+    }
+  }
+
+  private static void createHistoryTable(Connection conn) throws SQLException {
+    execute(conn, "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+        "version INT PRIMARY KEY, " +
+        "description VARCHAR(255) NOT NULL, " +
+        "checksum BIGINT NOT NULL, " +
+        "execution_ms BIGINT NOT NULL, " +
+        "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+        ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+  }
+
+  private static Map<Integer, Long> appliedChecksums(Connection conn) throws SQLException {
+    Map<Integer, Long> applied = new HashMap<>();
+    try (Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+      while (rs.next()) {
+        applied.put(rs.getInt(1), rs.getLong(2));
+      }
+    }
+    return applied;
+  }
+
+  private static void recordApplied(Connection conn, Migration migration, long elapsedMs) throws SQLException {
+    try (PreparedStatement pstmt = conn.prepareStatement(
+        "INSERT INTO schema_migrations (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)")) {
+      pstmt.setInt(1, migration.version);
+      pstmt.setString(2, migration.description);
+      pstmt.setLong(3, migration.checksum);
+      pstmt.setLong(4, elapsedMs);
+      pstmt.executeUpdate();
+    }
+  }
+
+  private static void acquireLock(Connection conn) throws SQLException {
+    try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+      pstmt.setString(1, LOCK_NAME);
+      pstmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        if (!rs.next() || rs.getInt(1) != 1) {
+          throw new SQLException("Timed out waiting for the schema migration lock.");
+        }
+      }
+    }
+  }
+
+  private static void releaseLock(Connection conn) {
+    try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+      pstmt.setString(1, LOCK_NAME);
+      pstmt.executeQuery().close();
+    } catch (SQLException e) {
+      log.warn("Falha ao liberar o lock de migração: {}", e.getMessage());
+    }
+  }
+
+  static final class Migration {
+    private final int version;
+    private final String description;
+    private final String fileName;
+    private final long checksum;
+    private final List<String> statements;
+
+    private Migration(int version, String description, String fileName, String script) {
+      this.version = version;
+      this.description = description;
+      this.fileName = fileName;
+      this.statements = splitStatements(script);
+      // Calculado sobre as instruções, então comentários e fim de linha (CRLF/LF) não contam.
+      CRC32 crc = new CRC32();
+      crc.update(String.join(";\n", statements).getBytes(StandardCharsets.UTF_8));
+      this.checksum = crc.getValue();
+    }
+
+    int getVersion() {
+      return version;
+    }
+
+    long getChecksum() {
+      return checksum;
+    }
+  }
+}
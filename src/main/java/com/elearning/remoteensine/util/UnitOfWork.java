@@ -0,0 +1,201 @@
+package com.elearning.remoteensine.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unidade de trabalho: todas as chamadas de DAO feitas dentro de
+ * {@link #inTransaction(Work)} ou {@link #readOnly(Work)} compartilham uma única
+ * conexão, obtida no primeiro acesso ao banco e confirmada (ou desfeita) no final.
+ * Unidades aninhadas participam da unidade externa.
+ *
+ * <pre>
+ * return UnitOfWork.inTransaction(() -> {
+ *   if (enrollDAO.checkEnroll(idStudent, idCourse)) { ... }
+ *   return enrollDAO.enrollmentStudent(idStudent, idCourse);
+ * });
+ * </pre>
+ */
+public final class UnitOfWork {
+
+  private static final Logger log = LoggerFactory.getLogger(UnitOfWork.class);
+
+  @FunctionalInterface
+  public interface Work<T, E extends Exception> {
+    T run() throws E;
+  }
+
+  private static final ThreadLocal<Binding> CURRENT = new ThreadLocal<>();
+
+  private UnitOfWork() {
+  }
+
+  /**
+   * Executa o trabalho numa transação no primário. Confirma se terminar normalmente,
+   * desfaz se lançar qualquer exceção.
+   */
+  public static <T, E extends Exception> T inTransaction(Work<T, E> work) throws E, SQLException {
+    return execute(work, false);
+  }
+
+  /**
+   * Executa o trabalho numa transação somente leitura, que pode ser atendida por uma réplica.
+   */
+  public static <T, E extends Exception> T readOnly(Work<T, E> work) throws E, SQLException {
+    return execute(work, true);
+  }
+
+  public static boolean isActive() {
+    return CURRENT.get() != null;
+  }
+
+  /**
+   * Agenda uma ação para depois do commit da unidade atual (ex.: descartar um cache só
+   * depois que outras conexões já enxergam a escrita). Se a unidade for desfeita, a ação
+   * é descartada: o banco voltou ao estado que os caches já refletiam. Sem unidade
+   * ativa, a ação roda na hora.
+   */
+  public static void afterCompletion(Runnable action) {
+    Binding binding = CURRENT.get();
+    if (binding == null) {
+      action.run();
+      return;
+    }
+    binding.completionActions.add(action);
+  }
+
+  private static <T, E extends Exception> T execute(Work<T, E> work, boolean readOnly) throws E, SQLException {
+    Binding outer = CURRENT.get();
+    if (outer != null) {
+      if (outer.readOnly && !readOnly) {
+        throw new IllegalStateException("Read-write unit of work cannot run inside a read-only one.");
+      }
+      return work.run();
+    }
+
+    Binding binding = new Binding(readOnly);
+    CURRENT.set(binding);
+    boolean success = false;
+    try {
+      T result = work.run();
+      success = true;
+      return result;
+    } finally {
+      CURRENT.remove();
+      try {
+        binding.finish(success);
+      } finally {
+        if (binding.committed) {
+          binding.runCompletionActions();
+        }
+      }
+    }
+  }
+
+  static Binding current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Conexão ligada à unidade atual. Os DAOs recebem um proxy cujo close() não fecha
+   * a conexão real; quem fecha é a própria unidade.
+   */
+  static final class Binding {
+    private final boolean readOnly;
+    private final List<Runnable> completionActions = new ArrayList<>();
+    private Connection connection;
+    private Connection daoView;
+    private boolean committed;
+
+    private Binding(boolean readOnly) {
+      this.readOnly = readOnly;
+    }
+
+    boolean isReadOnly() {
+      return readOnly;
+    }
+
+    boolean isBound() {
+      return connection != null;
+    }
+
+    void bind(Connection conn) throws SQLException {
+      try {
+        conn.setAutoCommit(false);
+        if (readOnly) {
+          conn.setReadOnly(true);
+        }
+      } catch (SQLException e) {
+        conn.close();
+        throw e;
+      }
+      this.connection = conn;
+      this.daoView = (Connection) Proxy.newProxyInstance(
+          Connection.class.getClassLoader(),
+          new Class<?>[]{Connection.class},
+          (proxy, method, args) -> {
+            if (method.getName().equals("close")) {
+              return null;
+            }
+            try {
+              return method.invoke(conn, args);
+            } catch (InvocationTargetException e) {
+              throw e.getCause();
+            }
+          });
+    }
+
+    Connection connectionForDao() {
+      return daoView;
+    }
+
+    private void runCompletionActions() {
+      for (Runnable action : completionActions) {
+        try {
+          action.run();
+        } catch (RuntimeException e) {
+          log.error("Falha ao executar ação de fim da transação", e);
+        }
+      }
+    }
+
+    private void finish(boolean success) throws SQLException {
+      if (connection == null) {
+        committed = success;
+        return;
+      }
+      try {
+        if (success) {
+          connection.commit();
+          committed = true;
+          if (!readOnly) {
+            DataSourceRouting.recordWrite();
+          }
+        } else {
+          try {
+            connection.rollback();
+          } catch (SQLException e) {
+            log.error("Falha ao desfazer a transação", e);
+          }
+        }
+      } finally {
+        try {
+          connection.setAutoCommit(true);
+          if (readOnly) {
+            connection.setReadOnly(false);
+          }
+        } catch (SQLException e) {
+          log.warn("Falha ao restaurar a conexão: {}", e.getMessage());
+        }
+        connection.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,24 @@
+-- V2: índices compostos para os filtros e ordenações mais usados pelos DAOs.
+-- Com a coluna da FK na frente, o MySQL descarta o índice implícito da FK.
+
+-- Comentários de um curso, do mais novo para o mais antigo (inclui a paginação por chave).
+CREATE INDEX idx_courses_comments_course_hour ON courses_comments(course_id, hour_date);
+
+-- Dúvidas por curso e por aluno, ordenadas por data de criação.
+CREATE INDEX idx_courses_doubts_course_created ON courses_doubts(course_id, creation_hour_date);
+CREATE INDEX idx_courses_doubts_student_created ON courses_doubts(student_id, creation_hour_date);
+
+-- Avaliações publicadas de um curso.
+CREATE INDEX idx_exam_definitions_course_published ON exam_definitions(id_course, published);
+
+-- Provas de um curso (listagem por data e média de notas).
+CREATE INDEX idx_exams_courses_course_hour ON exams_courses(course_id, hour_date);
+
+-- Alunos de um curso; a PK (student_id, course_id) só atende buscas por aluno.
+CREATE INDEX idx_students_courses_course ON students_courses(course_id, student_id);
+
+-- Perguntas de visitantes, da mais nova para a mais antiga (paginação por chave).
+CREATE INDEX idx_visitors_questions_hour ON visitors_questions(question_hour_date);
+
+-- Inscrições ativas da newsletter, por data de inscrição.
+CREATE INDEX idx_newsletter_inscription_active_hour ON newsletter_inscription(active, inscription_hour);
@@ -0,0 +1,7 @@
+-- V3: índices da página de aula (uma consulta para aula + vizinhas, uma para as respostas).
+
+-- Aulas de um curso na ordem de exibição; atende a listagem e a busca da aula anterior/seguinte.
+CREATE INDEX idx_classes_course_sequence ON classes(course_id, sequence);
+
+-- Respostas de um aluno em uma aula.
+CREATE INDEX idx_student_answers_student_class ON student_exercise_answers(id_student, id_class);
@@ -0,0 +1,17 @@
+-- V4: agregado das notas por curso (soma, quantidade e histograma), mantido pelo ExamDAO.
+
+-- Uma linha por curso e faixa de nota (0-9, 10-19, ..., 90-100); a média é SUM(grade_sum) / SUM(grade_count).
+CREATE TABLE IF NOT EXISTS course_rating_buckets (
+    course_id INT NOT NULL,
+    bucket TINYINT NOT NULL,
+    grade_count INT NOT NULL,
+    grade_sum BIGINT NOT NULL,
+    PRIMARY KEY (course_id, bucket),
+    FOREIGN KEY (course_id) REFERENCES courses(course_id) ON DELETE CASCADE
+    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Carga inicial a partir das tentativas já gravadas.
+INSERT INTO course_rating_buckets (course_id, bucket, grade_count, grade_sum)
+SELECT course_id, LEAST(grade DIV 10, 9), COUNT(*), SUM(grade)
+FROM exams_courses
+GROUP BY course_id, LEAST(grade DIV 10, 9);
@@ -0,0 +1,13 @@
+-- V5: eventos de invalidação de cache entre nós, gravados e lidos pelo CacheInvalidationDAO.
+
+-- Cada nó lê as linhas com id acima do último aplicado; as antigas são apagadas pela retenção.
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    node_id VARCHAR(64) NOT NULL,
+    region VARCHAR(32) NOT NULL,
+    entity_id INT NOT NULL,
+    version BIGINT NOT NULL,
+    published_at BIGINT NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_cache_invalidations_created (created_at)
+    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,27 @@
+-- V6: instante da última alteração, em milissegundos, das tabelas exibidas nas páginas de curso.
+-- A versão do conteúdo (CourseDAO.findContentVersion) lê COUNT, MAX(id) e MAX(updated_at) de cada
+-- tabela pelos índices abaixo, que já trazem a PK, sem ler as linhas nem calcular CRC do texto.
+
+ALTER TABLE courses
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+
+ALTER TABLE courses_comments
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+CREATE INDEX idx_courses_comments_course_updated ON courses_comments(course_id, updated_at);
+
+ALTER TABLE courses_doubts
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+CREATE INDEX idx_courses_doubts_course_updated ON courses_doubts(course_id, updated_at);
+
+ALTER TABLE classes
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+CREATE INDEX idx_classes_course_updated ON classes(course_id, updated_at);
+
+ALTER TABLE exam_definitions
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+CREATE INDEX idx_exam_definitions_course_updated ON exam_definitions(id_course, updated_at);
+
+-- Tentativas de um aluno num curso (a página mostra só as de quem a vê).
+ALTER TABLE exams_courses
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+CREATE INDEX idx_exams_courses_student_course_updated ON exams_courses(student_id, course_id, updated_at);
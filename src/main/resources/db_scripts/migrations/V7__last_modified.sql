@@ -0,0 +1,21 @@
+-- V7: datas para o Last-Modified das páginas de curso, que completam as colunas da V6.
+
+-- O nome do professor aparece nos cards do catálogo e na página do curso.
+ALTER TABLE users
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+CREATE INDEX idx_users_type_updated ON users(user_type, updated_at);
+
+CREATE INDEX idx_courses_updated ON courses(updated_at);
+
+-- As médias dos cards do catálogo.
+ALTER TABLE course_rating_buckets
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+CREATE INDEX idx_course_rating_buckets_updated ON course_rating_buckets(updated_at);
+
+-- Uma exclusão não deixa data na tabela de onde a linha saiu: a linha única abaixo guarda
+-- a última exclusão de conteúdo exibido às visitas, e entra no Last-Modified de todas as páginas.
+CREATE TABLE IF NOT EXISTS content_deletions (
+    id TINYINT NOT NULL PRIMARY KEY,
+    deleted_at TIMESTAMP(3) NOT NULL
+    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+INSERT IGNORE INTO content_deletions (id, deleted_at) VALUES (1, CURRENT_TIMESTAMP(3));
@@ -0,0 +1,10 @@
+-- V8: batimento de cada nó que publica em cache_invalidations, lido pelo CacheInvalidationDAO.
+
+-- Um nó sem batimento recente, ou que não consegue gravar seus eventos, faz os outros
+-- descartarem os caches e pararem de confiar neles até voltar. A linha sai quando o nó
+-- para normalmente, ou pela retenção quando ele para sem avisar.
+CREATE TABLE IF NOT EXISTS cache_invalidation_nodes (
+    node_id VARCHAR(64) NOT NULL PRIMARY KEY,
+    publishing BOOLEAN NOT NULL,
+    heartbeat_at TIMESTAMP(3) NOT NULL
+    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -1,3 +1,6 @@
+-- Script manual legado. O esquema é versionado em db_scripts/migrations e aplicado
+-- automaticamente na inicialização (SchemaMigrator); novas alterações vão numa nova migração.
+
 -- Seleciona o banco de dados para garantir que as tabelas sejam criadas no lugar certo
 USE ensinoremoto_tcc;
 
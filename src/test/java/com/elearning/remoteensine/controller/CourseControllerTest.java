@@ -1,5 +1,7 @@
 package com.elearning.remoteensine.controller;
 
+import com.elearning.remoteensine.dao.BatchResult;
+import com.elearning.remoteensine.dao.KeysetPage;
 import com.elearning.remoteensine.model.*;
 import com.elearning.remoteensine.model.enums.UserType;
 import com.elearning.remoteensine.service.*;
@@ -9,12 +11,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.ui.Model;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -56,8 +63,20 @@ public class CourseControllerTest {
     @Mock
     private ExamQuestionService examQuestionService;
     
+    @Mock
+    private CourseDetailsService courseDetailsService;
+    
+    @Mock
+    private PageValidatorService pageValidatorService;
+    
+    @Mock
+    private ExamService examService;
+    
     @Mock
     private HttpSession session;
+
+    @Mock
+    private HttpServletRequest request;
     
     @Mock
     private Model model;
@@ -65,6 +84,9 @@ public class CourseControllerTest {
     @Mock
     private RedirectAttributes redirectAttributes;
     
+    @Mock
+    private NativeWebRequest webRequest;
+    
     private CourseController courseController;
     private User studentUser;
     private User professorUser;
@@ -76,7 +98,8 @@ public class CourseControllerTest {
         courseController = new CourseController(
             courseService, userService, enrollService, commentService,
             classroomService, newsletterService, doubtService, exerciseService,
-            examDefinitionService, studentsAnswerService, examQuestionService
+            examDefinitionService, studentsAnswerService, examQuestionService, courseDetailsService,
+            pageValidatorService, examService
         );
         
         // Setup student user
@@ -96,6 +119,28 @@ public class CourseControllerTest {
         courseList.add(testCourse);
     }
 
+    @Test
+    void listarTodosCursos_shouldLoadRatingsOfPageInOneCall() throws Exception {
+        // Arrange
+        CourseSummary first = new CourseSummary(1, "Java", 7, "Ada", 0, null, 10, 1);
+        CourseSummary second = new CourseSummary(2, "SQL", 7, "Ada", 0, null, 10, 1);
+        Map<Integer, CourseRating> ratings = Map.of(
+                1, new CourseRating(1, new int[]{0, 0, 0, 0, 0, 0, 0, 1, 2, 0}, 250),
+                2, CourseRating.empty(2));
+        when(courseService.listCatalogPage(null, KeysetPage.DEFAULT_SIZE))
+                .thenReturn(new KeysetPage<>(List.of(first, second), null));
+        when(examService.getCourseRatings(List.of(1, 2))).thenReturn(ratings);
+
+        // Act
+        String viewName = courseController.listarTodosCursos(null, model, request, webRequest);
+
+        // Assert
+        assertEquals("cursos", viewName);
+        verify(model).addAttribute("listaDeCursos", List.of(first, second));
+        verify(model).addAttribute("avaliacoesCursos", ratings);
+        verify(examService, times(1)).getCourseRatings(anyList());
+    }
+
     @Test
     void exibirDetalhesCurso_shouldReturnDetalhesCursoView() throws Exception {
         // Arrange
@@ -103,26 +148,152 @@ public class CourseControllerTest {
         List<Comment> comments = new ArrayList<>();
         List<Doubt> doubts = new ArrayList<>();
         List<Classroom> classrooms = new ArrayList<>();
+        CourseDetailsView details = new CourseDetailsView(testCourse,
+                new KeysetPage<>(comments, "next-comments"), new KeysetPage<>(doubts, null), classrooms,
+                null, null, null, true, false, true, false);
         
-        when(courseService.searchCourseByIdComplete(courseId)).thenReturn(testCourse);
-        when(commentService.listStudentsCommentsInCourse(courseId)).thenReturn(comments);
-        when(doubtService.listCourseDoubts(courseId)).thenReturn(doubts);
-        when(classroomService.listCoursesClasses(courseId)).thenReturn(classrooms);
+        when(request.getSession(false)).thenReturn(session);
         when(session.getAttribute("usuarioLogado")).thenReturn(studentUser);
-        when(enrollService.checkEnrolledStudents(studentUser.getIdUser(), courseId)).thenReturn(true);
+        when(courseDetailsService.loadCourseDetails(courseId, studentUser, null, null)).thenReturn(details);
         
         // Act
-        String viewName = courseController.exibirDetalhesCurso(courseId, model, session);
+        String viewName = courseController.exibirDetalhesCurso(courseId, null, null, model, request, webRequest);
         
         // Assert
         assertEquals("detalhes-curso", viewName);
         verify(model).addAttribute("curso", testCourse);
-        verify(model).addAttribute("comentarios", comments);
-        verify(model).addAttribute("duvidas", doubts);
-        verify(model).addAttribute("aulasDoCurso", classrooms);
+        verify(model).addAttribute("comentarios", details.getComments());
+        verify(model).addAttribute("duvidas", details.getDoubts());
+        verify(model).addAttribute("proximaPaginaComentarios", "next-comments");
+        verify(model).addAttribute("proximaPaginaDuvidas", null);
+        verify(model).addAttribute("aulasDoCurso", details.getClasses());
+        verify(model).addAttribute("versaoAulasDoCurso", Classroom.versionOf(classrooms));
         verify(model).addAttribute("isAlunoMatriculado", true);
     }
     
+    @Test
+    void exibirDetalhesCurso_withCurrentEtag_shouldAnswerNotModifiedWithoutLoading() throws Exception {
+        // Arrange
+        PageValidator validator = mock(PageValidator.class);
+        when(validator.getEtag()).thenReturn("W/\"abc\"");
+        when(request.getSession(false)).thenReturn(session);
+        when(session.getAttribute("usuarioLogado")).thenReturn(studentUser);
+        when(pageValidatorService.courseDetails(1, null, null, studentUser)).thenReturn(validator);
+        when(model.asMap()).thenReturn(new HashMap<>());
+        when(webRequest.checkNotModified("W/\"abc\"")).thenReturn(true);
+
+        // Act
+        String viewName = courseController.exibirDetalhesCurso(1, null, null, model, request, webRequest);
+
+        // Assert
+        assertNull(viewName);
+        verifyNoInteractions(courseDetailsService);
+        verify(model, never()).addAttribute(anyString(), any());
+    }
+
+    @Test
+    void exibirDetalhesCurso_withFlashMessage_shouldRenderWithoutValidating() throws Exception {
+        // Arrange
+        PageValidator validator = mock(PageValidator.class);
+        HashMap<String, Object> flash = new HashMap<>();
+        flash.put("sucesso_comentario", "Comentário adicionado!");
+        when(request.getSession(false)).thenReturn(session);
+        when(session.getAttribute("usuarioLogado")).thenReturn(studentUser);
+        when(pageValidatorService.courseDetails(1, null, null, studentUser)).thenReturn(validator);
+        when(model.asMap()).thenReturn(flash);
+        when(courseDetailsService.loadCourseDetails(1, studentUser, null, null))
+                .thenReturn(CourseDetailsView.notFound(true, false));
+
+        // Act
+        String viewName = courseController.exibirDetalhesCurso(1, null, null, model, request, webRequest);
+
+        // Assert
+        assertEquals("detalhes-curso", viewName);
+        verify(webRequest, never()).checkNotModified(anyString());
+    }
+
+    @Test
+    void exibirDetalhesCurso_forVisitor_shouldAllowSharedCaches() throws Exception {
+        // Arrange
+        PageValidator validator = mock(PageValidator.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(validator.getEtag()).thenReturn("W/\"abc\"");
+        when(validator.isShared()).thenReturn(true);
+        when(validator.getLastModified()).thenReturn(-1L);
+        when(pageValidatorService.courseDetails(1, null, null, null)).thenReturn(validator);
+        when(model.asMap()).thenReturn(new HashMap<>());
+        when(webRequest.getNativeResponse(HttpServletResponse.class)).thenReturn(response);
+        when(webRequest.checkNotModified("W/\"abc\"")).thenReturn(true);
+
+        // Act
+        String viewName = courseController.exibirDetalhesCurso(1, null, null, model, request, webRequest);
+
+        // Assert
+        assertNull(viewName);
+        verify(response).setHeader("Cache-Control", "public, no-cache");
+    }
+
+    @Test
+    void exibirDetalhesCurso_forLoggedUser_shouldKeepPagePrivate() throws Exception {
+        // Arrange
+        PageValidator validator = mock(PageValidator.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(validator.getEtag()).thenReturn("W/\"abc\"");
+        when(request.getSession(false)).thenReturn(session);
+        when(session.getAttribute("usuarioLogado")).thenReturn(studentUser);
+        when(pageValidatorService.courseDetails(1, null, null, studentUser)).thenReturn(validator);
+        when(model.asMap()).thenReturn(new HashMap<>());
+        when(webRequest.getNativeResponse(HttpServletResponse.class)).thenReturn(response);
+        when(webRequest.checkNotModified("W/\"abc\"")).thenReturn(true);
+
+        // Act
+        courseController.exibirDetalhesCurso(1, null, null, model, request, webRequest);
+
+        // Assert
+        verify(response).setHeader("Cache-Control", "private, no-cache");
+    }
+
+    @Test
+    void exibirDetalhesCurso_forVisitor_shouldAnswerIfModifiedSince() throws Exception {
+        // Arrange
+        PageValidator validator = mock(PageValidator.class);
+        when(validator.getEtag()).thenReturn("W/\"abc\"");
+        when(validator.isShared()).thenReturn(true);
+        when(validator.getLastModified()).thenReturn(1_704_067_200_000L);
+        when(pageValidatorService.courseDetails(1, null, null, null)).thenReturn(validator);
+        when(model.asMap()).thenReturn(new HashMap<>());
+        when(webRequest.checkNotModified("W/\"abc\"", 1_704_067_200_000L)).thenReturn(true);
+
+        // Act
+        String viewName = courseController.exibirDetalhesCurso(1, null, null, model, request, webRequest);
+
+        // Assert
+        assertNull(viewName);
+        verify(request).getSession(false);
+        verifyNoInteractions(session, courseDetailsService);
+    }
+
+    @Test
+    void exibirDetalhesCurso_forVisitorStartingSession_shouldKeepPagePrivate() throws Exception {
+        // Arrange
+        PageValidator validator = mock(PageValidator.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(validator.getEtag()).thenReturn("W/\"abc\"");
+        when(validator.isShared()).thenReturn(true);
+        when(pageValidatorService.courseDetails(1, null, null, null)).thenReturn(validator);
+        when(model.asMap()).thenReturn(new HashMap<>());
+        when(webRequest.getNativeResponse(HttpServletResponse.class)).thenReturn(response);
+        when(response.containsHeader("Set-Cookie")).thenReturn(true);
+        when(webRequest.checkNotModified("W/\"abc\"")).thenReturn(true);
+
+        // Act
+        courseController.exibirDetalhesCurso(1, null, null, model, request, webRequest);
+
+        // Assert
+        verify(response).setHeader("Cache-Control", "private, no-cache");
+        verify(webRequest, never()).checkNotModified(anyString(), anyLong());
+    }
+
     @Test
     void salvarNovoCurso_withValidData_shouldRedirectToCursos() throws SQLException {
         // Arrange
@@ -211,6 +382,41 @@ public class CourseControllerTest {
         verify(redirectAttributes).addFlashAttribute(eq("sucesso_matricula"), anyString());
     }
     
+    @Test
+    @SuppressWarnings("unchecked")
+    void matricularTurma_shouldEnrollParsedIdsInOneBatch() throws SQLException {
+        // Arrange
+        int courseId = 1;
+        BatchResult<Integer> result = mock(BatchResult.class);
+        when(session.getAttribute("usuarioLogado")).thenReturn(professorUser);
+        when(courseService.searchCourseByIdComplete(courseId)).thenReturn(testCourse);
+        when(enrollService.enrollCohort(eq(courseId), any(int[].class))).thenReturn(result);
+        when(result.getSaved()).thenReturn(List.of(3, 4, 5));
+
+        // Act
+        String viewName = courseController.matricularTurma(courseId, " 3, 4\n5 ", session, redirectAttributes);
+
+        // Assert
+        assertEquals("redirect:/cursos/" + courseId, viewName);
+        verify(enrollService).enrollCohort(courseId, new int[]{3, 4, 5});
+        verify(redirectAttributes).addFlashAttribute("sucesso_matricula", "3 aluno(s) matriculado(s).");
+    }
+
+    @Test
+    void matricularTurma_withStudentUser_shouldNotEnroll() throws SQLException {
+        // Arrange
+        when(session.getAttribute("usuarioLogado")).thenReturn(studentUser);
+        when(courseService.searchCourseByIdComplete(1)).thenReturn(testCourse);
+
+        // Act
+        String viewName = courseController.matricularTurma(1, "3", session, redirectAttributes);
+
+        // Assert
+        assertEquals("redirect:/cursos/1", viewName);
+        verify(enrollService, never()).enrollCohort(anyInt(), any());
+        verify(redirectAttributes).addFlashAttribute(eq("erro_permissao"), anyString());
+    }
+
     @Test
     void exibirFormularioNovoCurso_withoutAuthentication_shouldRedirectToLogin() {
         // Arrange
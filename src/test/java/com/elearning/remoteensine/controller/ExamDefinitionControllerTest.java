@@ -206,6 +206,29 @@ public class ExamDefinitionControllerTest {
         verify(redirectAttributes).addFlashAttribute(eq("sucesso_global"), anyString());
     }
     
+    @Test
+    void submeterProva_withPublishedExamCached_shouldGradeWithoutReloadingExam() throws SQLException {
+        // Arrange
+        int courseId = testCourse.getIdCourse();
+        int examDefId = testExamDefinition.getIdDefinitionExam();
+        Map<String, String> respostas = new HashMap<>();
+        respostas.put("resposta_q1", "A");
+        PublishedExam publishedExam = new PublishedExam(testExamDefinition, testQuestions);
+
+        when(session.getAttribute("usuarioLogado")).thenReturn(studentUser);
+        when(examQuestionService.getPublishedExam(examDefId)).thenReturn(publishedExam);
+        when(examService.saveStudentExamAttempt(any(Exam.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        String viewName = testeController.submeterProva(courseId, examDefId, respostas, session, redirectAttributes, model);
+
+        // Assert
+        assertEquals("redirect:/cursos/" + courseId, viewName);
+        verify(examService).saveStudentExamAttempt(argThat(exam -> exam.getGrade() == 10));
+        verify(examDefinitionService, never()).getExamDefinitionById(anyInt());
+        verify(examQuestionService, never()).getQuestionsForStudentToTakeExam(anyInt());
+    }
+
     @Test
     void submeterProva_withExceptionDuringSubmission_shouldRedirectBackToExam() throws SQLException {
         // Arrange
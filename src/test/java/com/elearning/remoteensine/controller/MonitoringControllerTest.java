@@ -0,0 +1,162 @@
+package com.elearning.remoteensine.controller;
+
+import com.elearning.remoteensine.dao.CacheStats;
+import com.elearning.remoteensine.dao.ExamDAO;
+import com.elearning.remoteensine.dao.ExamDefinitionDAO;
+import com.elearning.remoteensine.dao.InvalidationBus;
+import com.elearning.remoteensine.dao.InvalidationStats;
+import com.elearning.remoteensine.dao.StatementStats;
+import com.elearning.remoteensine.dao.UserDAO;
+import com.elearning.remoteensine.model.User;
+import com.elearning.remoteensine.model.enums.UserType;
+import com.elearning.remoteensine.util.DatabaseConnector;
+import com.elearning.remoteensine.util.FragmentCacheDialect;
+import com.elearning.remoteensine.util.PoolStats;
+import jakarta.servlet.http.HttpSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MonitoringControllerTest {
+
+    @Mock
+    private DatabaseConnector databaseConnector;
+
+    @Mock
+    private UserDAO userDAO;
+
+    @Mock
+    private HttpSession session;
+
+    private MonitoringController monitoringController;
+
+    @BeforeEach
+    void setUp() {
+        InvalidationBus bus = new InvalidationBus();
+        ExamDefinitionDAO examDefinitionDAO = new ExamDefinitionDAO(databaseConnector, bus, new ExamDAO(databaseConnector, bus));
+        monitoringController = new MonitoringController(databaseConnector, userDAO, examDefinitionDAO,
+                new FragmentCacheDialect(true, bus), bus);
+    }
+
+    @Test
+    void poolStats_shouldReturnStatsForProfessor() {
+        // Arrange
+        User professor = new User("Prof", "prof@test.com", "x", UserType.PROFESSOR);
+        PoolStats stats = new PoolStats(true, 3, 2, 5, 0, 10, 42, 150, 900);
+        when(session.getAttribute("usuarioLogado")).thenReturn(professor);
+        when(databaseConnector.getPoolStats()).thenReturn(stats);
+
+        // Act
+        ResponseEntity<PoolStats> response = monitoringController.poolStats(session);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(stats, response.getBody());
+    }
+
+    @Test
+    void poolStats_shouldRejectStudent() {
+        // Arrange
+        User student = new User("Aluno", "aluno@test.com", "x", UserType.STUDENT);
+        when(session.getAttribute("usuarioLogado")).thenReturn(student);
+
+        // Act
+        ResponseEntity<PoolStats> response = monitoringController.poolStats(session);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(databaseConnector, never()).getPoolStats();
+    }
+
+    @Test
+    void cacheStats_shouldReturnCacheStatsForProfessor() {
+        // Arrange
+        User professor = new User("Prof", "prof@test.com", "x", UserType.PROFESSOR);
+        CacheStats stats = new CacheStats("user", 10000, 120, 900, 100, 0, 0);
+        when(session.getAttribute("usuarioLogado")).thenReturn(professor);
+        when(userDAO.getCacheStats()).thenReturn(stats);
+
+        // Act
+        ResponseEntity<List<CacheStats>> response = monitoringController.cacheStats(session);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, response.getBody().size());
+        assertSame(stats, response.getBody().get(0));
+        assertEquals("publishedExam", response.getBody().get(1).getName());
+        assertEquals("fragment", response.getBody().get(2).getName());
+        assertEquals(0.9, stats.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    void invalidationStats_shouldReturnBusStatsForProfessor() {
+        // Arrange
+        User professor = new User("Prof", "prof@test.com", "x", UserType.PROFESSOR);
+        when(session.getAttribute("usuarioLogado")).thenReturn(professor);
+
+        // Act
+        ResponseEntity<InvalidationStats> response = monitoringController.invalidationStats(session);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("none", response.getBody().getTransport());
+        assertEquals(0, response.getBody().getQueued());
+    }
+
+    @Test
+    void invalidationStats_shouldRejectStudent() {
+        // Arrange
+        User student = new User("Aluno", "aluno@test.com", "x", UserType.STUDENT);
+        when(session.getAttribute("usuarioLogado")).thenReturn(student);
+
+        // Act
+        ResponseEntity<InvalidationStats> response = monitoringController.invalidationStats(session);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void statementStats_shouldRejectStudent() {
+        // Arrange
+        User student = new User("Aluno", "aluno@test.com", "x", UserType.STUDENT);
+        when(session.getAttribute("usuarioLogado")).thenReturn(student);
+
+        // Act
+        ResponseEntity<List<StatementStats>> response = monitoringController.statementStats(session);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void statementStats_shouldSortByTotalTimeForProfessor() {
+        // Arrange
+        User professor = new User("Prof", "prof@test.com", "x", UserType.PROFESSOR);
+        when(session.getAttribute("usuarioLogado")).thenReturn(professor);
+
+        // Act
+        ResponseEntity<List<StatementStats>> response = monitoringController.statementStats(session);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<StatementStats> stats = response.getBody();
+        assertNotNull(stats);
+        for (int i = 1; i < stats.size(); i++) {
+            assertTrue(stats.get(i - 1).getTotalMicros() >= stats.get(i).getTotalMicros());
+        }
+    }
+}
+
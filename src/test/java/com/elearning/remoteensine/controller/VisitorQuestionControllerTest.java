@@ -1,5 +1,6 @@
 package com.elearning.remoteensine.controller;
 
+import com.elearning.remoteensine.dao.KeysetPage;
 import com.elearning.remoteensine.model.User;
 import com.elearning.remoteensine.model.VisitorQuestion;
 import com.elearning.remoteensine.model.enums.UserType;
@@ -104,15 +105,17 @@ public class VisitorQuestionControllerTest {
         questionsList.add(sampleQuestion);
         
         when(session.getAttribute("usuarioLogado")).thenReturn(professorUser);
-        when(visitorQuestionService.listAllQuestions(false)).thenReturn(questionsList);
+        when(visitorQuestionService.listQuestionsPage(false, null, KeysetPage.DEFAULT_SIZE))
+                .thenReturn(new KeysetPage<>(questionsList, "next-questions"));
         
         // Act
-        String result = visitorQuestionController.listarPerguntasVisitantesParaProfessor(model, session, redirectAttributes);
+        String result = visitorQuestionController.listarPerguntasVisitantesParaProfessor(null, model, session, redirectAttributes);
         
         // Assert
         assertEquals("professor/lista-perguntas-visitantes", result);
-        verify(visitorQuestionService).listAllQuestions(false);
+        verify(visitorQuestionService).listQuestionsPage(false, null, KeysetPage.DEFAULT_SIZE);
         verify(model).addAttribute("listaPerguntasVisitantes", questionsList);
+        verify(model).addAttribute("proximaPaginaPerguntas", "next-questions");
     }
 
     @Test
@@ -121,7 +124,7 @@ public class VisitorQuestionControllerTest {
         when(session.getAttribute("usuarioLogado")).thenReturn(regularUser);
         
         // Act
-        String result = visitorQuestionController.listarPerguntasVisitantesParaProfessor(model, session, redirectAttributes);
+        String result = visitorQuestionController.listarPerguntasVisitantesParaProfessor(null, model, session, redirectAttributes);
         
         // Assert
         assertEquals("redirect:/login", result);
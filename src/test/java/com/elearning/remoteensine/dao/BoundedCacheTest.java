@@ -0,0 +1,78 @@
+package com.elearning.remoteensine.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedCacheTest {
+
+    @Test
+    void put_shouldKeepFrequentEntriesDuringScanOfOneTimeKeys() {
+        // Arrange
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", 100, null);
+        for (int round = 0; round < 5; round++) {
+            for (int key = 0; key < 50; key++) {
+                if (cache.get(key) == null) {
+                    cache.put(key, "hot-" + key);
+                }
+            }
+        }
+
+        // Act
+        for (int key = 1000; key < 3000; key++) {
+            if (cache.get(key) == null) {
+                cache.put(key, "scan-" + key);
+            }
+        }
+
+        // Assert
+        int kept = 0;
+        for (int key = 0; key < 50; key++) {
+            if (cache.get(key) != null) {
+                kept++;
+            }
+        }
+        assertTrue(kept >= 45, "hot entries kept: " + kept);
+        assertEquals(100, cache.size());
+        assertTrue(cache.stats().getRejections() > 0);
+    }
+
+    @Test
+    void put_shouldNotifyListenerForEachEvictionAndStayBounded() {
+        // Arrange
+        List<Integer> evicted = new ArrayList<>();
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", 10, (key, value) -> evicted.add(key));
+
+        // Act
+        for (int key = 0; key < 25; key++) {
+            cache.put(key, "v" + key);
+        }
+
+        // Assert
+        CacheStats stats = cache.stats();
+        assertEquals(10, stats.getSize());
+        assertEquals(15, stats.getEvictions());
+        assertEquals(15, evicted.size());
+    }
+
+    @Test
+    void remove_shouldDropEntryWithoutCountingEviction() {
+        // Arrange
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", 10, null);
+        cache.put(1, "one");
+
+        // Act
+        String removed = cache.remove(1);
+
+        // Assert
+        assertEquals("one", removed);
+        assertNull(cache.get(1));
+        CacheStats stats = cache.stats();
+        assertEquals(0, stats.getEvictions());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.0, stats.getHitRatio());
+    }
+}
@@ -0,0 +1,361 @@
+package com.elearning.remoteensine.dao;
+
+import com.elearning.remoteensine.util.DatabaseConnector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheInvalidationDAOTest {
+
+    private static final long NOW = 10_000;
+
+    @Mock
+    private DatabaseConnector databaseConnector;
+
+    @Mock
+    private Connection connection;
+
+    /** Linhas de cache_invalidations: {id, região, ID da entrada}. */
+    private final List<Object[]> table = new CopyOnWriteArrayList<>();
+    private final List<String> events = new ArrayList<>();
+    private final List<String> losses = new ArrayList<>();
+    private int healthyPolls;
+    /** Idade, em segundos, da transação aberta mais velha; null se não houver nenhuma. */
+    private Long oldestTransactionSeconds;
+    private boolean transactionsReadable = true;
+    /** Outros nós sem batimento recente ou sem conseguir publicar. */
+    private final List<String> silentNodes = new CopyOnWriteArrayList<>();
+    private final List<PreparedStatement> heartbeats = new CopyOnWriteArrayList<>();
+    private CacheInvalidationDAO cacheInvalidationDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        cacheInvalidationDAO = new CacheInvalidationDAO(databaseConnector);
+        lenient().when(databaseConnector.getConnection()).thenReturn(connection);
+        lenient().when(connection.prepareStatement(anyString())).thenAnswer(
+                invocation -> statementFor(invocation.<String>getArgument(0)));
+        cacheInvalidationDAO.bind("node-a", new InvalidationTransport.Listener() {
+            @Override
+            public void onEvent(InvalidationEvent event) {
+                events.add(event.getRegion() + ":" + event.getId());
+            }
+
+            @Override
+            public void onHealthy() {
+                healthyPolls++;
+            }
+
+            @Override
+            public void onLoss(String reason) {
+                losses.add(reason);
+            }
+        });
+    }
+
+    @Test
+    void poll_shouldStartAfterEventsAlreadyInTable() {
+        // Arrange
+        insert(1, "USER", 5);
+        insert(2, "CATALOG", 3);
+
+        // Act
+        cacheInvalidationDAO.poll(NOW);
+
+        // Assert
+        assertEquals(2, cacheInvalidationDAO.getCursor());
+        assertTrue(events.isEmpty());
+        assertEquals(1, healthyPolls);
+    }
+
+    @Test
+    void start_shouldReadCursorBeforeReturning() {
+        // Arrange
+        insert(1, "USER", 5);
+        insert(2, "CATALOG", 3);
+
+        // Act
+        cacheInvalidationDAO.start("node-a", new InvalidationTransport.Listener() {
+            @Override
+            public void onEvent(InvalidationEvent event) {
+                events.add(event.getRegion() + ":" + event.getId());
+            }
+
+            @Override
+            public void onHealthy() {
+            }
+
+            @Override
+            public void onLoss(String reason) {
+                losses.add(reason);
+            }
+        });
+        long cursor = cacheInvalidationDAO.getCursor();
+        cacheInvalidationDAO.close();
+
+        // Assert
+        // As cargas feitas logo depois da partida já ficam cobertas pelo cursor.
+        assertEquals(2, cursor);
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void poll_shouldDeliverNewEventsInOrder() {
+        // Arrange
+        cacheInvalidationDAO.poll(NOW);
+        insert(1, "USER", 5);
+        insert(2, "CATALOG", 3);
+
+        // Act
+        cacheInvalidationDAO.poll(NOW + 500);
+        cacheInvalidationDAO.poll(NOW + 1000);
+
+        // Assert
+        assertEquals(List.of("USER:5", "CATALOG:3"), events);
+        assertEquals(2, cacheInvalidationDAO.getCursor());
+    }
+
+    @Test
+    void poll_shouldHoldCursorUntilLateCommitFillsGap() {
+        // Arrange
+        cacheInvalidationDAO.poll(NOW);
+        insert(2, "CATALOG", 3);
+        cacheInvalidationDAO.poll(NOW + 500);
+
+        // Act
+        insert(1, "USER", 5);
+        cacheInvalidationDAO.poll(NOW + 1000);
+
+        // Assert
+        assertEquals(List.of("CATALOG:3", "USER:5"), events);
+        assertEquals(2, cacheInvalidationDAO.getCursor());
+    }
+
+    @Test
+    void poll_shouldSkipGapLeftByRolledBackInsert() {
+        // Arrange
+        cacheInvalidationDAO.poll(NOW);
+        insert(2, "CATALOG", 3);
+        cacheInvalidationDAO.poll(NOW + 500);
+
+        // Act
+        cacheInvalidationDAO.poll(NOW + 1000 + CacheInvalidationDAO.GAP_TIMEOUT_MS);
+
+        // Assert
+        // Sem transação aberta, o ID 1 nunca será gravado: nada se perdeu.
+        assertEquals(List.of("CATALOG:3"), events);
+        assertEquals(2, cacheInvalidationDAO.getCursor());
+        assertTrue(losses.isEmpty());
+    }
+
+    @Test
+    void poll_shouldWaitForGapWhileOlderTransactionIsOpen() {
+        // Arrange
+        oldestTransactionSeconds = 60L;
+        cacheInvalidationDAO.poll(NOW);
+        insert(2, "CATALOG", 3);
+        cacheInvalidationDAO.poll(NOW + 500);
+        cacheInvalidationDAO.poll(NOW + 1000 + CacheInvalidationDAO.GAP_TIMEOUT_MS);
+        assertEquals(0, cacheInvalidationDAO.getCursor());
+
+        // Act
+        insert(1, "USER", 5);
+        cacheInvalidationDAO.poll(NOW + 1500 + CacheInvalidationDAO.GAP_TIMEOUT_MS);
+
+        // Assert
+        assertEquals(List.of("CATALOG:3", "USER:5"), events);
+        assertEquals(2, cacheInvalidationDAO.getCursor());
+        assertTrue(losses.isEmpty());
+    }
+
+    @Test
+    void poll_shouldReportLossWhenGapOutlivesMaxWait() {
+        // Arrange
+        oldestTransactionSeconds = 3_600L;
+        cacheInvalidationDAO.poll(NOW);
+        insert(2, "CATALOG", 3);
+        cacheInvalidationDAO.poll(NOW + 500);
+
+        // Act
+        cacheInvalidationDAO.poll(NOW + 1000 + CacheInvalidationDAO.GAP_MAX_WAIT_MS);
+
+        // Assert
+        assertEquals(2, cacheInvalidationDAO.getCursor());
+        assertEquals(1, losses.size());
+    }
+
+    @Test
+    void poll_shouldReportLossWhenGapIsFilledAfterBeingSkipped() {
+        // Arrange
+        // Sem o privilégio PROCESS não dá para saber se o buraco ainda fecha.
+        transactionsReadable = false;
+        cacheInvalidationDAO.poll(NOW);
+        insert(3, "CATALOG", 3);
+        cacheInvalidationDAO.poll(NOW + 500);
+        cacheInvalidationDAO.poll(NOW + 1000);
+        assertTrue(losses.isEmpty());
+
+        // Act
+        cacheInvalidationDAO.poll(NOW + 1000 + CacheInvalidationDAO.GAP_TIMEOUT_MS);
+        insert(1, "USER", 5);
+        insert(2, "USER", 6);
+        cacheInvalidationDAO.poll(NOW + 1500 + CacheInvalidationDAO.GAP_TIMEOUT_MS);
+
+        // Assert
+        // Os eventos que confirmaram tarde ficam abaixo do cursor; a perda já descartou tudo.
+        assertEquals(List.of("CATALOG:3"), events);
+        assertEquals(3, cacheInvalidationDAO.getCursor());
+        assertEquals(1, losses.size());
+        assertTrue(losses.get(0).contains("1 a 2"));
+    }
+
+    @Test
+    void poll_shouldTreatUnknownRegionAsWholeCacheFlush() {
+        // Arrange
+        cacheInvalidationDAO.poll(NOW);
+        insert(1, "QUIZ", 8);
+
+        // Act
+        cacheInvalidationDAO.poll(NOW + 500);
+
+        // Assert
+        assertEquals(List.of("ALL:8"), events);
+    }
+
+    @Test
+    void poll_shouldNotReportHealthWhileDatabaseFails() throws SQLException {
+        // Arrange
+        cacheInvalidationDAO.poll(NOW);
+        when(databaseConnector.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // Act
+        cacheInvalidationDAO.poll(NOW + 500);
+        cacheInvalidationDAO.poll(NOW + 1000);
+
+        // Assert
+        assertEquals(1, healthyPolls);
+        assertTrue(losses.isEmpty());
+    }
+
+    @Test
+    void poll_shouldReportLossOnceAndStayUnhealthyWhileAnotherNodeIsSilent() {
+        // Arrange
+        cacheInvalidationDAO.poll(NOW);
+        silentNodes.add("node-c");
+
+        // Act
+        cacheInvalidationDAO.poll(NOW + 500);
+        cacheInvalidationDAO.poll(NOW + 1000);
+        int healthyWhileSilent = healthyPolls;
+        silentNodes.clear();
+        cacheInvalidationDAO.poll(NOW + 1500);
+
+        // Assert
+        assertEquals(1, healthyWhileSilent);
+        assertEquals(2, healthyPolls);
+        assertEquals(1, losses.size());
+        assertTrue(losses.get(0).contains("node-c"));
+    }
+
+    @Test
+    void poll_shouldWriteHeartbeatWithPublishingState() throws SQLException {
+        // Arrange
+        cacheInvalidationDAO.setPublishing(false);
+
+        // Act
+        cacheInvalidationDAO.poll(NOW);
+
+        // Assert
+        assertEquals(1, heartbeats.size());
+        verify(heartbeats.get(0)).setString(1, "node-a");
+        verify(heartbeats.get(0)).setBoolean(2, false);
+        verify(heartbeats.get(0)).executeUpdate();
+    }
+
+    private void insert(long id, String region, int entityId) {
+        table.add(new Object[]{id, region, entityId});
+    }
+
+    private PreparedStatement statementFor(String sql) throws SQLException {
+        PreparedStatement pstmt = mock(PreparedStatement.class);
+        if (!sql.startsWith("SELECT")) {
+            // Batimentos e limpezas: só executeUpdate, que o mock responde com 0.
+            if (sql.startsWith("INSERT INTO cache_invalidation_nodes")) {
+                heartbeats.add(pstmt);
+            }
+            return pstmt;
+        }
+        if (sql.contains("innodb_trx")) {
+            when(pstmt.executeQuery()).thenAnswer(invocation -> oldestTransaction());
+            return pstmt;
+        }
+        if (sql.contains("cache_invalidation_nodes")) {
+            when(pstmt.executeQuery()).thenAnswer(invocation -> resultSet(
+                    silentNodes.stream().map(node -> new Object[]{0L, node, 0}).toList()));
+            return pstmt;
+        }
+        Map<Integer, Long> params = new HashMap<>();
+        if (!sql.contains("MAX(id)")) {
+            doAnswer(invocation -> params.put(invocation.<Integer>getArgument(0), invocation.<Long>getArgument(1)))
+                    .when(pstmt).setLong(anyInt(), anyLong());
+        }
+        when(pstmt.executeQuery()).thenAnswer(invocation -> {
+            List<Object[]> rows = new ArrayList<>();
+            if (sql.contains("MAX(id)")) {
+                long max = table.stream().mapToLong(row -> (Long) row[0]).max().orElse(0);
+                rows.add(new Object[]{max, null, 0});
+                return resultSet(rows);
+            }
+            long after = params.get(1);
+            long before = sql.contains("id < ?") ? params.get(2) : Long.MAX_VALUE;
+            table.stream()
+                    .filter(row -> (Long) row[0] > after && (Long) row[0] < before)
+                    .sorted((a, b) -> Long.compare((Long) a[0], (Long) b[0]))
+                    .forEach(rows::add);
+            return resultSet(rows);
+        });
+        return pstmt;
+    }
+
+    private ResultSet oldestTransaction() throws SQLException {
+        if (!transactionsReadable) {
+            throw new SQLException("Access denied; you need the PROCESS privilege", "42000", 1227);
+        }
+        ResultSet rs = mock(ResultSet.class);
+        lenient().when(rs.next()).thenReturn(true);
+        lenient().when(rs.getLong(1)).thenReturn(oldestTransactionSeconds == null ? 0 : oldestTransactionSeconds);
+        lenient().when(rs.wasNull()).thenReturn(oldestTransactionSeconds == null);
+        return rs;
+    }
+
+    /** Sem metadados, o RowMapping lê as colunas pela posição do SELECT. */
+    private static ResultSet resultSet(List<Object[]> rows) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        int[] position = {-1};
+        lenient().when(rs.next()).thenAnswer(invocation -> ++position[0] < rows.size());
+        lenient().when(rs.getLong(anyInt())).thenAnswer(
+                invocation -> invocation.<Integer>getArgument(0) == 1 ? rows.get(position[0])[0] : 0L);
+        lenient().when(rs.getString(anyInt())).thenAnswer(
+                invocation -> invocation.<Integer>getArgument(0) == 2 ? "node-b" : rows.get(position[0])[1]);
+        lenient().when(rs.getInt(anyInt())).thenAnswer(invocation -> rows.get(position[0])[2]);
+        return rs;
+    }
+}
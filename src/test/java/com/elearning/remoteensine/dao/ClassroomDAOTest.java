@@ -1,6 +1,7 @@
 package com.elearning.remoteensine.dao;
 
 import com.elearning.remoteensine.model.Classroom;
+import com.elearning.remoteensine.model.LessonPage;
 import com.elearning.remoteensine.util.DatabaseConnector;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +15,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -188,6 +190,44 @@ public class ClassroomDAOTest {
         assertTrue(result);
         
         verify(preparedStatement).setInt(1, classroomId);
-        verify(preparedStatement).executeUpdate();
+        // A remoção também avança o carimbo usado no Last-Modified das páginas públicas.
+        verify(connection).prepareStatement(contains("content_deletions"));
+        verify(preparedStatement, times(2)).executeUpdate();
+    }
+
+    @Test
+    void searchLessonInCourse_shouldReturnLessonWithNeighbours() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+
+        when(resultSet.getInt(1)).thenReturn(5);
+        when(resultSet.getInt(2)).thenReturn(1);
+        when(resultSet.getString(3)).thenReturn("Generics");
+        when(resultSet.getString(4)).thenReturn("Type parameters");
+        when(resultSet.getString(5)).thenReturn("http://test.url");
+        when(resultSet.getInt(6)).thenReturn(3);
+        when(resultSet.getString(7)).thenReturn("Java Programming");
+        when(resultSet.getInt(8)).thenReturn(0);
+        when(resultSet.getInt(9)).thenReturn(6);
+        when(resultSet.wasNull()).thenReturn(true, false);
+
+        // Act
+        LessonPage page = classroomDAO.searchLessonInCourse(1, 5);
+
+        // Assert
+        assertNotNull(page);
+        assertEquals(5, page.getClassroom().getClassroomId());
+        assertEquals("Generics", page.getClassroom().getTitle());
+        assertEquals(1, page.getCourse().getIdCourse());
+        assertEquals("Java Programming", page.getCourse().getTitle());
+        assertNull(page.getPreviousClassroomId());
+        assertEquals(6, page.getNextClassroomId());
+        assertTrue(page.getExercises().isEmpty());
+
+        verify(connection).prepareStatement(contains("WHERE cl.classroom_id = ? AND cl.course_id = ?"));
+        verify(preparedStatement).setInt(1, 5);
+        verify(preparedStatement).setInt(2, 1);
     }
-}
\ No newline at end of file
+}
@@ -14,6 +14,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -87,11 +88,11 @@ public class CommentDAOTest {
 
         when(preparedStatement.executeQuery()).thenReturn(resultSet);
         when(resultSet.next()).thenReturn(true);
-        when(resultSet.getInt("comment_id")).thenReturn(commentId);
-        when(resultSet.getInt("course_id")).thenReturn(1);
-        when(resultSet.getInt("student_id")).thenReturn(2);
-        when(resultSet.getString("text")).thenReturn("Test Comment");
-        when(resultSet.getTimestamp("hour_date")).thenReturn(timestamp);
+        when(resultSet.getInt(1)).thenReturn(commentId);
+        when(resultSet.getInt(2)).thenReturn(1);
+        when(resultSet.getInt(3)).thenReturn(2);
+        when(resultSet.getString(4)).thenReturn("Test Comment");
+        when(resultSet.getTimestamp(5)).thenReturn(timestamp);
 
         // Act
         Comment foundComment = commentDAO.searchCommentById(commentId);
@@ -121,11 +122,11 @@ public class CommentDAOTest {
         when(resultSet.next()).thenReturn(true, true, false); // Return true twice for two comments, then false
 
         // First comment
-        when(resultSet.getInt("comment_id")).thenReturn(10, 11);
-        when(resultSet.getInt("course_id")).thenReturn(courseId, courseId);
-        when(resultSet.getInt("student_id")).thenReturn(2, 3);
-        when(resultSet.getString("text")).thenReturn("Comment 1", "Comment 2");
-        when(resultSet.getTimestamp("hour_date")).thenReturn(timestamp, timestamp);
+        when(resultSet.getInt(1)).thenReturn(10, 11);
+        when(resultSet.getInt(2)).thenReturn(courseId, courseId);
+        when(resultSet.getInt(3)).thenReturn(2, 3);
+        when(resultSet.getString(4)).thenReturn("Comment 1", "Comment 2");
+        when(resultSet.getTimestamp(5)).thenReturn(timestamp, timestamp);
 
         // Act
         List<Comment> comments = commentDAO.listCoursesComments(courseId);
@@ -165,11 +166,11 @@ public class CommentDAOTest {
         when(resultSet.next()).thenReturn(true, true, false); // Return true twice for two comments, then false
 
         // Comments data
-        when(resultSet.getInt("comment_id")).thenReturn(10, 11);
-        when(resultSet.getInt("course_id")).thenReturn(1, 2);
-        when(resultSet.getInt("student_id")).thenReturn(studentId, studentId);
-        when(resultSet.getString("text")).thenReturn("Comment 1", "Comment 2");
-        when(resultSet.getTimestamp("hour_date")).thenReturn(timestamp, timestamp);
+        when(resultSet.getInt(1)).thenReturn(10, 11);
+        when(resultSet.getInt(2)).thenReturn(1, 2);
+        when(resultSet.getInt(3)).thenReturn(studentId, studentId);
+        when(resultSet.getString(4)).thenReturn("Comment 1", "Comment 2");
+        when(resultSet.getTimestamp(5)).thenReturn(timestamp, timestamp);
 
         // Act
         List<Comment> comments = commentDAO.listStudentsComments(studentId);
@@ -232,7 +233,9 @@ public class CommentDAOTest {
         assertTrue(result);
 
         verify(preparedStatement).setInt(1, commentId);
-        verify(preparedStatement).executeUpdate();
+        // A remoção também avança o carimbo usado no Last-Modified das páginas públicas.
+        verify(connection).prepareStatement(contains("content_deletions"));
+        verify(preparedStatement, times(2)).executeUpdate();
     }
 
     @Test
@@ -276,4 +279,39 @@ public class CommentDAOTest {
         verify(preparedStatement).setInt(1, commentId);
         verify(preparedStatement).executeQuery();
     }
-}
\ No newline at end of file
+
+    @Test
+    void listCoursesCommentsPage_shouldSeekAfterLastCommentOfPreviousPage() throws SQLException {
+        // Arrange
+        int courseId = 1;
+        LocalDateTime newest = LocalDateTime.of(2024, 5, 10, 12, 0);
+        LocalDateTime middle = newest.minusHours(1);
+        LocalDateTime oldest = newest.minusHours(2);
+
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, true, false); // 3 linhas = tamanho da página + 1
+        when(resultSet.getInt(1)).thenReturn(12, 11, 10);
+        when(resultSet.getTimestamp(5)).thenReturn(
+                Timestamp.valueOf(newest), Timestamp.valueOf(middle), Timestamp.valueOf(oldest));
+
+        // Act
+        KeysetPage<Comment> firstPage = commentDAO.listCoursesCommentsPage(courseId, null, 2);
+        KeysetPage<Comment> secondPage = commentDAO.listCoursesCommentsPage(courseId, firstPage.getNextCursor(), 2);
+
+        // Assert
+        assertEquals(2, firstPage.getItems().size());
+        assertEquals(12, firstPage.getItems().get(0).getCommentId());
+        assertEquals(11, firstPage.getItems().get(1).getCommentId());
+        assertTrue(firstPage.hasNext());
+        assertTrue(secondPage.getItems().isEmpty());
+        assertFalse(secondPage.hasNext());
+
+        verify(preparedStatement, times(2)).setInt(1, courseId);
+        verify(preparedStatement).setInt(2, 3); // primeira página: LIMIT size + 1
+        verify(preparedStatement).setTimestamp(2, Timestamp.valueOf(middle));
+        verify(preparedStatement).setTimestamp(3, Timestamp.valueOf(middle));
+        verify(preparedStatement).setInt(4, 11);
+        verify(preparedStatement).setInt(5, 3);
+    }
+}
@@ -0,0 +1,172 @@
+package com.elearning.remoteensine.dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedBitmapTest {
+
+    /** Tamanho máximo de um grupo em array. */
+    private static final int ARRAY_MAX = 4096;
+
+    @Test
+    void with_shouldPromoteGroupToBitmapPastArrayLimit() {
+        // Arrange
+        CompressedBitmap bitmap = CompressedBitmap.EMPTY;
+        for (int value = 0; value < ARRAY_MAX * 2; value += 2) {
+            bitmap = bitmap.with(value);
+        }
+        assertEquals(ARRAY_MAX, bitmap.cardinality());
+        assertEquals(0, bitmap.bitmapGroups());
+
+        // Act
+        CompressedBitmap promoted = bitmap.with(ARRAY_MAX * 2 + 1);
+
+        // Assert
+        assertEquals(1, promoted.bitmapGroups());
+        assertEquals(ARRAY_MAX + 1, promoted.cardinality());
+        for (int value = 0; value < ARRAY_MAX * 2; value++) {
+            assertEquals(value % 2 == 0, promoted.contains(value), "value " + value);
+        }
+        assertTrue(promoted.contains(ARRAY_MAX * 2 + 1));
+        assertFalse(bitmap.contains(ARRAY_MAX * 2 + 1));
+        assertEquals(0, bitmap.bitmapGroups());
+    }
+
+    @Test
+    void without_shouldDemoteBitmapBackToArray() {
+        // Arrange
+        CompressedBitmap bitmap = buildRange(0, ARRAY_MAX);
+        assertEquals(ARRAY_MAX + 1, bitmap.cardinality());
+        assertEquals(1, bitmap.bitmapGroups());
+
+        // Act
+        CompressedBitmap demoted = bitmap.without(100);
+
+        // Assert
+        assertEquals(0, demoted.bitmapGroups());
+        assertEquals(ARRAY_MAX, demoted.cardinality());
+        assertFalse(demoted.contains(100));
+        assertTrue(demoted.contains(99));
+        assertTrue(demoted.contains(101));
+        assertTrue(demoted.contains(ARRAY_MAX));
+        assertTrue(bitmap.contains(100));
+        assertEquals(1, bitmap.bitmapGroups());
+    }
+
+    @Test
+    void withAndWithout_shouldLeaveOriginalUnchanged() {
+        // Arrange
+        CompressedBitmap original = CompressedBitmap.EMPTY.with(5).with(70_000);
+        CompressedBitmap large = buildRange(0, ARRAY_MAX + 10);
+
+        // Act
+        CompressedBitmap added = original.with(6);
+        CompressedBitmap removed = original.without(70_000);
+        CompressedBitmap largeAdded = large.with(ARRAY_MAX + 20);
+        CompressedBitmap largeRemoved = large.without(3);
+
+        // Assert
+        assertTrue(added.contains(6));
+        assertFalse(original.contains(6));
+        assertFalse(removed.contains(70_000));
+        assertTrue(original.contains(70_000));
+        assertEquals(2, original.cardinality());
+        assertTrue(largeAdded.contains(ARRAY_MAX + 20));
+        assertFalse(large.contains(ARRAY_MAX + 20));
+        assertFalse(largeRemoved.contains(3));
+        assertTrue(large.contains(3));
+        assertEquals(ARRAY_MAX + 11, large.cardinality());
+        assertSame(original, original.with(5));
+        assertSame(original, original.without(7));
+        assertSame(CompressedBitmap.EMPTY, CompressedBitmap.EMPTY.with(1).without(1));
+    }
+
+    @Test
+    void builder_shouldRejectOutOfOrderValues() {
+        // Arrange
+        CompressedBitmap.Builder sameGroup = new CompressedBitmap.Builder();
+        sameGroup.add(10);
+        CompressedBitmap.Builder earlierGroup = new CompressedBitmap.Builder();
+        earlierGroup.add(70_000);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> sameGroup.add(9));
+        assertThrows(IllegalArgumentException.class, () -> earlierGroup.add(5));
+        assertThrows(IllegalArgumentException.class, () -> new CompressedBitmap.Builder().add(-1));
+    }
+
+    @Test
+    void builder_shouldIgnoreRepeatsAndStartEmptyAfterBuild() {
+        // Arrange
+        CompressedBitmap.Builder builder = new CompressedBitmap.Builder();
+        builder.add(3);
+        builder.add(3);
+        builder.add(8);
+
+        // Act
+        CompressedBitmap first = builder.build();
+        builder.add(1);
+        CompressedBitmap second = builder.build();
+
+        // Assert
+        assertEquals(2, first.cardinality());
+        assertEquals(1, second.cardinality());
+        assertTrue(second.contains(1));
+        assertFalse(second.contains(3));
+        assertSame(CompressedBitmap.EMPTY, builder.build());
+    }
+
+    @Test
+    void contains_shouldResolveValuesAcrossHighKeys() {
+        // Arrange
+        CompressedBitmap.Builder builder = new CompressedBitmap.Builder();
+        int[] values = {0, 65_535, 65_536, 131_072, 1 << 30, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+        for (int value : values) {
+            builder.add(value);
+        }
+
+        // Act
+        CompressedBitmap bitmap = builder.build();
+
+        // Assert
+        for (int value : values) {
+            assertTrue(bitmap.contains(value), "value " + value);
+        }
+        assertEquals(values.length, bitmap.cardinality());
+        assertFalse(bitmap.contains(1));
+        assertFalse(bitmap.contains(65_537));
+        assertFalse(bitmap.contains(196_608));
+        assertFalse(bitmap.contains(Integer.MAX_VALUE - 2));
+        assertFalse(bitmap.contains(-1));
+        assertFalse(bitmap.contains(Integer.MIN_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.with(-1));
+        assertSame(bitmap, bitmap.without(-1));
+    }
+
+    @Test
+    void contains_shouldReadBitmapGroupAtTopOfIdRange() {
+        // Arrange
+        CompressedBitmap bitmap = buildRange(Integer.MAX_VALUE - ARRAY_MAX, Integer.MAX_VALUE);
+        assertEquals(1, bitmap.bitmapGroups());
+
+        // Act
+        CompressedBitmap removed = bitmap.without(Integer.MAX_VALUE);
+
+        // Assert
+        assertTrue(bitmap.contains(Integer.MAX_VALUE));
+        assertTrue(bitmap.contains(Integer.MAX_VALUE - ARRAY_MAX));
+        assertFalse(bitmap.contains(Integer.MAX_VALUE - ARRAY_MAX - 1));
+        assertFalse(removed.contains(Integer.MAX_VALUE));
+        assertEquals(0, removed.bitmapGroups());
+    }
+
+    /** Valores de {@code from} a {@code to}, inclusive. */
+    private static CompressedBitmap buildRange(int from, int to) {
+        CompressedBitmap.Builder builder = new CompressedBitmap.Builder();
+        for (int value = from; value >= from && value <= to; value++) {
+            builder.add(value);
+        }
+        return builder.build();
+    }
+}
@@ -1,7 +1,9 @@
 package com.elearning.remoteensine.dao;
 
 import com.elearning.remoteensine.model.Course;
+import com.elearning.remoteensine.model.CourseSummary;
 import com.elearning.remoteensine.model.Professor;
+import com.elearning.remoteensine.util.DataSourceRouting;
 import com.elearning.remoteensine.util.DatabaseConnector;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,10 +13,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -37,7 +42,10 @@ public class CourseDAOTest {
 
     @BeforeEach
     void setUp() throws SQLException {
-        courseDAO = new CourseDAO(databaseConnector);
+        InvalidationBus bus = new InvalidationBus();
+        ExamDefinitionDAO examDefinitionDAO = new ExamDefinitionDAO(databaseConnector, bus, new ExamDAO(databaseConnector, bus));
+        courseDAO = new CourseDAO(databaseConnector, bus, new OwnershipDAO(databaseConnector, bus),
+                new EnrollDAO(databaseConnector, bus), examDefinitionDAO);
         when(databaseConnector.getConnection()).thenReturn(connection);
     }
 
@@ -99,16 +107,16 @@ public class CourseDAOTest {
         when(preparedStatement.executeQuery()).thenReturn(resultSet);
         when(resultSet.next()).thenReturn(true);
         
-        when(resultSet.getInt("course_id")).thenReturn(courseId);
-        when(resultSet.getString("title")).thenReturn("Java Programming");
-        when(resultSet.getString("description")).thenReturn("Learn Java programming from scratch");
-        when(resultSet.getInt("responsible_professor_id")).thenReturn(1);
-        when(resultSet.getDouble("price")).thenReturn(99.99);
-        when(resultSet.getString("video_presentation_url")).thenReturn("http://example.com/video");
-        when(resultSet.getString("category")).thenReturn("Programming");
-        when(resultSet.getInt("load_hour")).thenReturn(40);
-        when(resultSet.getTimestamp("creation_date")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
-        when(resultSet.getTimestamp("update_date")).thenReturn(null);
+        when(resultSet.getInt(1)).thenReturn(courseId);
+        when(resultSet.getString(2)).thenReturn("Java Programming");
+        when(resultSet.getString(3)).thenReturn("Learn Java programming from scratch");
+        when(resultSet.getInt(10)).thenReturn(1);
+        when(resultSet.getDouble(4)).thenReturn(99.99);
+        when(resultSet.getString(5)).thenReturn("http://example.com/video");
+        when(resultSet.getString(6)).thenReturn("Programming");
+        when(resultSet.getInt(7)).thenReturn(40);
+        when(resultSet.getTimestamp(8)).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+        when(resultSet.getTimestamp(9)).thenReturn(null);
 
         // Act
         Course foundCourse = courseDAO.searchCourseById(courseId);
@@ -128,6 +136,54 @@ public class CourseDAOTest {
         verify(preparedStatement).executeQuery();
     }
 
+    @Test
+    void searchCourseById_shouldHitDatabaseOncePerRequestUntilCourseIsWritten() throws SQLException {
+        // Arrange
+        int courseId = 10;
+
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(courseId);
+        when(resultSet.getString(2)).thenReturn("Java Programming");
+        when(resultSet.getInt(10)).thenReturn(1);
+
+        IdentityMap.begin();
+        try {
+            // Act
+            Course first = courseDAO.searchCourseById(courseId);
+            Course second = courseDAO.searchCourseById(courseId);
+            assertTrue(courseDAO.attCourses(first));
+            Course afterWrite = courseDAO.searchCourseById(courseId);
+            Course stillUncached = courseDAO.searchCourseById(courseId);
+
+            // Assert
+            assertSame(first, second);
+            assertNotSame(first, afterWrite);
+            assertNotSame(afterWrite, stillUncached);
+            assertEquals(1, IdentityMap.hits());
+            verify(preparedStatement, times(3)).executeQuery();
+        } finally {
+            IdentityMap.end();
+        }
+    }
+
+    @Test
+    void searchCourseById_shouldNotCacheOutsideRequestScope() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+
+        // Act
+        assertNull(courseDAO.searchCourseById(99));
+        assertNull(courseDAO.searchCourseById(99));
+
+        // Assert
+        verify(preparedStatement, times(2)).executeQuery();
+    }
+
     @Test
     void listAllCourses_shouldReturnListOfCourses() throws SQLException {
         // Arrange
@@ -136,16 +192,16 @@ public class CourseDAOTest {
         when(resultSet.next()).thenReturn(true, true, false); // Return true twice for two courses, then false
 
         // First course
-        when(resultSet.getInt("course_id")).thenReturn(10, 11);
-        when(resultSet.getString("title")).thenReturn("Java Programming", "Python Programming");
-        when(resultSet.getString("description")).thenReturn("Learn Java", "Learn Python");
-        when(resultSet.getInt("responsible_professor_id")).thenReturn(1, 2);
-        when(resultSet.getDouble("price")).thenReturn(99.99, 89.99);
-        when(resultSet.getString("video_presentation_url")).thenReturn("http://example.com/java", "http://example.com/python");
-        when(resultSet.getString("category")).thenReturn("Programming", "Programming");
-        when(resultSet.getInt("load_hour")).thenReturn(40, 30);
-        when(resultSet.getTimestamp("creation_date")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
-        when(resultSet.getTimestamp("update_date")).thenReturn(null);
+        when(resultSet.getInt(1)).thenReturn(10, 11);
+        when(resultSet.getString(2)).thenReturn("Java Programming", "Python Programming");
+        when(resultSet.getString(3)).thenReturn("Learn Java", "Learn Python");
+        when(resultSet.getInt(10)).thenReturn(1, 2);
+        when(resultSet.getDouble(4)).thenReturn(99.99, 89.99);
+        when(resultSet.getString(5)).thenReturn("http://example.com/java", "http://example.com/python");
+        when(resultSet.getString(6)).thenReturn("Programming", "Programming");
+        when(resultSet.getInt(7)).thenReturn(40, 30);
+        when(resultSet.getTimestamp(8)).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+        when(resultSet.getTimestamp(9)).thenReturn(null);
 
         // Act
         List<Course> courses = courseDAO.listAllCourses();
@@ -177,6 +233,194 @@ public class CourseDAOTest {
         verify(preparedStatement).executeQuery();
     }
 
+    @Test
+    void listAllCourses_shouldResolveColumnIndexesFromMetaDataOncePerStatement() throws SQLException {
+        // Arrange
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        String[] labels = {"responsible_professor_id", "course_id", "title", "description", "price",
+                "video_presentation_url", "category", "load_hour", "creation_date", "update_date"};
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false, true, false);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(labels[i]);
+        }
+        when(resultSet.getInt(1)).thenReturn(7);
+        when(resultSet.getInt(2)).thenReturn(10);
+        when(resultSet.getString(3)).thenReturn("Java Programming");
+        when(resultSet.getTimestamp(9)).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+
+        // Act
+        List<Course> first = courseDAO.listAllCourses();
+        List<Course> second = courseDAO.listAllCourses();
+
+        // Assert
+        assertEquals(1, first.size());
+        assertEquals(1, second.size());
+        assertEquals(10, first.get(0).getIdCourse());
+        assertEquals("Java Programming", first.get(0).getTitle());
+        assertEquals(7, first.get(0).getResponsibleProfessor().getIdUser());
+        verify(resultSet, times(1)).getMetaData();
+    }
+
+    @Test
+    void listAllCoursesWithProfessors_shouldFillProfessorFromJoin() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getInt(1)).thenReturn(10);
+        when(resultSet.getString(2)).thenReturn("Java Programming");
+        when(resultSet.getInt(10)).thenReturn(1);
+        when(resultSet.getString(11)).thenReturn("Prof. Ada");
+        when(resultSet.getString(12)).thenReturn("ada@test.com");
+        when(resultSet.getString(13)).thenReturn("Computação");
+
+        // Act
+        List<Course> courses = courseDAO.listAllCoursesWithProfessors();
+
+        // Assert
+        assertEquals(1, courses.size());
+        Professor professor = courses.get(0).getResponsibleProfessor();
+        assertEquals(1, professor.getIdUser());
+        assertEquals("Prof. Ada", professor.getName());
+        assertEquals("ada@test.com", professor.getEmail());
+        assertEquals("Computação", professor.getSpecialization());
+        verify(connection, times(1)).prepareStatement(contains("JOIN users"));
+    }
+
+    @Test
+    void listCatalogPage_shouldReadSummariesWithoutDescription() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getInt(1)).thenReturn(10);
+        when(resultSet.getString(2)).thenReturn("Java Programming");
+        when(resultSet.getDouble(3)).thenReturn(99.99);
+        when(resultSet.getString(4)).thenReturn("Programming");
+        when(resultSet.getInt(5)).thenReturn(40);
+        when(resultSet.getInt(6)).thenReturn(1);
+        when(resultSet.getString(7)).thenReturn("Prof. Ada");
+
+        // Act
+        KeysetPage<CourseSummary> page = courseDAO.listCatalogPage(null, 20);
+
+        // Assert
+        assertFalse(page.hasNext());
+        CourseSummary summary = page.getItems().get(0);
+        assertEquals(10, summary.getIdCourse());
+        assertEquals("Java Programming", summary.getTitle());
+        assertEquals(99.99, summary.getPrice());
+        assertEquals(40, summary.getHoursLoad());
+        assertEquals("Prof. Ada", summary.getProfessorName());
+        verify(connection).prepareStatement(argThat(sql -> sql.contains("JOIN users") && !sql.contains("description")));
+    }
+
+    @Test
+    void listCatalogPage_shouldServePagesFromSnapshotWithoutQueryingAgain() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        when(resultSet.getInt(1)).thenReturn(12, 10, 11);
+        when(resultSet.getString(2)).thenReturn("python", "Java Programming", "Algorithms");
+
+        // Act
+        KeysetPage<CourseSummary> first = courseDAO.listCatalogPage(null, 2);
+        KeysetPage<CourseSummary> second = courseDAO.listCatalogPage(first.getNextCursor(), 2);
+
+        // Assert
+        assertEquals(List.of(11, 10), first.getItems().stream().map(CourseSummary::getIdCourse).toList());
+        assertTrue(first.hasNext());
+        assertEquals(List.of(12), second.getItems().stream().map(CourseSummary::getIdCourse).toList());
+        assertFalse(second.hasNext());
+        verify(connection, times(1)).prepareStatement(anyString());
+        verify(preparedStatement, never()).setInt(anyInt(), anyInt());
+    }
+
+    @Test
+    void attCourses_shouldReplaceCatalogSnapshotCopyOnWrite() throws SQLException {
+        // Arrange
+        PreparedStatement entryStatement = mock(PreparedStatement.class);
+        ResultSet entryRow = mock(ResultSet.class);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(connection.prepareStatement(contains("WHERE c.course_id = ?"))).thenReturn(entryStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt(1)).thenReturn(10, 11);
+        when(resultSet.getString(2)).thenReturn("Algorithms", "Java Programming");
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        when(entryStatement.executeQuery()).thenReturn(entryRow);
+        when(entryRow.next()).thenReturn(true);
+        when(entryRow.getInt(1)).thenReturn(10);
+        when(entryRow.getString(2)).thenReturn("Zig Programming");
+
+        Professor professor = new Professor();
+        professor.setIdUser(1);
+        Course course = new Course();
+        course.setIdCourse(10);
+        course.setTitle("Zig Programming");
+        course.setResponsibleProfessor(professor);
+
+        CatalogSnapshot before = courseDAO.catalogSnapshot();
+
+        // Act
+        courseDAO.attCourses(course);
+        CatalogSnapshot after = courseDAO.catalogSnapshot();
+
+        // Assert
+        assertNotSame(before, after);
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(List.of(10, 11), before.page(null, 20).getItems().stream().map(CourseSummary::getIdCourse).toList());
+        assertEquals(List.of(11, 10), after.page(null, 20).getItems().stream().map(CourseSummary::getIdCourse).toList());
+        assertEquals(2, after.size());
+        List<CourseSummary> afterItems = after.page(null, 20).getItems();
+        assertEquals(before.getVersion(), afterItems.get(0).getVersion());
+        assertEquals(after.getVersion(), afterItems.get(1).getVersion());
+        verify(entryStatement).setInt(1, 10);
+    }
+
+    @Test
+    void listAllCourses_shouldRequestReadConnection() throws SQLException {
+        // Arrange
+        List<Boolean> readRequested = new ArrayList<>();
+        when(databaseConnector.getConnection()).thenAnswer(invocation -> {
+            readRequested.add(DataSourceRouting.isReadRequested());
+            return connection;
+        });
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+
+        // Act
+        courseDAO.listAllCourses();
+
+        // Assert
+        assertEquals(List.of(true), readRequested);
+        assertFalse(DataSourceRouting.isReadRequested());
+    }
+
+    @Test
+    void deleteCourse_shouldRequestPrimaryConnection() throws SQLException {
+        // Arrange
+        List<Boolean> readRequested = new ArrayList<>();
+        when(databaseConnector.getConnection()).thenAnswer(invocation -> {
+            readRequested.add(DataSourceRouting.isReadRequested());
+            return connection;
+        });
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+
+        // Act
+        courseDAO.deleteCourse(10);
+
+        // Assert
+        assertEquals(List.of(false), readRequested);
+    }
+
     @Test
     void listCoursesByProfessor_shouldReturnListOfCourses() throws SQLException {
         // Arrange
@@ -186,16 +430,16 @@ public class CourseDAOTest {
         when(preparedStatement.executeQuery()).thenReturn(resultSet);
         when(resultSet.next()).thenReturn(true, false); // Return true once for one course, then false
 
-        when(resultSet.getInt("course_id")).thenReturn(10);
-        when(resultSet.getString("title")).thenReturn("Java Programming");
-        when(resultSet.getString("description")).thenReturn("Learn Java");
-        when(resultSet.getInt("responsible_professor_id")).thenReturn(professorId);
-        when(resultSet.getDouble("price")).thenReturn(99.99);
-        when(resultSet.getString("video_presentation_url")).thenReturn("http://example.com/java");
-        when(resultSet.getString("category")).thenReturn("Programming");
-        when(resultSet.getInt("load_hour")).thenReturn(40);
-        when(resultSet.getTimestamp("creation_date")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
-        when(resultSet.getTimestamp("update_date")).thenReturn(null);
+        when(resultSet.getInt(1)).thenReturn(10);
+        when(resultSet.getString(2)).thenReturn("Java Programming");
+        when(resultSet.getString(3)).thenReturn("Learn Java");
+        when(resultSet.getInt(10)).thenReturn(professorId);
+        when(resultSet.getDouble(4)).thenReturn(99.99);
+        when(resultSet.getString(5)).thenReturn("http://example.com/java");
+        when(resultSet.getString(6)).thenReturn("Programming");
+        when(resultSet.getInt(7)).thenReturn(40);
+        when(resultSet.getTimestamp(8)).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+        when(resultSet.getTimestamp(9)).thenReturn(null);
 
         // Act
         List<Course> courses = courseDAO.listCoursesByProfessor(professorId);
@@ -268,7 +512,31 @@ public class CourseDAOTest {
         assertTrue(result);
 
         verify(preparedStatement).setInt(1, courseId);
-        verify(preparedStatement).executeUpdate();
+        // A remoção também avança o carimbo usado no Last-Modified das páginas públicas.
+        verify(connection).prepareStatement(contains("content_deletions"));
+        verify(preparedStatement, times(2)).executeUpdate();
+    }
+
+    @Test
+    void deleteCourse_shouldCountStatementCacheMissThenHitOnSameConnection() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        NamedQuery deleteQuery = AbstractDAO.registeredQueries().stream()
+                .filter(q -> q.getName().equals("course.deleteCourse"))
+                .findFirst()
+                .orElseThrow();
+        long missesBefore = deleteQuery.getMisses();
+        long hitsBefore = deleteQuery.getHits();
+
+        // Act
+        courseDAO.deleteCourse(1);
+        courseDAO.deleteCourse(2);
+
+        // Assert
+        assertEquals(missesBefore + 1, deleteQuery.getMisses());
+        assertEquals(hitsBefore + 1, deleteQuery.getHits());
+        verify(connection, times(2)).prepareStatement("DELETE FROM courses WHERE course_id = ?");
     }
 
     @Test
@@ -323,4 +591,42 @@ public class CourseDAOTest {
         // Verify that no update was executed
         verify(preparedStatement, never()).executeUpdate();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findContentVersion_shouldReadIndexedAggregatesForViewer() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getString("content_version")).thenReturn("2024-01-01 00:00:00.000/Ada/3:12:2024-01-01");
+        when(resultSet.getTimestamp("last_modified")).thenReturn(new Timestamp(1_704_067_200_000L));
+
+        // Act
+        ContentVersion version = courseDAO.findContentVersion(10, 7);
+
+        // Assert
+        assertEquals("2024-01-01 00:00:00.000/Ada/3:12:2024-01-01", version.getVersion());
+        assertEquals(1_704_067_200_000L, version.getLastModified());
+        verify(connection).prepareStatement(argThat(sql -> sql.contains("MAX(cc.updated_at)") && !sql.contains("CRC32")));
+        verify(preparedStatement).setInt(1, 7);
+        verify(preparedStatement).setInt(2, 10);
+    }
+
+    @Test
+    void findCatalogVersion_shouldReadDatabaseVersionAndLastChange() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getString("content_version")).thenReturn("3:12:2024-01-01/2024-01-01/5:2024-01-01");
+        when(resultSet.getTimestamp("last_modified")).thenReturn(new Timestamp(1_704_067_200_000L));
+
+        // Act
+        ContentVersion version = courseDAO.findCatalogVersion();
+
+        // Assert
+        assertEquals("3:12:2024-01-01/2024-01-01/5:2024-01-01", version.getVersion());
+        assertEquals(1_704_067_200_000L, version.getLastModified());
+        verify(connection).prepareStatement(argThat(sql -> sql.contains("content_deletions") && sql.contains("course_rating_buckets")));
+    }
+}
@@ -16,6 +16,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -250,6 +251,8 @@ public class DoubtDAOTest {
         assertTrue(result);
 
         verify(preparedStatement).setInt(1, doubtId);
-        verify(preparedStatement).executeUpdate();
+        // A remoção também avança o carimbo usado no Last-Modified das páginas públicas.
+        verify(connection).prepareStatement(contains("content_deletions"));
+        verify(preparedStatement, times(2)).executeUpdate();
     }
 }
\ No newline at end of file
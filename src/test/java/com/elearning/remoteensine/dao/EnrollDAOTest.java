@@ -5,6 +5,7 @@ import com.elearning.remoteensine.model.Enroll;
 import com.elearning.remoteensine.model.Professor;
 import com.elearning.remoteensine.model.Student;
 import com.elearning.remoteensine.util.DatabaseConnector;
+import com.elearning.remoteensine.util.UnitOfWork;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,7 +18,9 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -40,53 +43,57 @@ public class EnrollDAOTest {
 
     @BeforeEach
     void setUp() throws SQLException {
-        enrollDAO = new EnrollDAO(databaseConnector);
+        enrollDAO = new EnrollDAO(databaseConnector, new InvalidationBus());
         when(databaseConnector.getConnection()).thenReturn(connection);
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
     }
 
     @Test
-    void checkEnroll_shouldReturnTrueWhenEnrollmentExists() throws SQLException {
+    void checkEnroll_shouldAnswerFromIndexOutsideTransactionAndQueryInside() throws SQLException {
         // Arrange
-        int studentId = 1;
-        int courseId = 10;
-        
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(preparedStatement);
         when(preparedStatement.executeQuery()).thenReturn(resultSet);
-        when(resultSet.next()).thenReturn(true);
-        when(resultSet.getInt(1)).thenReturn(1); // Count > 0 means enrollment exists
-        
+        when(resultSet.next()).thenReturn(true, true, false, true);
+        when(resultSet.getInt(1)).thenReturn(10, 11, 1); // cursos do índice, depois o COUNT
+        when(resultSet.getInt(2)).thenReturn(1, 2);
+
         // Act
-        boolean result = enrollDAO.checkEnroll(studentId, courseId);
-        
+        boolean enrolled = enrollDAO.checkEnroll(1, 10);
+        boolean otherCourse = enrollDAO.checkEnroll(1, 11);
+        boolean otherStudent = enrollDAO.checkEnroll(2, 11);
+        boolean unknownCourse = enrollDAO.checkEnroll(1, 12);
+        boolean insideTransaction = UnitOfWork.inTransaction(() -> enrollDAO.checkEnroll(5, 12));
+
         // Assert
-        assertTrue(result);
-        
-        // Verify
-        verify(preparedStatement).setInt(1, studentId);
-        verify(preparedStatement).setInt(2, courseId);
-        verify(preparedStatement).executeQuery();
+        assertTrue(enrolled);
+        assertFalse(otherCourse);
+        assertTrue(otherStudent);
+        assertFalse(unknownCourse);
+        assertTrue(insideTransaction);
+        verify(preparedStatement).setFetchSize(Integer.MIN_VALUE);
+        verify(connection).prepareStatement(contains("COUNT(*)"));
+        verify(preparedStatement, times(2)).executeQuery();
     }
 
     @Test
-    void checkEnroll_shouldReturnFalseWhenEnrollmentDoesNotExist() throws SQLException {
+    void cancelEnroll_shouldRemoveStudentFromLoadedIndex() throws SQLException {
         // Arrange
-        int studentId = 1;
-        int courseId = 10;
-        
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(preparedStatement);
         when(preparedStatement.executeQuery()).thenReturn(resultSet);
-        when(resultSet.next()).thenReturn(true);
-        when(resultSet.getInt(1)).thenReturn(0); // Count = 0 means enrollment doesn't exist
-        
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        when(resultSet.next()).thenReturn(true, true, false, true);
+        when(resultSet.getInt(1)).thenReturn(10, 10, 0); // índice com alunos 1 e 2, depois o COUNT relido
+        when(resultSet.getInt(2)).thenReturn(1, 2);
+        assertTrue(enrollDAO.checkEnroll(1, 10));
+
         // Act
-        boolean result = enrollDAO.checkEnroll(studentId, courseId);
-        
+        boolean canceled = enrollDAO.cancelEnroll(1, 10);
+
         // Assert
-        assertFalse(result);
-        
-        // Verify
-        verify(preparedStatement).setInt(1, studentId);
-        verify(preparedStatement).setInt(2, courseId);
-        verify(preparedStatement).executeQuery();
+        assertTrue(canceled);
+        assertFalse(enrollDAO.checkEnroll(1, 10));
+        assertTrue(enrollDAO.checkEnroll(2, 10));
+        verify(preparedStatement, times(2)).executeQuery();
     }
 
     @Test
@@ -95,10 +102,8 @@ public class EnrollDAOTest {
         int studentId = 1;
         int courseId = 10;
         
-        // Mock checkEnroll to return true (student already enrolled)
-        when(preparedStatement.executeQuery()).thenReturn(resultSet);
-        when(resultSet.next()).thenReturn(true);
-        when(resultSet.getInt(1)).thenReturn(1); // Count > 0 means enrollment exists
+        // The primary key (student_id, course_id) rejects the second enrollment
+        when(preparedStatement.executeUpdate()).thenThrow(new SQLException("Duplicate entry", "23000", 1062));
         
         // Act
         boolean result = enrollDAO.enrollmentStudent(studentId, courseId);
@@ -106,13 +111,23 @@ public class EnrollDAOTest {
         // Assert
         assertFalse(result);
         
-        // Verify checkEnroll was called
+        // Verify the insert was attempted without a locking read first
         verify(preparedStatement).setInt(1, studentId);
         verify(preparedStatement).setInt(2, courseId);
-        verify(preparedStatement).executeQuery();
-        
-        // Verify insert was NOT called
-        verify(preparedStatement, never()).executeUpdate();
+        verify(preparedStatement, never()).executeQuery();
+    }
+
+    @Test
+    void enrollmentStudent_shouldPropagateForeignKeyViolation() throws SQLException {
+        // Arrange
+        SQLException foreignKey = new SQLException("Cannot add or update a child row", "23000", 1452);
+        when(preparedStatement.executeUpdate()).thenThrow(foreignKey);
+
+        // Act
+        SQLException thrown = assertThrows(SQLException.class, () -> enrollDAO.enrollmentStudent(99, 10));
+
+        // Assert
+        assertSame(foreignKey, thrown);
     }
 
     @Test
@@ -170,12 +185,12 @@ public class EnrollDAOTest {
         when(resultSet.next()).thenReturn(true, false); // One enrollment, then no more
         
         // Mock result set data
-        when(resultSet.getInt("student_id")).thenReturn(1);
-        when(resultSet.getInt("course_id")).thenReturn(courseId);
-        when(resultSet.getTimestamp("enrollment_date")).thenReturn(Timestamp.valueOf(enrollDate));
-        when(resultSet.getDouble("progress")).thenReturn(0.5);
-        when(resultSet.getString("student_name")).thenReturn("John Doe");
-        when(resultSet.getString("student_email")).thenReturn("john.doe@example.com");
+        when(resultSet.getInt(1)).thenReturn(1);
+        when(resultSet.getInt(2)).thenReturn(courseId);
+        when(resultSet.getTimestamp(3)).thenReturn(Timestamp.valueOf(enrollDate));
+        when(resultSet.getDouble(4)).thenReturn(0.5);
+        when(resultSet.getString(5)).thenReturn("John Doe");
+        when(resultSet.getString(6)).thenReturn("john.doe@example.com");
         
         // Act
         List<Enroll> enrollments = enrollDAO.lisStudentByCourse(courseId);
@@ -238,4 +253,69 @@ public class EnrollDAOTest {
         verify(preparedStatement).setInt(2, courseId);
         verify(preparedStatement).executeUpdate();
     }
-}
\ No newline at end of file
+
+    @Test
+    void enrollStudents_shouldSkipAlreadyEnrolledAndDuplicatedStudents() throws SQLException {
+        // Arrange
+        int courseId = 10;
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getInt(1)).thenReturn(2); // aluno 2 já matriculado
+        when(preparedStatement.executeBatch()).thenReturn(new int[]{1, 1});
+
+        // Act
+        BatchResult<Integer> result = enrollDAO.enrollStudents(courseId, new int[]{1, 2, 1, 3});
+
+        // Assert
+        assertEquals(List.of(1, 3), result.getSaved());
+        assertEquals(2, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        assertEquals(2, result.getFailures().get(1).getIndex());
+        verify(preparedStatement, times(2)).addBatch();
+        verify(preparedStatement).executeBatch();
+    }
+
+    @Test
+    void enrollStudents_shouldRejectIdsThatAreNotStudents() throws SQLException {
+        // Arrange
+        int courseId = 10;
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+        when(preparedStatement.executeBatch()).thenReturn(new int[]{1, 0}); // 7 é professor: o SELECT não o encontra
+
+        // Act
+        BatchResult<Integer> result = enrollDAO.enrollStudents(courseId, new int[]{1, 7});
+
+        // Assert
+        assertEquals(List.of(1), result.getSaved());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        verify(connection).prepareStatement(contains("user_type = 'STUDENT'"));
+        verify(preparedStatement, times(2)).setInt(1, courseId);
+        verify(preparedStatement).setInt(4, 7);
+    }
+
+    @Test
+    void enrollStudents_shouldRetryRowByRowWhenBatchIsRejected() throws SQLException {
+        // Arrange
+        int courseId = 10;
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+        when(preparedStatement.executeBatch()).thenThrow(new BatchUpdateException());
+        when(preparedStatement.executeUpdate())
+                .thenReturn(1)
+                .thenThrow(new SQLException("Cannot add or update a child row", "23000", 1452))
+                .thenReturn(0);
+
+        // Act
+        BatchResult<Integer> result = enrollDAO.enrollStudents(courseId, new int[]{1, 2, 3});
+
+        // Assert
+        assertEquals(List.of(1), result.getSaved());
+        assertEquals(2, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        assertEquals(2, result.getFailures().get(1).getIndex());
+        verify(preparedStatement).clearBatch();
+        verify(preparedStatement, times(3)).executeUpdate();
+    }
+}
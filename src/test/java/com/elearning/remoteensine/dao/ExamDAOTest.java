@@ -1,5 +1,6 @@
 package com.elearning.remoteensine.dao;
 
+import com.elearning.remoteensine.model.CourseRating;
 import com.elearning.remoteensine.model.Exam;
 import com.elearning.remoteensine.util.DatabaseConnector;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,9 +12,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -32,11 +36,14 @@ public class ExamDAOTest {
     @Mock
     private ResultSet resultSet;
 
+    @Mock
+    private PreparedStatement ratingStatement;
+
     private ExamDAO examDAO;
 
     @BeforeEach
     void setUp() throws SQLException {
-        examDAO = new ExamDAO(databaseConnector);
+        examDAO = new ExamDAO(databaseConnector, new InvalidationBus());
         when(databaseConnector.getConnection()).thenReturn(connection);
     }
 
@@ -45,6 +52,7 @@ public class ExamDAOTest {
         // Arrange
         when(connection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS)))
                 .thenReturn(preparedStatement);
+        when(connection.prepareStatement(anyString())).thenReturn(ratingStatement);
 
         Exam exam = new Exam();
         exam.setCourseId(1);
@@ -188,8 +196,10 @@ public class ExamDAOTest {
 
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
         when(preparedStatement.executeQuery()).thenReturn(resultSet);
-        when(resultSet.next()).thenReturn(true);
-        when(resultSet.getDouble(1)).thenReturn(expectedAverage);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt("bucket")).thenReturn(8, 9);
+        when(resultSet.getInt("grade_count")).thenReturn(1, 1);
+        when(resultSet.getLong("grade_sum")).thenReturn(85L, 90L);
 
         // Act
         double actualAverage = examDAO.mediaCoursesGrade(courseId);
@@ -200,6 +210,65 @@ public class ExamDAOTest {
         verify(preparedStatement).executeQuery();
     }
 
+    @Test
+    void findCourseRatings_shouldLoadAllAggregatesOnceAndFillCoursesWithoutGrades() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        when(resultSet.getInt("course_id")).thenReturn(1, 3, 1);
+        when(resultSet.getInt("bucket")).thenReturn(6, 5, 9);
+        when(resultSet.getInt("grade_count")).thenReturn(2, 1, 1);
+        when(resultSet.getLong("grade_sum")).thenReturn(130L, 55L, 100L);
+
+        // Act
+        Map<Integer, CourseRating> ratings = examDAO.findCourseRatings(List.of(1, 2));
+        Map<Integer, CourseRating> nextPage = examDAO.findCourseRatings(List.of(3));
+
+        // Assert
+        assertEquals(List.of(1, 2), List.copyOf(ratings.keySet()));
+        CourseRating rated = ratings.get(1);
+        assertEquals(3, rated.getCount());
+        assertEquals(2, rated.countIn(6));
+        assertEquals(1, rated.countIn(9));
+        assertEquals(67, rated.percentIn(6));
+        assertEquals(230.0 / 3, rated.getAverage());
+        assertEquals(0, ratings.get(2).getCount());
+        assertEquals(0.0, ratings.get(2).getAverage());
+        assertEquals(55.0, nextPage.get(3).getAverage());
+
+        // A segunda página sai da mesma foto, sem outra consulta.
+        verify(connection).prepareStatement(contains("FROM course_rating_buckets"));
+        verify(preparedStatement).executeQuery();
+        verify(preparedStatement, never()).setInt(anyInt(), anyInt());
+    }
+
+    @Test
+    void findCourseRatings_shouldReloadOnlyWhenRatingsVersionChanges() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false, true, false);
+        when(resultSet.getInt("course_id")).thenReturn(1, 1);
+        when(resultSet.getInt("bucket")).thenReturn(7, 7);
+        when(resultSet.getInt("grade_count")).thenReturn(1, 2);
+        when(resultSet.getLong("grade_sum")).thenReturn(70L, 150L);
+
+        // Act
+        RatingsSnapshot first = examDAO.ratingsSnapshot();
+        RatingsSnapshot unchanged = examDAO.ratingsSnapshot();
+        examDAO.invalidateRatings();
+        RatingsSnapshot reloaded = examDAO.ratingsSnapshot();
+
+        // Assert
+        assertSame(first, unchanged);
+        assertEquals(1, first.get(1).getCount());
+        assertEquals(2, reloaded.get(1).getCount());
+        assertEquals(75.0, reloaded.get(1).getAverage());
+        assertEquals(examDAO.ratingsVersion(), reloaded.getVersion());
+        verify(preparedStatement, times(2)).executeQuery();
+    }
+
     @Test
     void updateExam_shouldReturnTrueWhenSuccessful() throws SQLException {
         // Arrange
@@ -208,7 +277,11 @@ public class ExamDAOTest {
         exam.setGrade(95);
         exam.setComment("Updated comment");
 
-        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        stubStatements();
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("course_id")).thenReturn(1);
+        when(resultSet.getInt("grade")).thenReturn(95);
         when(preparedStatement.executeUpdate()).thenReturn(1);
 
         // Act
@@ -222,14 +295,50 @@ public class ExamDAOTest {
         verify(preparedStatement).setTimestamp(eq(3), any(Timestamp.class));
         verify(preparedStatement).setInt(4, 10);
         verify(preparedStatement).executeUpdate();
+        // A nota não mudou: o agregado fica como está.
+        verifyNoInteractions(ratingStatement);
+    }
+
+    @Test
+    void updateExam_withNewGrade_shouldMoveGradeBetweenBuckets() throws SQLException {
+        // Arrange
+        Exam exam = new Exam();
+        exam.setExamId(10);
+        exam.setGrade(95);
+        exam.setComment("Updated comment");
+
+        stubStatements();
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("course_id")).thenReturn(1);
+        when(resultSet.getInt("grade")).thenReturn(72);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+
+        // Act
+        boolean result = examDAO.updateExam(exam);
+
+        // Assert
+        assertTrue(result);
+        // Sai da faixa 70-79 ...
+        verify(ratingStatement).setInt(1, 72);
+        verify(ratingStatement).setInt(3, 7);
+        // ... e entra na 90-100.
+        verify(ratingStatement).setInt(2, 9);
+        verify(ratingStatement).setInt(3, 95);
+        verify(ratingStatement).setInt(4, 95);
+        verify(ratingStatement, times(2)).executeUpdate();
     }
 
     @Test
     void deleteExam_shouldReturnTrueWhenSuccessful() throws SQLException {
         // Arrange
         int examId = 10;
-        
-        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+
+        stubStatements();
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("course_id")).thenReturn(1);
+        when(resultSet.getInt("grade")).thenReturn(85);
         when(preparedStatement.executeUpdate()).thenReturn(1);
 
         // Act
@@ -238,7 +347,52 @@ public class ExamDAOTest {
         // Assert
         assertTrue(result);
 
-        verify(preparedStatement).setInt(1, examId);
+        verify(preparedStatement, times(2)).setInt(1, examId);
         verify(preparedStatement).executeUpdate();
+        verify(ratingStatement).setInt(1, 85);
+        verify(ratingStatement).setInt(2, 1);
+        verify(ratingStatement).setInt(3, 8);
+        verify(ratingStatement).executeUpdate();
+    }
+
+    @Test
+    void deleteExam_withMissingExam_shouldNotTouchRatings() throws SQLException {
+        // Arrange
+        stubStatements();
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+        when(preparedStatement.executeUpdate()).thenReturn(0);
+
+        // Act
+        boolean result = examDAO.deleteExam(10);
+
+        // Assert
+        assertFalse(result);
+        verifyNoInteractions(ratingStatement);
+    }
+
+    @Test
+    void subtractStudentGrades_shouldSubtractOnlyTheStudentsAttempts() throws SQLException {
+        // Arrange
+        stubStatements();
+
+        // Act
+        examDAO.subtractStudentGrades(databaseConnector.getConnection(), 7);
+
+        // Assert
+        verify(connection).prepareStatement(argThat(sql ->
+                sql.startsWith("UPDATE course_rating_buckets") && sql.contains("WHERE student_id = ?")));
+        verify(ratingStatement).setInt(1, 7);
+        verify(ratingStatement).executeUpdate();
+        verifyNoInteractions(preparedStatement);
+    }
+
+    /**
+     * As instruções do agregado de notas vão para ratingStatement; as demais, para preparedStatement.
+     */
+    private void stubStatements() throws SQLException {
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation ->
+                invocation.<String>getArgument(0).contains("course_rating_buckets")
+                        ? ratingStatement : preparedStatement);
     }
-}
\ No newline at end of file
+}
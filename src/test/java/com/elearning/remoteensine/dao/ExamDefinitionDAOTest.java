@@ -3,6 +3,7 @@ package com.elearning.remoteensine.dao;
 
 import com.elearning.remoteensine.model.ExamDefinition;
 import com.elearning.remoteensine.model.GradeStudent;
+import com.elearning.remoteensine.model.PublishedExam;
 import com.elearning.remoteensine.util.DatabaseConnector;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,7 +39,8 @@ public class ExamDefinitionDAOTest {
 
     @BeforeEach
     void setUp() throws SQLException {
-        examDefinitionDAO = new ExamDefinitionDAO(databaseConnector);
+        InvalidationBus bus = new InvalidationBus();
+        examDefinitionDAO = new ExamDefinitionDAO(databaseConnector, bus, new ExamDAO(databaseConnector, bus));
         when(databaseConnector.getConnection()).thenReturn(connection);
     }
 
@@ -281,6 +283,57 @@ public class ExamDefinitionDAOTest {
         verify(preparedStatement).executeUpdate();
     }
 
+    @Test
+    void findPublishedExam_shouldServeRepeatedLookupsFromCache() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt("id_exam_definition")).thenReturn(10);
+        when(resultSet.getString("title")).thenReturn("Final Exam");
+        when(resultSet.getBoolean("published")).thenReturn(true);
+        when(resultSet.getInt("id_exam_question")).thenReturn(100);
+        when(resultSet.getString("exercise_type")).thenReturn("MULTIPLA_ESCOLHA");
+        when(resultSet.getString("options")).thenReturn("[{\"key\":\"A\",\"text\":\"Quatro\"}]");
+
+        // Act
+        PublishedExam first = examDefinitionDAO.findPublishedExam(10);
+        PublishedExam second = examDefinitionDAO.findPublishedExam(10);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("Final Exam", first.getDefinition().getTitle());
+        assertEquals(1, first.getQuestions().size());
+        assertEquals("Quatro", first.getQuestions().get(0).getParsedOptions().get(0).get("text"));
+        assertThrows(UnsupportedOperationException.class, () -> first.getQuestions().clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> first.getQuestions().get(0).getParsedOptions().get(0).put("text", "Cinco"));
+        verify(databaseConnector, times(1)).getConnection();
+        verify(preparedStatement, times(2)).executeQuery();
+    }
+
+    @Test
+    void updateExamDefinition_shouldDiscardCachedPublishedExam() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false, false);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        assertNotNull(examDefinitionDAO.findPublishedExam(10));
+
+        ExamDefinition unpublished = new ExamDefinition();
+        unpublished.setIdDefinitionExam(10);
+        unpublished.setPublished(false);
+
+        // Act
+        examDefinitionDAO.updateExamDefinition(unpublished);
+        PublishedExam afterUpdate = examDefinitionDAO.findPublishedExam(10);
+
+        // Assert
+        assertNull(afterUpdate);
+        verify(preparedStatement, times(3)).executeQuery();
+    }
+
     @Test
     void deleteExamDefinition_shouldReturnTrueWhenSuccessful() throws SQLException {
         // Arrange
@@ -295,7 +348,8 @@ public class ExamDefinitionDAOTest {
         // Assert
         assertTrue(result);
 
-        verify(preparedStatement).setInt(1, examDefinitionId);
-        verify(preparedStatement).executeUpdate();
+        // As notas das tentativas apagadas em cascata saem do agregado na mesma transação.
+        verify(preparedStatement, times(2)).setInt(1, examDefinitionId);
+        verify(preparedStatement, times(2)).executeUpdate();
     }
 }
\ No newline at end of file
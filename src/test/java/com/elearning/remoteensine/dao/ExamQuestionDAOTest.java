@@ -41,7 +41,9 @@ public class ExamQuestionDAOTest {
 
     @BeforeEach
     void setUp() throws SQLException {
-        examQuestionDAO = new ExamQuestionDAO(databaseConnector);
+        InvalidationBus bus = new InvalidationBus();
+        examQuestionDAO = new ExamQuestionDAO(databaseConnector,
+                new ExamDefinitionDAO(databaseConnector, bus, new ExamDAO(databaseConnector, bus)));
         when(databaseConnector.getConnection()).thenReturn(connection);
     }
 
@@ -266,4 +268,69 @@ public class ExamQuestionDAOTest {
         verify(preparedStatement).setInt(1, examDefinitionId);
         verify(preparedStatement).executeUpdate();
     }
-}
\ No newline at end of file
+
+    @Test
+    void saveQuestions_shouldBatchValidRowsAndAssignGeneratedKeys() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS)))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.executeBatch()).thenReturn(new int[]{1, 1});
+        when(preparedStatement.getGeneratedKeys()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true);
+        when(resultSet.getInt(1)).thenReturn(7, 8);
+
+        ExamQuestion first = batchQuestion("Q1", ExerciseType.DISSERTATIVA);
+        ExamQuestion invalid = batchQuestion("Q2", null);
+        ExamQuestion third = batchQuestion("Q3", ExerciseType.MULTIPLA_ESCOLHA);
+
+        // Act
+        BatchResult<ExamQuestion> result = examQuestionDAO.saveQuestions(List.of(first, invalid, third));
+
+        // Assert
+        assertEquals(List.of(first, third), result.getSaved());
+        assertEquals(7, first.getIdExamQuestion());
+        assertEquals(8, third.getIdExamQuestion());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        verify(preparedStatement, times(2)).addBatch();
+        verify(preparedStatement).executeBatch();
+        verify(preparedStatement, never()).executeUpdate();
+    }
+
+    @Test
+    void saveQuestions_shouldReportPerRowFailuresWhenBatchIsRejected() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS)))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.executeBatch()).thenThrow(new BatchUpdateException());
+        when(preparedStatement.executeUpdate())
+                .thenReturn(1)
+                .thenThrow(new SQLException("Cannot add or update a child row"));
+        when(preparedStatement.getGeneratedKeys()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(7);
+
+        ExamQuestion first = batchQuestion("Q1", ExerciseType.DISSERTATIVA);
+        ExamQuestion second = batchQuestion("Q2", ExerciseType.DISSERTATIVA);
+
+        // Act
+        BatchResult<ExamQuestion> result = examQuestionDAO.saveQuestions(List.of(first, second));
+
+        // Assert
+        assertEquals(List.of(first), result.getSaved());
+        assertEquals(7, first.getIdExamQuestion());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        assertSame(second, result.getFailures().get(0).getRow());
+        verify(preparedStatement).clearBatch();
+    }
+
+    private ExamQuestion batchQuestion(String statement, ExerciseType type) {
+        ExamQuestion question = new ExamQuestion();
+        question.setIdDefinitionExam(1);
+        question.setStatement(statement);
+        question.setExerciseType(type);
+        question.setGrade(1.0);
+        return question;
+    }
+}
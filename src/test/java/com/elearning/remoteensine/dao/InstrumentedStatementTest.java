@@ -0,0 +1,75 @@
+package com.elearning.remoteensine.dao;
+
+import com.elearning.remoteensine.util.DataSourceRouting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InstrumentedStatementTest {
+
+    @Mock
+    private PreparedStatement delegate;
+
+    private final NamedQuery query = new NamedQuery("test.instrumented", "SELECT 1");
+
+    @AfterEach
+    void tearDown() {
+        DataSourceRouting.reset();
+    }
+
+    @Test
+    void execute_shouldNotRecordWriteWhenStatementReturnsResultSet() throws SQLException {
+        // Arrange
+        when(delegate.execute()).thenReturn(true);
+        PreparedStatement pstmt = InstrumentedStatement.wrap(delegate, query, 0);
+
+        // Act
+        boolean hasResultSet = pstmt.execute();
+
+        // Assert
+        assertTrue(hasResultSet);
+        assertFalse(DataSourceRouting.wroteInCurrentRequest());
+        verify(delegate, never()).getUpdateCount();
+    }
+
+    @Test
+    void execute_shouldRecordWriteAndRowsForUpdateCount() throws SQLException {
+        // Arrange
+        when(delegate.execute()).thenReturn(false);
+        when(delegate.getUpdateCount()).thenReturn(3);
+        PreparedStatement pstmt = InstrumentedStatement.wrap(delegate, query, 0);
+
+        // Act
+        boolean hasResultSet = pstmt.execute();
+
+        // Assert
+        assertFalse(hasResultSet);
+        assertTrue(DataSourceRouting.wroteInCurrentRequest());
+        assertEquals(3, query.snapshot().getRows());
+    }
+
+    @Test
+    void executeUpdate_shouldCountErrorAndRethrowDriverException() throws SQLException {
+        // Arrange
+        SQLException failure = new SQLException("Duplicate entry", "23000", 1062);
+        when(delegate.executeUpdate()).thenThrow(failure);
+        PreparedStatement pstmt = InstrumentedStatement.wrap(delegate, query, 0);
+
+        // Act
+        SQLException thrown = assertThrows(SQLException.class, pstmt::executeUpdate);
+
+        // Assert
+        assertSame(failure, thrown);
+        assertEquals(1, query.snapshot().getErrors());
+        assertFalse(DataSourceRouting.wroteInCurrentRequest());
+    }
+}
@@ -0,0 +1,245 @@
+package com.elearning.remoteensine.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvalidationBusTest {
+
+    private InvalidationBus bus;
+    private FakeTransport transport;
+    private List<Integer> userEvents;
+    private List<Integer> courseEvents;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bus = new InvalidationBus();
+        transport = new FakeTransport();
+        userEvents = new CopyOnWriteArrayList<>();
+        courseEvents = new CopyOnWriteArrayList<>();
+        bus.subscribe(CacheRegion.USER, userEvents::add);
+        bus.subscribe(CacheRegion.CATALOG, courseEvents::add);
+        bus.start(transport, "node-a", 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.stop();
+    }
+
+    @Test
+    void publish_shouldSendEventWithIncreasingVersions() throws InterruptedException {
+        // Act
+        bus.publish(CacheRegion.USER, 7);
+        bus.publish(CacheRegion.CATALOG, 3);
+        InvalidationEvent first = transport.sent.poll(5, TimeUnit.SECONDS);
+        InvalidationEvent second = transport.sent.poll(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(CacheRegion.USER, first.getRegion());
+        assertEquals(7, first.getId());
+        assertEquals("node-a", first.getNode());
+        assertEquals(first.getVersion() + 1, second.getVersion());
+        assertTrue(userEvents.isEmpty(), "Own writes are evicted locally, not through the bus");
+    }
+
+    @Test
+    void publish_shouldDoNothingWhenBusIsStopped() {
+        // Arrange
+        bus.stop();
+        long published = bus.stats().getPublished();
+
+        // Act
+        bus.publish(CacheRegion.USER, 7);
+
+        // Assert
+        assertEquals(published, bus.stats().getPublished());
+        assertEquals("none", bus.stats().getTransport());
+    }
+
+    @Test
+    void receive_shouldApplyEventsFromOtherNodesOnly() {
+        // Act
+        transport.listener.onEvent(new InvalidationEvent(CacheRegion.USER, 5, 1, "node-a", System.currentTimeMillis()));
+        transport.listener.onEvent(new InvalidationEvent(CacheRegion.USER, 9, 1, "node-b", System.currentTimeMillis()));
+
+        // Assert
+        assertEquals(List.of(9), userEvents);
+        assertTrue(bus.stats().getLagSamples() > 0);
+    }
+
+    @Test
+    void receive_shouldFlushEveryRegionOnAllEvent() {
+        // Arrange
+        long flushes = bus.stats().getFlushes();
+
+        // Act
+        transport.listener.onEvent(new InvalidationEvent(CacheRegion.ALL, InvalidationBus.ALL_IDS, 4, "node-b",
+                System.currentTimeMillis()));
+
+        // Assert
+        assertEquals(List.of(InvalidationBus.ALL_IDS), userEvents);
+        assertEquals(List.of(InvalidationBus.ALL_IDS), courseEvents);
+        assertEquals(flushes + 1, bus.stats().getFlushes());
+    }
+
+    @Test
+    void onLoss_shouldFlushEveryRegion() {
+        // Act
+        transport.listener.onLoss("eventos perdidos");
+
+        // Assert
+        assertEquals(List.of(InvalidationBus.ALL_IDS), userEvents);
+        assertEquals(List.of(InvalidationBus.ALL_IDS), courseEvents);
+    }
+
+    @Test
+    void receive_shouldFallBackToWholeRegionWhenHandlerFails() {
+        // Arrange
+        List<Integer> applied = new CopyOnWriteArrayList<>();
+        bus.subscribe(CacheRegion.ENROLLMENT, idCourse -> {
+            applied.add(idCourse);
+            if (idCourse != InvalidationBus.ALL_IDS) {
+                throw new IllegalStateException("banco fora");
+            }
+        });
+
+        // Act
+        transport.listener.onEvent(new InvalidationEvent(CacheRegion.ENROLLMENT, 12, 1, "node-b",
+                System.currentTimeMillis()));
+
+        // Assert
+        assertEquals(List.of(12, InvalidationBus.ALL_IDS), applied);
+    }
+
+    @Test
+    void checkStaleness_shouldFlushOnceAndDisableCachesWhileTransportIsSilent() {
+        // Arrange
+        long now = System.currentTimeMillis();
+
+        // Act
+        bus.checkStaleness(now + 1_000);
+        boolean enabledBefore = bus.cachesEnabled();
+        bus.checkStaleness(now + 120_000);
+        bus.checkStaleness(now + 121_000);
+        bus.checkStaleness(now + 122_000);
+
+        // Assert
+        assertTrue(enabledBefore);
+        assertFalse(bus.cachesEnabled());
+        assertEquals(List.of(InvalidationBus.ALL_IDS), userEvents);
+        assertEquals(List.of(InvalidationBus.ALL_IDS), courseEvents);
+    }
+
+    @Test
+    void checkStaleness_shouldFlushAgainAndEnableCachesWhenTransportRecovers() {
+        // Arrange
+        bus.checkStaleness(System.currentTimeMillis() + 120_000);
+        assertFalse(bus.cachesEnabled());
+
+        // Act
+        transport.listener.onHealthy();
+        bus.checkStaleness(System.currentTimeMillis() + 1_000);
+        bus.checkStaleness(System.currentTimeMillis() + 2_000);
+
+        // Assert
+        assertTrue(bus.cachesEnabled());
+        assertEquals(List.of(InvalidationBus.ALL_IDS, InvalidationBus.ALL_IDS), userEvents);
+    }
+
+    @Test
+    void stop_shouldEnableCachesLeftDisabledByStaleTransport() {
+        // Arrange
+        bus.checkStaleness(System.currentTimeMillis() + 120_000);
+
+        // Act
+        bus.stop();
+
+        // Assert
+        assertTrue(bus.cachesEnabled());
+    }
+
+    @Test
+    void send_shouldMarkNodeUnableToPublishWhileSendsFailLongerThanMaxStaleness() throws Exception {
+        // Arrange
+        bus.stop();
+        bus = new InvalidationBus();
+        transport = new FakeTransport();
+        transport.refusing = true;
+        bus.start(transport, "node-a", 200);
+
+        // Act
+        bus.publish(CacheRegion.USER, 7);
+        Boolean marked = transport.publishing.poll(5, TimeUnit.SECONDS);
+        boolean reported = bus.stats().isUnableToPublish();
+        transport.refusing = false;
+        InvalidationEvent delivered = transport.sent.poll(5, TimeUnit.SECONDS);
+        Boolean recovered = transport.publishing.poll(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(Boolean.FALSE, marked);
+        assertTrue(reported);
+        assertNotNull(delivered);
+        assertEquals(Boolean.TRUE, recovered);
+        assertFalse(bus.stats().isUnableToPublish());
+    }
+
+    @Test
+    void checkStaleness_shouldStopFlushingOnceTransportIsHealthy() {
+        // Arrange
+        transport.listener.onHealthy();
+
+        // Act
+        bus.checkStaleness(System.currentTimeMillis() + 1_000);
+
+        // Assert
+        assertTrue(userEvents.isEmpty());
+        assertEquals("fake", bus.stats().getTransport());
+        assertEquals(60_000, bus.stats().getMaxStalenessMillis());
+    }
+
+    private static final class FakeTransport implements InvalidationTransport {
+        private final BlockingQueue<InvalidationEvent> sent = new LinkedBlockingQueue<>();
+        private final BlockingQueue<Boolean> publishing = new LinkedBlockingQueue<>();
+        private volatile Listener listener;
+        private volatile boolean refusing;
+
+        @Override
+        public String getName() {
+            return "fake";
+        }
+
+        @Override
+        public void start(String node, Listener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void send(List<InvalidationEvent> events) throws IOException {
+            if (refusing) {
+                throw new IOException("Connection refused");
+            }
+            sent.addAll(events);
+        }
+
+        @Override
+        public void setPublishing(boolean publishing) {
+            this.publishing.add(publishing);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.elearning.remoteensine.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Liga o barramento com multicast nesta JVM e num {@link InvalidationPeer} em outra, na
+ * mesma máquina, e confere que as invalidações passam nos dois sentidos. Só executa com
+ * INVALIDATION_TWO_JVM=true; INVALIDATION_MULTICAST_INTERFACE escolhe a interface (ex.: lo)
+ * quando a rota padrão não aceita multicast.
+ */
+@EnabledIfEnvironmentVariable(named = "INVALIDATION_TWO_JVM", matches = "true")
+public class InvalidationBusTwoJvmTest {
+
+    private static final String GROUP = "239.255.42.98";
+
+    @Test
+    void eventsShouldReachTheOtherJvmInBothDirections() throws Exception {
+        // Arrange
+        int port = ThreadLocalRandom.current().nextInt(40_000, 50_000);
+        String networkInterface = System.getenv().getOrDefault("INVALIDATION_MULTICAST_INTERFACE", "");
+        BlockingQueue<Integer> received = new LinkedBlockingQueue<>();
+        InvalidationBus bus = new InvalidationBus();
+        bus.subscribe(CacheRegion.USER, idUser -> {
+            if (idUser != InvalidationBus.ALL_IDS) {
+                received.add(idUser);
+            }
+        });
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process peer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                InvalidationPeer.class.getName(), GROUP, String.valueOf(port), networkInterface)
+                .redirectErrorStream(true)
+                .start();
+        BlockingQueue<String> peerOutput = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(peer.getInputStream(),
+                    StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    peerOutput.add(line);
+                }
+            } catch (Exception ignored) {
+                // Processo encerrado.
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+        PrintWriter peerInput = new PrintWriter(peer.getOutputStream(), true, StandardCharsets.UTF_8);
+
+        try {
+            bus.start(new MulticastInvalidationTransport(GROUP, port, networkInterface, 0, 200),
+                    "test-node", 60_000);
+            awaitLine(peerOutput, "READY");
+
+            // Act
+            bus.publish(CacheRegion.USER, 41);
+            String delivered = awaitLine(peerOutput, "RECEIVED ");
+            peerInput.println("PUBLISH 42");
+            Integer returned = received.poll(10, TimeUnit.SECONDS);
+
+            // Assert
+            assertEquals("RECEIVED 41", delivered);
+            assertEquals(42, returned);
+            assertTrue(bus.stats().getLagSamples() > 0);
+            assertEquals("multicast", bus.stats().getTransport());
+        } finally {
+            bus.stop();
+            peerInput.close();
+            if (!peer.waitFor(5, TimeUnit.SECONDS)) {
+                peer.destroyForcibly();
+            }
+        }
+    }
+
+    private static String awaitLine(BlockingQueue<String> output, String prefix) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            String line = output.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+            if (line != null && line.startsWith(prefix)) {
+                return line;
+            }
+        }
+        fail("Peer JVM did not print '" + prefix + "' in time");
+        return null;
+    }
+}
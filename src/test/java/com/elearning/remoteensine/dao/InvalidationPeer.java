@@ -0,0 +1,36 @@
+package com.elearning.remoteensine.dao;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Segundo nó do {@link InvalidationBusTwoJvmTest}, rodando em outra JVM. Argumentos: grupo,
+ * porta e interface do multicast. Escreve "READY" quando o barramento está ligado e
+ * "RECEIVED <id>" para cada usuário invalidado por outro nó; cada linha "PUBLISH <id>"
+ * lida da entrada publica a invalidação desse usuário.
+ */
+public class InvalidationPeer {
+
+    public static void main(String[] args) throws Exception {
+        InvalidationBus bus = new InvalidationBus();
+        bus.subscribe(CacheRegion.USER, idUser -> {
+            if (idUser != InvalidationBus.ALL_IDS) {
+                System.out.println("RECEIVED " + idUser);
+            }
+        });
+        String networkInterface = args.length > 2 ? args[2] : "";
+        bus.start(new MulticastInvalidationTransport(args[0], Integer.parseInt(args[1]), networkInterface,
+                0, 200), "peer", 60_000);
+        System.out.println("READY");
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith("PUBLISH ")) {
+                bus.publish(CacheRegion.USER, Integer.parseInt(line.substring("PUBLISH ".length())));
+            }
+        }
+        bus.stop();
+    }
+}
@@ -0,0 +1,42 @@
+package com.elearning.remoteensine.dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void percentile_shouldStayWithinBucketPrecision() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros);
+        }
+
+        // Act
+        long p50 = histogram.percentile(50);
+        long p99 = histogram.percentile(99);
+
+        // Assert
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000, histogram.getMaxMicros());
+        assertEquals(5_000, p50, 5_000 * 0.04);
+        assertEquals(9_900, p99, 9_900 * 0.04);
+        assertEquals(10_000, histogram.percentile(100));
+    }
+
+    @Test
+    void percentile_shouldReturnZeroWhenEmpty() {
+        assertEquals(0, new LatencyHistogram().percentile(99));
+    }
+
+    @Test
+    void indexOf_shouldMapEveryValueInsideItsBucket() {
+        for (long value : new long[]{0, 1, 63, 64, 65, 127, 128, 1_000, 123_456_789L}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestEquivalentValue(index - 1) < value);
+        }
+    }
+}
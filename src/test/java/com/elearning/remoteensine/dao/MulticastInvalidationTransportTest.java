@@ -0,0 +1,180 @@
+package com.elearning.remoteensine.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MulticastInvalidationTransportTest {
+
+    private static final long START = 1_000_000;
+
+    private MulticastInvalidationTransport transport;
+    private RecordingListener listener;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        transport = new MulticastInvalidationTransport("239.255.42.99", 45678, "", 1, 1000);
+        listener = new RecordingListener();
+        transport.bind("node-a", listener, START);
+    }
+
+    @Test
+    void handle_shouldDeliverEventsInSequenceWithoutLoss() {
+        // Act
+        transport.handle("INV1 node-b 42 2\nUSER 7 1 99\nCATALOG 3 2 99\n", START + 100);
+        transport.handle("INV1 node-b 42 3\nENROLLMENT 5 3 99\n", START + 200);
+
+        // Assert
+        assertEquals(List.of("USER:7", "CATALOG:3", "ENROLLMENT:5"), listener.events);
+        assertTrue(listener.losses.isEmpty());
+    }
+
+    @Test
+    void handle_shouldReportLossWhenVersionsSkip() {
+        // Arrange
+        transport.handle("INV1 node-b 42 1\nUSER 7 1 99\n", START + 100);
+
+        // Act
+        transport.handle("INV1 node-b 42 4\nUSER 8 4 99\n", START + 200);
+
+        // Assert
+        assertEquals(1, listener.losses.size());
+        assertEquals(List.of("USER:7", "USER:8"), listener.events);
+    }
+
+    @Test
+    void handle_shouldReportLossWhenHeartbeatIsAheadOfLastEvent() {
+        // Arrange
+        transport.handle("INV1 node-b 42 1\nUSER 7 1 99\n", START + 100);
+
+        // Act
+        transport.handle("INV1 node-b 42 3\n", START + 1100);
+
+        // Assert
+        assertEquals(1, listener.losses.size());
+    }
+
+    @Test
+    void handle_shouldReportLossWhenHeartbeatFollowsSingleLostEvent() {
+        // Arrange
+        transport.handle("INV1 node-b 42 1\nUSER 7 1 99\n", START + 100);
+
+        // Act
+        transport.handle("INV1 node-b 42 2\n", START + 1100);
+
+        // Assert
+        assertEquals(1, listener.losses.size());
+    }
+
+    @Test
+    void handle_shouldReportLossWhenNodeRestarts() {
+        // Arrange
+        transport.handle("INV1 node-b 42 5\n", START + 100);
+
+        // Act
+        transport.handle("INV1 node-b 43 0\n", START + 200);
+
+        // Assert
+        assertEquals(1, listener.losses.size());
+    }
+
+    @Test
+    void handle_shouldReportLossForNodeFirstSeenMidStream() {
+        // Act
+        transport.handle("INV1 node-b 42 9\n", START + 60_000);
+
+        // Assert
+        assertEquals(1, listener.losses.size());
+    }
+
+    @Test
+    void handle_shouldForgetNodeThatSaidGoodbye() {
+        // Arrange
+        transport.handle("INV1 node-b 42 2\n", START + 100);
+
+        // Act
+        transport.handle("INV1 node-b 42 2 BYE\n", START + 200);
+        transport.handle("INV1 node-b 77 0\n", START + 300);
+
+        // Assert
+        assertTrue(listener.losses.isEmpty());
+    }
+
+    @Test
+    void handle_shouldIgnoreOwnPacketsAndTreatUnknownRegionAsAll() {
+        // Act
+        transport.handle("INV1 node-a 42 1\nUSER 7 1 99\n", START + 100);
+        transport.handle("INV1 node-b 42 1\nQUIZ 7 1 99\n", START + 100);
+
+        // Assert
+        assertEquals(List.of("ALL:7"), listener.events);
+    }
+
+    @Test
+    void checkPeers_shouldStayUnhealthyWhileKnownNodeIsSilent() {
+        // Arrange
+        transport.handle("INV1 node-b 42 0\n", START + 100);
+        assertTrue(transport.checkPeers(START + 1_000));
+
+        // Act
+        boolean silent = transport.checkPeers(START + 6_000);
+        boolean stillSilent = transport.checkPeers(START + 9_000);
+        transport.handle("INV1 node-b 42 0\n", START + 9_500);
+        boolean heardAgain = transport.checkPeers(START + 10_000);
+
+        // Assert
+        assertFalse(silent);
+        assertFalse(stillSilent);
+        assertTrue(heardAgain);
+        assertEquals(List.of("nó node-b sem batimentos"), listener.losses);
+    }
+
+    @Test
+    void checkPeers_shouldForgetNodeThatSaidGoodbye() {
+        // Arrange
+        transport.handle("INV1 node-b 42 0\n", START + 100);
+        transport.handle("INV1 node-b 42 0 BYE\n", START + 200);
+
+        // Act
+        boolean healthy = transport.checkPeers(START + 60_000);
+
+        // Assert
+        assertTrue(healthy);
+        assertTrue(listener.losses.isEmpty());
+    }
+
+    @Test
+    void handle_shouldRejectForeignPackets() {
+        assertThrows(IllegalArgumentException.class, () -> transport.handle("hello", START));
+    }
+
+    @Test
+    void constructor_shouldRejectUnicastAddress() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MulticastInvalidationTransport("10.0.0.1", 45678, "", 1, 1000));
+    }
+
+    private static final class RecordingListener implements InvalidationTransport.Listener {
+        private final List<String> events = new ArrayList<>();
+        private final List<String> losses = new ArrayList<>();
+
+        @Override
+        public void onEvent(InvalidationEvent event) {
+            events.add(event.getRegion() + ":" + event.getId());
+        }
+
+        @Override
+        public void onHealthy() {
+        }
+
+        @Override
+        public void onLoss(String reason) {
+            losses.add(reason);
+        }
+    }
+}
@@ -11,6 +11,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -36,7 +38,7 @@ public class NewsletterDAOTest {
 
     @BeforeEach
     void setUp() throws SQLException {
-        newsletterDAO = new NewsletterDAO(databaseConnector);
+        newsletterDAO = new NewsletterDAO(databaseConnector, new InvalidationBus());
         when(databaseConnector.getConnection()).thenReturn(connection);
     }
 
@@ -81,10 +83,10 @@ public class NewsletterDAOTest {
         when(preparedStatement.executeQuery()).thenReturn(resultSet);
         when(resultSet.next()).thenReturn(true);
         
-        when(resultSet.getInt("inscription_id")).thenReturn(10);
-        when(resultSet.getString("email")).thenReturn(email);
-        when(resultSet.getTimestamp("inscription_hour")).thenReturn(Timestamp.valueOf(inscriptionDate));
-        when(resultSet.getBoolean("active")).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(10);
+        when(resultSet.getString(2)).thenReturn(email);
+        when(resultSet.getTimestamp(3)).thenReturn(Timestamp.valueOf(inscriptionDate));
+        when(resultSet.getBoolean(4)).thenReturn(true);
 
         // Act
         NewsLetterInscription foundInscription = newsletterDAO.searchByEmail(email);
@@ -151,13 +153,13 @@ public class NewsletterDAOTest {
         LocalDateTime date2 = LocalDateTime.now();
 
         // First inscription
-        when(resultSet.getInt("inscription_id")).thenReturn(10, 11);
-        when(resultSet.getString("email")).thenReturn("test1@example.com", "test2@example.com");
-        when(resultSet.getTimestamp("inscription_hour")).thenReturn(
+        when(resultSet.getInt(1)).thenReturn(10, 11);
+        when(resultSet.getString(2)).thenReturn("test1@example.com", "test2@example.com");
+        when(resultSet.getTimestamp(3)).thenReturn(
                 Timestamp.valueOf(date1), 
                 Timestamp.valueOf(date2)
         );
-        when(resultSet.getBoolean("active")).thenReturn(true, false);
+        when(resultSet.getBoolean(4)).thenReturn(true, false);
 
         // Act
         List<NewsLetterInscription> inscriptions = newsletterDAO.listAllInscriptions(false); // false = list all
@@ -190,10 +192,10 @@ public class NewsletterDAOTest {
 
         LocalDateTime date = LocalDateTime.now();
 
-        when(resultSet.getInt("inscription_id")).thenReturn(10);
-        when(resultSet.getString("email")).thenReturn("test1@example.com");
-        when(resultSet.getTimestamp("inscription_hour")).thenReturn(Timestamp.valueOf(date));
-        when(resultSet.getBoolean("active")).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(10);
+        when(resultSet.getString(2)).thenReturn("test1@example.com");
+        when(resultSet.getTimestamp(3)).thenReturn(Timestamp.valueOf(date));
+        when(resultSet.getBoolean(4)).thenReturn(true);
 
         // Act
         List<NewsLetterInscription> inscriptions = newsletterDAO.listAllInscriptions(true); // true = only active
@@ -234,4 +236,147 @@ public class NewsletterDAOTest {
         verify(preparedStatement).setBoolean(3, true);
         verify(preparedStatement).executeUpdate();
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamAllInscriptions_shouldMapRowsLazilyAndCloseCursor() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt(1)).thenReturn(10, 11);
+        when(resultSet.getString(2)).thenReturn("test1@example.com", "test2@example.com");
+        when(resultSet.getBoolean(4)).thenReturn(true, true);
+
+        // Act
+        List<String> emails;
+        try (Stream<NewsLetterInscription> inscriptions = newsletterDAO.streamAllInscriptions(true)) {
+            verify(resultSet, never()).next(); // nada é lido antes do consumo
+            emails = inscriptions.map(NewsLetterInscription::getEmail).collect(Collectors.toList());
+        }
+
+        // Assert
+        assertEquals(List.of("test1@example.com", "test2@example.com"), emails);
+        verify(preparedStatement).setFetchSize(Integer.MIN_VALUE);
+        verify(resultSet).close();
+        verify(preparedStatement).close();
+        verify(connection).close();
+    }
+
+    @Test
+    void streamAllInscriptions_shouldCloseCursorWhenStreamIsClosedEarly() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getString(2)).thenReturn("test1@example.com");
+
+        // Act
+        try (Stream<NewsLetterInscription> inscriptions = newsletterDAO.streamAllInscriptions(false)) {
+            assertEquals("test1@example.com", inscriptions.findFirst().orElseThrow().getEmail());
+        }
+
+        // Assert
+        verify(resultSet, times(1)).next();
+        verify(resultSet).close();
+        verify(preparedStatement).close();
+        verify(connection).close();
+    }
+
+    @Test
+    void updateInscriptionStatus_shouldRecordExecutionAndAffectedRows() throws SQLException {
+        // Arrange
+        NewsLetterInscription inscription = new NewsLetterInscription("test@example.com");
+        inscription.setInscriptionId(10);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        StatementStats before = statementStats("newsletter.updateInscriptionStatus");
+
+        // Act
+        newsletterDAO.updateInscriptionStatus(inscription);
+
+        // Assert
+        StatementStats after = statementStats("newsletter.updateInscriptionStatus");
+        assertEquals(before.getExecutions() + 1, after.getExecutions());
+        assertEquals(before.getRows() + 1, after.getRows());
+        assertEquals(before.getErrors(), after.getErrors());
+    }
+
+    @Test
+    void isActiveSubscriber_shouldAnswerFromIndexLoadedOnce() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getString(1)).thenReturn("Ana@Example.com", "bruno@example.com");
+
+        // Act
+        boolean ana = newsletterDAO.isActiveSubscriber("ana@example.com");
+        boolean bruno = newsletterDAO.isActiveSubscriber("bruno@example.com");
+        boolean carla = newsletterDAO.isActiveSubscriber("carla@example.com");
+
+        // Assert
+        assertTrue(ana);
+        assertTrue(bruno);
+        assertFalse(carla);
+        verify(preparedStatement, times(1)).executeQuery();
+    }
+
+    @Test
+    void updateInscriptionStatus_shouldRemoveCancelledEmailFromIndex() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(preparedStatement);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        when(resultSet.next()).thenReturn(true, false, true);
+        when(resultSet.getString(1)).thenReturn("ana@example.com");
+        when(resultSet.getBoolean(4)).thenReturn(false);
+        assertTrue(newsletterDAO.isActiveSubscriber("ana@example.com"));
+
+        NewsLetterInscription inscription = new NewsLetterInscription("ana@example.com");
+        inscription.setInscriptionId(10);
+        inscription.setActive(false);
+
+        // Act
+        newsletterDAO.updateInscriptionStatus(inscription);
+
+        // Assert
+        assertFalse(newsletterDAO.isActiveSubscriber("ana@example.com"));
+        verify(preparedStatement).setString(1, "ana@example.com");
+        verify(preparedStatement, times(2)).executeQuery();
+    }
+
+    @Test
+    void searchByEmail_shouldLogSlowExecutionWithoutParameterValues() throws SQLException {
+        // Arrange
+        when(databaseConnector.getSlowQueryThresholdMs()).thenReturn(1L);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenAnswer(invocation -> {
+            Thread.sleep(5);
+            return resultSet;
+        });
+        when(resultSet.next()).thenReturn(false);
+
+        // Act
+        newsletterDAO.searchByEmail("secret@example.com");
+
+        // Assert
+        SlowQuery latest = AbstractDAO.recentSlowQueries().get(0);
+        assertEquals("newsletter.searchByEmail", latest.getName());
+        assertTrue(latest.getElapsedMillis() >= 1);
+        assertEquals("1:String", latest.getParameters());
+        assertFalse(latest.toString().contains("secret@example.com"));
+    }
+
+    private static StatementStats statementStats(String name) {
+        return AbstractDAO.registeredQueries().stream()
+                .filter(query -> query.getName().equals(name))
+                .findFirst()
+                .orElseThrow()
+                .snapshot();
+    }
+}
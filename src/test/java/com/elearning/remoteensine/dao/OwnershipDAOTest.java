@@ -0,0 +1,152 @@
+package com.elearning.remoteensine.dao;
+
+import com.elearning.remoteensine.model.Course;
+import com.elearning.remoteensine.model.Professor;
+import com.elearning.remoteensine.util.DatabaseConnector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OwnershipDAOTest {
+
+    @Mock
+    private DatabaseConnector databaseConnector;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private OwnershipDAO ownershipDAO;
+
+    private CourseDAO courseDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        InvalidationBus bus = new InvalidationBus();
+        ownershipDAO = new OwnershipDAO(databaseConnector, bus);
+        ExamDefinitionDAO examDefinitionDAO = new ExamDefinitionDAO(databaseConnector, bus, new ExamDAO(databaseConnector, bus));
+        courseDAO = new CourseDAO(databaseConnector, bus, ownershipDAO, new EnrollDAO(databaseConnector, bus),
+                examDefinitionDAO);
+        when(databaseConnector.getConnection()).thenReturn(connection);
+    }
+
+    @Test
+    void findExamQuestionOwner_shouldResolveCourseAndProfessorInOneQuery() throws SQLException {
+        // Arrange
+        int questionId = 7;
+
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(3);
+        when(resultSet.getInt(2)).thenReturn(5);
+
+        // Act
+        CourseOwner owner = ownershipDAO.findExamQuestionOwner(questionId);
+
+        // Assert
+        assertEquals(3, owner.getIdCourse());
+        assertTrue(owner.isOwnedBy(5));
+        assertFalse(owner.isOwnedBy(6));
+        verify(connection, times(1)).prepareStatement(anyString());
+        verify(connection).prepareStatement(contains("JOIN courses c ON c.course_id = d.id_course"));
+        verify(preparedStatement).setInt(1, questionId);
+    }
+
+    @Test
+    void findCourseOwner_shouldUseIndexFilledByEntityLookup() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(3);
+        when(resultSet.getInt(2)).thenReturn(5);
+        ownershipDAO.findClassroomOwner(11);
+
+        // Act
+        CourseOwner first = ownershipDAO.findCourseOwner(3);
+        CourseOwner second = ownershipDAO.findCourseOwner(3);
+
+        // Assert
+        assertTrue(first.isOwnedBy(5));
+        assertTrue(second.isOwnedBy(5));
+        verify(connection, times(1)).prepareStatement(anyString());
+    }
+
+    @Test
+    void findCourseOwner_shouldNotOwnCourseWhenResponsibleIsNotProfessor() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(3);
+        when(resultSet.getInt(2)).thenReturn(0);
+
+        // Act
+        CourseOwner owner = ownershipDAO.findCourseOwner(3);
+
+        // Assert
+        assertEquals(0, owner.getIdProfessor());
+        assertFalse(owner.isOwnedBy(0));
+    }
+
+    @Test
+    void findCourseOwner_shouldReturnNullAndNotCacheMissingCourse() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+
+        // Act
+        CourseOwner first = ownershipDAO.findCourseOwner(99);
+        CourseOwner second = ownershipDAO.findCourseOwner(99);
+
+        // Assert
+        assertNull(first);
+        assertNull(second);
+        verify(connection, times(2)).prepareStatement(anyString());
+    }
+
+    @Test
+    void findCourseOwner_shouldQueryAgainAfterCourseIsUpdated() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(3);
+        when(resultSet.getInt(2)).thenReturn(5, 8);
+
+        Professor newProfessor = new Professor();
+        newProfessor.setIdUser(8);
+        Course course = new Course();
+        course.setIdCourse(3);
+        course.setTitle("Java Programming");
+        course.setResponsibleProfessor(newProfessor);
+
+        // Act
+        CourseOwner before = ownershipDAO.findCourseOwner(3);
+        courseDAO.attCourses(course);
+        CourseOwner after = ownershipDAO.findCourseOwner(3);
+
+        // Assert
+        assertTrue(before.isOwnedBy(5));
+        assertTrue(after.isOwnedBy(8));
+        verify(preparedStatement, times(2)).executeQuery();
+    }
+}
@@ -0,0 +1,115 @@
+package com.elearning.remoteensine.dao;
+
+import com.elearning.remoteensine.util.SchemaMigrator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.stereotype.Repository;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Roda EXPLAIN nas consultas, UPDATEs e DELETEs registrados pelos DAOs contra um MySQL
+ * local, depois de aplicar as migrações, e falha se algum fizer varredura completa de
+ * tabela. INSERTs não leem tabelas (os INSERT ... SELECT leem por chave primária) e ficam
+ * de fora. A varredura é aceita quando a própria instrução lê a tabela inteira: sem
+ * parâmetros além do LIMIT, ela não filtra por nada que o chamador informe.
+ * Só executa com EXPLAIN_DB_URL definido (ex.: jdbc:mysql://localhost:3306/ensinoremoto_explain);
+ * usuário e senha vêm de EXPLAIN_DB_USER e EXPLAIN_DB_PASSWORD. Com tabelas vazias o
+ * otimizador pode preferir varreduras, então use uma base com volume representativo.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DB_URL", matches = ".+")
+public class QueryPlanTest {
+
+    private static final Pattern EXPLAINABLE = Pattern.compile("^\\s*(SELECT|UPDATE|DELETE)\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern LIMIT_PARAMETER = Pattern.compile("\\bLIMIT\\s+\\?(\\s*,\\s*\\?)?",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final String SAMPLE_VALUE = "2024-01-01 00:00:00";
+    private static final int SAMPLE_LIMIT = 20;
+
+    @Test
+    void registeredQueries_shouldNotScanWholeTables() throws Exception {
+        // Arrange
+        loadDaoClasses();
+        List<NamedQuery> queries = new ArrayList<>(AbstractDAO.registeredQueries());
+        queries.sort(Comparator.comparing(NamedQuery::getName));
+        assertFalse(queries.isEmpty());
+
+        // Act
+        List<String> fullScans = new ArrayList<>();
+        try (Connection conn = DriverManager.getConnection(System.getenv("EXPLAIN_DB_URL"),
+                System.getenv("EXPLAIN_DB_USER"), System.getenv("EXPLAIN_DB_PASSWORD"))) {
+            SchemaMigrator.migrate(conn);
+            for (NamedQuery query : queries) {
+                String sql = query.getSql();
+                if (!EXPLAINABLE.matcher(sql).find() || readsWholeTable(sql)) {
+                    continue;
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + sql)) {
+                    bindSampleParameters(pstmt, sql);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            String table = rs.getString("table");
+                            // Tabela derivada: o resultado materializado de uma subconsulta, cujo
+                            // acesso às tabelas reais aparece nas próprias linhas do plano.
+                            if ("ALL".equals(rs.getString("type")) && table != null && !table.startsWith("<derived")) {
+                                fullScans.add(query.getName() + " -> " + table);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // Assert
+        assertTrue(fullScans.isEmpty(), "Full table scans: " + fullScans);
+    }
+
+    /**
+     * Sem parâmetros (fora do LIMIT), a instrução é uma listagem: lê a tabela inteira, ou
+     * um filtro fixo sobre ela, e a varredura é o plano esperado.
+     */
+    private static boolean readsWholeTable(String sql) {
+        return LIMIT_PARAMETER.matcher(sql).replaceAll("").indexOf('?') < 0;
+    }
+
+    /**
+     * Todas as instruções dos DAOs são registradas na inicialização estática das classes.
+     */
+    private static void loadDaoClasses() throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Repository.class));
+        for (BeanDefinition candidate : scanner.findCandidateComponents(AbstractDAO.class.getPackageName())) {
+            Class.forName(candidate.getBeanClassName());
+        }
+    }
+
+    /**
+     * Um literal que o MySQL converte tanto para data quanto para número mantém os índices
+     * utilizáveis; parâmetros de LIMIT precisam ser inteiros.
+     */
+    private static void bindSampleParameters(PreparedStatement pstmt, String sql) throws SQLException {
+        int index = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) != '?') {
+                continue;
+            }
+            index++;
+            if (sql.substring(0, i).trim().toUpperCase().endsWith("LIMIT")) {
+                pstmt.setInt(index, SAMPLE_LIMIT);
+            } else {
+                pstmt.setString(index, SAMPLE_VALUE);
+            }
+        }
+    }
+}
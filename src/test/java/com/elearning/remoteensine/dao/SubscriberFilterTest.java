@@ -0,0 +1,168 @@
+package com.elearning.remoteensine.dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SubscriberFilterTest {
+
+    // Hashes abaixo de 2^32 caem na posição (hash & 15) da tabela inicial de 16.
+
+    @Test
+    void with_shouldAddToCopyAndKeepOriginal() {
+        // Arrange
+        SubscriberFilter original = SubscriberFilter.EMPTY.with(SubscriberFilter.hash("ana@example.com"));
+
+        // Act
+        SubscriberFilter added = original.with(SubscriberFilter.hash("bia@example.com"));
+
+        // Assert
+        assertTrue(added.contains(SubscriberFilter.hash("ana@example.com")));
+        assertTrue(added.contains(SubscriberFilter.hash("bia@example.com")));
+        assertFalse(original.contains(SubscriberFilter.hash("bia@example.com")));
+        assertEquals(1, original.size());
+        assertEquals(2, added.size());
+        assertSame(added, added.with(SubscriberFilter.hash("bia@example.com")));
+        assertFalse(SubscriberFilter.EMPTY.contains(SubscriberFilter.hash("ana@example.com")));
+    }
+
+    @Test
+    void without_shouldRemoveFromCopyAndKeepOriginal() {
+        // Arrange
+        SubscriberFilter original = SubscriberFilter.EMPTY.with(5).with(6);
+
+        // Act
+        SubscriberFilter removed = original.without(5);
+
+        // Assert
+        assertFalse(removed.contains(5));
+        assertTrue(removed.contains(6));
+        assertTrue(original.contains(5));
+        assertEquals(1, removed.size());
+        assertEquals(2, original.size());
+        assertSame(removed, removed.without(5));
+    }
+
+    @Test
+    void without_shouldPullBackClusterThatWrapsAroundTable() {
+        // Arrange
+        // 15, 31 e 47 querem a posição 15 e ocupam 15, 0 e 1; 16 quer a 0 e vai para a 2.
+        SubscriberFilter filter = SubscriberFilter.EMPTY.with(15).with(31).with(47).with(16);
+
+        // Act
+        SubscriberFilter removed = filter.without(15);
+
+        // Assert
+        assertFalse(removed.contains(15));
+        assertTrue(removed.contains(31));
+        assertTrue(removed.contains(47));
+        assertTrue(removed.contains(16));
+        assertEquals(3, removed.size());
+        assertTrue(removed.without(31).contains(16));
+        assertTrue(removed.without(31).contains(47));
+    }
+
+    @Test
+    void without_shouldKeepProbingAfterSeveralRemovalsInOneCluster() {
+        // Arrange
+        // 3, 19, 35, 51 e 67 ocupam as posições 3 a 7; 4 quer a 4 e vai para a 8.
+        SubscriberFilter filter = SubscriberFilter.EMPTY.with(3).with(19).with(35).with(51).with(67).with(4);
+
+        // Act
+        SubscriberFilter first = filter.without(19);
+        SubscriberFilter second = first.without(3);
+        SubscriberFilter third = second.without(51);
+
+        // Assert
+        assertFalse(first.contains(19));
+        assertTrue(first.contains(3));
+        assertFalse(second.contains(3));
+        assertFalse(third.contains(51));
+        assertTrue(third.contains(35));
+        assertTrue(third.contains(67));
+        assertTrue(third.contains(4));
+        assertEquals(3, third.size());
+        SubscriberFilter readded = third.with(19).with(3).with(51);
+        for (long hash : new long[]{3, 19, 35, 51, 67, 4}) {
+            assertTrue(readded.contains(hash), "hash " + hash);
+        }
+        assertEquals(6, readded.size());
+    }
+
+    @Test
+    void zeroHash_shouldNotBeTakenForEmptySlot() {
+        // Arrange
+        SubscriberFilter empty = SubscriberFilter.EMPTY.with(16).without(16);
+        assertFalse(empty.contains(0));
+
+        // Act
+        SubscriberFilter filter = SubscriberFilter.EMPTY.with(0).with(16);
+
+        // Assert
+        assertTrue(filter.contains(0));
+        assertTrue(filter.contains(16));
+        assertEquals(2, filter.size());
+        // O hash 0 é guardado como 1: os dois são a mesma entrada.
+        assertSame(filter, filter.with(1));
+        assertFalse(filter.without(0).contains(0));
+        assertTrue(filter.without(0).contains(16));
+    }
+
+    @Test
+    void with_shouldGrowAndRebuildKeepingEveryEntry() {
+        // Arrange
+        SubscriberFilter filter = SubscriberFilter.EMPTY;
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            filter = filter.with(SubscriberFilter.hash("aluno" + i + "@example.com"));
+        }
+
+        // Assert
+        assertEquals(1000, filter.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.contains(SubscriberFilter.hash("aluno" + i + "@example.com")), "aluno" + i);
+            assertFalse(filter.contains(SubscriberFilter.hash("outro" + i + "@example.com")), "outro" + i);
+        }
+    }
+
+    @Test
+    void without_shouldRebuildFilterAfterManyRemovals() {
+        // Arrange
+        SubscriberFilter.Builder builder = new SubscriberFilter.Builder();
+        for (int i = 0; i < 200; i++) {
+            builder.add(SubscriberFilter.hash("aluno" + i + "@example.com"));
+        }
+        SubscriberFilter filter = builder.build();
+
+        // Act
+        for (int i = 0; i < 150; i++) {
+            filter = filter.without(SubscriberFilter.hash("aluno" + i + "@example.com"));
+        }
+
+        // Assert
+        assertEquals(50, filter.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i >= 150, filter.contains(SubscriberFilter.hash("aluno" + i + "@example.com")), "aluno" + i);
+        }
+    }
+
+    @Test
+    void builder_shouldIgnoreRepeatedHashes() {
+        // Arrange
+        SubscriberFilter.Builder builder = new SubscriberFilter.Builder();
+
+        // Act
+        builder.add(SubscriberFilter.hash("ana@example.com"));
+        builder.add(SubscriberFilter.hash("ana@example.com"));
+        builder.add(0);
+        builder.add(1);
+        SubscriberFilter filter = builder.build();
+
+        // Assert
+        assertEquals(2, filter.size());
+        assertTrue(filter.contains(SubscriberFilter.hash("ana@example.com")));
+        assertTrue(filter.contains(0));
+        assertSame(SubscriberFilter.EMPTY, new SubscriberFilter.Builder().build());
+    }
+}
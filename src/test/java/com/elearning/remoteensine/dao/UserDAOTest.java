@@ -1,5 +1,6 @@
 package com.elearning.remoteensine.dao;
 
+import com.elearning.remoteensine.model.CourseSummary;
 import com.elearning.remoteensine.model.Professor;
 import com.elearning.remoteensine.model.Student;
 import com.elearning.remoteensine.model.User;
@@ -13,9 +14,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -34,11 +38,25 @@ public class UserDAOTest {
     @Mock
     private ResultSet resultSet;
 
+    @Mock
+    private PreparedStatement stateStatement;
+
+    @Mock
+    private ResultSet stateRows;
+
+    private CourseDAO courseDAO;
+
     private UserDAO userDAO;
 
     @BeforeEach
     void setUp() throws SQLException {
-        userDAO = new UserDAO(databaseConnector);
+        InvalidationBus bus = new InvalidationBus();
+        EnrollDAO enrollDAO = new EnrollDAO(databaseConnector, bus);
+        ExamDAO examDAO = new ExamDAO(databaseConnector, bus);
+        ExamDefinitionDAO examDefinitionDAO = new ExamDefinitionDAO(databaseConnector, bus, examDAO);
+        courseDAO = new CourseDAO(databaseConnector, bus, new OwnershipDAO(databaseConnector, bus), enrollDAO,
+                examDefinitionDAO);
+        userDAO = new UserDAO(databaseConnector, bus, courseDAO, enrollDAO, examDAO);
         when(databaseConnector.getConnection()).thenReturn(connection);
     }
 
@@ -140,7 +158,7 @@ public class UserDAOTest {
         assertEquals(10, foundUser.getIdUser());
         assertEquals("John Doe", foundUser.getName());
         assertEquals(email, foundUser.getEmail());
-        assertEquals("hashedPassword123", foundUser.getPassword());
+        assertNull(foundUser.getPassword());
         assertEquals(UserType.STUDENT, foundUser.getUserType());
         assertEquals(registerDate, foundUser.getRegisterDate());
 
@@ -174,7 +192,7 @@ public class UserDAOTest {
         assertEquals(userId, foundUser.getIdUser());
         assertEquals("Jane Smith", foundUser.getName());
         assertEquals("jane.smith@example.com", foundUser.getEmail());
-        assertEquals("hashedPassword456", foundUser.getPassword());
+        assertNull(foundUser.getPassword());
         assertEquals(UserType.PROFESSOR, foundUser.getUserType());
         assertTrue(foundUser instanceof Professor);
         assertEquals("Computer Science", ((Professor) foundUser).getSpecialization());
@@ -184,6 +202,152 @@ public class UserDAOTest {
         verify(preparedStatement).executeQuery();
     }
 
+    @Test
+    void searchByIds_shouldPadDistinctIdsToFixedBatchSize() throws SQLException {
+        // Arrange
+        LocalDateTime registerDate = LocalDateTime.now();
+
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+
+        when(resultSet.getInt("user_id")).thenReturn(5, 7);
+        when(resultSet.getString("name")).thenReturn("John Doe", "Mary Doe");
+        when(resultSet.getString("user_type")).thenReturn("STUDENT");
+        when(resultSet.getTimestamp("register_hour")).thenReturn(Timestamp.valueOf(registerDate));
+
+        // Act
+        Map<Integer, User> users = userDAO.searchByIds(List.of(5, 7, 5, 0));
+
+        // Assert
+        assertEquals(2, users.size());
+        assertEquals("John Doe", users.get(5).getName());
+        assertEquals("Mary Doe", users.get(7).getName());
+
+        verify(connection).prepareStatement(contains("IN (?, ?, ?, ?, ?, ?, ?, ?)"));
+        verify(preparedStatement).setInt(1, 5);
+        verify(preparedStatement).setInt(2, 7);
+        for (int i = 3; i <= 8; i++) {
+            verify(preparedStatement).setInt(i, 7);
+        }
+        verify(preparedStatement, times(1)).executeQuery();
+    }
+
+    @Test
+    void searchByIds_shouldOnlyQueryIdsNotYetLoadedInRequest() throws SQLException {
+        // Arrange
+        LocalDateTime registerDate = LocalDateTime.now();
+
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false, true, false);
+
+        when(resultSet.getInt("user_id")).thenReturn(5, 7);
+        when(resultSet.getString("name")).thenReturn("John Doe", "Mary Doe");
+        when(resultSet.getString("user_type")).thenReturn("STUDENT");
+        when(resultSet.getTimestamp("register_hour")).thenReturn(Timestamp.valueOf(registerDate));
+
+        IdentityMap.begin();
+        try {
+            // Act
+            User john = userDAO.searchById(5);
+            Map<Integer, User> users = userDAO.searchByIds(List.of(5, 7));
+
+            // Assert
+            assertSame(john, users.get(5));
+            assertEquals("Mary Doe", users.get(7).getName());
+            verify(preparedStatement, never()).setInt(2, 5);
+            for (int i = 1; i <= 8; i++) {
+                verify(preparedStatement).setInt(i, 7);
+            }
+            verify(preparedStatement, times(2)).executeQuery();
+        } finally {
+            IdentityMap.end();
+        }
+    }
+
+    @Test
+    void searchById_shouldServeRepeatedLookupsFromCache() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("user_id")).thenReturn(20);
+        when(resultSet.getString("name")).thenReturn("Jane Smith");
+        when(resultSet.getString("email")).thenReturn("jane.smith@example.com");
+        when(resultSet.getString("password")).thenReturn("hashedPassword456");
+        when(resultSet.getString("user_type")).thenReturn("STUDENT");
+        when(resultSet.getTimestamp("register_hour")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+
+        // Act
+        User first = userDAO.searchById(20);
+        User second = userDAO.searchById(20);
+        User byEmail = userDAO.searchByEmail("Jane.Smith@example.com");
+
+        // Assert
+        assertNotSame(first, second);
+        assertEquals("Jane Smith", second.getName());
+        assertTrue(second instanceof Student);
+        assertNull(second.getPassword());
+        assertEquals(20, byEmail.getIdUser());
+        verify(preparedStatement, times(1)).executeQuery();
+        CacheStats stats = userDAO.getCacheStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void searchCredentialsByEmail_shouldAlwaysQueryAndReturnPassword() throws SQLException {
+        // Arrange
+        String email = "john.doe@example.com";
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("user_id")).thenReturn(10);
+        when(resultSet.getString("email")).thenReturn(email);
+        when(resultSet.getString("password")).thenReturn("hashedPassword123");
+        when(resultSet.getString("user_type")).thenReturn("STUDENT");
+        when(resultSet.getTimestamp("register_hour")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+        userDAO.searchByEmail(email);
+
+        // Act
+        User credentials = userDAO.searchCredentialsByEmail(email);
+
+        // Assert
+        assertEquals("hashedPassword123", credentials.getPassword());
+        assertNull(userDAO.searchByEmail(email).getPassword());
+        verify(preparedStatement, times(2)).executeQuery();
+    }
+
+    @Test
+    void attUser_shouldDiscardCachedUser() throws SQLException {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(connection.prepareStatement(contains("FOR UPDATE"))).thenReturn(stateStatement);
+        when(stateStatement.executeQuery()).thenReturn(stateRows);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("user_id")).thenReturn(20);
+        when(resultSet.getString("name")).thenReturn("Jane Smith", "Jane Updated");
+        when(resultSet.getString("user_type")).thenReturn("STUDENT");
+        when(resultSet.getTimestamp("register_hour")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+
+        User cached = userDAO.searchById(20);
+        cached.setName("Jane Updated");
+
+        // Act
+        userDAO.attUser(cached);
+        User reloaded = userDAO.searchById(20);
+
+        // Assert
+        assertEquals("Jane Updated", reloaded.getName());
+        verify(preparedStatement).setString(3, null);
+        verify(connection).prepareStatement(contains("password = COALESCE(?, password)"));
+        verify(preparedStatement, times(2)).executeQuery();
+    }
+
     @Test
     void attUser_shouldReturnTrueWhenSuccessful() throws SQLException {
         // Arrange
@@ -193,6 +357,8 @@ public class UserDAOTest {
         professor.setRegisterDate(registerDate);
 
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(connection.prepareStatement(contains("FOR UPDATE"))).thenReturn(stateStatement);
+        when(stateStatement.executeQuery()).thenReturn(stateRows);
         when(preparedStatement.executeUpdate()).thenReturn(1);
 
         // Act
@@ -217,6 +383,8 @@ public class UserDAOTest {
         int userId = 10;
         
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(connection.prepareStatement(contains("FOR UPDATE"))).thenReturn(stateStatement);
+        when(stateStatement.executeQuery()).thenReturn(stateRows);
         when(preparedStatement.executeUpdate()).thenReturn(1);
 
         // Act
@@ -225,8 +393,69 @@ public class UserDAOTest {
         // Assert
         assertTrue(result);
 
-        verify(preparedStatement).setInt(1, userId);
-        verify(preparedStatement).executeUpdate();
+        // As notas das tentativas apagadas em cascata saem do agregado na mesma transação.
+        verify(preparedStatement, times(2)).setInt(1, userId);
+        verify(connection).prepareStatement(contains("content_deletions"));
+        verify(preparedStatement, times(3)).executeUpdate();
+    }
+
+    @Test
+    void attUser_shouldRenameProfessorOnlyInOwnCatalogEntries() throws SQLException {
+        // Arrange
+        PreparedStatement catalogStatement = stubCatalog();
+        stubResponsibleState("Jane Smith", 5);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        CatalogSnapshot before = courseDAO.catalogSnapshot();
+
+        Professor professor = new Professor("Jane Updated", "jane@example.com", null, "Data Science");
+        professor.setIdUser(20);
+
+        // Act
+        userDAO.attUser(professor);
+        CatalogSnapshot after = courseDAO.catalogSnapshot();
+
+        // Assert
+        List<CourseSummary> items = after.page(null, 20).getItems();
+        assertEquals("Jane Updated", items.get(0).getProfessorName());
+        assertEquals("John Doe", items.get(1).getProfessorName());
+        assertEquals("Jane Smith", before.page(null, 20).getItems().get(0).getProfessorName());
+        verify(stateStatement).setInt(1, 20);
+        verify(catalogStatement, times(1)).executeQuery();
+    }
+
+    @Test
+    void attUser_shouldKeepCatalogWhenProfessorNameAndTypeAreUnchanged() throws SQLException {
+        // Arrange
+        stubCatalog();
+        stubResponsibleState("Jane Smith", 5);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        CatalogSnapshot before = courseDAO.catalogSnapshot();
+
+        Professor professor = new Professor("Jane Smith", "jane.new@example.com", null, "Data Science");
+        professor.setIdUser(20);
+
+        // Act
+        userDAO.attUser(professor);
+
+        // Assert
+        assertSame(before, courseDAO.catalogSnapshot());
+    }
+
+    @Test
+    void deleteUser_shouldRemoveOnlyTheProfessorsCoursesFromCatalog() throws SQLException {
+        // Arrange
+        PreparedStatement catalogStatement = stubCatalog();
+        stubResponsibleState("Jane Smith", 5);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        courseDAO.catalogSnapshot();
+
+        // Act
+        userDAO.deleteUser(20);
+        CatalogSnapshot after = courseDAO.catalogSnapshot();
+
+        // Assert
+        assertEquals(List.of(9), after.page(null, 20).getItems().stream().map(CourseSummary::getIdCourse).toList());
+        verify(catalogStatement, times(1)).executeQuery();
     }
 
     @Test
@@ -247,4 +476,31 @@ public class UserDAOTest {
         verify(preparedStatement).setString(1, email);
         verify(preparedStatement).executeQuery();
     }
-}
\ No newline at end of file
+
+    /**
+     * Catálogo com o curso 5 da professora 20 (Jane Smith) e o curso 9 do professor 30.
+     */
+    private PreparedStatement stubCatalog() throws SQLException {
+        PreparedStatement catalogStatement = mock(PreparedStatement.class);
+        ResultSet catalogRows = mock(ResultSet.class);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(connection.prepareStatement(contains("ORDER BY c.title"))).thenReturn(catalogStatement);
+        when(catalogStatement.executeQuery()).thenReturn(catalogRows);
+        when(catalogRows.next()).thenReturn(true, true, false);
+        when(catalogRows.getInt(1)).thenReturn(5, 9);
+        when(catalogRows.getString(2)).thenReturn("Algoritmos", "Banco de Dados");
+        when(catalogRows.getInt(6)).thenReturn(20, 30);
+        when(catalogRows.getString(7)).thenReturn("Jane Smith", "John Doe");
+        return catalogStatement;
+    }
+
+    /** Estado lido antes da escrita: a professora 20 e um único curso. */
+    private void stubResponsibleState(String name, int idCourse) throws SQLException {
+        when(connection.prepareStatement(contains("FOR UPDATE"))).thenReturn(stateStatement);
+        when(stateStatement.executeQuery()).thenReturn(stateRows);
+        when(stateRows.next()).thenReturn(true, false);
+        when(stateRows.getString(1)).thenReturn(name);
+        when(stateRows.getString(2)).thenReturn("PROFESSOR");
+        when(stateRows.getInt(3)).thenReturn(idCourse);
+    }
+}
@@ -85,14 +85,14 @@ public class VisitorQuestionDAOTest {
         when(preparedStatement.executeQuery()).thenReturn(resultSet);
         when(resultSet.next()).thenReturn(true);
         
-        when(resultSet.getInt("question_id")).thenReturn(questionId);
-        when(resultSet.getString("visitor_name")).thenReturn("John Doe");
-        when(resultSet.getString("visitor_email")).thenReturn("john.doe@example.com");
-        when(resultSet.getString("question_text")).thenReturn("How can I enroll in a course?");
-        when(resultSet.getTimestamp("question_hour_date")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
-        when(resultSet.getString("answer")).thenReturn(null);
-        when(resultSet.getTimestamp("answer_hour_date")).thenReturn(null);
-        when(resultSet.getInt("professor_responsible_id")).thenReturn(0);
+        when(resultSet.getInt(1)).thenReturn(questionId);
+        when(resultSet.getString(2)).thenReturn("John Doe");
+        when(resultSet.getString(3)).thenReturn("john.doe@example.com");
+        when(resultSet.getString(4)).thenReturn("How can I enroll in a course?");
+        when(resultSet.getTimestamp(5)).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+        when(resultSet.getString(6)).thenReturn(null);
+        when(resultSet.getTimestamp(7)).thenReturn(null);
+        when(resultSet.getInt(8)).thenReturn(0);
         when(resultSet.wasNull()).thenReturn(true);
 
         // Act
@@ -137,16 +137,16 @@ public class VisitorQuestionDAOTest {
         when(resultSet.next()).thenReturn(true, true, false); // Return true twice for two questions, then false
 
         // First question
-        when(resultSet.getInt("question_id")).thenReturn(5, 6);
-        when(resultSet.getString("visitor_name")).thenReturn("John Doe", "Jane Smith");
-        when(resultSet.getString("visitor_email")).thenReturn("john.doe@example.com", "jane.smith@example.com");
-        when(resultSet.getString("question_text")).thenReturn("How can I enroll in a course?", "What are the payment methods?");
-        when(resultSet.getTimestamp("question_hour_date")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+        when(resultSet.getInt(1)).thenReturn(5, 6);
+        when(resultSet.getString(2)).thenReturn("John Doe", "Jane Smith");
+        when(resultSet.getString(3)).thenReturn("john.doe@example.com", "jane.smith@example.com");
+        when(resultSet.getString(4)).thenReturn("How can I enroll in a course?", "What are the payment methods?");
+        when(resultSet.getTimestamp(5)).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
         
         // First question is unanswered, second is answered
-        when(resultSet.getString("answer")).thenReturn(null, "You can pay with credit card or PayPal.");
-        when(resultSet.getTimestamp("answer_hour_date")).thenReturn(null, Timestamp.valueOf(LocalDateTime.now()));
-        when(resultSet.getInt("professor_responsible_id")).thenReturn(0, 2);
+        when(resultSet.getString(6)).thenReturn(null, "You can pay with credit card or PayPal.");
+        when(resultSet.getTimestamp(7)).thenReturn(null, Timestamp.valueOf(LocalDateTime.now()));
+        when(resultSet.getInt(8)).thenReturn(0, 2);
         when(resultSet.wasNull()).thenReturn(true, false);
 
         // Act
@@ -182,14 +182,14 @@ public class VisitorQuestionDAOTest {
         when(preparedStatement.executeQuery()).thenReturn(resultSet);
         when(resultSet.next()).thenReturn(true, false); // Return true once for one unanswered question, then false
 
-        when(resultSet.getInt("question_id")).thenReturn(5);
-        when(resultSet.getString("visitor_name")).thenReturn("John Doe");
-        when(resultSet.getString("visitor_email")).thenReturn("john.doe@example.com");
-        when(resultSet.getString("question_text")).thenReturn("How can I enroll in a course?");
-        when(resultSet.getTimestamp("question_hour_date")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
-        when(resultSet.getString("answer")).thenReturn(null);
-        when(resultSet.getTimestamp("answer_hour_date")).thenReturn(null);
-        when(resultSet.getInt("professor_responsible_id")).thenReturn(0);
+        when(resultSet.getInt(1)).thenReturn(5);
+        when(resultSet.getString(2)).thenReturn("John Doe");
+        when(resultSet.getString(3)).thenReturn("john.doe@example.com");
+        when(resultSet.getString(4)).thenReturn("How can I enroll in a course?");
+        when(resultSet.getTimestamp(5)).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+        when(resultSet.getString(6)).thenReturn(null);
+        when(resultSet.getTimestamp(7)).thenReturn(null);
+        when(resultSet.getInt(8)).thenReturn(0);
         when(resultSet.wasNull()).thenReturn(true);
 
         // Act
@@ -2,7 +2,8 @@ package com.elearning.remoteensine.service;
 
 import com.elearning.remoteensine.dao.ClassroomDAO;
 import com.elearning.remoteensine.dao.CourseDAO;
-import com.elearning.remoteensine.dao.UserDAO;
+import com.elearning.remoteensine.dao.CourseOwner;
+import com.elearning.remoteensine.dao.OwnershipDAO;
 import com.elearning.remoteensine.model.Classroom;
 import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.Professor;
@@ -33,16 +34,17 @@ public class ClassroomServiceTest {
     private CourseDAO courseDAO;
 
     @Mock
-    private UserDAO userDAO;
+    private OwnershipDAO ownershipDAO;
 
     private ClassroomService classroomService;
     private Professor professor;
     private Course course;
+    private CourseOwner courseOwner;
     private User user;
 
     @BeforeEach
     void setUp() {
-        classroomService = new ClassroomService(classroomDAO, courseDAO, userDAO);
+        classroomService = new ClassroomService(classroomDAO, courseDAO, ownershipDAO);
         
         // Setup professor
         professor = new Professor("John Doe", "john@example.com", "password", "Computer Science");
@@ -51,6 +53,7 @@ public class ClassroomServiceTest {
         // Setup course
         course = new Course("Java Programming", "Learn Java", professor, 99.99, "Programming", 40);
         course.setIdCourse(1);
+        courseOwner = new CourseOwner(1, professor.getIdUser());
         
         // Setup user
         user = new User("Jane Smith", "jane@example.com", "password", UserType.PROFESSOR);
@@ -67,7 +70,7 @@ public class ClassroomServiceTest {
         String contentURL = "http://example.com/java-intro";
         int sequence = 1;
         
-        when(courseDAO.searchCourseById(courseId)).thenReturn(course);
+        when(ownershipDAO.findCourseOwner(courseId)).thenReturn(courseOwner);
         
         Classroom expectedClassroom = new Classroom(courseId, title, description, contentURL, sequence);
         expectedClassroom.setClassroomId(1);
@@ -85,7 +88,8 @@ public class ClassroomServiceTest {
         assertEquals(contentURL, result.getContentURL());
         assertEquals(sequence, result.getSequence());
         
-        verify(courseDAO).searchCourseById(courseId);
+        verify(ownershipDAO).findCourseOwner(courseId);
+        verifyNoInteractions(courseDAO);
         verify(classroomDAO).saveClassroom(any(Classroom.class));
     }
 
@@ -157,7 +161,7 @@ public class ClassroomServiceTest {
         existingClassroom.setClassroomId(classroomId);
         
         when(classroomDAO.searchById(classroomId)).thenReturn(existingClassroom);
-        when(courseDAO.searchCourseById(1)).thenReturn(course);
+        when(ownershipDAO.findCourseOwner(1)).thenReturn(courseOwner);
         when(classroomDAO.upddateClass(any(Classroom.class))).thenReturn(true);
         
         // Act
@@ -167,7 +171,7 @@ public class ClassroomServiceTest {
         assertTrue(result);
         
         verify(classroomDAO).searchById(classroomId);
-        verify(courseDAO).searchCourseById(1);
+        verify(ownershipDAO).findCourseOwner(1);
         verify(classroomDAO).upddateClass(any(Classroom.class));
     }
 
@@ -178,11 +182,7 @@ public class ClassroomServiceTest {
         int courseId = 1;
         int professorId = 1;
         
-        Classroom classroomToDelete = new Classroom(courseId, "Java Basics", "Introduction to Java", "http://example.com/java", 1);
-        classroomToDelete.setClassroomId(classroomId);
-        
-        when(classroomDAO.searchById(classroomId)).thenReturn(classroomToDelete);
-        when(courseDAO.searchCourseById(courseId)).thenReturn(course);
+        when(ownershipDAO.findClassroomOwner(classroomId)).thenReturn(courseOwner);
         when(classroomDAO.deleteClass(classroomId)).thenReturn(true);
         
         // Act
@@ -191,8 +191,8 @@ public class ClassroomServiceTest {
         // Assert
         assertTrue(result);
         
-        verify(classroomDAO).searchById(classroomId);
-        verify(courseDAO).searchCourseById(courseId);
+        verify(ownershipDAO).findClassroomOwner(classroomId);
+        verify(classroomDAO, never()).searchById(anyInt());
         verify(classroomDAO).deleteClass(classroomId);
     }
 
@@ -206,7 +206,7 @@ public class ClassroomServiceTest {
         Classroom savedClassroom = new Classroom(courseId, "Java Basics", "Introduction to Java", "http://example.com/java", 1);
         savedClassroom.setClassroomId(1);
         
-        when(courseDAO.searchCourseById(courseId)).thenReturn(course);
+        when(ownershipDAO.findCourseOwner(courseId)).thenReturn(courseOwner);
         when(classroomDAO.saveClassroom(any(Classroom.class))).thenReturn(savedClassroom);
         
         // Act
@@ -217,7 +217,7 @@ public class ClassroomServiceTest {
         assertEquals(1, result.getClassroomId());
         assertEquals("Java Basics", result.getTitle());
         
-        verify(courseDAO).searchCourseById(courseId);
+        verify(ownershipDAO).findCourseOwner(courseId);
         verify(classroomDAO).saveClassroom(any(Classroom.class));
     }
 
@@ -230,7 +230,7 @@ public class ClassroomServiceTest {
         Classroom existingClassroom = new Classroom(courseId, "Java Basics", "Introduction to Java", "http://example.com/java", 1);
         existingClassroom.setClassroomId(1);
         
-        when(courseDAO.searchCourseById(courseId)).thenReturn(course);
+        when(ownershipDAO.findCourseOwner(courseId)).thenReturn(courseOwner);
         when(classroomDAO.upddateClass(any(Classroom.class))).thenReturn(true);
         
         // Act
@@ -241,7 +241,7 @@ public class ClassroomServiceTest {
         assertEquals(1, result.getClassroomId());
         assertEquals("Java Basics", result.getTitle());
         
-        verify(courseDAO).searchCourseById(courseId);
+        verify(ownershipDAO).findCourseOwner(courseId);
         verify(classroomDAO).upddateClass(any(Classroom.class));
     }
 
@@ -277,7 +277,7 @@ public class ClassroomServiceTest {
         String contentURL = "http://example.com/java-intro";
         int sequence = 1;
         
-        when(courseDAO.searchCourseById(courseId)).thenReturn(null);
+        when(ownershipDAO.findCourseOwner(courseId)).thenReturn(null);
         
         // Act & Assert
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -291,7 +291,7 @@ public class ClassroomServiceTest {
         assertEquals("Course ID " + courseId + " not found.", exception.getMessage());
         
         try {
-            verify(courseDAO).searchCourseById(courseId);
+            verify(ownershipDAO).findCourseOwner(courseId);
         } catch (SQLException e) {
             fail("Should not throw SQLException during verification");
         }
@@ -19,6 +19,7 @@ import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -233,4 +234,30 @@ public class CommentServiceTest {
         verify(enrollDAO).checkEnroll(studentId, courseId);
         verifyNoInteractions(commentDAO);
     }
-}
\ No newline at end of file
+
+    @Test
+    void listStudentsCommentsInCourse_shouldLoadRepeatedAuthorsInOneBatch() throws SQLException {
+        // Arrange
+        int courseId = 1;
+        User otherStudent = new User("Mary Student", "mary@example.com", "password", UserType.STUDENT);
+        otherStudent.setIdUser(3);
+        Comment second = new Comment(courseId, 1, "Second comment", null);
+        Comment third = new Comment(courseId, 3, "Third comment", null);
+        Comment orphan = new Comment(courseId, 9, "Orphan comment", null);
+
+        when(courseDAO.searchCourseById(courseId)).thenReturn(course);
+        when(commentDAO.listCoursesComments(courseId)).thenReturn(List.of(comment, second, third, orphan));
+        when(userDAO.searchByIds(List.of(1, 3, 9))).thenReturn(Map.of(1, student, 3, otherStudent));
+
+        // Act
+        List<Comment> result = commentService.listStudentsCommentsInCourse(courseId);
+
+        // Assert
+        assertEquals("John Student", result.get(0).getStudentName());
+        assertEquals("John Student", result.get(1).getStudentName());
+        assertEquals("Mary Student", result.get(2).getStudentName());
+        assertEquals("Aluno Desconhecido", result.get(3).getStudentName());
+        verify(userDAO).searchByIds(List.of(1, 3, 9));
+        verify(userDAO, never()).searchById(anyInt());
+    }
+}
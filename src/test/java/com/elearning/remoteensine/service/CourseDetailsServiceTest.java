@@ -0,0 +1,189 @@
+package com.elearning.remoteensine.service;
+
+import com.elearning.remoteensine.dao.KeysetPage;
+import com.elearning.remoteensine.model.Classroom;
+import com.elearning.remoteensine.model.Comment;
+import com.elearning.remoteensine.model.Course;
+import com.elearning.remoteensine.model.CourseDetailsView;
+import com.elearning.remoteensine.model.Doubt;
+import com.elearning.remoteensine.model.ExamDefinition;
+import com.elearning.remoteensine.model.GradeStudent;
+import com.elearning.remoteensine.model.Professor;
+import com.elearning.remoteensine.model.User;
+import com.elearning.remoteensine.model.enums.UserType;
+import com.elearning.remoteensine.util.PageLoadExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CourseDetailsServiceTest {
+
+    @Mock
+    private CourseService courseService;
+
+    @Mock
+    private CommentService commentService;
+
+    @Mock
+    private DoubtService doubtService;
+
+    @Mock
+    private ClassroomService classroomService;
+
+    @Mock
+    private EnrollService enrollService;
+
+    @Mock
+    private ExamDefinitionService examDefinitionService;
+
+    private PageLoadExecutor executor;
+    private CourseDetailsService courseDetailsService;
+    private User student;
+    private Professor professor;
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        executor = new PageLoadExecutor();
+        executor.init();
+        courseDetailsService = new CourseDetailsService(courseService, commentService, doubtService,
+                classroomService, enrollService, examDefinitionService, executor);
+
+        student = new User("John Student", "john@example.com", "password", UserType.STUDENT);
+        student.setIdUser(1);
+
+        professor = new Professor("Jane Professor", "jane@example.com", "password", "Computer Science");
+        professor.setIdUser(2);
+
+        course = new Course("Java Programming", "Learn Java", professor, 99.99, "Programming", 40);
+        course.setIdCourse(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void loadCourseDetails_shouldLoadEverythingForEnrolledStudent() throws Exception {
+        // Arrange
+        int courseId = 1;
+        Comment comment = new Comment(courseId, 1, "Great course", "John Student");
+        Doubt doubt = new Doubt(courseId, 1, "Question", "How?", "John Student");
+        Classroom classroom = new Classroom(courseId, "Intro", "First class", "https://example.com", 1);
+        ExamDefinition exam = new ExamDefinition(courseId, "Final exam", "Everything");
+        GradeStudent grade = new GradeStudent();
+
+        when(courseService.searchCourseByIdComplete(courseId)).thenReturn(course);
+        when(commentService.loadCommentsPage(courseId, "c1", KeysetPage.DEFAULT_SIZE))
+                .thenReturn(new KeysetPage<>(List.of(comment), "c2"));
+        when(doubtService.loadDoubtsPage(courseId, null, KeysetPage.DEFAULT_SIZE))
+                .thenReturn(new KeysetPage<>(List.of(doubt), null));
+        when(classroomService.loadClasses(courseId)).thenReturn(List.of(classroom));
+        when(enrollService.checkEnrolledStudents(student.getIdUser(), courseId)).thenReturn(true);
+        when(examDefinitionService.listarProvasPorCursoPublicadasNaoSubmetidas(courseId)).thenReturn(List.of(exam));
+        when(examDefinitionService.listarNotasDoAlunoPorProvaECursoId(courseId, student.getIdUser()))
+                .thenReturn(List.of(grade));
+
+        // Act
+        CourseDetailsView view = courseDetailsService.loadCourseDetails(courseId, student, "c1", null);
+
+        // Assert
+        assertSame(course, view.getCourse());
+        assertEquals(List.of(comment), view.getComments());
+        assertEquals("c2", view.getNextCommentsCursor());
+        assertEquals(List.of(doubt), view.getDoubts());
+        assertNull(view.getNextDoubtsCursor());
+        assertEquals(List.of(classroom), view.getClasses());
+        assertEquals(List.of(exam), view.getAvailableExams());
+        assertEquals(List.of(grade), view.getGrades());
+        assertTrue(view.getManagedExamDefinitions().isEmpty());
+        assertTrue(view.isStudent());
+        assertTrue(view.isEnrolled());
+        assertFalse(view.isCourseOwner());
+        assertThrows(UnsupportedOperationException.class, () -> view.getClasses().add(new Classroom()));
+
+        // A validação do curso não é repetida pelos outros serviços.
+        verify(commentService, never()).listStudentsCommentsInCoursePage(anyInt(), any(), anyInt());
+        verify(doubtService, never()).listCourseDoubtsPage(anyInt(), any(), anyInt());
+        verify(classroomService, never()).listCoursesClasses(anyInt());
+    }
+
+    @Test
+    void loadCourseDetails_shouldLoadManagedExamsForOwnerProfessor() throws Exception {
+        // Arrange
+        int courseId = 1;
+        ExamDefinition draft = new ExamDefinition(courseId, "Draft exam", "Not published");
+
+        when(courseService.searchCourseByIdComplete(courseId)).thenReturn(course);
+        when(commentService.loadCommentsPage(courseId, null, KeysetPage.DEFAULT_SIZE))
+                .thenReturn(new KeysetPage<>(List.of(), null));
+        when(doubtService.loadDoubtsPage(courseId, null, KeysetPage.DEFAULT_SIZE))
+                .thenReturn(new KeysetPage<>(List.of(), null));
+        when(classroomService.loadClasses(courseId)).thenReturn(List.of());
+        when(examDefinitionService.getExamDefinitionsForCourseManagement(courseId, professor.getIdUser()))
+                .thenReturn(List.of(draft));
+
+        // Act
+        CourseDetailsView view = courseDetailsService.loadCourseDetails(courseId, professor, null, null);
+
+        // Assert
+        assertTrue(view.isProfessor());
+        assertTrue(view.isCourseOwner());
+        assertEquals(List.of(draft), view.getManagedExamDefinitions());
+        verifyNoInteractions(enrollService);
+    }
+
+    @Test
+    void loadCourseDetails_shouldReturnNotFoundViewWhenCourseDoesNotExist() throws Exception {
+        // Arrange
+        int courseId = 99;
+
+        when(courseService.searchCourseByIdComplete(courseId)).thenReturn(null);
+        when(commentService.loadCommentsPage(courseId, null, KeysetPage.DEFAULT_SIZE))
+                .thenReturn(new KeysetPage<>(List.of(), null));
+        when(doubtService.loadDoubtsPage(courseId, null, KeysetPage.DEFAULT_SIZE))
+                .thenReturn(new KeysetPage<>(List.of(), null));
+        when(classroomService.loadClasses(courseId)).thenReturn(List.of());
+
+        // Act
+        CourseDetailsView view = courseDetailsService.loadCourseDetails(courseId, null, null, null);
+
+        // Assert
+        assertNull(view.getCourse());
+        assertTrue(view.getComments().isEmpty());
+        assertFalse(view.isStudent());
+        verifyNoInteractions(examDefinitionService);
+    }
+
+    @Test
+    void loadCourseDetails_shouldRethrowSQLExceptionFromParallelLoad() throws Exception {
+        // Arrange
+        int courseId = 1;
+        SQLException failure = new SQLException("Connection is not available");
+
+        when(courseService.searchCourseByIdComplete(courseId)).thenReturn(course);
+        when(commentService.loadCommentsPage(courseId, null, KeysetPage.DEFAULT_SIZE)).thenThrow(failure);
+        // As outras cargas podem ainda não ter rodado quando a falha é devolvida.
+        lenient().when(doubtService.loadDoubtsPage(courseId, null, KeysetPage.DEFAULT_SIZE))
+                .thenReturn(new KeysetPage<>(List.of(), null));
+        lenient().when(classroomService.loadClasses(courseId)).thenReturn(List.of());
+
+        // Act & Assert
+        SQLException exception = assertThrows(SQLException.class,
+                () -> courseDetailsService.loadCourseDetails(courseId, null, null, null));
+        assertSame(failure, exception);
+    }
+}
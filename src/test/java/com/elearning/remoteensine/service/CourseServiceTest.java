@@ -160,7 +160,7 @@ public class CourseServiceTest {
     }
     
     @Test
-    void listAllCoursesWithProfessors_shouldReturnCoursesWithProfessors() throws SQLException {
+    void listAllCoursesWithProfessors_shouldUseSingleJoinedQuery() throws SQLException {
         // Arrange
         List<Course> courses = new ArrayList<>();
         Course course1 = new Course("Java Programming", "Learn Java", professor, 99.99, "Programming", 40);
@@ -172,8 +172,7 @@ public class CourseServiceTest {
         courses.add(course1);
         courses.add(course2);
         
-        when(courseDAO.listAllCourses()).thenReturn(courses);
-        when(userDAO.searchById(professor.getIdUser())).thenReturn(professor);
+        when(courseDAO.listAllCoursesWithProfessors()).thenReturn(courses);
         
         // Act
         List<Course> result = courseService.listAllCoursesWithProfessors();
@@ -186,8 +185,8 @@ public class CourseServiceTest {
         assertEquals(professor, result.get(0).getResponsibleProfessor());
         assertEquals(professor, result.get(1).getResponsibleProfessor());
         
-        verify(courseDAO).listAllCourses();
-        verify(userDAO, times(2)).searchById(professor.getIdUser());
+        verify(courseDAO).listAllCoursesWithProfessors();
+        verify(userDAO, never()).searchById(anyInt());
     }
     
     @Test
@@ -1,7 +1,9 @@
 package com.elearning.remoteensine.service;
 
 import com.elearning.remoteensine.dao.CourseDAO;
+import com.elearning.remoteensine.dao.CourseOwner;
 import com.elearning.remoteensine.dao.DoubtDAO;
+import com.elearning.remoteensine.dao.OwnershipDAO;
 import com.elearning.remoteensine.dao.UserDAO;
 import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.Doubt;
@@ -37,6 +39,9 @@ public class DoubtServiceTest {
     @Mock
     private CourseDAO courseDAO;
 
+    @Mock
+    private OwnershipDAO ownershipDAO;
+
     private DoubtService doubtService;
     private User student;
     private Professor professor;
@@ -45,7 +50,7 @@ public class DoubtServiceTest {
 
     @BeforeEach
     void setUp() {
-        doubtService = new DoubtService(doubtDAO, userDAO, courseDAO);
+        doubtService = new DoubtService(doubtDAO, userDAO, courseDAO, ownershipDAO);
 
         // Setup student
         student = new User("John Student", "john@student.com", "password", UserType.STUDENT);
@@ -103,7 +108,7 @@ public class DoubtServiceTest {
 
         when(doubtDAO.searchDoubtById(doubtId)).thenReturn(doubt);
         when(userDAO.searchById(professorId)).thenReturn(professor);
-        when(courseDAO.searchCourseById(doubt.getCourseId())).thenReturn(course);
+        when(ownershipDAO.findCourseOwner(doubt.getCourseId())).thenReturn(new CourseOwner(1, professor.getIdUser()));
         when(doubtDAO.updateDouts(any(Doubt.class))).thenReturn(true);
 
         // Act
@@ -119,7 +124,8 @@ public class DoubtServiceTest {
 
         verify(doubtDAO).searchDoubtById(doubtId);
         verify(userDAO).searchById(professorId);
-        verify(courseDAO).searchCourseById(doubt.getCourseId());
+        verify(ownershipDAO).findCourseOwner(doubt.getCourseId());
+        verifyNoInteractions(courseDAO);
         verify(doubtDAO).updateDouts(any(Doubt.class));
     }
 
@@ -130,7 +136,6 @@ public class DoubtServiceTest {
         int studentId = 1; // Student who created the doubt
 
         when(doubtDAO.searchDoubtById(doubtId)).thenReturn(doubt);
-        when(userDAO.searchById(studentId)).thenReturn(student);
         when(doubtDAO.updateDouts(any(Doubt.class))).thenReturn(true);
 
         // Act
@@ -141,10 +146,47 @@ public class DoubtServiceTest {
         assertEquals(DoubtStatus.FECHADA, doubt.getStatus());
 
         verify(doubtDAO).searchDoubtById(doubtId);
-        verify(userDAO).searchById(studentId);
+        verifyNoInteractions(userDAO, ownershipDAO);
         verify(doubtDAO).updateDouts(any(Doubt.class));
     }
 
+    @Test
+    void closeDoubts_shouldLetCourseProfessorCloseWithOneOwnershipLookup() throws SQLException, IllegalAccessException {
+        // Arrange
+        int doubtId = 1;
+        int professorId = professor.getIdUser();
+
+        when(doubtDAO.searchDoubtById(doubtId)).thenReturn(doubt);
+        when(ownershipDAO.findCourseOwner(doubt.getCourseId())).thenReturn(new CourseOwner(1, professorId));
+        when(doubtDAO.updateDouts(any(Doubt.class))).thenReturn(true);
+
+        // Act
+        boolean result = doubtService.closeDoubts(doubtId, professorId);
+
+        // Assert
+        assertTrue(result);
+        assertEquals(DoubtStatus.FECHADA, doubt.getStatus());
+        verifyNoInteractions(userDAO, courseDAO);
+    }
+
+    @Test
+    void closeDoubts_shouldRejectProfessorOfAnotherCourse() throws SQLException {
+        // Arrange
+        int doubtId = 1;
+        Professor otherProfessor = new Professor("Other Professor", "other@professor.com", "password", "Physics");
+        otherProfessor.setIdUser(3);
+
+        when(doubtDAO.searchDoubtById(doubtId)).thenReturn(doubt);
+        when(ownershipDAO.findCourseOwner(doubt.getCourseId())).thenReturn(new CourseOwner(1, professor.getIdUser()));
+        when(userDAO.searchById(otherProfessor.getIdUser())).thenReturn(otherProfessor);
+
+        // Act & Assert
+        IllegalAccessException exception = assertThrows(IllegalAccessException.class,
+                () -> doubtService.closeDoubts(doubtId, otherProfessor.getIdUser()));
+        assertEquals("User not authorized to close this question.", exception.getMessage());
+        verify(doubtDAO, never()).updateDouts(any(Doubt.class));
+    }
+
     @Test
     void listCourseDoubts_shouldReturnListOfDoubts() throws SQLException {
         // Arrange
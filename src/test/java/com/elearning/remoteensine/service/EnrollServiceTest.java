@@ -14,10 +14,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.StringWriter;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -138,6 +140,59 @@ public class EnrollServiceTest {
         verify(enrollDAO).lisStudentByCourse(courseId);
     }
 
+    @Test
+    void exportEnrolledStudents_shouldWriteCsvWithQuotedFields() throws Exception {
+        // Arrange
+        int courseId = 1;
+        Student quoted = new Student("Silva, Ana \"Aninha\"", "ana@example.com", "password");
+        quoted.setIdUser(3);
+        Enroll enroll = new Enroll();
+        enroll.setStudent(quoted);
+        enroll.setCourse(course);
+        enroll.setEnrollDate(LocalDateTime.of(2024, 3, 1, 10, 0));
+        enroll.setProgress(0.25);
+
+        when(enrollDAO.streamStudentsByCourse(courseId)).thenReturn(Stream.of(enroll));
+        StringWriter out = new StringWriter();
+
+        // Act
+        int count = enrollService.exportEnrolledStudents(courseId, out);
+
+        // Assert
+        assertEquals(1, count);
+        assertEquals("student_id,name,email,enrollment_date,progress\n"
+                + "3,\"Silva, Ana \"\"Aninha\"\"\",ana@example.com,2024-03-01T10:00,0.25\n", out.toString());
+        verify(enrollDAO).streamStudentsByCourse(courseId);
+    }
+
+    @Test
+    void exportEnrolledStudents_shouldNeutralizeFormulasAndQuoteCarriageReturns() throws Exception {
+        // Arrange
+        int courseId = 1;
+        Student formula = new Student("=HYPERLINK(\"http://evil\")", "@SUM(A1)@example.com", "password");
+        formula.setIdUser(4);
+        Student multiline = new Student("-Ana\rSilva", "+ana@example.com", "password");
+        multiline.setIdUser(5);
+        Enroll first = new Enroll();
+        first.setStudent(formula);
+        first.setCourse(course);
+        Enroll second = new Enroll();
+        second.setStudent(multiline);
+        second.setCourse(course);
+
+        when(enrollDAO.streamStudentsByCourse(courseId)).thenReturn(Stream.of(first, second));
+        StringWriter out = new StringWriter();
+
+        // Act
+        int count = enrollService.exportEnrolledStudents(courseId, out);
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals("student_id,name,email,enrollment_date,progress\n"
+                + "4,\"'=HYPERLINK(\"\"http://evil\"\")\",'@SUM(A1)@example.com,,0.0\n"
+                + "5,\"'-Ana\rSilva\",'+ana@example.com,,0.0\n", out.toString());
+    }
+
     @Test
     void updateStudentProgress_shouldUpdateProgressSuccessfully() throws SQLException {
         // Arrange
@@ -1,7 +1,8 @@
 package com.elearning.remoteensine.service;
 
-import com.elearning.remoteensine.dao.CourseDAO;
+import com.elearning.remoteensine.dao.CourseOwner;
 import com.elearning.remoteensine.dao.ExamDefinitionDAO;
+import com.elearning.remoteensine.dao.OwnershipDAO;
 import com.elearning.remoteensine.dao.UserDAO;
 import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.ExamDefinition;
@@ -32,7 +33,7 @@ public class ExamDefinitionServiceTest {
     private ExamDefinitionDAO examDefinitionDAO;
 
     @Mock
-    private CourseDAO courseDAO;
+    private OwnershipDAO ownershipDAO;
 
     @Mock
     private UserDAO userDAO;
@@ -41,11 +42,12 @@ public class ExamDefinitionServiceTest {
     private Professor professor;
     private User regularUser;
     private Course course;
+    private CourseOwner courseOwner;
     private ExamDefinition examDefinition;
 
     @BeforeEach
     void setUp() {
-        examDefinitionService = new ExamDefinitionService(examDefinitionDAO, courseDAO, userDAO);
+        examDefinitionService = new ExamDefinitionService(examDefinitionDAO, ownershipDAO, userDAO);
         
         // Setup professor
         professor = new Professor("John Doe", "john@example.com", "password", "Computer Science");
@@ -58,6 +60,7 @@ public class ExamDefinitionServiceTest {
         // Setup course
         course = new Course("Java Programming", "Learn Java", professor, 99.99, "Programming", 40);
         course.setIdCourse(1);
+        courseOwner = new CourseOwner(1, professor.getIdUser());
         
         // Setup exam definition
         examDefinition = new ExamDefinition(1, "Java Midterm Exam", "Test your Java knowledge");
@@ -72,8 +75,7 @@ public class ExamDefinitionServiceTest {
         String title = "Java Midterm Exam";
         String description = "Test your Java knowledge";
         
-        when(courseDAO.searchCourseById(idCourse)).thenReturn(course);
-        when(userDAO.searchById(idProfessorLogado)).thenReturn(professor);
+        when(ownershipDAO.findCourseOwner(idCourse)).thenReturn(courseOwner);
         when(examDefinitionDAO.saveExamDefinition(any(ExamDefinition.class))).thenReturn(examDefinition);
         
         // Act
@@ -85,8 +87,8 @@ public class ExamDefinitionServiceTest {
         assertEquals(description, result.getDescription());
         assertEquals(idCourse, result.getIdCourse());
         
-        verify(courseDAO).searchCourseById(idCourse);
-        verify(userDAO).searchById(idProfessorLogado);
+        verify(ownershipDAO).findCourseOwner(idCourse);
+        verifyNoInteractions(userDAO);
         verify(examDefinitionDAO).saveExamDefinition(any(ExamDefinition.class));
     }
 
@@ -117,7 +119,7 @@ public class ExamDefinitionServiceTest {
         List<ExamDefinition> examDefinitions = new ArrayList<>();
         examDefinitions.add(examDefinition);
         
-        when(courseDAO.searchCourseById(idCourse)).thenReturn(course);
+        when(ownershipDAO.findCourseOwner(idCourse)).thenReturn(courseOwner);
         when(examDefinitionDAO.findExamDefinitionsByCourseId(idCourse, true)).thenReturn(examDefinitions);
         
         // Act
@@ -128,7 +130,7 @@ public class ExamDefinitionServiceTest {
         assertEquals(1, result.size());
         assertEquals("Java Midterm Exam", result.get(0).getTitle());
         
-        verify(courseDAO).searchCourseById(idCourse);
+        verify(ownershipDAO).findCourseOwner(idCourse);
         verify(examDefinitionDAO).findExamDefinitionsByCourseId(idCourse, true);
     }
 
@@ -142,7 +144,7 @@ public class ExamDefinitionServiceTest {
         String newDescription = "Updated exam description";
         
         when(examDefinitionDAO.findExamDefinitionById(idExamDefinition)).thenReturn(examDefinition);
-        when(courseDAO.searchCourseById(idCourse)).thenReturn(course);
+        when(ownershipDAO.findCourseOwner(idCourse)).thenReturn(courseOwner);
         when(examDefinitionDAO.updateExamDefinition(any(ExamDefinition.class))).thenReturn(true);
         
         // Act
@@ -155,7 +157,7 @@ public class ExamDefinitionServiceTest {
         assertNotNull(examDefinition.getUpdateData());
         
         verify(examDefinitionDAO).findExamDefinitionById(idExamDefinition);
-        verify(courseDAO).searchCourseById(idCourse);
+        verify(ownershipDAO).findCourseOwner(idCourse);
         verify(examDefinitionDAO).updateExamDefinition(any(ExamDefinition.class));
     }
 
@@ -166,8 +168,7 @@ public class ExamDefinitionServiceTest {
         int idCourse = 1;
         int idProfessorLogado = 1;
         
-        when(examDefinitionDAO.findExamDefinitionById(idExamDefinition)).thenReturn(examDefinition);
-        when(courseDAO.searchCourseById(idCourse)).thenReturn(course);
+        when(ownershipDAO.findExamDefinitionOwner(idExamDefinition)).thenReturn(courseOwner);
         when(examDefinitionDAO.deleteExamDefinition(idExamDefinition)).thenReturn(true);
         
         // Act
@@ -176,8 +177,8 @@ public class ExamDefinitionServiceTest {
         // Assert
         assertTrue(result);
         
-        verify(examDefinitionDAO).findExamDefinitionById(idExamDefinition);
-        verify(courseDAO).searchCourseById(idCourse);
+        verify(ownershipDAO).findExamDefinitionOwner(idExamDefinition);
+        verify(examDefinitionDAO, never()).findExamDefinitionById(anyInt());
         verify(examDefinitionDAO).deleteExamDefinition(idExamDefinition);
     }
 
@@ -190,7 +191,7 @@ public class ExamDefinitionServiceTest {
         examDefinition.setPublished(false);
         
         when(examDefinitionDAO.findExamDefinitionById(idExamDefinition)).thenReturn(examDefinition);
-        when(courseDAO.searchCourseById(examDefinition.getIdCourse())).thenReturn(course);
+        when(ownershipDAO.findCourseOwner(examDefinition.getIdCourse())).thenReturn(courseOwner);
         when(examDefinitionDAO.updateExamDefinition(any(ExamDefinition.class))).thenReturn(true);
         
         // Act
@@ -202,8 +203,9 @@ public class ExamDefinitionServiceTest {
         assertNotNull(examDefinition.getUpdateData());
         
         verify(examDefinitionDAO).findExamDefinitionById(idExamDefinition);
-        verify(courseDAO).searchCourseById(examDefinition.getIdCourse());
+        verify(ownershipDAO).findCourseOwner(examDefinition.getIdCourse());
         verify(examDefinitionDAO).updateExamDefinition(any(ExamDefinition.class));
+        verify(examDefinitionDAO).findPublishedExam(idExamDefinition);
     }
 
     @Test
@@ -215,7 +217,7 @@ public class ExamDefinitionServiceTest {
         examDefinition.setPublished(true);
         
         when(examDefinitionDAO.findExamDefinitionById(idExamDefinition)).thenReturn(examDefinition);
-        when(courseDAO.searchCourseById(examDefinition.getIdCourse())).thenReturn(course);
+        when(ownershipDAO.findCourseOwner(examDefinition.getIdCourse())).thenReturn(courseOwner);
         when(examDefinitionDAO.updateExamDefinition(any(ExamDefinition.class))).thenReturn(true);
         
         // Act
@@ -227,7 +229,7 @@ public class ExamDefinitionServiceTest {
         assertNotNull(examDefinition.getUpdateData());
         
         verify(examDefinitionDAO).findExamDefinitionById(idExamDefinition);
-        verify(courseDAO).searchCourseById(examDefinition.getIdCourse());
+        verify(ownershipDAO).findCourseOwner(examDefinition.getIdCourse());
         verify(examDefinitionDAO).updateExamDefinition(any(ExamDefinition.class));
     }
 
@@ -261,7 +263,7 @@ public class ExamDefinitionServiceTest {
         String title = "Java Midterm Exam";
         String description = "Test your Java knowledge";
         
-        when(courseDAO.searchCourseById(idCourse)).thenReturn(null);
+        when(ownershipDAO.findCourseOwner(idCourse)).thenReturn(null);
         
         // Act & Assert
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -274,7 +276,7 @@ public class ExamDefinitionServiceTest {
         
         assertEquals("Curso com ID " + idCourse + " não encontrado.", exception.getMessage());
         
-        verify(courseDAO).searchCourseById(idCourse);
+        verify(ownershipDAO).findCourseOwner(idCourse);
         verifyNoInteractions(examDefinitionDAO);
     }
 
@@ -286,7 +288,7 @@ public class ExamDefinitionServiceTest {
         String title = "Java Midterm Exam";
         String description = "Test your Java knowledge";
         
-        when(courseDAO.searchCourseById(idCourse)).thenReturn(course);
+        when(ownershipDAO.findCourseOwner(idCourse)).thenReturn(courseOwner);
         when(userDAO.searchById(idProfessorLogado)).thenReturn(regularUser);
         
         // Act & Assert
@@ -300,7 +302,7 @@ public class ExamDefinitionServiceTest {
         
         assertEquals("Usuário com ID " + idProfessorLogado + " não é um professor válido.", exception.getMessage());
         
-        verify(courseDAO).searchCourseById(idCourse);
+        verify(ownershipDAO).findCourseOwner(idCourse);
         verify(userDAO).searchById(idProfessorLogado);
         verifyNoInteractions(examDefinitionDAO);
     }
@@ -316,7 +318,7 @@ public class ExamDefinitionServiceTest {
         Professor unauthorizedProfessor = new Professor("Another Professor", "another@example.com", "password", "Physics");
         unauthorizedProfessor.setIdUser(3);
         
-        when(courseDAO.searchCourseById(idCourse)).thenReturn(course);
+        when(ownershipDAO.findCourseOwner(idCourse)).thenReturn(courseOwner);
         when(userDAO.searchById(idProfessorLogado)).thenReturn(unauthorizedProfessor);
         
         // Act & Assert
@@ -330,7 +332,7 @@ public class ExamDefinitionServiceTest {
         
         assertEquals("Professor não autorizado a criar exames para este curso.", exception.getMessage());
         
-        verify(courseDAO).searchCourseById(idCourse);
+        verify(ownershipDAO).findCourseOwner(idCourse);
         verify(userDAO).searchById(idProfessorLogado);
         verifyNoInteractions(examDefinitionDAO);
     }
@@ -345,7 +347,7 @@ public class ExamDefinitionServiceTest {
         examDefinition.setPublished(true);
         
         when(examDefinitionDAO.findExamDefinitionById(idExamDefinition)).thenReturn(examDefinition);
-        when(courseDAO.searchCourseById(examDefinition.getIdCourse())).thenReturn(course);
+        when(ownershipDAO.findCourseOwner(examDefinition.getIdCourse())).thenReturn(courseOwner);
         
         // Act
         boolean result = examDefinitionService.publishExamDefinition(idExamDefinition, idProfessorLogado);
@@ -355,7 +357,24 @@ public class ExamDefinitionServiceTest {
         assertTrue(examDefinition.isPublished());
         
         verify(examDefinitionDAO).findExamDefinitionById(idExamDefinition);
-        verify(courseDAO).searchCourseById(examDefinition.getIdCourse());
+        verify(ownershipDAO).findCourseOwner(examDefinition.getIdCourse());
         verify(examDefinitionDAO, never()).updateExamDefinition(any(ExamDefinition.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteExamDefinition_withDefinitionOfAnotherCourse_shouldThrowException() throws SQLException {
+        // Arrange
+        int idExamDefinition = 1;
+        int idCourse = 2;
+        int idProfessorLogado = 1;
+
+        when(ownershipDAO.findExamDefinitionOwner(idExamDefinition)).thenReturn(courseOwner);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> examDefinitionService.deleteExamDefinition(idExamDefinition, idCourse, idProfessorLogado));
+
+        assertEquals("Esta definição de exame não pertence ao curso especificado (ID: 2).", exception.getMessage());
+        verify(examDefinitionDAO, never()).deleteExamDefinition(anyInt());
+    }
+}
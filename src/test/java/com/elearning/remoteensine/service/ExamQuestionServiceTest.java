@@ -1,13 +1,16 @@
 package com.elearning.remoteensine.service;
 
-import com.elearning.remoteensine.dao.CourseDAO;
+import com.elearning.remoteensine.dao.BatchResult;
+import com.elearning.remoteensine.dao.CourseOwner;
 import com.elearning.remoteensine.dao.ExamDefinitionDAO;
 import com.elearning.remoteensine.dao.ExamQuestionDAO;
+import com.elearning.remoteensine.dao.OwnershipDAO;
 import com.elearning.remoteensine.dao.UserDAO;
 import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.ExamDefinition;
 import com.elearning.remoteensine.model.ExamQuestion;
 import com.elearning.remoteensine.model.Professor;
+import com.elearning.remoteensine.model.PublishedExam;
 import com.elearning.remoteensine.model.User;
 import com.elearning.remoteensine.model.enums.ExerciseType;
 import com.elearning.remoteensine.model.enums.UserType;
@@ -24,6 +27,8 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,7 +41,7 @@ public class ExamQuestionServiceTest {
     private ExamDefinitionDAO examDefinitionDAO;
 
     @Mock
-    private CourseDAO courseDAO;
+    private OwnershipDAO ownershipDAO;
 
     @Mock
     private UserDAO userDAO;
@@ -44,12 +49,13 @@ public class ExamQuestionServiceTest {
     private ExamQuestionService examQuestionService;
     private User professor;
     private Course course;
+    private CourseOwner courseOwner;
     private ExamDefinition examDefinition;
     private ExamQuestion examQuestion;
 
     @BeforeEach
     void setUp() {
-        examQuestionService = new ExamQuestionService(examQuestionDAO, examDefinitionDAO, courseDAO, userDAO);
+        examQuestionService = new ExamQuestionService(examQuestionDAO, examDefinitionDAO, ownershipDAO, userDAO);
         
         // Setup professor
         professor = new User("John Doe", "john@example.com", "password", UserType.PROFESSOR);
@@ -60,6 +66,7 @@ public class ExamQuestionServiceTest {
         responsibleProfessor.setIdUser(1);
         course = new Course("Java Programming", "Learn Java", responsibleProfessor, 99.99, "Programming", 40);
         course.setIdCourse(1);
+        courseOwner = new CourseOwner(1, responsibleProfessor.getIdUser());
         
         // Setup exam definition
         examDefinition = new ExamDefinition(1, "Java Exam", "Test your Java knowledge");
@@ -90,9 +97,7 @@ public class ExamQuestionServiceTest {
         double pontuacao = 10.0;
         int ordemNaProva = 1;
         
-        when(userDAO.searchById(idProfessorLogado)).thenReturn(professor);
-        when(examDefinitionDAO.findExamDefinitionById(idExamDefinition)).thenReturn(examDefinition);
-        when(courseDAO.searchCourseById(examDefinition.getIdCourse())).thenReturn(course);
+        when(ownershipDAO.findExamDefinitionOwner(idExamDefinition)).thenReturn(courseOwner);
         when(examQuestionDAO.saveQuestion(any(ExamQuestion.class))).thenReturn(examQuestion);
         
         // Act
@@ -112,9 +117,8 @@ public class ExamQuestionServiceTest {
         assertEquals(pontuacao, result.getGrade());
         assertEquals(ordemNaProva, result.getExamSequence());
         
-        verify(userDAO).searchById(idProfessorLogado);
-        verify(examDefinitionDAO).findExamDefinitionById(idExamDefinition);
-        verify(courseDAO).searchCourseById(examDefinition.getIdCourse());
+        verify(ownershipDAO).findExamDefinitionOwner(idExamDefinition);
+        verifyNoInteractions(userDAO, examDefinitionDAO);
         verify(examQuestionDAO).saveQuestion(any(ExamQuestion.class));
     }
 
@@ -126,9 +130,7 @@ public class ExamQuestionServiceTest {
         List<ExamQuestion> expectedQuestions = new ArrayList<>();
         expectedQuestions.add(examQuestion);
         
-        when(userDAO.searchById(idProfessorLogado)).thenReturn(professor);
-        when(examDefinitionDAO.findExamDefinitionById(idExamDefinition)).thenReturn(examDefinition);
-        when(courseDAO.searchCourseById(examDefinition.getIdCourse())).thenReturn(course);
+        when(ownershipDAO.findExamDefinitionOwner(idExamDefinition)).thenReturn(courseOwner);
         when(examQuestionDAO.findQuestionsByExamDefinitionId(idExamDefinition)).thenReturn(expectedQuestions);
         
         // Act
@@ -140,9 +142,8 @@ public class ExamQuestionServiceTest {
         assertEquals("What is Java?", result.get(0).getStatement());
         assertEquals(ExerciseType.MULTIPLA_ESCOLHA, result.get(0).getExerciseType());
         
-        verify(userDAO).searchById(idProfessorLogado);
-        verify(examDefinitionDAO).findExamDefinitionById(idExamDefinition);
-        verify(courseDAO).searchCourseById(examDefinition.getIdCourse());
+        verify(ownershipDAO).findExamDefinitionOwner(idExamDefinition);
+        verifyNoInteractions(userDAO, examDefinitionDAO);
         verify(examQuestionDAO).findQuestionsByExamDefinitionId(idExamDefinition);
     }
 
@@ -153,8 +154,7 @@ public class ExamQuestionServiceTest {
         int idProfessorLogado = 1;
         
         when(examQuestionDAO.findQuestionById(idQuestaoExame)).thenReturn(examQuestion);
-        when(examDefinitionDAO.findExamDefinitionById(examQuestion.getIdDefinitionExam())).thenReturn(examDefinition);
-        when(courseDAO.searchCourseById(examDefinition.getIdCourse())).thenReturn(course);
+        when(ownershipDAO.findExamDefinitionOwner(examQuestion.getIdDefinitionExam())).thenReturn(courseOwner);
         
         // Act
         ExamQuestion result = examQuestionService.getQuestionById(idQuestaoExame, idProfessorLogado);
@@ -166,8 +166,8 @@ public class ExamQuestionServiceTest {
         assertEquals(ExerciseType.MULTIPLA_ESCOLHA, result.getExerciseType());
         
         verify(examQuestionDAO).findQuestionById(idQuestaoExame);
-        verify(examDefinitionDAO).findExamDefinitionById(examQuestion.getIdDefinitionExam());
-        verify(courseDAO).searchCourseById(examDefinition.getIdCourse());
+        verify(ownershipDAO).findExamDefinitionOwner(examQuestion.getIdDefinitionExam());
+        verifyNoInteractions(examDefinitionDAO);
     }
 
     @Test
@@ -177,8 +177,7 @@ public class ExamQuestionServiceTest {
         ExamQuestion questionToUpdate = examQuestion;
         questionToUpdate.setStatement("Updated question statement");
         
-        when(examDefinitionDAO.findExamDefinitionById(questionToUpdate.getIdDefinitionExam())).thenReturn(examDefinition);
-        when(courseDAO.searchCourseById(examDefinition.getIdCourse())).thenReturn(course);
+        when(ownershipDAO.findExamDefinitionOwner(questionToUpdate.getIdDefinitionExam())).thenReturn(courseOwner);
         when(examQuestionDAO.updateQuestion(questionToUpdate)).thenReturn(true);
         
         // Act
@@ -187,8 +186,7 @@ public class ExamQuestionServiceTest {
         // Assert
         assertTrue(result);
         
-        verify(examDefinitionDAO).findExamDefinitionById(questionToUpdate.getIdDefinitionExam());
-        verify(courseDAO).searchCourseById(examDefinition.getIdCourse());
+        verify(ownershipDAO).findExamDefinitionOwner(questionToUpdate.getIdDefinitionExam());
         verify(examQuestionDAO).updateQuestion(questionToUpdate);
     }
 
@@ -198,9 +196,7 @@ public class ExamQuestionServiceTest {
         int idQuestaoExame = 1;
         int idProfessorLogado = 1;
         
-        when(examQuestionDAO.findQuestionById(idQuestaoExame)).thenReturn(examQuestion);
-        when(examDefinitionDAO.findExamDefinitionById(examQuestion.getIdDefinitionExam())).thenReturn(examDefinition);
-        when(courseDAO.searchCourseById(examDefinition.getIdCourse())).thenReturn(course);
+        when(ownershipDAO.findExamQuestionOwner(idQuestaoExame)).thenReturn(courseOwner);
         when(examQuestionDAO.deleteQuestion(idQuestaoExame)).thenReturn(true);
         
         // Act
@@ -209,9 +205,9 @@ public class ExamQuestionServiceTest {
         // Assert
         assertTrue(result);
         
-        verify(examQuestionDAO).findQuestionById(idQuestaoExame);
-        verify(examDefinitionDAO).findExamDefinitionById(examQuestion.getIdDefinitionExam());
-        verify(courseDAO).searchCourseById(examDefinition.getIdCourse());
+        verify(ownershipDAO).findExamQuestionOwner(idQuestaoExame);
+        verify(examQuestionDAO, never()).findQuestionById(anyInt());
+        verifyNoInteractions(examDefinitionDAO);
         verify(examQuestionDAO).deleteQuestion(idQuestaoExame);
     }
 
@@ -238,4 +234,73 @@ public class ExamQuestionServiceTest {
         verify(examQuestionDAO).findQuestionsByExamDefinitionId(idExamDefinition);
     }
 
-}
\ No newline at end of file
+    @Test
+    void getQuestionsForStudentToTakeExam_withPublishedExam_shouldServeCachedQuestions() throws SQLException {
+        // Arrange
+        int idExamDefinition = 1;
+        PublishedExam publishedExam = new PublishedExam(examDefinition, List.of(examQuestion));
+        when(examDefinitionDAO.findPublishedExam(idExamDefinition)).thenReturn(publishedExam);
+
+        // Act
+        List<ExamQuestion> result = examQuestionService.getQuestionsForStudentToTakeExam(idExamDefinition);
+
+        // Assert
+        assertSame(publishedExam.getQuestions(), result);
+        verify(examDefinitionDAO, never()).findExamDefinitionById(anyInt());
+        verify(examQuestionDAO, never()).findQuestionsByExamDefinitionId(anyInt());
+    }
+
+    @Test
+    void addQuestionToExamDefinition_withProfessorOfAnotherCourse_shouldThrowIllegalAccess() throws SQLException {
+        // Arrange
+        int idExamDefinition = 1;
+        User otherProfessor = new User("Other Professor", "other@example.com", "password", UserType.PROFESSOR);
+        otherProfessor.setIdUser(3);
+
+        when(ownershipDAO.findExamDefinitionOwner(idExamDefinition)).thenReturn(courseOwner);
+        when(userDAO.searchById(otherProfessor.getIdUser())).thenReturn(otherProfessor);
+
+        // Act & Assert
+        IllegalAccessException exception = assertThrows(IllegalAccessException.class,
+                () -> examQuestionService.addQuestionToExamDefinition(idExamDefinition, otherProfessor.getIdUser(),
+                        "What is Java?", ExerciseType.MULTIPLA_ESCOLHA, null, "A", 10.0, 1));
+
+        assertEquals("Professor não autorizado a adicionar questões a este exame.", exception.getMessage());
+        verifyNoInteractions(examQuestionDAO, examDefinitionDAO);
+    }
+
+    @Test
+    void importQuestionsFromExamDefinition_shouldCopyQuestionsAfterExistingOnesInOneBatch() throws SQLException, IllegalAccessException {
+        // Arrange
+        ExamQuestion existing = new ExamQuestion(1, "Existing", ExerciseType.DISSERTATIVA, null, null, 2.0, 3);
+        ExamQuestion source = new ExamQuestion(2, "Imported", ExerciseType.MULTIPLA_ESCOLHA, "[]", "A", 5.0, 1);
+        when(ownershipDAO.findExamDefinitionOwner(1)).thenReturn(courseOwner);
+        when(ownershipDAO.findExamDefinitionOwner(2)).thenReturn(courseOwner);
+        when(examQuestionDAO.findQuestionsByExamDefinitionId(2)).thenReturn(List.of(source));
+        when(examQuestionDAO.findQuestionsByExamDefinitionId(1)).thenReturn(List.of(existing));
+        when(examQuestionDAO.saveQuestions(anyList())).thenReturn(new BatchResult<>());
+
+        // Act
+        examQuestionService.importQuestionsFromExamDefinition(1, 2, 1);
+
+        // Assert
+        verify(examQuestionDAO).saveQuestions(argThat(questions -> questions.size() == 1
+                && questions.get(0).getIdDefinitionExam() == 1
+                && questions.get(0).getStatement().equals("Imported")
+                && questions.get(0).getCorrectAnswer().equals("A")
+                && questions.get(0).getExamSequence() == 4));
+        verify(examQuestionDAO, never()).saveQuestion(any(ExamQuestion.class));
+    }
+
+    @Test
+    void importQuestionsFromExamDefinition_shouldRejectSourceOwnedByAnotherProfessor() throws SQLException {
+        // Arrange
+        when(ownershipDAO.findExamDefinitionOwner(1)).thenReturn(courseOwner);
+        when(ownershipDAO.findExamDefinitionOwner(2)).thenReturn(new CourseOwner(2, 99));
+
+        // Act & Assert
+        assertThrows(IllegalAccessException.class,
+                () -> examQuestionService.importQuestionsFromExamDefinition(1, 2, 1));
+        verify(examQuestionDAO, never()).saveQuestions(anyList());
+    }
+}
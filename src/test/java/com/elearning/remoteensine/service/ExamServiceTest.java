@@ -13,6 +13,7 @@ import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -143,7 +144,7 @@ public class ExamServiceTest {
         
         when(courseDAO.searchCourseById(idCourse)).thenReturn(course);
         when(examDAO.listCoursesExams(idCourse)).thenReturn(examsList);
-        when(userDAO.searchById(exam.getStudentId())).thenReturn(student);
+        when(userDAO.searchByIds(List.of(exam.getStudentId()))).thenReturn(Map.of(exam.getStudentId(), student));
         
         // Act
         List<Exam> result = examService.getEvaluationsForCourseWithStudentNames(idCourse);
@@ -155,7 +156,7 @@ public class ExamServiceTest {
         
         verify(courseDAO).searchCourseById(idCourse);
         verify(examDAO).listCoursesExams(idCourse);
-        verify(userDAO).searchById(exam.getStudentId());
+        verify(userDAO).searchByIds(List.of(exam.getStudentId()));
     }
 
     @Test
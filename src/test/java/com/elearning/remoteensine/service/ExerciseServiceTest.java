@@ -1,9 +1,9 @@
 package com.elearning.remoteensine.service;
 
 import com.elearning.remoteensine.dao.ClassroomDAO;
-import com.elearning.remoteensine.dao.CourseDAO;
+import com.elearning.remoteensine.dao.CourseOwner;
 import com.elearning.remoteensine.dao.ExerciseDAO;
-import com.elearning.remoteensine.dao.UserDAO;
+import com.elearning.remoteensine.dao.OwnershipDAO;
 import com.elearning.remoteensine.model.Classroom;
 import com.elearning.remoteensine.model.Course;
 import com.elearning.remoteensine.model.Exercise;
@@ -34,20 +34,18 @@ public class ExerciseServiceTest {
     private ClassroomDAO classroomDAO;
 
     @Mock
-    private CourseDAO courseDAO;
-
-    @Mock
-    private UserDAO userDAO;
+    private OwnershipDAO ownershipDAO;
 
     private ExerciseService exerciseService;
     private Professor professor;
     private Course course;
+    private CourseOwner courseOwner;
     private Classroom classroom;
     private Exercise exercise;
 
     @BeforeEach
     void setUp() {
-        exerciseService = new ExerciseService(exerciseDAO, classroomDAO, courseDAO, userDAO);
+        exerciseService = new ExerciseService(exerciseDAO, classroomDAO, ownershipDAO);
         
         // Setup professor
         professor = new Professor("John Doe", "john@example.com", "password", "Computer Science");
@@ -56,6 +54,7 @@ public class ExerciseServiceTest {
         // Setup course
         course = new Course("Java Programming", "Learn Java", professor, 99.99, "Programming", 40);
         course.setIdCourse(1);
+        courseOwner = new CourseOwner(1, professor.getIdUser());
         
         // Setup classroom
         classroom = new Classroom(1, "Java Basics", "Introduction to Java", "http://example.com/java", 1);
@@ -76,8 +75,7 @@ public class ExerciseServiceTest {
         String options = "{\"options\":[\"A\",\"B\",\"C\",\"D\"]}";
         String correctAnswer = "A";
         
-        when(classroomDAO.searchById(classroomId)).thenReturn(classroom);
-        when(courseDAO.searchCourseById(classroom.getCourseId())).thenReturn(course);
+        when(ownershipDAO.findClassroomOwner(classroomId)).thenReturn(courseOwner);
         
         Exercise expectedExercise = new Exercise(classroomId, statement, type, options, correctAnswer);
         expectedExercise.setExerciseId(1);
@@ -95,8 +93,8 @@ public class ExerciseServiceTest {
         assertEquals(options, result.getOptions());
         assertEquals(correctAnswer, result.getCorrectAnswer());
         
-        verify(classroomDAO).searchById(classroomId);
-        verify(courseDAO).searchCourseById(classroom.getCourseId());
+        verify(ownershipDAO).findClassroomOwner(classroomId);
+        verifyNoInteractions(classroomDAO);
         verify(exerciseDAO).saveExercise(any(Exercise.class));
     }
 
@@ -164,8 +162,7 @@ public class ExerciseServiceTest {
         String newCorrectAnswer = "B";
         
         when(exerciseDAO.searchExerciseById(exerciseId)).thenReturn(exercise);
-        when(classroomDAO.searchById(exercise.getClassroomId())).thenReturn(classroom);
-        when(courseDAO.searchCourseById(classroom.getCourseId())).thenReturn(course);
+        when(ownershipDAO.findClassroomOwner(exercise.getClassroomId())).thenReturn(courseOwner);
         when(exerciseDAO.updateExercise(any(Exercise.class))).thenReturn(true);
         
         // Act
@@ -175,8 +172,8 @@ public class ExerciseServiceTest {
         assertTrue(result);
         
         verify(exerciseDAO).searchExerciseById(exerciseId);
-        verify(classroomDAO).searchById(exercise.getClassroomId());
-        verify(courseDAO).searchCourseById(classroom.getCourseId());
+        verify(ownershipDAO).findClassroomOwner(exercise.getClassroomId());
+        verifyNoInteractions(classroomDAO);
         verify(exerciseDAO).updateExercise(any(Exercise.class));
     }
 
@@ -186,9 +183,7 @@ public class ExerciseServiceTest {
         int exerciseId = 1;
         int professorId = 1;
         
-        when(exerciseDAO.searchExerciseById(exerciseId)).thenReturn(exercise);
-        when(classroomDAO.searchById(exercise.getClassroomId())).thenReturn(classroom);
-        when(courseDAO.searchCourseById(classroom.getCourseId())).thenReturn(course);
+        when(ownershipDAO.findExerciseOwner(exerciseId)).thenReturn(courseOwner);
         when(exerciseDAO.deleteExercise(exerciseId)).thenReturn(true);
         
         // Act
@@ -197,9 +192,9 @@ public class ExerciseServiceTest {
         // Assert
         assertTrue(result);
         
-        verify(exerciseDAO).searchExerciseById(exerciseId);
-        verify(classroomDAO).searchById(exercise.getClassroomId());
-        verify(courseDAO).searchCourseById(classroom.getCourseId());
+        verify(ownershipDAO).findExerciseOwner(exerciseId);
+        verify(exerciseDAO, never()).searchExerciseById(anyInt());
+        verifyNoInteractions(classroomDAO);
         verify(exerciseDAO).deleteExercise(exerciseId);
     }
 
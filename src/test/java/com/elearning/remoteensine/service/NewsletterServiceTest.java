@@ -1,6 +1,8 @@
 package com.elearning.remoteensine.service;
 
+import com.elearning.remoteensine.dao.BatchResult;
 import com.elearning.remoteensine.dao.NewsletterDAO;
+import com.elearning.remoteensine.dao.UncheckedSQLException;
 import com.elearning.remoteensine.model.NewsLetterInscription;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,13 +10,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.StringWriter;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -100,17 +106,15 @@ class NewsletterServiceTest {
     void checkInscriptionStatus_withActiveEmail_shouldReturnTrue() throws SQLException {
         // Arrange
         String email = "active@example.com";
-        NewsLetterInscription activeInscription = new NewsLetterInscription(email);
-        activeInscription.setActive(true);
-        
-        when(newsletterDAO.searchByEmail(email)).thenReturn(activeInscription);
+        when(newsletterDAO.isActiveSubscriber(email)).thenReturn(true);
 
         // Act
         boolean result = newsletterService.checkInscriptionStatus(email);
 
         // Assert
         assertTrue(result);
-        verify(newsletterDAO).searchByEmail(email);
+        verify(newsletterDAO).isActiveSubscriber(email);
+        verify(newsletterDAO, never()).searchByEmail(anyString());
     }
 
     @Test
@@ -125,7 +129,7 @@ class NewsletterServiceTest {
         List<NewsLetterInscription> activeInscriptions = Arrays.asList(inscription1, inscription2);
         List<String> expectedEmails = Arrays.asList("email1@example.com", "email2@example.com");
         
-        when(newsletterDAO.listAllInscriptions(true)).thenReturn(activeInscriptions);
+        when(newsletterDAO.streamAllInscriptions(true)).thenReturn(activeInscriptions.stream());
 
         // Act
         List<String> result = newsletterService.listAllActivesEmails();
@@ -133,7 +137,42 @@ class NewsletterServiceTest {
         // Assert
         assertEquals(expectedEmails.size(), result.size());
         assertTrue(result.containsAll(expectedEmails));
-        verify(newsletterDAO).listAllInscriptions(true);
+        verify(newsletterDAO).streamAllInscriptions(true);
+    }
+
+    @Test
+    void exportActiveEmails_shouldWriteOneEmailPerLineAndCloseStream() throws Exception {
+        // Arrange
+        boolean[] closed = {false};
+        Stream<NewsLetterInscription> inscriptions = Stream.of(
+                new NewsLetterInscription("email1@example.com"),
+                new NewsLetterInscription("email2@example.com")
+        ).onClose(() -> closed[0] = true);
+        when(newsletterDAO.streamAllInscriptions(true)).thenReturn(inscriptions);
+        StringWriter out = new StringWriter();
+
+        // Act
+        int count = newsletterService.exportActiveEmails(out);
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals("email1@example.com\nemail2@example.com\n", out.toString());
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    void exportActiveEmails_shouldUnwrapDatabaseErrorsFromStream() throws Exception {
+        // Arrange
+        SQLException cause = new SQLException("Connection reset");
+        Stream<NewsLetterInscription> inscriptions = Stream.<NewsLetterInscription>generate(() -> {
+            throw new UncheckedSQLException(cause);
+        });
+        when(newsletterDAO.streamAllInscriptions(true)).thenReturn(inscriptions);
+
+        // Act & Assert
+        SQLException thrown = assertThrows(SQLException.class,
+                () -> newsletterService.exportActiveEmails(new StringWriter()));
+        assertSame(cause, thrown);
     }
 
     @Test
@@ -151,4 +190,29 @@ class NewsletterServiceTest {
         verify(newsletterDAO, never()).searchByEmail(anyString());
         verify(newsletterDAO, never()).saveInscription(any(NewsLetterInscription.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void importEmails_shouldSaveAllEmailsInOneBatch() throws SQLException {
+        // Arrange
+        when(newsletterDAO.saveInscriptions(anyList())).thenReturn(new BatchResult<>());
+
+        // Act
+        newsletterService.importEmails("a@example.com, b@example.com\nc@example.com;");
+
+        // Assert
+        verify(newsletterDAO).saveInscriptions(argThat(inscriptions ->
+                inscriptions.stream().map(NewsLetterInscription::getEmail).toList()
+                        .equals(List.of("a@example.com", "b@example.com", "c@example.com"))));
+        verify(newsletterDAO, never()).saveInscription(any(NewsLetterInscription.class));
+    }
+
+    @Test
+    void importEmails_withInvalidEmail_shouldRejectWholeList() throws SQLException {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> newsletterService.importEmails("a@example.com\nnao-e-email"));
+
+        assertEquals("Invalid email format: nao-e-email", exception.getMessage());
+        verify(newsletterDAO, never()).saveInscriptions(anyList());
+    }
+}
@@ -0,0 +1,156 @@
+package com.elearning.remoteensine.service;
+
+import com.elearning.remoteensine.dao.ContentVersion;
+import com.elearning.remoteensine.dao.CourseDAO;
+import com.elearning.remoteensine.model.User;
+import com.elearning.remoteensine.model.enums.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PageValidatorServiceTest {
+
+    @Mock
+    private CourseDAO courseDAO;
+
+    @Mock
+    private EnrollService enrollService;
+
+    @Mock
+    private NewsletterService newsletterService;
+
+    private PageValidatorService pageValidatorService;
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        pageValidatorService = new PageValidatorService(courseDAO, enrollService, newsletterService);
+        student = new User("Student Name", "student@example.com", "password", UserType.STUDENT);
+        student.setIdUser(7);
+    }
+
+    @Test
+    void courseDetails_withUnchangedVersion_shouldRepeatValidators() throws Exception {
+        // Arrange
+        when(courseDAO.findContentVersion(1, 7)).thenReturn(new ContentVersion("v1", 1_000L));
+        when(enrollService.checkEnrolledStudents(7, 1)).thenReturn(true);
+
+        // Act
+        PageValidator first = pageValidatorService.courseDetails(1, null, null, student);
+        PageValidator second = pageValidatorService.courseDetails(1, null, null, student);
+
+        // Assert
+        assertTrue(first.getEtag().startsWith("W/\""));
+        assertEquals(first.getEtag(), second.getEtag());
+        assertFalse(first.isShared());
+    }
+
+    @Test
+    void courseDetails_afterContentChange_shouldChangeEtag() throws Exception {
+        // Arrange
+        when(courseDAO.findContentVersion(1, 7)).thenReturn(new ContentVersion("v1", 1_000L), new ContentVersion("v2", 2_000L));
+        when(enrollService.checkEnrolledStudents(7, 1)).thenReturn(true);
+
+        // Act
+        PageValidator before = pageValidatorService.courseDetails(1, null, null, student);
+        PageValidator after = pageValidatorService.courseDetails(1, null, null, student);
+
+        // Assert
+        assertNotEquals(before.getEtag(), after.getEtag());
+    }
+
+    @Test
+    void courseDetails_forVisitor_shouldBeSharedAndDifferFromLoggedPage() throws Exception {
+        // Arrange
+        when(courseDAO.findContentVersion(1, 0)).thenReturn(new ContentVersion("v1", 1_000L));
+        when(courseDAO.findContentVersion(1, 7)).thenReturn(new ContentVersion("v1", 1_000L));
+
+        // Act
+        PageValidator visitor = pageValidatorService.courseDetails(1, null, null, null);
+        PageValidator logged = pageValidatorService.courseDetails(1, null, null, student);
+
+        // Assert
+        assertTrue(visitor.isShared());
+        assertFalse(logged.isShared());
+        assertNotEquals(visitor.getEtag(), logged.getEtag());
+        assertEquals(1_000L, visitor.getLastModified());
+        assertEquals(-1, logged.getLastModified());
+        verify(enrollService).checkEnrolledStudents(7, 1);
+        verifyNoMoreInteractions(enrollService);
+    }
+
+    @Test
+    void courseClasses_shouldNeverBeShared() throws Exception {
+        // Arrange
+        when(courseDAO.findContentVersion(1, 7)).thenReturn(new ContentVersion("v1", 1_000L));
+
+        // Act
+        PageValidator validator = pageValidatorService.courseClasses(1, student);
+
+        // Assert
+        assertFalse(validator.isShared());
+    }
+
+    @Test
+    void courseDetails_shouldDependOnEnrollment() throws Exception {
+        // Arrange
+        when(courseDAO.findContentVersion(1, 7)).thenReturn(new ContentVersion("v1", 1_000L));
+        when(enrollService.checkEnrolledStudents(7, 1)).thenReturn(false, true);
+
+        // Act
+        PageValidator visitor = pageValidatorService.courseDetails(1, null, null, student);
+        PageValidator enrolled = pageValidatorService.courseDetails(1, null, null, student);
+
+        // Assert
+        assertNotEquals(visitor.getEtag(), enrolled.getEtag());
+    }
+
+    @Test
+    void courseClasses_withMissingCourse_shouldReturnNull() throws Exception {
+        // Arrange
+        when(courseDAO.findContentVersion(99, 7)).thenReturn(null);
+
+        // Act
+        PageValidator validator = pageValidatorService.courseClasses(99, student);
+
+        // Assert
+        assertNull(validator);
+    }
+
+    @Test
+    void catalogPage_shouldDependOnlyOnDatabaseVersion() throws Exception {
+        // Arrange
+        when(courseDAO.findCatalogVersion()).thenReturn(new ContentVersion("3:12:2024", 5_000L));
+        PageValidatorService otherNode = new PageValidatorService(courseDAO, enrollService, newsletterService);
+
+        // Act
+        PageValidator first = pageValidatorService.catalogPage(null, null);
+        PageValidator second = otherNode.catalogPage(null, null);
+
+        // Assert
+        assertEquals(first.getEtag(), second.getEtag());
+        assertTrue(first.isShared());
+        assertEquals(5_000L, first.getLastModified());
+    }
+
+    @Test
+    void catalogPage_afterCatalogChange_shouldChangeEtag() throws Exception {
+        // Arrange
+        when(courseDAO.findCatalogVersion()).thenReturn(
+                new ContentVersion("3:12:2024", 5_000L), new ContentVersion("2:12:2024", 6_000L));
+
+        // Act
+        PageValidator before = pageValidatorService.catalogPage(null, null);
+        PageValidator after = pageValidatorService.catalogPage(null, null);
+
+        // Assert
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertEquals(6_000L, after.getLastModified());
+    }
+}
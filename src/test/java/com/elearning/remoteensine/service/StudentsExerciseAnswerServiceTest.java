@@ -13,11 +13,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -283,4 +287,88 @@ public class StudentsExerciseAnswerServiceTest {
         verifyNoInteractions(exerciseDAO);
         verifyNoInteractions(answerDAO);
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadLessonPage_shouldIndexAnswersByExerciseWithoutPerExerciseQueries() throws SQLException {
+        // Arrange
+        int courseId = 1;
+        int classroomId = 1;
+        int studentId = 1;
+        LessonPage header = new LessonPage(course, classroom, null, 2);
+        StudentsExerciseAnswer answer = new StudentsExerciseAnswer(multipleChoiceExercise.getExerciseId(), studentId, classroomId, "B");
+
+        when(classroomDAO.searchLessonInCourse(courseId, classroomId)).thenReturn(header);
+        when(exerciseDAO.listExercisesByClass(classroomId)).thenReturn(List.of(exercise, multipleChoiceExercise));
+        when(answerDAO.getAnswersByStudentAndClassroom(studentId, classroomId)).thenReturn(List.of(answer));
+
+        // Act
+        LessonPage page = answerService.loadLessonPage(courseId, classroomId, studentId);
+
+        // Assert
+        assertSame(classroom, page.getClassroom());
+        assertNull(page.getPreviousClassroomId());
+        assertEquals(2, page.getNextClassroomId());
+        assertEquals(2, page.getExercises().size());
+        assertNull(page.getAnswer(exercise.getExerciseId()));
+        assertSame(answer, page.getAnswer(multipleChoiceExercise.getExerciseId()));
+        assertEquals(1, page.getAnsweredCount());
+        verify(answerDAO, never()).getAnswerByStudentAndExercise(anyInt(), anyInt());
+    }
+
+    @Test
+    void loadLessonPage_shouldReturnNullWhenClassroomIsNotInCourse() throws SQLException {
+        // Arrange
+        when(classroomDAO.searchLessonInCourse(2, 1)).thenReturn(null);
+
+        // Act
+        LessonPage page = answerService.loadLessonPage(2, 1, 1);
+
+        // Assert
+        assertNull(page);
+        verifyNoInteractions(exerciseDAO, answerDAO);
+    }
+
+    @Test
+    void submitAnswers_shouldBatchNewAnswersAndUpdateExistingOnes() throws SQLException {
+        // Arrange
+        StudentsExerciseAnswer existing = new StudentsExerciseAnswer(1, 1, 1, "Old answer");
+        when(userDAO.searchById(1)).thenReturn(student);
+        when(classroomDAO.searchById(1)).thenReturn(classroom);
+        when(enrollDAO.checkEnroll(1, 1)).thenReturn(true);
+        when(exerciseDAO.listExercisesByClass(1)).thenReturn(List.of(exercise, multipleChoiceExercise));
+        when(answerDAO.getAnswersByStudentAndClassroom(1, 1)).thenReturn(List.of(existing));
+        when(answerDAO.saveAnswers(anyList())).thenReturn(new BatchResult<>());
+
+        Map<Integer, String> answers = new LinkedHashMap<>();
+        answers.put(1, "New answer");
+        answers.put(2, "A) extends");
+
+        // Act
+        answerService.submitAnswers(1, 1, 1, answers);
+
+        // Assert
+        assertEquals("New answer", existing.getAnswerText());
+        verify(answerDAO).updateAnswer(existing);
+        verify(answerDAO).saveAnswers(argThat(saved -> saved.size() == 1
+                && saved.get(0).getIdExercise() == 2
+                && saved.get(0).getIdCourse() == 1
+                && Boolean.TRUE.equals(saved.get(0).getCorrect())
+                && saved.get(0).getGrade() == 10.0));
+        verify(answerDAO, never()).saveAnswer(any(StudentsExerciseAnswer.class));
+    }
+
+    @Test
+    void submitAnswers_withExerciseFromAnotherClassroom_shouldThrowException() throws SQLException {
+        // Arrange
+        when(userDAO.searchById(1)).thenReturn(student);
+        when(classroomDAO.searchById(1)).thenReturn(classroom);
+        when(enrollDAO.checkEnroll(1, 1)).thenReturn(true);
+        when(exerciseDAO.listExercisesByClass(1)).thenReturn(List.of(exercise));
+        when(answerDAO.getAnswersByStudentAndClassroom(1, 1)).thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> answerService.submitAnswers(1, 1, 1, Map.of(99, "Answer")));
+        verify(answerDAO, never()).saveAnswers(anyList());
+    }
+}
@@ -106,7 +106,7 @@ public class UserServiceTest {
         User mockUser = new User("Test User", email, hashedPassword, UserType.STUDENT);
         mockUser.setIdUser(3);
         
-        when(userDAO.searchByEmail(email)).thenReturn(mockUser);
+        when(userDAO.searchCredentialsByEmail(email)).thenReturn(mockUser);
         
         // Act
         User result = userService.validateLogin(email, password);
@@ -118,7 +118,7 @@ public class UserServiceTest {
         assertEquals(email, result.getEmail());
         
         // Verify interactions with the DAO
-        verify(userDAO).searchByEmail(email);
+        verify(userDAO).searchCredentialsByEmail(email);
     }
 
     @Test
@@ -200,7 +200,7 @@ public class UserServiceTest {
         User mockUser = new User("Test User", email, hashedPassword, UserType.STUDENT);
         mockUser.setIdUser(3);
         
-        when(userDAO.searchByEmail(email)).thenReturn(mockUser);
+        when(userDAO.searchCredentialsByEmail(email)).thenReturn(mockUser);
         
         // Act
         User result = userService.validateLogin(email, incorrectPassword);
@@ -209,7 +209,7 @@ public class UserServiceTest {
         assertNull(result);
         
         // Verify interactions with the DAO
-        verify(userDAO).searchByEmail(email);
+        verify(userDAO).searchCredentialsByEmail(email);
     }
 
     @Test
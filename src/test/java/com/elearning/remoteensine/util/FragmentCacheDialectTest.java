@@ -0,0 +1,199 @@
+package com.elearning.remoteensine.util;
+
+import com.elearning.remoteensine.dao.InvalidationBus;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FragmentCacheDialectTest {
+
+    private FragmentCacheDialect dialect;
+
+    @Test
+    void render_shouldServeSecondRenderFromCache() {
+        // Arrange
+        SpringTemplateEngine engine = engine(true);
+        String template = "<div cache:fragment=\"${'card:' + id + ':' + (counter != null)}\"><span th:text=\"${counter.incrementAndGet()}\">0</span></div>";
+        AtomicInteger counter = new AtomicInteger();
+
+        // Act
+        String first = engine.process(template, context(counter, 1));
+        String second = engine.process(template, context(counter, 1));
+
+        // Assert
+        assertEquals("<div><span>1</span></div>", first);
+        assertEquals(first, second);
+        assertEquals(1, counter.get());
+        assertEquals(1, dialect.getCacheStats().getHits());
+    }
+
+    @Test
+    void render_shouldRenderAgainForAnotherKey() {
+        // Arrange
+        SpringTemplateEngine engine = engine(true);
+        String template = "<p cache:fragment=\"${'versao:' + id + ':' + (counter != null)}\" th:text=\"${counter.incrementAndGet()}\">0</p>";
+        AtomicInteger counter = new AtomicInteger();
+
+        // Act
+        String first = engine.process(template, context(counter, 1));
+        String changed = engine.process(template, context(counter, 2));
+
+        // Assert
+        assertEquals("<p>1</p>", first);
+        assertEquals("<p>2</p>", changed);
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    void render_shouldBypassCacheForNullOrBlankKey() {
+        // Arrange
+        SpringTemplateEngine engine = engine(true);
+        String nullKey = "<p cache:fragment=\"${null}\" th:text=\"${counter.incrementAndGet()}\">0</p>";
+        String blankKey = "<p cache:fragment=\"${'  '}\" th:text=\"${counter.incrementAndGet()}\">0</p>";
+        AtomicInteger counter = new AtomicInteger();
+
+        // Act
+        engine.process(nullKey, context(counter, 1));
+        String nullSecond = engine.process(nullKey, context(counter, 1));
+        engine.process(blankKey, context(counter, 1));
+        String blankSecond = engine.process(blankKey, context(counter, 1));
+
+        // Assert
+        assertEquals("<p>2</p>", nullSecond);
+        assertEquals("<p>4</p>", blankSecond);
+        assertEquals(4, counter.get());
+    }
+
+    @Test
+    void render_shouldNotCacheWhenThymeleafCacheIsDisabled() {
+        // Arrange
+        SpringTemplateEngine engine = engine(false);
+        String template = "<p cache:fragment=\"${'dev:' + id}\" th:text=\"${counter.incrementAndGet()}\">0</p>";
+        AtomicInteger counter = new AtomicInteger();
+
+        // Act
+        String first = engine.process(template, context(counter, 1));
+        String second = engine.process(template, context(counter, 1));
+
+        // Assert
+        assertEquals("<p>1</p>", first);
+        assertEquals("<p>2</p>", second);
+        assertEquals(0, dialect.getCacheStats().getSize());
+    }
+
+    @Test
+    void render_shouldNotInlineExpressionsFromCachedText() {
+        // Arrange
+        SpringTemplateEngine engine = engine(true);
+        String template = "<div th:inline=\"text\"><h3 cache:fragment=\"${'titulo:' + id}\" th:text=\"${titulo}\">Curso</h3></div>";
+        AtomicInteger counter = new AtomicInteger();
+
+        // Act
+        Context first = context(counter, 1);
+        first.setVariable("titulo", "Java [[${counter.incrementAndGet()}]]");
+        String rendered = engine.process(template, first);
+        Context second = context(counter, 1);
+        second.setVariable("titulo", "Java [[${counter.incrementAndGet()}]]");
+        String cached = engine.process(template, second);
+
+        // Assert
+        assertEquals("<div><h3>Java [[${counter.incrementAndGet()}]]</h3></div>", rendered);
+        assertEquals(rendered, cached);
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    void render_shouldKeepSameKeyApartAcrossTemplates() {
+        // Arrange
+        SpringTemplateEngine engine = engine(true);
+        String lessons = "<ul cache:fragment=\"${'curso:' + id}\"><li th:text=\"${'aulas ' + id}\">x</li></ul>";
+        String syllabus = "<ol cache:fragment=\"${'curso:' + id}\"><li th:text=\"${'ementa ' + id}\">x</li></ol>";
+        AtomicInteger counter = new AtomicInteger();
+
+        // Act
+        String first = engine.process(lessons, context(counter, 3));
+        String other = engine.process(syllabus, context(counter, 3));
+
+        // Assert
+        assertEquals("<ul><li>aulas 3</li></ul>", first);
+        assertEquals("<ol><li>ementa 3</li></ol>", other);
+    }
+
+    @Test
+    void render_shouldKeySimpleVariablesReadOutsideKeyByValue() {
+        // Arrange
+        SpringTemplateEngine engine = engine(true);
+        String template = "<p cache:fragment=\"${'saudacao:' + id}\" th:text=\"${'Olá, ' + nome}\">x</p>";
+        AtomicInteger counter = new AtomicInteger();
+        Context ana = context(counter, 1);
+        ana.setVariable("nome", "Ana");
+        Context bia = context(counter, 1);
+        bia.setVariable("nome", "Bia");
+
+        // Act
+        String first = engine.process(template, ana);
+        String other = engine.process(template, bia);
+        String again = engine.process(template, ana);
+
+        // Assert
+        assertEquals("<p>Olá, Ana</p>", first);
+        assertEquals("<p>Olá, Bia</p>", other);
+        assertEquals(first, again);
+        assertEquals(1, dialect.getCacheStats().getHits());
+    }
+
+    @Test
+    void render_shouldNotCacheFragmentReadingObjectOutsideKey() {
+        // Arrange
+        SpringTemplateEngine engine = engine(true);
+        String template = "<p cache:fragment=\"${'contador:' + id}\" th:text=\"${counter.incrementAndGet()}\">0</p>";
+        AtomicInteger counter = new AtomicInteger();
+
+        // Act
+        String first = engine.process(template, context(counter, 1));
+        String second = engine.process(template, context(counter, 1));
+
+        // Assert
+        assertEquals("<p>1</p>", first);
+        assertEquals("<p>2</p>", second);
+        assertEquals(0, dialect.getCacheStats().getSize());
+    }
+
+    @Test
+    void variableNames_shouldReturnRootsOfVariableExpressions() {
+        // Arrange
+        String markup = "<a th:href=\"@{/cursos/{id}(id=${curso.idCourse})}\" "
+                + "th:text=\"${'aulas: ' + #lists.size(aulas) + ' ' + aula?.title}\">x</a>";
+
+        // Act
+        Set<String> names = FragmentCacheDialect.variableNames(markup);
+
+        // Assert
+        assertEquals(Set.of("curso", "aulas", "aula"), names);
+    }
+
+    private SpringTemplateEngine engine(boolean cacheEnabled) {
+        StringTemplateResolver resolver = new StringTemplateResolver();
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCacheable(cacheEnabled);
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        dialect = new FragmentCacheDialect(cacheEnabled, new InvalidationBus());
+        engine.addDialect(dialect);
+        return engine;
+    }
+
+    private static Context context(AtomicInteger counter, int id) {
+        Context context = new Context();
+        context.setVariable("counter", counter);
+        context.setVariable("id", id);
+        return context;
+    }
+}
@@ -0,0 +1,120 @@
+package com.elearning.remoteensine.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntObjectMapTest {
+
+    @Test
+    void put_shouldStoreAndOverwriteValues() {
+        // Arrange
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        // Act
+        String first = map.put(7, "sete");
+        String previous = map.put(7, "SETE");
+
+        // Assert
+        assertNull(first);
+        assertEquals("sete", previous);
+        assertEquals("SETE", map.get(7));
+        assertEquals(1, map.size());
+        assertNull(map.get(8));
+        assertFalse(map.containsKey(8));
+    }
+
+    @Test
+    void put_shouldAcceptZeroAndNegativeKeys() {
+        // Arrange
+        IntObjectMap<String> map = new IntObjectMap<>();
+        assertNull(map.get(0));
+        assertFalse(map.containsKey(0));
+
+        // Act
+        map.put(0, "zero");
+        map.put(-1, "menos um");
+        map.put(Integer.MIN_VALUE, "mínimo");
+        map.put(Integer.MAX_VALUE, "máximo");
+
+        // Assert
+        assertEquals(4, map.size());
+        assertEquals("zero", map.get(0));
+        assertEquals("menos um", map.get(-1));
+        assertEquals("mínimo", map.get(Integer.MIN_VALUE));
+        assertEquals("máximo", map.get(Integer.MAX_VALUE));
+        assertTrue(map.containsKey(0));
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    void put_shouldKeepCollidingKeysApart() {
+        // Arrange
+        // Chaves que diferem em múltiplos de 2^19 têm os 19 bits baixos do hash iguais e
+        // caem na mesma posição da tabela inicial de 8: todas dependem da sondagem.
+        IntObjectMap<String> map = new IntObjectMap<>();
+        int[] keys = {0, 1 << 19, 2 << 19, 3 << 19};
+
+        // Act
+        for (int key : keys) {
+            map.put(key, "v" + key);
+        }
+
+        // Assert
+        assertEquals(keys.length, map.size());
+        for (int key : keys) {
+            assertEquals("v" + key, map.get(key));
+        }
+        assertNull(map.get(4 << 19));
+        assertEquals("v" + (2 << 19), map.put(2 << 19, "outro"));
+        assertEquals(keys.length, map.size());
+        assertEquals("outro", map.get(2 << 19));
+        assertEquals("v" + (3 << 19), map.get(3 << 19));
+    }
+
+    @Test
+    void put_shouldGrowPastLoadFactorKeepingEntries() {
+        // Arrange
+        IntObjectMap<Integer> map = new IntObjectMap<>(2);
+
+        // Act
+        for (int key = -500; key < 500; key++) {
+            map.put(key, key * 10);
+        }
+
+        // Assert
+        assertEquals(1000, map.size());
+        for (int key = -500; key < 500; key++) {
+            assertEquals(key * 10, map.get(key));
+        }
+        assertNull(map.get(500));
+        assertNull(map.get(-501));
+    }
+
+    @Test
+    void equals_shouldIgnoreInsertionOrderAndCapacity() {
+        // Arrange
+        IntObjectMap<String> small = new IntObjectMap<>();
+        IntObjectMap<String> large = new IntObjectMap<>(100);
+        small.put(1, "a");
+        small.put(2, "b");
+        large.put(2, "b");
+        large.put(1, "a");
+
+        // Act & Assert
+        assertEquals(small, large);
+        assertEquals(small.hashCode(), large.hashCode());
+        large.put(3, "c");
+        assertNotEquals(small, large);
+    }
+
+    @Test
+    void put_shouldRejectNullValue() {
+        // Arrange
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+        assertTrue(map.isEmpty());
+    }
+}
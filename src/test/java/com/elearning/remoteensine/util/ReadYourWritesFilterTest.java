@@ -0,0 +1,62 @@
+package com.elearning.remoteensine.util;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReadYourWritesFilterTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private ServletResponse response;
+
+    @Mock
+    private HttpSession session;
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter();
+
+    @Test
+    void doFilter_shouldPinSessionAsSoonAsWriteIsRecorded() throws Exception {
+        // Arrange
+        when(request.getSession(false)).thenReturn(session);
+        FilterChain chain = (req, res) -> {
+            DataSourceRouting.recordWrite();
+            DataSourceRouting.recordWrite();
+            // Ainda dentro do handler: o redirect que vem depois já encontra a fixação.
+            verify(session).setAttribute(eq(ReadYourWritesFilter.PINNED_UNTIL_ATTRIBUTE), anyLong());
+        };
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        verify(session, times(2)).setAttribute(eq(ReadYourWritesFilter.PINNED_UNTIL_ATTRIBUTE), anyLong());
+        assertFalse(DataSourceRouting.wroteInCurrentRequest());
+    }
+
+    @Test
+    void doFilter_shouldNotPinSessionWithoutWrite() throws Exception {
+        // Arrange
+        when(request.getSession(false)).thenReturn(session);
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> {
+        });
+
+        // Assert
+        verify(session, never()).setAttribute(eq(ReadYourWritesFilter.PINNED_UNTIL_ATTRIBUTE), anyLong());
+    }
+}
@@ -0,0 +1,198 @@
+package com.elearning.remoteensine.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SchemaMigratorTest {
+
+    @Mock
+    private Connection connection;
+    @Mock
+    private Statement statement;
+    @Mock
+    private PreparedStatement preparedStatement;
+    @Mock
+    private ResultSet lockResult;
+    @Mock
+    private ResultSet history;
+
+    @Test
+    void parse_shouldIgnoreFilesOutsideTheNamingPattern() {
+        // Act & Assert
+        assertNull(SchemaMigrator.parse("schema.sql", "CREATE TABLE a (id INT);"));
+        assertNull(SchemaMigrator.parse("V1_indices.sql", "CREATE TABLE a (id INT);"));
+        assertEquals(12, SchemaMigrator.parse("V12__indices.sql", "CREATE TABLE a (id INT);").getVersion());
+    }
+
+    @Test
+    void checksum_shouldIgnoreCommentsAndLineEndings() {
+        // Arrange
+        SchemaMigrator.Migration original = SchemaMigrator.parse("V3__indices.sql",
+                "CREATE INDEX idx_a ON a (b);\nCREATE INDEX idx_c ON c (d);\n");
+        SchemaMigrator.Migration reformatted = SchemaMigrator.parse("V3__indices.sql",
+                "-- Índices das listagens\r\nCREATE INDEX idx_a ON a (b);\r\n  -- coluna d\r\nCREATE INDEX idx_c ON c (d);\r\n");
+        SchemaMigrator.Migration edited = SchemaMigrator.parse("V3__indices.sql",
+                "CREATE INDEX idx_a ON a (b, e);\nCREATE INDEX idx_c ON c (d);\n");
+
+        // Act & Assert
+        assertEquals(original.getChecksum(), reformatted.getChecksum());
+        assertNotEquals(original.getChecksum(), edited.getChecksum());
+    }
+
+    @Test
+    void ordered_shouldSortByNumericVersion() {
+        // Arrange
+        SchemaMigrator.Migration v10 = SchemaMigrator.parse("V10__dez.sql", "SELECT 10;");
+        SchemaMigrator.Migration v2 = SchemaMigrator.parse("V2__dois.sql", "SELECT 2;");
+        SchemaMigrator.Migration v1 = SchemaMigrator.parse("V1__um.sql", "SELECT 1;");
+
+        // Act
+        List<SchemaMigrator.Migration> ordered = SchemaMigrator.ordered(List.of(v10, v2, v1));
+
+        // Assert
+        assertEquals(List.of(v1, v2, v10), ordered);
+    }
+
+    @Test
+    void ordered_shouldRejectDuplicatedVersion() {
+        // Arrange
+        SchemaMigrator.Migration first = SchemaMigrator.parse("V2__indices.sql", "SELECT 1;");
+        SchemaMigrator.Migration second = SchemaMigrator.parse("V2__colunas.sql", "SELECT 2;");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> SchemaMigrator.ordered(List.of(first, second)));
+    }
+
+    @Test
+    void migrate_shouldApplyOnlyPendingMigrationsInOrder() throws SQLException {
+        // Arrange
+        SchemaMigrator.Migration v1 = SchemaMigrator.parse("V1__tabela_a.sql", "CREATE TABLE a (id INT);");
+        SchemaMigrator.Migration v2 = SchemaMigrator.parse("V2__tabela_b.sql", "CREATE TABLE b (id INT);");
+        SchemaMigrator.Migration v3 = SchemaMigrator.parse("V3__tabela_c.sql", "CREATE TABLE c (id INT);");
+        stubDatabase();
+        when(history.next()).thenReturn(true, false);
+        when(history.getInt(1)).thenReturn(1);
+        when(history.getLong(2)).thenReturn(v1.getChecksum());
+
+        // Act
+        int applied = SchemaMigrator.migrate(connection, List.of(v1, v2, v3));
+
+        // Assert
+        assertEquals(2, applied);
+        verify(statement, never()).execute("CREATE TABLE a (id INT)");
+        InOrder inOrder = inOrder(statement, preparedStatement);
+        inOrder.verify(statement).execute("CREATE TABLE b (id INT)");
+        inOrder.verify(preparedStatement).setInt(1, 2);
+        inOrder.verify(statement).execute("CREATE TABLE c (id INT)");
+        inOrder.verify(preparedStatement).setInt(1, 3);
+        verify(preparedStatement, times(2)).executeUpdate();
+        verify(connection).prepareStatement("SELECT RELEASE_LOCK(?)");
+    }
+
+    @Test
+    void migrate_shouldStopWhenAppliedMigrationWasChanged() throws SQLException {
+        // Arrange
+        SchemaMigrator.Migration v1 = SchemaMigrator.parse("V1__tabela_a.sql", "CREATE TABLE a (id INT);");
+        SchemaMigrator.Migration v2 = SchemaMigrator.parse("V2__tabela_b.sql", "CREATE TABLE b (id INT);");
+        stubDatabase();
+        when(history.next()).thenReturn(true, false);
+        when(history.getInt(1)).thenReturn(1);
+        when(history.getLong(2)).thenReturn(v1.getChecksum() + 1);
+
+        // Act
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> SchemaMigrator.migrate(connection, List.of(v1, v2)));
+
+        // Assert
+        assertTrue(thrown.getMessage().contains("V1__tabela_a.sql"));
+        verify(statement, never()).execute("CREATE TABLE b (id INT)");
+        verify(preparedStatement, never()).executeUpdate();
+        verify(connection).prepareStatement("SELECT RELEASE_LOCK(?)");
+    }
+
+    @Test
+    void migrate_shouldNotRecordFailedMigration() throws SQLException {
+        // Arrange
+        SchemaMigrator.Migration v1 = SchemaMigrator.parse("V1__quebrada.sql",
+                "CREATE TABLE a (id INT);\nCREATE TABLE broken (;");
+        SchemaMigrator.Migration v2 = SchemaMigrator.parse("V2__tabela_b.sql", "CREATE TABLE b (id INT);");
+        stubDatabase();
+        doAnswer(invocation -> {
+            if (invocation.<String>getArgument(0).contains("broken")) {
+                throw new SQLException("You have an error in your SQL syntax", "42000", 1064);
+            }
+            return false;
+        }).when(statement).execute(anyString());
+
+        // Act
+        SQLException thrown = assertThrows(SQLException.class,
+                () -> SchemaMigrator.migrate(connection, List.of(v1, v2)));
+
+        // Assert
+        assertEquals(1064, thrown.getErrorCode());
+        verify(statement).execute("CREATE TABLE a (id INT)");
+        verify(statement, never()).execute("CREATE TABLE b (id INT)");
+        verify(preparedStatement, never()).executeUpdate();
+        verify(connection).prepareStatement("SELECT RELEASE_LOCK(?)");
+    }
+
+    @Test
+    void splitStatements_shouldIgnoreSemicolonsInsideLiteralsAndComments() {
+        // Arrange
+        String script = "INSERT INTO a (b) VALUES ('x;y', \"it''s;\"); -- fim; da linha\n"
+                + "/* bloco; com ponto e vírgula */ UPDATE a SET b = 'c\\';d';\n"
+                + "# outro; comentário\n"
+                + "SELECT `col;umn` FROM a;";
+
+        // Act
+        List<String> statements = SchemaMigrator.splitStatements(script);
+
+        // Assert
+        assertEquals(List.of(
+                "INSERT INTO a (b) VALUES ('x;y', \"it''s;\")",
+                "UPDATE a SET b = 'c\\';d'",
+                "SELECT `col;umn` FROM a"), statements);
+    }
+
+    @Test
+    void migrate_shouldResumeMigrationInterruptedAfterAddingColumn() throws SQLException {
+        // Arrange
+        SchemaMigrator.Migration v7 = SchemaMigrator.parse("V7__coluna.sql",
+                "ALTER TABLE users ADD COLUMN updated_at TIMESTAMP(3);\nCREATE INDEX idx_users_updated ON users(updated_at);");
+        stubDatabase();
+        when(statement.execute(anyString())).thenReturn(false);
+        when(statement.execute(startsWith("ALTER TABLE users")))
+                .thenThrow(new SQLException("Duplicate column name 'updated_at'", "42S21", 1060));
+
+        // Act
+        int applied = SchemaMigrator.migrate(connection, List.of(v7));
+
+        // Assert
+        assertEquals(1, applied);
+        verify(statement).execute("CREATE INDEX idx_users_updated ON users(updated_at)");
+        verify(preparedStatement).setInt(1, 7);
+        verify(preparedStatement).executeUpdate();
+    }
+
+    /** Lock obtido na hora e o histórico lido de {@link #history}. */
+    private void stubDatabase() throws SQLException {
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(lockResult);
+        when(lockResult.next()).thenReturn(true);
+        when(lockResult.getInt(1)).thenReturn(1);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SELECT version, checksum FROM schema_migrations")).thenReturn(history);
+    }
+}
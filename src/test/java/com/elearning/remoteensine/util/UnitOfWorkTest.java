@@ -0,0 +1,182 @@
+package com.elearning.remoteensine.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UnitOfWorkTest {
+
+    @Mock
+    private Connection connection;
+
+    @AfterEach
+    void tearDown() {
+        DataSourceRouting.reset();
+    }
+
+    @Test
+    void inTransaction_shouldCommitAndCloseOnSuccess() throws SQLException {
+        // Act
+        String result = UnitOfWork.inTransaction(() -> {
+            daoConnection();
+            return "ok";
+        });
+
+        // Assert
+        assertEquals("ok", result);
+        assertFalse(UnitOfWork.isActive());
+        verify(connection).setAutoCommit(false);
+        verify(connection).commit();
+        verify(connection, never()).rollback();
+        verify(connection).close();
+        assertTrue(DataSourceRouting.wroteInCurrentRequest());
+    }
+
+    @Test
+    void inTransaction_shouldRollbackOnException() throws SQLException {
+        // Act
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                () -> UnitOfWork.inTransaction(() -> {
+                    daoConnection();
+                    throw new IllegalArgumentException("falhou");
+                }));
+
+        // Assert
+        assertEquals("falhou", thrown.getMessage());
+        assertFalse(UnitOfWork.isActive());
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).close();
+        assertFalse(DataSourceRouting.wroteInCurrentRequest());
+    }
+
+    @Test
+    void inTransaction_shouldJoinOuterUnitWhenNested() throws SQLException {
+        // Act
+        Connection[] seen = new Connection[2];
+        UnitOfWork.inTransaction(() -> {
+            seen[0] = daoConnection();
+            return UnitOfWork.inTransaction(() -> {
+                seen[1] = daoConnection();
+                return null;
+            });
+        });
+
+        // Assert
+        assertSame(seen[0], seen[1]);
+        verify(connection, times(1)).setAutoCommit(false);
+        verify(connection, times(1)).commit();
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    void inTransaction_shouldRejectReadWriteUnitInsideReadOnlyOne() throws SQLException {
+        // Act
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.readOnly(() -> {
+            daoConnection();
+            return UnitOfWork.inTransaction(() -> null);
+        }));
+
+        // Assert
+        assertFalse(UnitOfWork.isActive());
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+    }
+
+    @Test
+    void connectionForDao_shouldNotCloseRealConnection() throws SQLException {
+        // Act
+        UnitOfWork.inTransaction(() -> {
+            daoConnection().close();
+            verify(connection, never()).close();
+            return null;
+        });
+
+        // Assert
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    void readOnly_shouldRestoreConnectionBeforeClosingIt() throws SQLException {
+        // Act
+        UnitOfWork.readOnly(() -> daoConnection());
+
+        // Assert
+        InOrder inOrder = inOrder(connection);
+        inOrder.verify(connection).setAutoCommit(false);
+        inOrder.verify(connection).setReadOnly(true);
+        inOrder.verify(connection).commit();
+        inOrder.verify(connection).setAutoCommit(true);
+        inOrder.verify(connection).setReadOnly(false);
+        inOrder.verify(connection).close();
+        assertFalse(DataSourceRouting.wroteInCurrentRequest());
+    }
+
+    @Test
+    void afterCompletion_shouldRunOnlyAfterCommit() throws SQLException {
+        // Arrange
+        List<String> steps = new ArrayList<>();
+        doAnswer(invocation -> steps.add("commit")).when(connection).commit();
+
+        // Act
+        UnitOfWork.inTransaction(() -> {
+            daoConnection();
+            UnitOfWork.afterCompletion(() -> steps.add("action"));
+            steps.add("work");
+            return null;
+        });
+
+        // Assert
+        assertEquals(List.of("work", "commit", "action"), steps);
+    }
+
+    @Test
+    void afterCompletion_shouldBeDiscardedOnRollback() throws SQLException {
+        // Arrange
+        List<String> steps = new ArrayList<>();
+
+        // Act
+        assertThrows(SQLException.class, () -> UnitOfWork.inTransaction(() -> {
+            daoConnection();
+            UnitOfWork.afterCompletion(() -> steps.add("action"));
+            throw new SQLException("Duplicate entry");
+        }));
+
+        // Assert
+        assertTrue(steps.isEmpty());
+        verify(connection).rollback();
+    }
+
+    @Test
+    void afterCompletion_shouldRunImmediatelyWithoutUnit() {
+        // Arrange
+        List<String> steps = new ArrayList<>();
+
+        // Act
+        UnitOfWork.afterCompletion(() -> steps.add("action"));
+
+        // Assert
+        assertEquals(List.of("action"), steps);
+    }
+
+    /** O que o DatabaseConnector faz para um DAO dentro de uma unidade. */
+    private Connection daoConnection() throws SQLException {
+        UnitOfWork.Binding unit = UnitOfWork.current();
+        if (!unit.isBound()) {
+            unit.bind(connection);
+        }
+        return unit.connectionForDao();
+    }
+}